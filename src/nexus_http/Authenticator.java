@@ -0,0 +1,274 @@
+package nexus_http;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * An authenticator checks the basic authorization of requests. Since verifying a password 
+ * is slow, the successful verifications are cached for a while. The cache is keyed by a 
+ * keyed hash of the whole authorization header, so a repeated request is authenticated 
+ * without decoding the header or verifying the password again, and the credentials 
+ * themselves are never stored. The amount of cached clients is limited and the cached 
+ * verifications may be revoked at any time.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class Authenticator
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How long a verification stays in the cache by default
+	 */
+	public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+	/**
+	 * How many verifications are cached at once by default
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+	
+	private static final String HASH_ALGORITHM = "HmacSHA256";
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+	
+	private final CredentialVerifier verifier;
+	private final long ttlNanos;
+	private final int maxEntries;
+	private final SecretKeySpec hashKey;
+	private final ThreadLocal<Mac> hashFunction;
+	private final Map<CacheKey, CacheEntry> cache;
+	private final AtomicLong revocations, lastSweep;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new authenticator with the default cache settings
+	 * @param verifier The verifier that checks the credentials that are not cached
+	 */
+	public Authenticator(CredentialVerifier verifier)
+	{
+		this(verifier, DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+	}
+	
+	/**
+	 * Creates a new authenticator
+	 * @param verifier The verifier that checks the credentials that are not cached
+	 * @param ttlMillis How long a successful verification is cached, in milliseconds. 0 if 
+	 * the verifications shouldn't be cached.
+	 * @param maxEntries How many verifications may be cached at once
+	 */
+	public Authenticator(CredentialVerifier verifier, long ttlMillis, int maxEntries)
+	{
+		this.verifier = verifier;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.maxEntries = maxEntries;
+		this.cache = new ConcurrentHashMap<>();
+		this.revocations = new AtomicLong(0);
+		this.lastSweep = new AtomicLong(System.nanoTime());
+		
+		// The key is only known to this instance, so the cache keys can't be precomputed
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		this.hashKey = new SecretKeySpec(key, HASH_ALGORITHM);
+		this.hashFunction = ThreadLocal.withInitial(this::createHashFunction);
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Authenticates a request using its basic authorization
+	 * @param request The request that is authenticated
+	 * @return The name of the authenticated user
+	 * @throws UnauthorizedException If the request didn't contain valid credentials
+	 */
+	public String authenticate(Request request) throws UnauthorizedException
+	{
+		Headers headers = request.getHeaders();
+		String authorization = headers.getHeaderValue(Headers.AUTHORIZATION);
+		if (authorization == null)
+			throw new UnauthorizedException();
+		
+		// Checks the cache first
+		CacheKey key = null;
+		if (this.ttlNanos > 0)
+		{
+			key = new CacheKey(this.hashFunction.get().doFinal(
+					authorization.getBytes(StandardCharsets.UTF_8)));
+			CacheEntry cached = this.cache.get(key);
+			if (cached != null)
+			{
+				if (!cached.isExpired(System.nanoTime()))
+					return cached.userName;
+				this.cache.remove(key, cached);
+			}
+		}
+		
+		// Verifies the credentials the slow way
+		String[] credentials;
+		try
+		{
+			credentials = headers.getBasicAuthorization();
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new UnauthorizedException();
+		}
+		if (credentials == null || credentials.length < 2)
+			throw new UnauthorizedException();
+		
+		// If the verifications were revoked meanwhile, the result is not cached, since it
+		// may be based on outdated credentials
+		long revocationsBefore = this.revocations.get();
+		if (!this.verifier.verify(credentials[0], credentials[1]))
+			throw new UnauthorizedException();
+		
+		if (key != null)
+			cache(key, credentials[0], revocationsBefore);
+		return credentials[0];
+	}
+	
+	/**
+	 * Removes the cached verifications of a user. The user's next request is verified 
+	 * with the credential verifier again.
+	 * @param userName The name of the user whose verifications are revoked
+	 */
+	public void revoke(String userName)
+	{
+		this.revocations.incrementAndGet();
+		this.cache.values().removeIf(entry -> entry.userName.equals(userName));
+	}
+	
+	/**
+	 * Removes all of the cached verifications
+	 */
+	public void revokeAll()
+	{
+		this.revocations.incrementAndGet();
+		this.cache.clear();
+	}
+	
+	/**
+	 * @return How many verifications are currently cached
+	 */
+	public int getCachedCount()
+	{
+		return this.cache.size();
+	}
+	
+	private void cache(CacheKey key, String userName, long revocationsBefore)
+	{
+		// Makes room for the new entry, if necessary. If there's no room, the entry is
+		// simply not cached.
+		if (this.cache.size() >= this.maxEntries)
+		{
+			sweep();
+			if (this.cache.size() >= this.maxEntries)
+				return;
+		}
+		
+		this.cache.put(key, new CacheEntry(userName, System.nanoTime() + this.ttlNanos));
+		if (this.revocations.get() != revocationsBefore)
+			this.cache.remove(key);
+	}
+	
+	private void sweep()
+	{
+		// Only one thread sweeps at a time and only once in a while
+		long now = System.nanoTime();
+		long previous = this.lastSweep.get();
+		if (now - previous < SWEEP_INTERVAL_NANOS)
+			return;
+		if (!this.lastSweep.compareAndSet(previous, now))
+			return;
+		
+		this.cache.values().removeIf(entry -> entry.isExpired(now));
+	}
+	
+	private Mac createHashFunction()
+	{
+		try
+		{
+			Mac mac = Mac.getInstance(HASH_ALGORITHM);
+			mac.init(this.hashKey);
+			return mac;
+		}
+		catch (GeneralSecurityException e)
+		{
+			// Every java platform is required to support HmacSHA256
+			throw new IllegalStateException("Can't initialize " + HASH_ALGORITHM, e);
+		}
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	private static class CacheKey
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final byte[] hash;
+		private final int hashCode;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public CacheKey(byte[] hash)
+		{
+			this.hash = hash;
+			this.hashCode = Arrays.hashCode(hash);
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof CacheKey))
+				return false;
+			return Arrays.equals(this.hash, ((CacheKey) obj).hash);
+		}
+	}
+	
+	private static class CacheEntry
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final String userName;
+		private final long expiresAt;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public CacheEntry(String userName, long expiresAt)
+		{
+			this.userName = userName;
+			this.expiresAt = expiresAt;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public boolean isExpired(long now)
+		{
+			return now - this.expiresAt >= 0;
+		}
+	}
+}
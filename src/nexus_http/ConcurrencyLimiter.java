@@ -0,0 +1,97 @@
+package nexus_http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limiter limits the amount of requests that are handled at the same time 
+ * for each key, for example for each root resource. This keeps a single heavy area of 
+ * the server from taking up all the worker threads. The limiter doesn't block, requests 
+ * over the limit are rejected instead.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ConcurrencyLimiter
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How many seconds the rejected clients are told to wait by default
+	 */
+	public static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+	
+	private final int maxConcurrent, retryAfterSeconds;
+	private final Map<String, AtomicInteger> counters;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new limiter
+	 * @param maxConcurrent How many requests may be handled at the same time for each key
+	 */
+	public ConcurrencyLimiter(int maxConcurrent)
+	{
+		this(maxConcurrent, DEFAULT_RETRY_AFTER_SECONDS);
+	}
+	
+	/**
+	 * Creates a new limiter
+	 * @param maxConcurrent How many requests may be handled at the same time for each key
+	 * @param retryAfterSeconds How many seconds the rejected clients are told to wait
+	 */
+	public ConcurrencyLimiter(int maxConcurrent, int retryAfterSeconds)
+	{
+		this.maxConcurrent = maxConcurrent;
+		this.retryAfterSeconds = retryAfterSeconds;
+		this.counters = new ConcurrentHashMap<>();
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Reserves a slot for a request. Each successful call must be followed by a call to 
+	 * {@link #release(String)} once the request has been handled.
+	 * @param key The key the request is limited by (case-insensitive)
+	 * @throws RetryLaterException If there were already too many requests being handled 
+	 * for the key
+	 */
+	public void acquire(String key) throws RetryLaterException
+	{
+		AtomicInteger counter = this.counters.computeIfAbsent(key.toLowerCase(), 
+				k -> new AtomicInteger());
+		
+		while (true)
+		{
+			int current = counter.get();
+			if (current >= this.maxConcurrent)
+				throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, 
+						"Too many concurrent requests to " + key, this.retryAfterSeconds);
+			if (counter.compareAndSet(current, current + 1))
+				return;
+		}
+	}
+	
+	/**
+	 * Frees a slot reserved with {@link #acquire(String)}
+	 * @param key The key the request was limited by
+	 */
+	public void release(String key)
+	{
+		AtomicInteger counter = this.counters.get(key.toLowerCase());
+		if (counter != null)
+			counter.decrementAndGet();
+	}
+	
+	/**
+	 * @param key A key
+	 * @return How many requests are currently being handled for the key
+	 */
+	public int getActiveCount(String key)
+	{
+		AtomicInteger counter = this.counters.get(key.toLowerCase());
+		return counter == null ? 0 : counter.get();
+	}
+}
@@ -39,6 +39,14 @@ public enum ContentType
 	 * Audio/wav
 	 */
 	WAV("audio", "wav"),
+	/**
+	 * Application/x-www-form-urlencoded
+	 */
+	FORM_URLENCODED("application", "x-www-form-urlencoded"), 
+	/**
+	 * Multipart/form-data
+	 */
+	MULTIPART_FORM_DATA("multipart", "form-data"), 
 	/**
 	 * Text/*
 	 */
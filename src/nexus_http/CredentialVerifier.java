@@ -0,0 +1,19 @@
+package nexus_http;
+
+/**
+ * Credential verifiers check whether a user name and password pair is valid. The 
+ * verification is usually slow on purpose, since it involves a password hash, which is why 
+ * the verifiers are used through an {@link Authenticator}.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public interface CredentialVerifier
+{
+	/**
+	 * Checks whether the credentials are valid
+	 * @param userName The user name provided by the client
+	 * @param password The password provided by the client
+	 * @return Are the credentials valid
+	 */
+	public boolean verify(String userName, String password);
+}
@@ -53,6 +53,14 @@ public class Headers
 	 * The type of content in the response body
 	 */
 	public static final String CONTENT_TYPE = "Content-Type";
+	/**
+	 * The length of the message body in bytes
+	 */
+	public static final String CONTENT_LENGTH = "Content-Length";
+	/**
+	 * Describes a single part of a multipart body, including the name of the form field
+	 */
+	public static final String CONTENT_DISPOSITION = "Content-Disposition";
 	/**
 	 * The content types accepted by the client
 	 */
@@ -69,11 +77,23 @@ public class Headers
 	 * The server's set-cookie header that is used when a new cookie is set
 	 */
 	public static final String SET_COOKIE = "Set-Cookie";
+	/**
+	 * How long the client should wait before repeating a failed request
+	 */
+	public static final String RETRY_AFTER = "Retry-After";
+	/**
+	 * The host (and port) the client sent the request to
+	 */
+	public static final String HOST = "Host";
+	
+	// The headers are stored under lower case names
+	private static final String COOKIE_KEY = COOKIE.toLowerCase();
+	private static final String HOST_KEY = HOST.toLowerCase();
 	
 	private Map<String, List<String>> headers;
 	private Map<String, String> originalCasing;
 	private Map<String, AcceptHeader> acceptHeaders;
-	private Map<String, Cookie> cookies;
+	private boolean readOnly;
 	
 	
 	// CONSTRUCTOR	---------------------
@@ -86,6 +106,7 @@ public class Headers
 		this.headers = new HashMap<>();
 		this.originalCasing = new HashMap<>();
 		this.acceptHeaders = new HashMap<>();
+		this.readOnly = false;
 	}
 	
 	/**
@@ -110,6 +131,8 @@ public class Headers
 		{
 			setAcceptHeader(new AcceptHeader(acceptHeader));
 		}
+		
+		this.readOnly = false;
 	}
 	
 	
@@ -179,6 +202,7 @@ public class Headers
 	 */
 	public void addHeader(String headerName, String headerValue)
 	{
+		checkWritable();
 		List<String> existingValues = this.headers.get(headerName.toLowerCase());
 		
 		if (existingValues == null)
@@ -196,6 +220,7 @@ public class Headers
 	 */
 	public void setHeader(String headerName, String headerValue)
 	{
+		checkWritable();
 		List<String> values = new ArrayList<>();
 		values.add(headerValue);
 		
@@ -229,6 +254,18 @@ public class Headers
 		return getHeaderValue(parameterEncodingHeaderName);
 	}
 	
+	/**
+	 * @return The host (and port) the request was sent to or null if not specified
+	 */
+	public String getHost()
+	{
+		List<String> values = this.headers.get(HOST_KEY);
+		if (values == null)
+			return null;
+		else
+			return values.get(0);
+	}
+	
 	/**
 	 * @return The link write style specified in the headers
 	 */
@@ -305,6 +342,24 @@ public class Headers
 		setHeader(AUTHENTICATE, "Basic realm='myRealm'");
 	}
 	
+	/**
+	 * Sets the content length header
+	 * @param length The length of the message body in bytes
+	 */
+	public void setContentLength(long length)
+	{
+		setHeader(CONTENT_LENGTH, Long.toString(length));
+	}
+	
+	/**
+	 * Tells the client how long it should wait before repeating the request
+	 * @param seconds The amount of seconds the client should wait
+	 */
+	public void setRetryAfter(long seconds)
+	{
+		setHeader(RETRY_AFTER, Long.toString(seconds));
+	}
+	
 	/**
 	 * Adds an allow parameter with the provided list of methods
 	 * @param allowed The allowed methods
@@ -365,32 +420,155 @@ public class Headers
 	}
 	
 	/**
-	 * Finds all the cookies. The cookies -header will be parsed if it hasn't been already.
+	 * @return The length of the message body in bytes. -1 if the length is not specified
+	 */
+	public long getContentLength()
+	{
+		String headerValue = getHeaderValue(CONTENT_LENGTH);
+		if (headerValue == null)
+			return -1;
+		
+		try
+		{
+			return Long.parseLong(headerValue.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+	
+	/**
+	 * Finds the value of a single parameter of a header, like the 'boundary' in 
+	 * 'multipart/form-data; boundary=abc'. Quoted parameter values are unquoted.
+	 * @param headerValue The full header value
+	 * @param parameterName The name of the parameter (case-insensitive)
+	 * @return The value of the parameter or null if the header doesn't contain such a 
+	 * parameter
+	 */
+	public static String getHeaderParameter(String headerValue, String parameterName)
+	{
+		if (headerValue == null)
+			return null;
+		
+		// Parameters are separated with ';', which may also appear inside quoted values
+		int index = indexOfUnquoted(headerValue, ';', 0);
+		while (index >= 0)
+		{
+			int nextIndex = indexOfUnquoted(headerValue, ';', index + 1);
+			String part = headerValue.substring(index + 1, nextIndex < 0 ? 
+					headerValue.length() : nextIndex).trim();
+			int indexOfEquals = part.indexOf('=');
+			if (indexOfEquals > 0 && part.substring(0, indexOfEquals).trim().equalsIgnoreCase(
+					parameterName))
+			{
+				String value = part.substring(indexOfEquals + 1).trim();
+				if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+					value = value.substring(1, value.length() - 1);
+				return value;
+			}
+			
+			index = nextIndex;
+		}
+		
+		return null;
+	}
+	
+	private static int indexOfUnquoted(String s, char c, int startIndex)
+	{
+		boolean quoted = false;
+		for (int i = startIndex; i < s.length(); i++)
+		{
+			char next = s.charAt(i);
+			if (next == '"')
+				quoted = !quoted;
+			else if (next == c && !quoted)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Parses all the cookies. The cookie headers are parsed each time this method is called, 
+	 * so {@link #getCookie(String)} should be used when only certain cookies are needed.
 	 * @return All the cookies in the headers. Null if there was no cookie header.
 	 */
 	public Collection<Cookie> getCookies()
 	{
-		parseCookiesIfNecessary();
-		if (this.cookies != null)
-			return this.cookies.values();
-		else
+		List<String> headerValues = this.headers.get(COOKIE_KEY);
+		if (headerValues == null)
 			return null;
+		
+		List<Cookie> cookies = new ArrayList<>();
+		for (String headerValue : headerValues)
+		{
+			int start = 0;
+			while (start < headerValue.length())
+			{
+				int end = indexOfCookieEnd(headerValue, start);
+				Cookie cookie = parseCookie(headerValue, start, end);
+				if (cookie != null)
+					cookies.add(cookie);
+				start = end + 1;
+			}
+		}
+		
+		return cookies;
 	}
 	
 	/**
-	 * Finds a cookie with a specific name. The cookies -header will be parsed if 
-	 * it hasn't been already.
+	 * Finds a cookie with a specific name. The cookie headers are scanned without parsing 
+	 * the other cookies, so this is cheap even when there are many cookies.
 	 * @param cookieName The name of the cookie.
 	 * @return The cookie with the given name (case-insensitive). Null if there was no 
-	 * cookie with the given name.
+	 * cookie with the given name. If there are multiple cookies with the name, the first 
+	 * one is returned, since the clients send the most specific cookies first.
 	 */
 	public Cookie getCookie(String cookieName)
 	{
-		parseCookiesIfNecessary();
-		if (this.cookies != null)
-			return this.cookies.get(cookieName.toLowerCase());
-		else
+		List<String> headerValues = this.headers.get(COOKIE_KEY);
+		if (headerValues == null)
 			return null;
+		
+		for (String headerValue : headerValues)
+		{
+			int start = indexOfCookie(headerValue, cookieName);
+			if (start >= 0)
+				return parseCookie(headerValue, start, indexOfCookieEnd(headerValue, start));
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Finds the value of a cookie with a specific name. Only the value is copied from the 
+	 * cookie headers.
+	 * @param cookieName The name of the cookie
+	 * @return The value of the cookie with the given name (case-insensitive). Null if there 
+	 * was no such cookie or if the cookie didn't have a value.
+	 * @see #getCookie(String)
+	 */
+	public String getCookieValue(String cookieName)
+	{
+		List<String> headerValues = this.headers.get(COOKIE_KEY);
+		if (headerValues == null)
+			return null;
+		
+		for (String headerValue : headerValues)
+		{
+			int start = indexOfCookie(headerValue, cookieName);
+			if (start >= 0)
+			{
+				int end = indexOfCookieEnd(headerValue, start);
+				int separator = headerValue.indexOf('=', start);
+				if (separator < 0 || separator > end)
+					return null;
+				return trimmedSubstring(headerValue, separator + 1, end);
+			}
+		}
+		
+		return null;
 	}
 	
 	/**
@@ -404,11 +582,7 @@ public class Headers
 	{
 		String value = getHeaderValue(headerOrCookieName);
 		if (value == null)
-		{
-			Cookie cookie = getCookie(headerOrCookieName);
-			if (cookie != null)
-				value = cookie.getValue();
-		}
+			value = getCookieValue(headerOrCookieName);
 		
 		return value;
 	}
@@ -433,9 +607,9 @@ public class Headers
 		StringBuilder s = new StringBuilder(cookie.toString());
 		
 		if (expires != null)
-			s.append("; " + expires.format(DateTimeFormatter.RFC_1123_DATE_TIME));
+			s.append("; Expires=" + expires.format(DateTimeFormatter.RFC_1123_DATE_TIME));
 		if (path != null)
-			s.append("; /" + path.toString());
+			s.append("; Path=/" + path.toString());
 		if (httpOnly)
 			s.append("; HttpOnly");
 		if (secure)
@@ -460,7 +634,9 @@ public class Headers
 			if (headerValue != null)
 			{
 				header = new AcceptHeader(headerName, headerValue);
-				this.acceptHeaders.put(lowerName, header);
+				// Read-only headers may be shared, so they're not modified afterwards
+				if (!this.readOnly)
+					this.acceptHeaders.put(lowerName, header);
 			}
 		}
 		
@@ -494,6 +670,7 @@ public class Headers
 		if (header == null)
 			return;
 		
+		checkWritable();
 		String headerName = header.getName();
 		String lowerName = headerName.toLowerCase();
 		
@@ -501,24 +678,101 @@ public class Headers
 		setHeader(headerName, header.parseHeaderValue());
 	}
 	
-	private void parseCookiesIfNecessary()
+	/**
+	 * @return Are these headers read-only. Read-only headers can be shared between threads.
+	 */
+	public boolean isReadOnly()
+	{
+		return this.readOnly;
+	}
+	
+	/**
+	 * Creates a read-only copy of these headers. Any attempt to modify the copy will throw 
+	 * an {@link UnsupportedOperationException}. A modifiable copy can be created with 
+	 * {@link #Headers(Headers)}.
+	 * @return A read-only copy of these headers
+	 */
+	public Headers toReadOnly()
+	{
+		if (this.readOnly)
+			return this;
+		
+		Headers copy = new Headers(this);
+		copy.readOnly = true;
+		return copy;
+	}
+	
+	private void checkWritable()
 	{
-		if (this.cookies == null)
+		if (this.readOnly)
+			throw new UnsupportedOperationException("The headers are read-only");
+	}
+	
+	// Finds the index where a cookie with the provided name starts. -1 if there is no
+	// such cookie. The cookies are separated with ';' (RFC 6265).
+	private static int indexOfCookie(String header, String cookieName)
+	{
+		int nameLength = cookieName.length();
+		int start = 0;
+		while (start < header.length())
 		{
-			List<String> headerValues = getHeaderValues(COOKIE);
-			if (headerValues == null)
-				return;
+			start = skipWhiteSpace(header, start, header.length());
+			int end = indexOfCookieEnd(header, start);
 			
-			this.cookies = new HashMap<>();
-			for (String headerValue : headerValues)
+			// The name must be followed by '=' or the end of the cookie
+			if (header.regionMatches(true, start, cookieName, 0, nameLength))
 			{
-				for (String cookieString : headerValue.split("\\,"))
-				{
-					Cookie cookie = new Cookie(cookieString);
-					this.cookies.put(cookie.getName().toLowerCase(), cookie);
-				}
+				int afterName = skipWhiteSpace(header, start + nameLength, end);
+				if (afterName == end || header.charAt(afterName) == '=')
+					return start;
 			}
+			
+			start = end + 1;
 		}
+		
+		return -1;
+	}
+	
+	private static int indexOfCookieEnd(String header, int start)
+	{
+		int end = header.indexOf(';', start);
+		return end < 0 ? header.length() : end;
+	}
+	
+	private static Cookie parseCookie(String header, int start, int end)
+	{
+		int separator = header.indexOf('=', start);
+		if (separator < 0 || separator > end)
+			separator = end;
+		
+		String name = trimmedSubstring(header, start, separator);
+		if (name.isEmpty())
+			return null;
+		String value = separator < end ? trimmedSubstring(header, separator + 1, end) : null;
+		
+		return new Cookie(name, value);
+	}
+	
+	private static String trimmedSubstring(String s, int start, int end)
+	{
+		int trimmedStart = skipWhiteSpace(s, start, end);
+		int trimmedEnd = end;
+		while (trimmedEnd > trimmedStart && Character.isWhitespace(s.charAt(trimmedEnd - 1)))
+		{
+			trimmedEnd --;
+		}
+		
+		return s.substring(trimmedStart, trimmedEnd);
+	}
+	
+	private static int skipWhiteSpace(String s, int start, int end)
+	{
+		int i = start;
+		while (i < end && Character.isWhitespace(s.charAt(i)))
+		{
+			i ++;
+		}
+		return i;
 	}
 	
 	
@@ -550,19 +804,6 @@ public class Headers
 			this.value = value;
 		}
 		
-		private Cookie(String cookieString)
-		{
-			String[] parts = cookieString.split("\\=", 1);
-			if (parts.length > 0)
-				this.name = parts[0].trim();
-			else
-				this.name = null;
-			if (parts.length > 1)
-				this.value = parts[1].trim();
-			else
-				this.value = null;
-		}
-		
 		
 		// IMPLEMENTED METHODS	----------
 		
@@ -65,6 +65,21 @@ public class HttpException extends Exception
 		this.status = status;
 	}
 	
+	/**
+	 * Creates a new http exception. Exceptions that are thrown often as a part of normal 
+	 * operation, like when a resource is not found, shouldn't record their stack trace, 
+	 * since filling it is the most expensive part of creating an exception.
+	 * @param status The status associated with the exception
+	 * @param message The message sent along with the exception
+	 * @param writableStackTrace Should the stack trace of the exception be recorded
+	 */
+	protected HttpException(HttpStatus status, String message, boolean writableStackTrace)
+	{
+		super(message, null, false, writableStackTrace);
+		
+		this.status = status;
+	}
+	
 	
 	// ACCESSORS	----------------
 	
@@ -88,4 +103,15 @@ public class HttpException extends Exception
 	{
 		// The default implementation does nothing
 	}
+	
+	/**
+	 * Creates a response based on this exception. The default implementation creates a new 
+	 * response with {@link Response#Response(HttpException)}, but the subclasses may return 
+	 * a shared, immutable response instead.
+	 * @return A response to send to the client
+	 */
+	public Response toResponse()
+	{
+		return new Response(this);
+	}
 }
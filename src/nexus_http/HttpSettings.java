@@ -1,63 +1,82 @@
-package nexus_http;
-
-/**
- * This is a static collection of attributes that may be used in the project(s)
- * @author Mikko Hilpinen
- * @since 10.10.2015
- */
-public class HttpSettings
-{
-	// ATTRIBUTES	-------------------
-	
-	private static String ip = "";
-	private static int port = 8080;
-	
-	
-	// CONSTRUCTOR	-------------------
-	
-	private HttpSettings()
-	{
-		// Static interface
-	}
-	
-	
-	// ACCESSORS	-------------------
-	
-	/**
-	 * Updates the server ip and port values
-	 * @param ip The server ip
-	 * @param port The server port
-	 */
-	public static void setServerStatus(String ip, int port)
-	{
-		HttpSettings.ip = ip;
-		HttpSettings.port = port;
-	}
-	
-	/**
-	 * @return the ip of the server
-	 */
-	public static String getIp()
-	{
-		return ip;
-	}
-
-	/**
-	 * @return the port of the server
-	 */
-	public static int getPort()
-	{
-		return port;
-	}
-	
-	
-	// OTHER METHODS	--------------
-	
-	/**
-	 * @return A string with both server ip and port
-	 */
-	public static String getServerString()
-	{
-		return getIp() + ":" + getPort();
-	}
-}
+package nexus_http;
+
+/**
+ * This is a static collection of attributes that may be used in the project(s). The server 
+ * status is used as the default configuration for the handlers that don't have a 
+ * configuration of their own.
+ * @author Mikko Hilpinen
+ * @since 10.10.2015
+ */
+public class HttpSettings
+{
+	// ATTRIBUTES	-------------------
+	
+	private static volatile ServerConfig config = new ServerConfig("", 8080);
+	
+	
+	// CONSTRUCTOR	-------------------
+	
+	private HttpSettings()
+	{
+		// Static interface
+	}
+	
+	
+	// ACCESSORS	-------------------
+	
+	/**
+	 * Updates the server ip and port values
+	 * @param ip The server ip
+	 * @param port The server port
+	 */
+	public static void setServerStatus(String ip, int port)
+	{
+		setServerConfig(new ServerConfig(ip, port));
+	}
+	
+	/**
+	 * Changes the default server configuration
+	 * @param config The configuration used by default
+	 */
+	public static void setServerConfig(ServerConfig config)
+	{
+		HttpSettings.config = config;
+	}
+	
+	/**
+	 * @return The default server configuration. The same instance is returned until the 
+	 * server status changes.
+	 */
+	public static ServerConfig getServerConfig()
+	{
+		return config;
+	}
+	
+	/**
+	 * @return the ip of the server
+	 */
+	public static String getIp()
+	{
+		return config.getIp();
+	}
+
+	/**
+	 * @return the port of the server
+	 */
+	public static int getPort()
+	{
+		return config.getPort();
+	}
+	
+	
+	// OTHER METHODS	--------------
+	
+	/**
+	 * @return The base url of the server, by default the server ip and port. The same 
+	 * instance is returned until the server status changes.
+	 */
+	public static String getServerString()
+	{
+		return config.getBaseUrl();
+	}
+}
@@ -148,6 +148,23 @@ public enum HttpStatus
 	 * time -- that is left to the discretion of the server owner.
 	 */
 	GONE(410),
+	/**
+	 * "The server is refusing to process a request because the request entity is larger 
+	 * than the server is willing or able to process. The server MAY close the connection to 
+	 * prevent the client from continuing the request."
+	 */
+	REQUEST_ENTITY_TOO_LARGE(413), 
+	/**
+	 * "The server is refusing to service the request because the Request-URI is longer 
+	 * than the server is willing to interpret."
+	 */
+	REQUEST_URI_TOO_LONG(414),
+	/**
+	 * "The user has sent too many requests in a given amount of time ("rate limiting"). The 
+	 * response representations SHOULD include details explaining the condition, and MAY 
+	 * include a Retry-After header indicating how long to wait before making a new request."
+	 */
+	TOO_MANY_REQUESTS(429),
 	/**
 	 * The server failed to complete the request due to an error
 	 */
@@ -11,6 +11,7 @@ public class Link
 	
 	private Path target;
 	private String name;
+	private Parameters parameters;
 	
 	
 	// CONSTRUCTOR	--------------------
@@ -24,6 +25,22 @@ public class Link
 	{
 		this.name = name;
 		this.target = target;
+		this.parameters = null;
+	}
+	
+	/**
+	 * Creates a new link that contains parameters. This is useful for links to, for example, 
+	 * the next page of a collection.
+	 * @param name The name of the link. Should describe the targeted content.
+	 * @param target The target path of the link
+	 * @param parameters The parameters that are added to the link target. Null if the link 
+	 * doesn't have any parameters.
+	 */
+	public Link(String name, Path target, Parameters parameters)
+	{
+		this.name = name;
+		this.target = target;
+		this.parameters = parameters;
 	}
 	
 	
@@ -32,6 +49,8 @@ public class Link
 	@Override
 	public String toString()
 	{
+		if (hasParameters())
+			return getName() + " = " + getTargetPath() + "?" + getParameters();
 		return getName() + " = " + getTargetPath();
 	}
 
@@ -53,4 +72,24 @@ public class Link
 	{
 		return this.name;
 	}
+	
+	/**
+	 * @return The parameters added to the link target. Null if the link doesn't have any 
+	 * parameters.
+	 */
+	public Parameters getParameters()
+	{
+		return this.parameters;
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	/**
+	 * @return Does the link contain parameters
+	 */
+	public boolean hasParameters()
+	{
+		return this.parameters != null && !this.parameters.getParameterNames().isEmpty();
+	}
 }
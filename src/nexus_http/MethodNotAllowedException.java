@@ -16,12 +16,13 @@ public class MethodNotAllowedException extends HttpException
 	// CONSTRUCTOR	------------------
 	
 	/**
-	 * Creates a new exception.
+	 * Creates a new exception. Since these exceptions are a result of the client's 
+	 * actions, they don't record a stack trace.
 	 * @param allowedMethods The methods that are allowed for the targeted resource
 	 */
 	public MethodNotAllowedException(Method... allowedMethods)
 	{
-		super(HttpStatus.METHOD_NOT_ALLOWED);
+		super(HttpStatus.METHOD_NOT_ALLOWED, null, false);
 		
 		this.allowed = allowedMethods;
 	}
@@ -33,7 +34,7 @@ public class MethodNotAllowedException extends HttpException
 	 */
 	public MethodNotAllowedException(String message, Method... allowedMethods)
 	{
-		super(HttpStatus.METHOD_NOT_ALLOWED, message);
+		super(HttpStatus.METHOD_NOT_ALLOWED, message, false);
 		
 		this.allowed = allowedMethods;
 	}
@@ -0,0 +1,39 @@
+package nexus_http;
+
+/**
+ * These exceptions are thrown when the requested resource doesn't exist. Since clients 
+ * request missing resources all the time, these exceptions don't record a stack trace and 
+ * their responses are shared.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class NotFoundException extends HttpException
+{
+	// ATTRIBUTES	------------------
+	
+	private static final long serialVersionUID = -4418279514503771392L;
+	
+	
+	// CONSTRUCTOR	------------------
+	
+	/**
+	 * Creates a new exception
+	 * @param message The message describing the missing resource
+	 */
+	public NotFoundException(String message)
+	{
+		super(HttpStatus.NOT_FOUND, message, false);
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------
+	
+	/**
+	 * The response is a shared, immutable not found response
+	 */
+	@Override
+	public Response toResponse()
+	{
+		return Response.forStatus(HttpStatus.NOT_FOUND);
+	}
+}
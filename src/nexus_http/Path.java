@@ -5,9 +5,14 @@ import java.util.List;
 import java.util.Stack;
 
 import flow_structure.TreeNode;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
 
 /**
- * Path is constructed from client uri. The path may lead to one or more nodes
+ * Path is constructed from client uri. The path may lead to one or more nodes. The rendered 
+ * forms of a path are cached in the node, since the same paths are written over and over 
+ * again. The cache remembers the parent and the parent's rendering it was rendered with, 
+ * so checking the cache takes constant time regardless of the depth of the path. Moving a 
+ * node under another parent clears its rendering, which outdates the whole moved branch.
  * @author Mikko Hilpinen
  * @since 6.10.2015
  */
@@ -25,8 +30,14 @@ public class Path extends TreeNode<String>
 	 * Used for adding new children / branches
 	 */
 	public static final char INCLUSION = '+';
+	/**
+	 * The wildcard path part (*). Targets all the resources connected to the previous 
+	 * resource.
+	 */
+	public static final String WILDCARD = "*";
 	
 	private boolean included;
+	private volatile Rendering rendering = null;
 	
 	
 	// CONSTRUCTOR	-------------------
@@ -62,7 +73,19 @@ public class Path extends TreeNode<String>
 	@Override
 	public String toString()
 	{
-		return getLeadingPath() + getContent();
+		return getRendering().path;
+	}
+	
+	/**
+	 * Adds a child under this path. If the child is moved here from another parent, the 
+	 * cached renderings of the child and the paths under it are cleared.
+	 */
+	@Override
+	public void addChild(TreeNode<String> child)
+	{
+		super.addChild(child);
+		if (child instanceof Path)
+			((Path) child).invalidate();
 	}
 	
 	@Override
@@ -86,6 +109,14 @@ public class Path extends TreeNode<String>
 		return this.included || getChildAmount() == 0;
 	}
 	
+	/**
+	 * @return Is this path part a wildcard that targets all the connected resources
+	 */
+	public boolean isWildcard()
+	{
+		return WILDCARD.equals(getContent());
+	}
+	
 	/**
 	 * Marks this node as included, even if it weren't a branch end node
 	 */
@@ -118,30 +149,130 @@ public class Path extends TreeNode<String>
 	 */
 	public String getLeadingPath()
 	{
-		List<Path> parents = new ArrayList<>();
-		Path nextNode = getParent();
-		while (nextNode != null)
+		return getRendering().leadingPath;
+	}
+	
+	/**
+	 * @return This path, followed by all the paths under it, in the same format the paths 
+	 * are parsed from. The parts leading to this part are written like in 
+	 * {@link #toString()}.
+	 */
+	public String toBranchingString()
+	{
+		StringBuilder s = new StringBuilder(getLeadingPath());
+		appendBranches(s, this);
+		return s.toString();
+	}
+	
+	/**
+	 * @return An url to the path, including the default server address
+	 * @see HttpSettings#getServerConfig()
+	 */
+	public String getAbsoluteUrl()
+	{
+		return getAbsoluteUrl(HttpSettings.getServerConfig());
+	}
+	
+	/**
+	 * @param config The configuration of the server the path is on
+	 * @return An url to the path, including the server address
+	 */
+	public String getAbsoluteUrl(ServerConfig config)
+	{
+		return getUrlRendering(config).url;
+	}
+	
+	/**
+	 * Renders the path in a link style, using the default server address
+	 * @param style The style the path is written in
+	 * @return The path in the style. Null if links shouldn't be written.
+	 */
+	public String render(LinkWriteStyle style)
+	{
+		return render(style, HttpSettings.getServerConfig());
+	}
+	
+	/**
+	 * Renders the path in a link style
+	 * @param style The style the path is written in
+	 * @param config The configuration of the server the path is on
+	 * @return The path in the style. Null if links shouldn't be written.
+	 */
+	public String render(LinkWriteStyle style, ServerConfig config)
+	{
+		switch (style)
 		{
-			parents.add(nextNode);
-			nextNode = nextNode.getParent();
+			case FULL: return getAbsoluteUrl(config);
+			case SIMPLE: return toString();
+			default: return null;
 		}
+	}
+	
+	/**
+	 * Clears the cached renderings of this path and all the paths under it. Only this node 
+	 * needs to be cleared, since the renderings below were made from this node's rendering 
+	 * and are rendered again once it changes. This is done automatically when the path is 
+	 * moved with {@link #addChild(TreeNode)}.
+	 */
+	public void invalidate()
+	{
+		this.rendering = null;
+	}
+	
+	private Rendering getRendering()
+	{
+		Rendering rendering = this.rendering;
+		if (hasValidRendering(rendering))
+			return rendering;
 		
-		StringBuilder s = new StringBuilder();
-		for (int i = parents.size() - 1; i >= 0; i --)
+		// Renders the outdated nodes from the top down, without recursion, so that deep
+		// paths can be rendered as well
+		Stack<Path> outdated = new Stack<>();
+		Path node = this;
+		while (node != null && !node.hasValidRendering(node.rendering))
 		{
-			s.append(parents.get(i).getContent());
-			s.append(DS);
+			outdated.push(node);
+			node = node.getParent();
 		}
-		
-		return s.toString();
+		while (!outdated.isEmpty())
+		{
+			rendering = outdated.pop().render();
+		}
+		return rendering;
 	}
 	
-	/**
-	 * @return An url to the path, including the server address
-	 */
-	public String getAbsoluteUrl()
+	private boolean hasValidRendering(Rendering rendering)
 	{
-		return HttpSettings.getServerString() + DS + toString();
+		// The rendering is valid as long as the parent and the parent's cached rendering
+		// are the same. A new rendering of the parent invalidates the renderings below it,
+		// like a version number would, so the upper nodes don't need to be checked here.
+		Path parent = getParent();
+		return rendering != null && rendering.parent == parent && 
+				(parent == null || rendering.parentRendering == parent.rendering);
+	}
+	
+	private Rendering render()
+	{
+		Path parent = getParent();
+		Rendering parentRendering = parent == null ? null : parent.rendering;
+		String leadingPath = parentRendering == null ? "" : parentRendering.path + DS;
+		Rendering rendering = new Rendering(parent, parentRendering, leadingPath, 
+				leadingPath + getContent());
+		this.rendering = rendering;
+		return rendering;
+	}
+	
+	private UrlRendering getUrlRendering(ServerConfig config)
+	{
+		// The url is also rendered again when the server configuration changes
+		Rendering rendering = getRendering();
+		UrlRendering url = rendering.url;
+		if (url == null || url.config != config)
+		{
+			url = new UrlRendering(config, config.getBaseUrl() + DS + rendering.path);
+			rendering.url = url;
+		}
+		return url;
 	}
 	
 	/**
@@ -242,20 +373,60 @@ public class Path extends TreeNode<String>
 	 */
 	public static List<Path> parseFromString(String uri)
 	{
-		return parseFromString(uri, null);
+		return parseFromString(uri, null, new ParseState(PathLimits.UNLIMITED));
+	}
+	
+	/**
+	 * Parses a path from the provided uri. The path supports inclusion (+), which allows 
+	 * branching paths. The parsing is stopped as soon as the path goes over the provided 
+	 * limits.
+	 * @param uri The uri (not including any parameters, the host, etc.)
+	 * @param limits The limits that define how complex the path may be
+	 * @return The path(s) parsed from the uri
+	 * @throws HttpException If the uri was too long or too complex
+	 */
+	public static List<Path> parseFromString(String uri, PathLimits limits) throws HttpException
+	{
+		if (uri.length() > limits.getMaxLength())
+			throw new HttpException(HttpStatus.REQUEST_URI_TOO_LONG, 
+					"The request path may contain at most " + limits.getMaxLength() + 
+					" characters");
+		
+		ParseState state = new ParseState(limits);
+		List<Path> paths = parseFromString(uri, null, state);
+		if (state.isExceeded())
+			throw new HttpException(HttpStatus.BAD_REQUEST, "The request path is too complex");
+		
+		// Checks the amount of targeted path parts as well
+		int targets = 0;
+		for (Path path : paths)
+		{
+			targets += path.getIncludedParts().size();
+			if (targets > limits.getMaxTargets())
+				throw new HttpException(HttpStatus.BAD_REQUEST, 
+						"The request may target at most " + limits.getMaxTargets() + 
+						" resources");
+		}
+		
+		return paths;
 	}
 	
-	private static List<Path> parseFromString(String uri, Path lastNode)
+	private static List<Path> parseFromString(String uri, Path lastNode, ParseState state)
 	{	
 		List<Path> created = new ArrayList<>();
 		
+		// Stops parsing once the path is known to be too complex
+		if (!state.step())
+			return created;
+		
 		// Finds the next breaker (resource separator or similar)
 		int nextBreakerIndex = indexOf(uri, DS, INCLUSION, '(', ')');
 		
 		// If there are no breakers left, this is the final element
 		if (nextBreakerIndex < 0)
 		{
-			created.add(new Path(uri, null, false));
+			if (state.addNode())
+				created.add(new Path(uri, null, false));
 			return created;
 		}
 		
@@ -267,6 +438,8 @@ public class Path extends TreeNode<String>
 		Path latestNode = lastNode;
 		if (!content.isEmpty())
 		{
+			if (!state.addNode())
+				return created;
 			newPart = new Path(content, null, false);
 			latestNode = newPart;
 			created.add(newPart);
@@ -279,7 +452,7 @@ public class Path extends TreeNode<String>
 			// On opening parenthesis, appends the next operation(s) and children for the all 
 			// included elements of the closed path (content should be empty on this one)
 			case '(':
-				int closedPathEndsAt = uri.indexOf(')');
+				int closedPathEndsAt = indexOfClosingParenthesis(uri, nextBreakerIndex);
 				String remainingUri, closedPathString;
 				
 				if (closedPathEndsAt == -1)
@@ -293,7 +466,7 @@ public class Path extends TreeNode<String>
 					remainingUri = uri.substring(closedPathEndsAt + 1);
 				}
 				
-				List<Path> closedPath = parseFromString(closedPathString, latestNode);
+				List<Path> closedPath = parseFromString(closedPathString, latestNode, state);
 				
 				List<Path> createdFromRemaining = new ArrayList<>();
 				if (!remainingUri.isEmpty())
@@ -303,7 +476,8 @@ public class Path extends TreeNode<String>
 						List<Path> included = path.getIncludedParts();
 						for (Path includedPart : included)
 						{
-							createdFromRemaining.addAll(parseFromString(remainingUri, includedPart));
+							createdFromRemaining.addAll(parseFromString(remainingUri, includedPart, 
+									state));
 						}
 					}
 				}
@@ -316,12 +490,12 @@ public class Path extends TreeNode<String>
 				String remaining = uri.substring(nextBreakerIndex + 1);
 				if (!remaining.isEmpty() && remaining.charAt(0) == DS)
 					latestNode.markAsIncluded();
-				created.addAll(parseFromString(remaining, latestNode));
+				created.addAll(parseFromString(remaining, latestNode, state));
 				return created;
 			// On directory separator, adds the following path(s) under the latest node
 			case DS:
 				List<Path> remainingPaths = parseFromString(uri.substring(nextBreakerIndex + 1), 
-						latestNode);
+						latestNode, state);
 				for (Path path : remainingPaths)
 				{
 					latestNode.addChild(path);
@@ -333,6 +507,57 @@ public class Path extends TreeNode<String>
 		}
 	}
 	
+	private static void appendBranches(StringBuilder s, Path part)
+	{
+		s.append(part.getContent());
+		List<Path> children = part.getChildPaths();
+		if (children.isEmpty())
+			return;
+		if (part.included)
+			s.append(INCLUSION);
+		s.append(DS);
+		
+		// Only the last of the included parts may continue with a path of its own, so
+		// the branch ends are written first and the other branches are parenthesized
+		children.sort((first, second) -> Boolean.compare(first.getChildAmount() > 0, 
+				second.getChildAmount() > 0));
+		for (int i = 0; i < children.size(); i++)
+		{
+			if (i > 0)
+				s.append(INCLUSION);
+			
+			Path child = children.get(i);
+			if (child.getChildAmount() > 0 && i < children.size() - 1)
+			{
+				s.append('(');
+				appendBranches(s, child);
+				s.append(')');
+			}
+			else
+				appendBranches(s, child);
+		}
+	}
+	
+	private static int indexOfClosingParenthesis(String from, int openingIndex)
+	{
+		// Nested parenthesis are skipped
+		int depth = 0;
+		for (int i = openingIndex; i < from.length(); i++)
+		{
+			char c = from.charAt(i);
+			if (c == '(')
+				depth ++;
+			else if (c == ')')
+			{
+				depth --;
+				if (depth == 0)
+					return i;
+			}
+		}
+		
+		return -1;
+	}
+	
 	private static int indexOf(String from, char... regex)
 	{
 		int smallest = -1;
@@ -347,4 +572,90 @@ public class Path extends TreeNode<String>
 		
 		return smallest;
 	}
+	
+	
+	// SUBCLASSES	-------------------
+	
+	private static class ParseState
+	{
+		// ATTRIBUTES	---------------
+		
+		private PathLimits limits;
+		private int steps, nodes;
+		private boolean exceeded;
+		
+		
+		// CONSTRUCTOR	---------------
+		
+		public ParseState(PathLimits limits)
+		{
+			this.limits = limits;
+			this.steps = 0;
+			this.nodes = 0;
+			this.exceeded = false;
+		}
+		
+		
+		// OTHER METHODS	-----------
+		
+		public boolean isExceeded()
+		{
+			return this.exceeded;
+		}
+		
+		public boolean step()
+		{
+			this.steps ++;
+			if (this.steps > this.limits.getMaxSteps())
+				this.exceeded = true;
+			return !this.exceeded;
+		}
+		
+		public boolean addNode()
+		{
+			this.nodes ++;
+			if (this.nodes > this.limits.getMaxNodes())
+				this.exceeded = true;
+			return !this.exceeded;
+		}
+	}
+	
+	private static class Rendering
+	{
+		// ATTRIBUTES	---------------
+		
+		private final Path parent;
+		private final Rendering parentRendering;
+		private final String leadingPath, path;
+		private volatile UrlRendering url = null;
+		
+		
+		// CONSTRUCTOR	---------------
+		
+		public Rendering(Path parent, Rendering parentRendering, String leadingPath, 
+				String path)
+		{
+			this.parent = parent;
+			this.parentRendering = parentRendering;
+			this.leadingPath = leadingPath;
+			this.path = path;
+		}
+	}
+	
+	private static class UrlRendering
+	{
+		// ATTRIBUTES	---------------
+		
+		private final ServerConfig config;
+		private final String url;
+		
+		
+		// CONSTRUCTOR	---------------
+		
+		public UrlRendering(ServerConfig config, String url)
+		{
+			this.config = config;
+			this.url = url;
+		}
+	}
 }
@@ -0,0 +1,81 @@
+package nexus_http;
+
+/**
+ * Path limits define how complex a request path may be. Since inclusion and parenthesis 
+ * allow a short uri to expand into a large amount of path branches, the limits are checked 
+ * while the path is being parsed, so that a pathological uri can be rejected before it 
+ * consumes much time or memory.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class PathLimits
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The default limits, which allow any reasonable request path
+	 */
+	public static final PathLimits DEFAULT = new PathLimits(2048, 4096, 1024, 256);
+	/**
+	 * Limits that allow any path to be parsed
+	 */
+	public static final PathLimits UNLIMITED = new PathLimits(Integer.MAX_VALUE, 
+			Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	
+	private final int maxLength, maxSteps, maxNodes, maxTargets;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new set of limits
+	 * @param maxLength The maximum length of the path string
+	 * @param maxSteps The maximum amount of steps the parsing may take. Each path part 
+	 * and each (re)parsed branch takes a step.
+	 * @param maxNodes The maximum amount of path nodes the path may expand to
+	 * @param maxTargets The maximum amount of path parts that may be targeted (included) by 
+	 * a single request
+	 */
+	public PathLimits(int maxLength, int maxSteps, int maxNodes, int maxTargets)
+	{
+		this.maxLength = maxLength;
+		this.maxSteps = maxSteps;
+		this.maxNodes = maxNodes;
+		this.maxTargets = maxTargets;
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The maximum length of the path string
+	 */
+	public int getMaxLength()
+	{
+		return this.maxLength;
+	}
+	
+	/**
+	 * @return The maximum amount of steps the parsing may take
+	 */
+	public int getMaxSteps()
+	{
+		return this.maxSteps;
+	}
+	
+	/**
+	 * @return The maximum amount of path nodes the path may expand to
+	 */
+	public int getMaxNodes()
+	{
+		return this.maxNodes;
+	}
+	
+	/**
+	 * @return The maximum amount of path parts that may be targeted by a single request
+	 */
+	public int getMaxTargets()
+	{
+		return this.maxTargets;
+	}
+}
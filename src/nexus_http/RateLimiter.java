@@ -0,0 +1,177 @@
+package nexus_http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A rate limiter gives each client a token bucket of their own, so that a single client 
+ * can't use up the server's capacity. The clients are identified by their authenticated 
+ * user name, by a configured header or cookie, which should be set by a trusted proxy, or 
+ * by their address ({@link Request#getClientAddress()}). Unverified credentials are never 
+ * used as identifiers, since anyone could claim to be any user.<br>
+ * The requests that can't be identified in any of these ways share a single bucket, so 
+ * one such client could slow down all the others. The server should therefore record the 
+ * client addresses in the requests, unless the clients are identified by a header or 
+ * authenticated.<br>
+ * Since the header identifiers and addresses are not verified either, the amount of 
+ * tracked clients is limited. Once the limit is reached, idle clients are forgotten and 
+ * new clients share an overflow bucket until there is room again.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class RateLimiter
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The maximum amount of clients tracked at once by default
+	 */
+	public static final int DEFAULT_MAX_CLIENTS = 10000;
+	
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+	
+	private final double requestsPerSecond;
+	private final int burst, maxClients;
+	private final String clientHeaderName;
+	private final Map<String, TokenBucket> buckets;
+	private final TokenBucket anonymousBucket, overflowBucket;
+	private final AtomicLong lastSweep;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new rate limiter that identifies the clients by their authenticated user 
+	 * name or their address
+	 * @param requestsPerSecond How many requests each client may make per second, on average
+	 * @param burst How many requests a client may make at once
+	 */
+	public RateLimiter(double requestsPerSecond, int burst)
+	{
+		this(requestsPerSecond, burst, null, DEFAULT_MAX_CLIENTS);
+	}
+	
+	/**
+	 * Creates a new rate limiter
+	 * @param requestsPerSecond How many requests each client may make per second, on average
+	 * @param burst How many requests a client may make at once
+	 * @param clientHeaderName The name of the header or cookie that identifies the client 
+	 * when the request is not authenticated. Null if only the authenticated user names 
+	 * and the client addresses should be used.
+	 * @param maxClients The maximum amount of clients tracked at once
+	 */
+	public RateLimiter(double requestsPerSecond, int burst, String clientHeaderName, 
+			int maxClients)
+	{
+		this.requestsPerSecond = requestsPerSecond;
+		this.burst = burst;
+		this.clientHeaderName = clientHeaderName;
+		this.maxClients = maxClients;
+		this.buckets = new ConcurrentHashMap<>();
+		this.anonymousBucket = new TokenBucket(requestsPerSecond, burst);
+		this.overflowBucket = new TokenBucket(requestsPerSecond, burst);
+		this.lastSweep = new AtomicLong(System.nanoTime());
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Takes a token from the bucket of a client that hasn't been authenticated, or fails 
+	 * if the client has made too many requests recently. The client is identified by the 
+	 * configured header or by its address.
+	 * @param request The request made by the client
+	 * @throws RetryLaterException If the client has gone over their rate limit
+	 */
+	public void acquire(Request request) throws RetryLaterException
+	{
+		acquire(request, null);
+	}
+	
+	/**
+	 * Takes a token from the client's bucket, or fails if the client has made too many 
+	 * requests recently
+	 * @param request The request made by the client
+	 * @param userName The name of the authenticated user who made the request. Null if 
+	 * the request wasn't authenticated.
+	 * @throws RetryLaterException If the client has gone over their rate limit
+	 */
+	public void acquire(Request request, String userName) throws RetryLaterException
+	{
+		long waitNanos = findBucket(identifyClient(request, userName)).tryTake();
+		if (waitNanos > 0)
+			throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, 
+					"Too many requests, please slow down", toRetryAfterSeconds(waitNanos));
+	}
+	
+	/**
+	 * Finds the identifier of the client who made the request
+	 * @param request A request
+	 * @param userName The name of the authenticated user who made the request. Null if 
+	 * the request wasn't authenticated.
+	 * @return The identifier of the client. Null if the client couldn't be identified, in 
+	 * which case it shares a bucket with the other unidentified clients.
+	 */
+	public String identifyClient(Request request, String userName)
+	{
+		if (userName != null && !userName.isEmpty())
+			return "user:" + userName;
+		
+		if (this.clientHeaderName != null)
+		{
+			String value = request.getHeaders().getHeaderOrCookieValue(this.clientHeaderName);
+			if (value != null && !value.isEmpty())
+				return "id:" + value;
+		}
+		
+		String address = request.getClientAddress();
+		if (address != null && !address.isEmpty())
+			return "address:" + address;
+		
+		return null;
+	}
+	
+	private TokenBucket findBucket(String clientId)
+	{
+		if (clientId == null)
+			return this.anonymousBucket;
+		
+		TokenBucket bucket = this.buckets.get(clientId);
+		if (bucket != null)
+			return bucket;
+		
+		// Makes room for the new client, if necessary
+		if (this.buckets.size() >= this.maxClients)
+		{
+			sweep();
+			if (this.buckets.size() >= this.maxClients)
+				return this.overflowBucket;
+		}
+		
+		return this.buckets.computeIfAbsent(clientId, 
+				id -> new TokenBucket(this.requestsPerSecond, this.burst));
+	}
+	
+	private static long toRetryAfterSeconds(long waitNanos)
+	{
+		// Rounds up, so that the client won't retry too early
+		long second = TimeUnit.SECONDS.toNanos(1);
+		return Math.max(1, (waitNanos + second - 1) / second);
+	}
+	
+	private void sweep()
+	{
+		// Only one thread sweeps at a time and only once in a while
+		long now = System.nanoTime();
+		long previous = this.lastSweep.get();
+		if (now - previous < SWEEP_INTERVAL_NANOS)
+			return;
+		if (!this.lastSweep.compareAndSet(previous, now))
+			return;
+		
+		// The clients with full buckets can be forgotten without affecting them
+		this.buckets.values().removeIf(bucket -> bucket.isFull());
+	}
+}
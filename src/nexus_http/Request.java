@@ -1,190 +1,448 @@
-package nexus_http;
-
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Set;
-
-/**
- * Requests are sent by clients and handled by the server
- * @author Mikko Hilpinen
- * @since 27.12.2014
- */
-public class Request
-{
-	// ATTRIBUTES	------------------------------
-	
-	private Method method;
-	private String targetPathString;
-	private Collection<Path> paths;
-	private Headers headers;
-	private Parameters parameters;
-	
-	
-	// CONSTRUCTOR	------------------------------
-	
-	/**
-	 * Parses a new request from the provided uri line
-	 * @param method The method used with the request
-	 * @param uriLine The uri line. The path part and the parameter part should be separated with '?'
-	 * @param headers The headers given with this request
-	 * @param encoding The encoding used for the parameter values. Null if parameter values 
-	 * are read as raw.
-	 * @throws UnsupportedEncodingException If the parameter value decoding failed
-	 */
-	public Request(Method method, String uriLine, Headers headers, 
-			String encoding) throws UnsupportedEncodingException
-	{
-		this.method = method;
-		this.headers = headers;
-		if (this.headers == null)
-			this.headers = new Headers();
-		
-		int parametersStartAfter = uriLine.indexOf('?');
-		String pathPart, parameterPart;
-		if (parametersStartAfter < 0)
-		{
-			pathPart = uriLine;
-			parameterPart = "";
-		}
-		else
-		{
-			pathPart = uriLine.substring(0, parametersStartAfter);
-			parameterPart = uriLine.substring(parametersStartAfter + 1);
-		}
-		
-		this.parameters = new Parameters(parameterPart, encoding);
-		this.targetPathString = pathPart;
-		this.paths = Path.parseFromString(pathPart);
-	}
-	
-	/**
-	 * Creates a new request with the given data
-	 * @param method The method that describes this request
-	 * @param path The target path of this request
-	 * @param parameters The parameters used in this request
-	 * @param headers The headers provided with the request
-	 */
-	public Request(Method method, String path, Parameters parameters, 
-			Headers headers)
-	{
-		// Initializes attributes
-		this.method = method;
-		this.paths = Path.parseFromString(path);
-		this.targetPathString = path;
-		this.parameters = parameters;
-		this.headers = headers;
-		
-		if (this.parameters == null)
-			this.parameters = new Parameters();
-		if (this.headers == null)
-			this.headers = new Headers();
-	}
-	
-	/**
-	 * Creates a copy of another request
-	 * @param another The request that will be copied
-	 */
-	public Request(Request another)
-	{
-		this.method = another.method;
-		this.paths = new ArrayList<>();
-		this.paths.addAll(another.paths);
-		this.parameters = new Parameters(another.parameters);
-		this.headers = new Headers(another.getHeaders());
-	}
-	
-	
-	// IMPLEMENTED METHODS	-----------------------
-	
-	@Override
-	public String toString()
-	{
-		try
-		{
-			StringBuilder s = new StringBuilder(getMethod() + " ");
-			s.append(getUriLine(null));
-			Set<String> streamParamNames = getParameters().getStreamParameterNames();
-			if (!streamParamNames.isEmpty())
-			{
-				s.append("\nStream parameters:");
-				for (String paramName : streamParamNames)
-				{
-					s.append("\n" + paramName);
-				}
-			}
-			s.append("\nHeaders:");
-			s.append(getHeaders().toString());
-			
-			return s.toString();
-		}
-		catch (UnsupportedEncodingException e)
-		{
-			// Ignored, no encoding used
-			return null;
-		}
-	}
-	
-	
-	// GETTERS & SETTERS	-----------------------
-	
-	/**
-	 * @return The method used by this request
-	 */
-	public Method getMethod()
-	{
-		return this.method;
-	}
-	
-	/**
-	 * @return The target path(s) of this request
-	 */
-	public Collection<Path> getPaths()
-	{
-		return this.paths;
-	}
-	
-	/**
-	 * @return The request's target path(s) in string format
-	 */
-	public String getPath()
-	{
-		return this.targetPathString;
-	}
-	
-	/**
-	 * @return The parameters given with this request
-	 */
-	public Parameters getParameters()
-	{
-		return this.parameters;
-	}
-	
-	/**
-	 * @return The headers given with this request
-	 */
-	public Headers getHeaders()
-	{
-		return this.headers;
-	}
-	
-	
-	// OTHER METHODS	-------------------------
-	
-	/**
-	 * Parses the request into an uri line that contains the path and the parameters
-	 * @param encoding the encoding used for the parameter values. Null if raw parameter 
-	 * values should be added.
-	 * @return The path and the parameters of the request in a single string
-	 * @throws UnsupportedEncodingException If the encoding failed
-	 */
-	public String getUriLine(String encoding) throws UnsupportedEncodingException
-	{
-		String parameterString = getParameters().getParameterString(encoding);
-		if (!parameterString.isEmpty())
-		{
-			return getPath() + "?" + parameterString;
-		}
-		return getPath();
-	}
-}
+package nexus_http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Requests are sent by clients and handled by the server
+ * @author Mikko Hilpinen
+ * @since 27.12.2014
+ */
+public class Request
+{
+	// ATTRIBUTES	------------------------------
+	
+	private Method method;
+	private String targetPathString;
+	private Collection<Path> paths;
+	// The limits the parsed paths have been checked against, null if none
+	private PathLimits checkedLimits;
+	private Headers headers;
+	private Parameters parameters;
+	private InputStream body;
+	private String clientAddress;
+	
+	private SessionStore sessionStore;
+	private Request sessionOwner;
+	private Session session;
+	private boolean sessionSearched, sessionCreated, sessionInvalidated;
+	
+	
+	// CONSTRUCTOR	------------------------------
+	
+	/**
+	 * Parses a new request from the provided uri line
+	 * @param method The method used with the request
+	 * @param uriLine The uri line. The path part and the parameter part should be separated with '?'
+	 * @param headers The headers given with this request
+	 * @param encoding The encoding used for the parameter values. Null if parameter values 
+	 * are read as raw.
+	 * @throws UnsupportedEncodingException If the parameter value decoding failed
+	 */
+	public Request(Method method, String uriLine, Headers headers, 
+			String encoding) throws UnsupportedEncodingException
+	{
+		this(method, uriLine, headers, encoding, null);
+	}
+	
+	/**
+	 * Parses a new request from the provided uri line
+	 * @param method The method used with the request
+	 * @param uriLine The uri line. The path part and the parameter part should be separated with '?'
+	 * @param headers The headers given with this request
+	 * @param encoding The encoding used for the parameter values. Null if parameter values 
+	 * are read as raw.
+	 * @param body The stream that contains the request body. Null if the request doesn't 
+	 * have a body. The stream is read only when necessary.
+	 * @throws UnsupportedEncodingException If the parameter value decoding failed
+	 * @see RequestBodyParser
+	 */
+	public Request(Method method, String uriLine, Headers headers, String encoding, 
+			InputStream body) throws UnsupportedEncodingException
+	{
+		this.method = method;
+		this.body = body;
+		this.headers = headers;
+		if (this.headers == null)
+			this.headers = new Headers();
+		
+		int parametersStartAfter = uriLine.indexOf('?');
+		String pathPart, parameterPart;
+		if (parametersStartAfter < 0)
+		{
+			pathPart = uriLine;
+			parameterPart = "";
+		}
+		else
+		{
+			pathPart = uriLine.substring(0, parametersStartAfter);
+			parameterPart = uriLine.substring(parametersStartAfter + 1);
+		}
+		
+		this.parameters = new Parameters(parameterPart, encoding);
+		this.targetPathString = pathPart;
+		this.paths = null;
+		this.checkedLimits = null;
+	}
+	
+	/**
+	 * Creates a new request with the given data
+	 * @param method The method that describes this request
+	 * @param path The target path of this request
+	 * @param parameters The parameters used in this request
+	 * @param headers The headers provided with the request
+	 */
+	public Request(Method method, String path, Parameters parameters, 
+			Headers headers)
+	{
+		// Initializes attributes
+		this.method = method;
+		this.paths = null;
+		this.checkedLimits = null;
+		this.targetPathString = path;
+		this.parameters = parameters;
+		this.headers = headers;
+		
+		if (this.parameters == null)
+			this.parameters = new Parameters();
+		if (this.headers == null)
+			this.headers = new Headers();
+	}
+	
+	/**
+	 * Creates a copy of another request
+	 * @param another The request that will be copied
+	 */
+	public Request(Request another)
+	{
+		this.method = another.method;
+		this.targetPathString = another.targetPathString;
+		this.body = another.body;
+		if (another.paths == null)
+			this.paths = null;
+		else
+		{
+			this.paths = new ArrayList<>();
+			this.paths.addAll(another.paths);
+		}
+		this.checkedLimits = another.checkedLimits;
+		this.parameters = new Parameters(another.parameters);
+		this.headers = new Headers(another.getHeaders());
+		this.clientAddress = another.clientAddress;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-----------------------
+	
+	@Override
+	public String toString()
+	{
+		try
+		{
+			StringBuilder s = new StringBuilder(getMethod() + " ");
+			s.append(getUriLine(null));
+			Set<String> streamParamNames = getParameters().getStreamParameterNames();
+			if (!streamParamNames.isEmpty())
+			{
+				s.append("\nStream parameters:");
+				for (String paramName : streamParamNames)
+				{
+					s.append("\n" + paramName);
+				}
+			}
+			s.append("\nHeaders:");
+			s.append(getHeaders().toString());
+			
+			return s.toString();
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			// Ignored, no encoding used
+			return null;
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	-----------------------
+	
+	/**
+	 * @return The method used by this request
+	 */
+	public Method getMethod()
+	{
+		return this.method;
+	}
+	
+	/**
+	 * @return The target path(s) of this request. The paths are parsed on the first call 
+	 * without any complexity limits.
+	 * @see #getPaths(PathLimits)
+	 */
+	public Collection<Path> getPaths()
+	{
+		if (this.paths == null)
+			this.paths = Path.parseFromString(this.targetPathString);
+		return this.paths;
+	}
+	
+	/**
+	 * Finds the target path(s) of this request. The paths are parsed on the first call, 
+	 * and the parsing is stopped as soon as the path goes over the provided limits. If the 
+	 * paths were already parsed with other limits (or none), they are checked against the 
+	 * provided limits as well.
+	 * @param limits The limits that define how complex the target path may be
+	 * @return The target path(s) of this request
+	 * @throws HttpException If the target path was too long or too complex
+	 */
+	public Collection<Path> getPaths(PathLimits limits) throws HttpException
+	{
+		if (this.checkedLimits != limits)
+		{
+			// The same paths are kept, since they may be referred to already
+			Collection<Path> paths = Path.parseFromString(this.targetPathString, limits);
+			if (this.paths == null)
+				this.paths = paths;
+			this.checkedLimits = limits;
+		}
+		return this.paths;
+	}
+	
+	/**
+	 * @return The request's target path(s) in string format
+	 */
+	public String getPath()
+	{
+		return this.targetPathString;
+	}
+	
+	/**
+	 * @return The parameters given with this request
+	 */
+	public Parameters getParameters()
+	{
+		return this.parameters;
+	}
+	
+	/**
+	 * @return The headers given with this request
+	 */
+	public Headers getHeaders()
+	{
+		return this.headers;
+	}
+	
+	
+	/**
+	 * @return The stream that contains the (unparsed) request body. Null if the request 
+	 * doesn't have a body or if the body has already been consumed.
+	 */
+	public InputStream getBody()
+	{
+		return this.body;
+	}
+	
+	/**
+	 * Changes the request body stream
+	 * @param body The new body stream of the request. Null if the request doesn't have 
+	 * a body.
+	 */
+	public void setBody(InputStream body)
+	{
+		this.body = body;
+	}
+	
+	/**
+	 * @return The address of the client who made this request. Null if unknown.
+	 */
+	public String getClientAddress()
+	{
+		return this.clientAddress;
+	}
+	
+	/**
+	 * Records the address the request was received from. The server that receives the 
+	 * request should set this, so that the clients can be told apart even when they are 
+	 * not authenticated.
+	 * @param address The address of the client, usually the remote ip address
+	 * @see RateLimiter
+	 */
+	public void setClientAddress(String address)
+	{
+		this.clientAddress = address;
+	}
+	
+	/**
+	 * Finds the session of the client who made this request. The session is searched for 
+	 * only when this method is first called.
+	 * @return The client's session. Null if the client doesn't have a session or if 
+	 * sessions are not used.
+	 * @see #getSession(boolean)
+	 */
+	public Session getSession()
+	{
+		return getSession(false);
+	}
+	
+	/**
+	 * Finds the session of the client who made this request, or starts a new one. The 
+	 * session is searched for only when this method is first called.
+	 * @param create Should a new session be started if the client doesn't have one yet. 
+	 * The request handler tells the client about the new session in the response.
+	 * @return The client's session. Null if the client doesn't have a session and one 
+	 * wasn't created, or if sessions are not used.
+	 */
+	public Session getSession(boolean create)
+	{
+		if (this.sessionOwner != null)
+			return this.sessionOwner.getSession(create);
+		if (this.sessionStore == null)
+			return null;
+		
+		if (!this.sessionSearched)
+		{
+			this.session = this.sessionStore.find(this);
+			this.sessionSearched = true;
+		}
+		if (create && (this.session == null || !this.session.isValid()))
+		{
+			this.session = this.sessionStore.create();
+			this.sessionCreated = true;
+		}
+		
+		return this.session;
+	}
+	
+	/**
+	 * Ends the session of the client who made this request. The request handler tells the 
+	 * client to forget the session in the response.
+	 */
+	public void invalidateSession()
+	{
+		if (this.sessionOwner != null)
+			this.sessionOwner.invalidateSession();
+		else
+		{
+			Session session = getSession(false);
+			if (session != null)
+			{
+				this.sessionStore.invalidate(session);
+				this.sessionInvalidated = true;
+				this.sessionCreated = false;
+			}
+		}
+	}
+	
+	/**
+	 * Changes where the sessions of this request are stored. This is used by the request 
+	 * handlers.
+	 * @param store The store that contains the sessions. Null if sessions are not used.
+	 */
+	public void setSessionStore(SessionStore store)
+	{
+		this.sessionStore = store;
+		this.sessionSearched = false;
+		this.session = null;
+	}
+	
+	/**
+	 * Makes this request use the session of another request. This is used when a request 
+	 * is handled as a part of another request.
+	 * @param owner The request whose session is used
+	 */
+	public void shareSessionWith(Request owner)
+	{
+		this.sessionOwner = owner;
+	}
+	
+	/**
+	 * @return The store that contains the sessions of this request. Null if sessions are 
+	 * not used.
+	 */
+	public SessionStore getSessionStore()
+	{
+		if (this.sessionOwner != null)
+			return this.sessionOwner.getSessionStore();
+		return this.sessionStore;
+	}
+	
+	/**
+	 * @return Was a new session started while this request was handled
+	 */
+	public boolean hasNewSession()
+	{
+		if (this.sessionOwner != null)
+			return this.sessionOwner.hasNewSession();
+		return this.sessionCreated && this.session != null && this.session.isValid();
+	}
+	
+	/**
+	 * @return Was the client's session ended while this request was handled
+	 */
+	public boolean isSessionInvalidated()
+	{
+		if (this.sessionOwner != null)
+			return this.sessionOwner.isSessionInvalidated();
+		return this.sessionInvalidated;
+	}
+	
+	
+	// OTHER METHODS	-------------------------
+	
+	/**
+	 * @return Does the request contain an unconsumed body
+	 */
+	public boolean hasBody()
+	{
+		return this.body != null;
+	}
+	
+	/**
+	 * Closes the request body and all the stream parameters in the request. Temporary files 
+	 * created for large uploads are removed when their streams are closed.
+	 */
+	public void close()
+	{
+		closeBody();
+		getParameters().closeStreams();
+	}
+	
+	/**
+	 * Closes the request body stream. The request won't have a body after this.
+	 */
+	public void closeBody()
+	{
+		if (this.body != null)
+		{
+			try
+			{
+				this.body.close();
+			}
+			catch (IOException e)
+			{
+				// Ignored, the body is discarded anyway
+			}
+			this.body = null;
+		}
+	}
+	
+	/**
+	 * Parses the request into an uri line that contains the path and the parameters
+	 * @param encoding the encoding used for the parameter values. Null if raw parameter 
+	 * values should be added.
+	 * @return The path and the parameters of the request in a single string
+	 * @throws UnsupportedEncodingException If the encoding failed
+	 */
+	public String getUriLine(String encoding) throws UnsupportedEncodingException
+	{
+		String parameterString = getParameters().getParameterString(encoding);
+		if (!parameterString.isEmpty())
+		{
+			return getPath() + "?" + parameterString;
+		}
+		return getPath();
+	}
+}
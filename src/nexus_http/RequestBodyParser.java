@@ -0,0 +1,724 @@
+package nexus_http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The body parser reads form data (application/x-www-form-urlencoded and 
+ * multipart/form-data) from request bodies and adds it to the request parameters. The body 
+ * is read as a stream so that only a small buffer needs to be held in memory at once. Large 
+ * file parts are written to temporary files instead of the heap. The amount of parts and 
+ * the length of the whole body are limited, so that a single request can't use up the 
+ * memory or the disk.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class RequestBodyParser
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The default amount of bytes a file part may take in memory before it is written to 
+	 * a temporary file
+	 */
+	public static final int DEFAULT_SPILL_THRESHOLD = 64 * 1024;
+	/**
+	 * The default maximum length of a single (non-file) form field in bytes
+	 */
+	public static final int DEFAULT_MAX_FIELD_LENGTH = 1024 * 1024;
+	/**
+	 * The default maximum amount of parts in a multipart body
+	 */
+	public static final int DEFAULT_MAX_PARTS = 1000;
+	/**
+	 * The default maximum length of a whole request body in bytes
+	 */
+	public static final long DEFAULT_MAX_BODY_LENGTH = 256 * 1024 * 1024;
+	
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final int MAX_HEADER_LINE_LENGTH = 8 * 1024;
+	private static final String TEMP_FILE_PREFIX = "nexus-upload-";
+	
+	private final int spillThreshold, maxFieldLength, maxParts;
+	private final long maxBodyLength;
+	private final File tempDirectory;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new body parser with the default settings. Temporary files are created to 
+	 * the default temporary file directory.
+	 */
+	public RequestBodyParser()
+	{
+		this(DEFAULT_SPILL_THRESHOLD, DEFAULT_MAX_FIELD_LENGTH, null);
+	}
+	
+	/**
+	 * Creates a new body parser
+	 * @param spillThreshold The amount of bytes a file part may take in memory before it is 
+	 * written to a temporary file
+	 * @param maxFieldLength The maximum length of a single (non-file) form field in bytes
+	 * @param tempDirectory The directory the temporary files are created to. Null if the 
+	 * default temporary file directory should be used.
+	 */
+	public RequestBodyParser(int spillThreshold, int maxFieldLength, File tempDirectory)
+	{
+		this(spillThreshold, maxFieldLength, DEFAULT_MAX_PARTS, DEFAULT_MAX_BODY_LENGTH, 
+				tempDirectory);
+	}
+	
+	/**
+	 * Creates a new body parser. Bodies that go over the limits are rejected with 
+	 * {@link HttpStatus#REQUEST_ENTITY_TOO_LARGE}.
+	 * @param spillThreshold The amount of bytes a file part may take in memory before it is 
+	 * written to a temporary file
+	 * @param maxFieldLength The maximum length of a single (non-file) form field in bytes
+	 * @param maxParts The maximum amount of parts in a multipart body
+	 * @param maxBodyLength The maximum length of a whole body in bytes. This limits both 
+	 * the memory and the disk space a single request may use.
+	 * @param tempDirectory The directory the temporary files are created to. Null if the 
+	 * default temporary file directory should be used.
+	 */
+	public RequestBodyParser(int spillThreshold, int maxFieldLength, int maxParts, 
+			long maxBodyLength, File tempDirectory)
+	{
+		this.spillThreshold = spillThreshold;
+		this.maxFieldLength = maxFieldLength;
+		this.maxParts = maxParts;
+		this.maxBodyLength = maxBodyLength;
+		this.tempDirectory = tempDirectory;
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The amount of bytes a file part may take in memory before it is written to 
+	 * a temporary file
+	 */
+	public int getSpillThreshold()
+	{
+		return this.spillThreshold;
+	}
+	
+	/**
+	 * @return The maximum length of a single (non-file) form field in bytes
+	 */
+	public int getMaxFieldLength()
+	{
+		return this.maxFieldLength;
+	}
+	
+	/**
+	 * @return The maximum amount of parts in a multipart body
+	 */
+	public int getMaxParts()
+	{
+		return this.maxParts;
+	}
+	
+	/**
+	 * @return The maximum length of a whole body in bytes
+	 */
+	public long getMaxBodyLength()
+	{
+		return this.maxBodyLength;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Parses the request body into request parameters, if the body contains form data. 
+	 * Form fields are added as normal parameters while file parts are added as stream 
+	 * parameters. The body is consumed in the process.
+	 * @param request The request whose body is parsed
+	 * @return Was the body parsed. False if the request didn't have a body or if the body 
+	 * didn't contain form data.
+	 * @throws HttpException If the body was malformed, too large or couldn't be read
+	 */
+	public boolean parseBody(Request request) throws HttpException
+	{
+		InputStream requestBody = request.getBody();
+		if (requestBody == null)
+			return false;
+		
+		String contentType = request.getHeaders().getHeaderValue(Headers.CONTENT_TYPE);
+		if (contentType == null)
+			return false;
+		
+		String mediaType = contentType;
+		int parametersStart = contentType.indexOf(';');
+		if (parametersStart >= 0)
+			mediaType = contentType.substring(0, parametersStart);
+		mediaType = mediaType.trim();
+		
+		Charset charset = parseCharset(Headers.getHeaderParameter(contentType, "charset"), 
+				StandardCharsets.UTF_8);
+		
+		// Bodies that are known to be too long are rejected before they are read
+		if (request.getHeaders().getContentLength() > this.maxBodyLength)
+			throw bodyTooLarge();
+		LimitedInputStream body = new LimitedInputStream(requestBody, this.maxBodyLength);
+		
+		try
+		{
+			if (ContentType.FORM_URLENCODED.isOfType(mediaType))
+				parseUrlEncoded(body, request.getParameters(), charset);
+			else if (ContentType.MULTIPART_FORM_DATA.isOfType(mediaType))
+			{
+				String boundary = Headers.getHeaderParameter(contentType, "boundary");
+				if (boundary == null || boundary.isEmpty())
+					throw new HttpException(HttpStatus.BAD_REQUEST, 
+							"Multipart body requires a boundary");
+				parseMultipart(body, boundary, request.getParameters(), charset);
+			}
+			else
+				return false;
+		}
+		catch (IOException e)
+		{
+			if (body.isExceeded())
+				throw bodyTooLarge();
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Couldn't read the request body", 
+					e);
+		}
+		
+		// The body has been consumed
+		request.closeBody();
+		return true;
+	}
+	
+	private void parseUrlEncoded(InputStream body, Parameters parameters, Charset charset)
+			throws IOException, HttpException
+	{
+		byte[] buffer = new byte[BUFFER_SIZE];
+		FieldBuffer key = new FieldBuffer();
+		FieldBuffer value = new FieldBuffer();
+		FieldBuffer current = key;
+		
+		// Percent encoded bytes are decoded as they are read
+		int escapeDigits = -1;
+		int escapedByte = 0;
+		
+		int read;
+		while ((read = body.read(buffer)) >= 0)
+		{
+			for (int i = 0; i < read; i++)
+			{
+				byte b = buffer[i];
+				
+				if (escapeDigits >= 0)
+				{
+					int digit = Character.digit(b, 16);
+					if (digit < 0)
+						throw new HttpException(HttpStatus.BAD_REQUEST, 
+								"Malformed percent encoding in the request body");
+					escapedByte = escapedByte * 16 + digit;
+					escapeDigits ++;
+					if (escapeDigits == 2)
+					{
+						current.append(escapedByte);
+						escapeDigits = -1;
+					}
+				}
+				else if (b == '&')
+				{
+					addField(parameters, key, value, charset);
+					current = key;
+				}
+				else if (b == '=' && current == key)
+					current = value;
+				else if (b == '+')
+					current.append(' ');
+				else if (b == '%')
+				{
+					escapeDigits = 0;
+					escapedByte = 0;
+				}
+				else
+					current.append(b);
+			}
+		}
+		
+		if (escapeDigits >= 0)
+			throw new HttpException(HttpStatus.BAD_REQUEST, 
+					"Malformed percent encoding in the request body");
+		addField(parameters, key, value, charset);
+	}
+	
+	private static void addField(Parameters parameters, FieldBuffer key, FieldBuffer value, 
+			Charset charset)
+	{
+		if (key.size() > 0)
+			parameters.addParameter(key.toString(charset), value.toString(charset));
+		
+		key.reset();
+		value.reset();
+	}
+	
+	private void parseMultipart(InputStream body, String boundary, Parameters parameters, 
+			Charset charset) throws IOException, HttpException
+	{
+		MultipartReader reader = new MultipartReader(body, boundary);
+		
+		// Skips the preamble
+		if (!reader.skipToDelimiter())
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Multipart body has no parts");
+		
+		int parts = 0;
+		while (reader.startPart())
+		{
+			parts ++;
+			if (parts > this.maxParts)
+				throw new HttpException(HttpStatus.REQUEST_ENTITY_TOO_LARGE, 
+						"Multipart body may contain at most " + this.maxParts + " parts");
+			
+			// Reads the part headers
+			String name = null;
+			String fileName = null;
+			Charset partCharset = charset;
+			String line;
+			while (!(line = reader.readHeaderLine(charset)).isEmpty())
+			{
+				int separatorIndex = line.indexOf(':');
+				if (separatorIndex < 0)
+					continue;
+				
+				String headerName = line.substring(0, separatorIndex).trim();
+				String headerValue = line.substring(separatorIndex + 1).trim();
+				if (headerName.equalsIgnoreCase(Headers.CONTENT_DISPOSITION))
+				{
+					name = Headers.getHeaderParameter(headerValue, "name");
+					fileName = Headers.getHeaderParameter(headerValue, "filename");
+				}
+				else if (headerName.equalsIgnoreCase(Headers.CONTENT_TYPE))
+					partCharset = parseCharset(Headers.getHeaderParameter(headerValue, 
+							"charset"), charset);
+			}
+			
+			if (name == null)
+				throw new HttpException(HttpStatus.BAD_REQUEST, 
+						"Multipart body part is missing a name");
+			
+			// Files are read as streams, other fields as strings
+			if (fileName == null)
+			{
+				FieldBuffer field = new FieldBuffer();
+				if (!reader.transferPartContent(field))
+					throw new HttpException(HttpStatus.BAD_REQUEST, 
+							"Multipart body ended unexpectedly");
+				parameters.addParameter(name, field.toString(partCharset));
+			}
+			else
+			{
+				SpillBuffer content = new SpillBuffer();
+				try
+				{
+					if (!reader.transferPartContent(content))
+						throw new HttpException(HttpStatus.BAD_REQUEST, 
+								"Multipart body ended unexpectedly");
+					parameters.addParameter(name, content.toInputStream());
+				}
+				catch (IOException | HttpException e)
+				{
+					content.discard();
+					throw e;
+				}
+			}
+		}
+	}
+	
+	private HttpException bodyTooLarge()
+	{
+		return new HttpException(HttpStatus.REQUEST_ENTITY_TOO_LARGE, 
+				"Request body exceeds the maximum length of " + this.maxBodyLength + " bytes");
+	}
+	
+	private static Charset parseCharset(String charsetName, Charset defaultCharset)
+	{
+		if (charsetName == null)
+			return defaultCharset;
+		
+		try
+		{
+			return Charset.forName(charsetName);
+		}
+		catch (IllegalCharsetNameException | UnsupportedCharsetException e)
+		{
+			return defaultCharset;
+		}
+	}
+	
+	
+	// INTERFACES	---------------------
+	
+	private static interface PartSink
+	{
+		public void accept(byte[] bytes, int offset, int length) throws IOException, 
+				HttpException;
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * Collects the bytes of a single form field, up to the maximum field length
+	 */
+	private class FieldBuffer extends ByteArrayOutputStream implements PartSink
+	{
+		// OTHER METHODS	-------------
+		
+		public void append(int b) throws HttpException
+		{
+			checkLength(1);
+			write(b);
+		}
+		
+		@Override
+		public void accept(byte[] bytes, int offset, int length) throws HttpException
+		{
+			checkLength(length);
+			write(bytes, offset, length);
+		}
+		
+		public String toString(Charset charset)
+		{
+			return new String(this.buf, 0, this.count, charset);
+		}
+		
+		private void checkLength(int additionalBytes) throws HttpException
+		{
+			if (this.count + additionalBytes > RequestBodyParser.this.maxFieldLength)
+				throw new HttpException(HttpStatus.REQUEST_ENTITY_TOO_LARGE, 
+						"Form field exceeds the maximum length of " + 
+						RequestBodyParser.this.maxFieldLength + " bytes");
+		}
+	}
+	
+	/**
+	 * Collects the bytes of a file part. The bytes are kept in memory until the spill 
+	 * threshold is reached, after which they are written to a temporary file.
+	 */
+	private class SpillBuffer extends ByteArrayOutputStream implements PartSink
+	{
+		// ATTRIBUTES	-----------------
+		
+		private java.nio.file.Path file;
+		private FileChannel channel;
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public void accept(byte[] bytes, int offset, int length) throws IOException
+		{
+			if (this.channel == null && this.count + length >
+					RequestBodyParser.this.spillThreshold)
+			{
+				// Moves the buffered content to a temporary file
+				if (RequestBodyParser.this.tempDirectory == null)
+					this.file = Files.createTempFile(TEMP_FILE_PREFIX, null);
+				else
+					this.file = Files.createTempFile(
+							RequestBodyParser.this.tempDirectory.toPath(), TEMP_FILE_PREFIX, 
+							null);
+				this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE);
+				writeToChannel(this.buf, 0, this.count);
+				this.buf = new byte[0];
+				this.count = 0;
+			}
+			
+			if (this.channel == null)
+				write(bytes, offset, length);
+			else
+				writeToChannel(bytes, offset, length);
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public InputStream toInputStream() throws IOException
+		{
+			if (this.channel == null)
+				return new ByteArrayInputStream(this.buf, 0, this.count);
+			
+			// The file is deleted once the stream has been closed
+			this.channel.close();
+			this.channel = null;
+			return Channels.newInputStream(FileChannel.open(this.file, 
+					StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE));
+		}
+		
+		public void discard()
+		{
+			try
+			{
+				if (this.channel != null)
+					this.channel.close();
+				if (this.file != null)
+					Files.deleteIfExists(this.file);
+			}
+			catch (IOException e)
+			{
+				// Ignored, the content is discarded anyway
+			}
+		}
+		
+		private void writeToChannel(byte[] bytes, int offset, int length) throws IOException
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+			while (buffer.hasRemaining())
+			{
+				this.channel.write(buffer);
+			}
+		}
+	}
+	
+	/**
+	 * Stops reading a stream once too many bytes have been read from it
+	 */
+	private static class LimitedInputStream extends FilterInputStream
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final long maxLength;
+		private long readLength;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public LimitedInputStream(InputStream stream, long maxLength)
+		{
+			super(stream);
+			
+			this.maxLength = maxLength;
+			this.readLength = 0;
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public int read() throws IOException
+		{
+			int b = super.read();
+			if (b >= 0)
+				count(1);
+			return b;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			int read = super.read(b, off, len);
+			if (read > 0)
+				count(read);
+			return read;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public boolean isExceeded()
+		{
+			return this.readLength > this.maxLength;
+		}
+		
+		private void count(int length) throws IOException
+		{
+			this.readLength += length;
+			if (isExceeded())
+				throw new IOException("The stream exceeds the maximum length");
+		}
+	}
+	
+	/**
+	 * Reads a multipart body part by part, without holding more than a single buffer of 
+	 * the body in memory at once
+	 */
+	private static class MultipartReader
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final InputStream stream;
+		private final byte[] delimiter;
+		private final byte[] buffer;
+		private int position, limit;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public MultipartReader(InputStream stream, String boundary)
+		{
+			this.stream = stream;
+			this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+			this.buffer = new byte[Math.max(BUFFER_SIZE, this.delimiter.length * 2)];
+			
+			// The first delimiter may not be preceded by a line break, so one is added
+			// to the start of the buffer
+			this.buffer[0] = '\r';
+			this.buffer[1] = '\n';
+			this.position = 0;
+			this.limit = 2;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public boolean skipToDelimiter() throws IOException, HttpException
+		{
+			return transferPartContent(null);
+		}
+		
+		/**
+		 * Reads the end of a delimiter line
+		 * @return True if a new part follows, false if the body ended
+		 */
+		public boolean startPart() throws IOException, HttpException
+		{
+			if (!ensureAvailable(2))
+				return false;
+			
+			// The closing delimiter ends with "--"
+			if (this.buffer[this.position] == '-' && this.buffer[this.position + 1] == '-')
+			{
+				this.position += 2;
+				return false;
+			}
+			
+			// Skips any transport padding after the delimiter
+			readHeaderLine(StandardCharsets.ISO_8859_1);
+			return true;
+		}
+		
+		public String readHeaderLine(Charset charset) throws IOException, HttpException
+		{
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			while (true)
+			{
+				if (!ensureAvailable(1))
+					throw new HttpException(HttpStatus.BAD_REQUEST, 
+							"Multipart body ended unexpectedly");
+				
+				byte b = this.buffer[this.position++];
+				if (b == '\n')
+					break;
+				else if (b != '\r')
+				{
+					if (line.size() >= MAX_HEADER_LINE_LENGTH)
+						throw new HttpException(HttpStatus.REQUEST_ENTITY_TOO_LARGE, 
+								"Multipart header line is too long");
+					line.write(b);
+				}
+			}
+			
+			return new String(line.toByteArray(), charset);
+		}
+		
+		/**
+		 * Moves the bytes preceding the next delimiter to the sink and consumes the 
+		 * delimiter
+		 * @param sink The sink that receives the bytes. Null if the bytes should be skipped.
+		 * @return Was the delimiter found
+		 */
+		public boolean transferPartContent(PartSink sink) throws IOException, HttpException
+		{
+			while (true)
+			{
+				int delimiterIndex = indexOfDelimiter();
+				if (delimiterIndex >= 0)
+				{
+					transfer(sink, delimiterIndex - this.position);
+					this.position = delimiterIndex + this.delimiter.length;
+					return true;
+				}
+				
+				// Bytes that may be the start of a delimiter are kept in the buffer
+				int safeLength = this.limit - this.position - (this.delimiter.length - 1);
+				if (safeLength > 0)
+					transfer(sink, safeLength);
+				
+				if (!fill())
+				{
+					transfer(sink, this.limit - this.position);
+					return false;
+				}
+			}
+		}
+		
+		private void transfer(PartSink sink, int length) throws IOException, HttpException
+		{
+			if (sink != null && length > 0)
+				sink.accept(this.buffer, this.position, length);
+			this.position += length;
+		}
+		
+		private int indexOfDelimiter()
+		{
+			int lastStart = this.limit - this.delimiter.length;
+			for (int i = this.position; i <= lastStart; i++)
+			{
+				if (this.buffer[i] != this.delimiter[0])
+					continue;
+				
+				int matched = 1;
+				while (matched < this.delimiter.length && 
+						this.buffer[i + matched] == this.delimiter[matched])
+				{
+					matched ++;
+				}
+				if (matched == this.delimiter.length)
+					return i;
+			}
+			
+			return -1;
+		}
+		
+		private boolean ensureAvailable(int amount) throws IOException
+		{
+			while (this.limit - this.position < amount)
+			{
+				if (!fill())
+					return false;
+			}
+			
+			return true;
+		}
+		
+		private boolean fill() throws IOException
+		{
+			// Moves the remaining bytes to the start of the buffer
+			int remaining = this.limit - this.position;
+			if (this.position > 0)
+			{
+				System.arraycopy(this.buffer, this.position, this.buffer, 0, remaining);
+				this.position = 0;
+				this.limit = remaining;
+			}
+			
+			int read = this.stream.read(this.buffer, this.limit, 
+					this.buffer.length - this.limit);
+			if (read <= 0)
+				return false;
+			
+			this.limit += read;
+			return true;
+		}
+	}
+}
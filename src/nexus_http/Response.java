@@ -12,9 +12,12 @@ public class Response
 {
 	// ATTRIBUTES	--------------------
 	
+	private static final Response[] CANNED_RESPONSES = createCannedResponses();
+	
 	private HttpStatus status;
 	private Headers headers;
 	private ByteArrayOutputStream body;
+	private boolean immutable;
 	
 	
 	// CONSTRUCTOR	--------------------
@@ -27,6 +30,7 @@ public class Response
 		this.status = null;
 		this.headers = new Headers();
 		this.body = null;
+		this.immutable = false;
 	}
 	
 	/**
@@ -40,6 +44,7 @@ public class Response
 		this.status = status;
 		this.headers = headers;
 		this.body = body;
+		this.immutable = false;
 	}
 	
 	/**
@@ -52,10 +57,45 @@ public class Response
 		this.status = e.getStatus();
 		this.headers = new Headers();
 		this.body = null;
+		this.immutable = false;
 		
 		e.modifyHeaders(getHeaders());
 	}
 	
+	/**
+	 * Creates a modifiable copy of another response. This can be used for modifying a 
+	 * shared response. The body is not copied, but shared between the responses.
+	 * @param other The response that is copied
+	 */
+	public Response(Response other)
+	{
+		this.status = other.status;
+		this.headers = new Headers(other.headers);
+		this.body = other.body;
+		this.immutable = false;
+	}
+	
+	private Response(HttpStatus status)
+	{
+		this.status = status;
+		this.headers = new Headers().toReadOnly();
+		this.body = null;
+		this.immutable = true;
+	}
+	
+	/**
+	 * Finds a shared response with the provided status, no body and no headers. The 
+	 * response is immutable, so it can be sent any number of times without allocating a 
+	 * new response. Modifying the response or its headers throws an 
+	 * {@link UnsupportedOperationException}.
+	 * @param status The status of the response
+	 * @return An immutable response with the provided status
+	 */
+	public static Response forStatus(HttpStatus status)
+	{
+		return CANNED_RESPONSES[status.ordinal()];
+	}
+	
 	
 	// IMPLEMENTED METHODS	------------
 	
@@ -97,6 +137,7 @@ public class Response
 	 */
 	public void setStatus(HttpStatus status)
 	{
+		checkMutable();
 		this.status = status;
 	}
 	
@@ -116,7 +157,10 @@ public class Response
 	public ByteArrayOutputStream getBody(boolean createIfNotExists)
 	{
 		if (this.body == null && createIfNotExists)
+		{
+			checkMutable();
 			this.body = new ByteArrayOutputStream();
+		}
 		return this.body;
 	}
 	
@@ -126,6 +170,7 @@ public class Response
 	 */
 	public void setBody(ByteArrayOutputStream body)
 	{
+		checkMutable();
 		if (this.body != null)
 			closeBody();
 		
@@ -158,4 +203,31 @@ public class Response
 	{
 		return this.body != null;
 	}
+	
+	/**
+	 * @return Is this response immutable. Immutable responses are shared and can't be 
+	 * modified.
+	 * @see #forStatus(HttpStatus)
+	 */
+	public boolean isImmutable()
+	{
+		return this.immutable;
+	}
+	
+	private void checkMutable()
+	{
+		if (this.immutable)
+			throw new UnsupportedOperationException("The response is immutable");
+	}
+	
+	private static Response[] createCannedResponses()
+	{
+		HttpStatus[] statuses = HttpStatus.values();
+		Response[] responses = new Response[statuses.length];
+		for (int i = 0; i < statuses.length; i++)
+		{
+			responses[i] = new Response(statuses[i]);
+		}
+		return responses;
+	}
 }
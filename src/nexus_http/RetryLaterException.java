@@ -0,0 +1,57 @@
+package nexus_http;
+
+/**
+ * These exceptions are thrown when a request can't be handled at the moment, but may 
+ * succeed if it is repeated later. The client is told how long it should wait. These 
+ * exceptions are thrown when the server is under load, so they don't record a stack trace.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class RetryLaterException extends HttpException
+{
+	// ATTRIBUTES	------------------
+	
+	private static final long serialVersionUID = 3861263520893725137L;
+	private long retryAfterSeconds;
+	
+	
+	// CONSTRUCTOR	------------------
+	
+	/**
+	 * Creates a new exception
+	 * @param status The status sent to the client. Usually either 
+	 * {@link HttpStatus#TOO_MANY_REQUESTS} or {@link HttpStatus#SERVICE_UNAVAILABLE}
+	 * @param message The message sent along with the exception
+	 * @param retryAfterSeconds How many seconds the client should wait before repeating 
+	 * the request
+	 */
+	public RetryLaterException(HttpStatus status, String message, long retryAfterSeconds)
+	{
+		super(status, message, false);
+		
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------
+	
+	/**
+	 * Adds a retry-after header to tell the client when to repeat the request
+	 */
+	@Override
+	public void modifyHeaders(Headers headers)
+	{
+		headers.setRetryAfter(this.retryAfterSeconds);
+	}
+	
+	
+	// ACCESSORS	------------------
+	
+	/**
+	 * @return How many seconds the client should wait before repeating the request
+	 */
+	public long getRetryAfterSeconds()
+	{
+		return this.retryAfterSeconds;
+	}
+}
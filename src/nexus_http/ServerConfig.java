@@ -0,0 +1,82 @@
+package nexus_http;
+
+/**
+ * A server configuration describes the address a server is reached from. The configuration 
+ * is immutable, so it can be shared between threads and bound to a request handler, which 
+ * allows multiple handlers with different public addresses to run in the same process.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see HttpSettings#getServerConfig()
+ */
+public final class ServerConfig
+{
+	// ATTRIBUTES	---------------------
+	
+	private final String ip;
+	private final int port;
+	private final String baseUrl;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new configuration where the base url consists of the server ip and port
+	 * @param ip The server ip
+	 * @param port The server port
+	 */
+	public ServerConfig(String ip, int port)
+	{
+		this(ip, port, ip + ":" + port);
+	}
+	
+	/**
+	 * Creates a new configuration
+	 * @param ip The server ip
+	 * @param port The server port
+	 * @param baseUrl The public url the server is reached from, without the trailing 
+	 * directory separator (Eg. "https://api.example.com"). The absolute urls of the paths 
+	 * start with this.
+	 */
+	public ServerConfig(String ip, int port, String baseUrl)
+	{
+		this.ip = ip;
+		this.port = port;
+		this.baseUrl = baseUrl;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public String toString()
+	{
+		return this.baseUrl;
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The server ip
+	 */
+	public String getIp()
+	{
+		return this.ip;
+	}
+	
+	/**
+	 * @return The server port
+	 */
+	public int getPort()
+	{
+		return this.port;
+	}
+	
+	/**
+	 * @return The public url the server is reached from
+	 */
+	public String getBaseUrl()
+	{
+		return this.baseUrl;
+	}
+}
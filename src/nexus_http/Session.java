@@ -0,0 +1,121 @@
+package nexus_http;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A session holds a client's state between requests. The sessions are created and stored 
+ * by a {@link SessionStore} and bound to the clients with a cookie. The session attributes 
+ * are strings, so that the sessions can be saved over a restart. Sessions are thread safe.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see Request#getSession(boolean)
+ */
+public class Session
+{
+	// ATTRIBUTES	---------------------
+	
+	private final String id;
+	private final long createdMillis;
+	private final Map<String, String> attributes;
+	private volatile long lastAccessMillis;
+	private volatile boolean valid;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	Session(String id, long createdMillis, long lastAccessMillis)
+	{
+		this.id = id;
+		this.createdMillis = createdMillis;
+		this.lastAccessMillis = lastAccessMillis;
+		this.attributes = new ConcurrentHashMap<>();
+		this.valid = true;
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The identifier of the session, which is also the value of the session cookie
+	 */
+	public String getId()
+	{
+		return this.id;
+	}
+	
+	/**
+	 * @return The time the session was created, in milliseconds since the epoch
+	 */
+	public long getCreatedMillis()
+	{
+		return this.createdMillis;
+	}
+	
+	/**
+	 * @return The time the session was last used, in milliseconds since the epoch
+	 */
+	public long getLastAccessMillis()
+	{
+		return this.lastAccessMillis;
+	}
+	
+	/**
+	 * @return Is the session still valid. Sessions become invalid when they expire or are 
+	 * invalidated.
+	 */
+	public boolean isValid()
+	{
+		return this.valid;
+	}
+	
+	/**
+	 * Finds the value of a session attribute
+	 * @param name The name of the attribute
+	 * @return The value of the attribute. Null if the attribute hasn't been set.
+	 */
+	public String getAttribute(String name)
+	{
+		return this.attributes.get(name);
+	}
+	
+	/**
+	 * Changes the value of a session attribute
+	 * @param name The name of the attribute
+	 * @param value The new value of the attribute. Null if the attribute should be removed.
+	 */
+	public void setAttribute(String name, String value)
+	{
+		if (value == null)
+			this.attributes.remove(name);
+		else
+			this.attributes.put(name, value);
+	}
+	
+	/**
+	 * @return The names of the attributes set in this session
+	 */
+	public Set<String> getAttributeNames()
+	{
+		return this.attributes.keySet();
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	void touch(long now)
+	{
+		this.lastAccessMillis = now;
+	}
+	
+	void invalidate()
+	{
+		this.valid = false;
+	}
+	
+	Map<String, String> getAttributes()
+	{
+		return this.attributes;
+	}
+}
@@ -0,0 +1,513 @@
+package nexus_http;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nexus_http.Headers.Cookie;
+
+/**
+ * A session store keeps the client sessions in memory. The sessions are identified by a 
+ * secure random identifier, which the clients send back in a cookie. The sessions are 
+ * divided into stripes, each with its own lock, so that concurrent requests rarely wait 
+ * for each other. Idle sessions expire through a hashed timer wheel: each session sits in 
+ * the slot of its expiration time, and the slots are checked as time passes, so that 
+ * using a session only updates its access time. The store may be saved to a file and 
+ * restored from it, so that the sessions survive a restart.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class SessionStore
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The name of the session cookie by default
+	 */
+	public static final String DEFAULT_COOKIE_NAME = "SESSION";
+	/**
+	 * How many stripes the sessions are divided into by default
+	 */
+	public static final int DEFAULT_STRIPES = 16;
+	
+	private static final int WHEEL_SIZE = 512;
+	// The idle timeout spans half of the wheel, so each session is checked about once
+	private static final int TICKS_PER_TIMEOUT = WHEEL_SIZE / 2;
+	private static final int ID_BYTES = 16;
+	private static final int SNAPSHOT_MAGIC = 0x4E585353;
+	private static final int SNAPSHOT_VERSION = 1;
+	
+	private final long timeoutMillis, tickMillis;
+	private final String cookieName;
+	private final Stripe[] stripes;
+	private final List<List<Session>> wheel;
+	private final AtomicLong processedTick;
+	private final SecureRandom random;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new session store with the default cookie name and striping
+	 * @param timeoutMillis How long a session may be idle before it expires, in milliseconds
+	 */
+	public SessionStore(long timeoutMillis)
+	{
+		this(timeoutMillis, DEFAULT_COOKIE_NAME, DEFAULT_STRIPES);
+	}
+	
+	/**
+	 * Creates a new session store
+	 * @param timeoutMillis How long a session may be idle before it expires, in milliseconds
+	 * @param cookieName The name of the cookie that contains the session identifier
+	 * @param stripes How many stripes the sessions are divided into. More stripes allow 
+	 * more concurrency.
+	 */
+	public SessionStore(long timeoutMillis, String cookieName, int stripes)
+	{
+		this.timeoutMillis = timeoutMillis;
+		this.tickMillis = Math.max(1, timeoutMillis / TICKS_PER_TIMEOUT);
+		this.cookieName = cookieName;
+		this.random = new SecureRandom();
+		
+		this.stripes = new Stripe[Math.max(1, stripes)];
+		for (int i = 0; i < this.stripes.length; i++)
+		{
+			this.stripes[i] = new Stripe();
+		}
+		
+		this.wheel = new ArrayList<>(WHEEL_SIZE);
+		for (int i = 0; i < WHEEL_SIZE; i++)
+		{
+			this.wheel.add(new ArrayList<>());
+		}
+		this.processedTick = new AtomicLong(System.currentTimeMillis() / this.tickMillis);
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The name of the cookie that contains the session identifier
+	 */
+	public String getCookieName()
+	{
+		return this.cookieName;
+	}
+	
+	/**
+	 * @return How long a session may be idle before it expires, in milliseconds
+	 */
+	public long getTimeoutMillis()
+	{
+		return this.timeoutMillis;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Creates a new session
+	 * @return The new session
+	 */
+	public Session create()
+	{
+		expireSessions();
+		
+		long now = System.currentTimeMillis();
+		Session session;
+		Stripe stripe;
+		
+		// Identifier collisions are practically impossible, but they're still checked
+		do
+		{
+			session = new Session(generateId(), now, now);
+			stripe = stripeFor(session.getId());
+		}
+		while (!stripe.putIfAbsent(session));
+		
+		schedule(session);
+		return session;
+	}
+	
+	/**
+	 * Finds a session. Using the session keeps it from expiring.
+	 * @param id The identifier of the session
+	 * @return The session with the identifier. Null if there is no such session or if the 
+	 * session has expired.
+	 */
+	public Session find(String id)
+	{
+		expireSessions();
+		if (id == null)
+			return null;
+		
+		Stripe stripe = stripeFor(id);
+		Session session = stripe.get(id);
+		if (session == null)
+			return null;
+		
+		long now = System.currentTimeMillis();
+		if (isExpired(session, now))
+		{
+			expire(stripe, session);
+			return null;
+		}
+		
+		session.touch(now);
+		return session;
+	}
+	
+	/**
+	 * Finds the session of the client who made the request
+	 * @param request A request
+	 * @return The session identified by the request's session cookie. Null if the request 
+	 * doesn't have a valid session cookie.
+	 */
+	public Session find(Request request)
+	{
+		return find(request.getHeaders().getCookieValue(this.cookieName));
+	}
+	
+	/**
+	 * Invalidates a session, so that it can't be used anymore
+	 * @param session The session that is invalidated
+	 */
+	public void invalidate(Session session)
+	{
+		expire(stripeFor(session.getId()), session);
+	}
+	
+	/**
+	 * @return How many sessions are currently stored. May include expired sessions that 
+	 * haven't been removed yet.
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (Stripe stripe : this.stripes)
+		{
+			size += stripe.size();
+		}
+		return size;
+	}
+	
+	/**
+	 * Adds a cookie that binds the session to the client
+	 * @param session The session the client should use
+	 * @param headers The response headers the cookie is added to
+	 * @param secure Should the cookie only be sent over https
+	 */
+	public void writeCookie(Session session, Headers headers, boolean secure)
+	{
+		headers.addSetCookie(new Cookie(this.cookieName, session.getId()), null, null, true, 
+				secure);
+	}
+	
+	/**
+	 * Adds a cookie that makes the client forget its session
+	 * @param headers The response headers the cookie is added to
+	 */
+	public void clearCookie(Headers headers)
+	{
+		headers.addSetCookie(new Cookie(this.cookieName, ""), 
+				ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC), null, true, false);
+	}
+	
+	/**
+	 * Removes the expired sessions from the store. This is done automatically whenever 
+	 * sessions are created or searched for, so calling this is only necessary when the 
+	 * store is not used for a long time.
+	 */
+	public void expireSessions()
+	{
+		long now = System.currentTimeMillis();
+		long currentTick = now / this.tickMillis;
+		long previous = this.processedTick.get();
+		
+		// Only one thread advances the wheel at a time
+		if (currentTick <= previous || !this.processedTick.compareAndSet(previous, currentTick))
+			return;
+		
+		synchronized (this.wheel)
+		{
+			// A full rotation checks each slot, so there's no need to go further
+			long firstTick = Math.max(previous + 1, currentTick - WHEEL_SIZE + 1);
+			for (long tick = firstTick; tick <= currentTick; tick++)
+			{
+				advance(tick, now);
+			}
+		}
+	}
+	
+	/**
+	 * Saves the current sessions to a file. The file is written through a memory mapping, 
+	 * so the sessions are copied straight to the file system cache.
+	 * @param file The file the sessions are saved to. Overwritten if it exists.
+	 * @throws IOException If the file couldn't be written
+	 * @see #restore(java.nio.file.Path)
+	 */
+	public void snapshot(java.nio.file.Path file) throws IOException
+	{
+		// Encodes the sessions first, so that the size of the file is known
+		long now = System.currentTimeMillis();
+		List<SnapshotEntry> entries = new ArrayList<>();
+		long size = 12;
+		for (Stripe stripe : this.stripes)
+		{
+			for (Session session : stripe.getSessions())
+			{
+				if (isExpired(session, now))
+					continue;
+				SnapshotEntry entry = new SnapshotEntry(session);
+				entries.add(entry);
+				size += entry.size();
+			}
+		}
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.READ, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+			buffer.putInt(SNAPSHOT_MAGIC);
+			buffer.putInt(SNAPSHOT_VERSION);
+			buffer.putInt(entries.size());
+			for (SnapshotEntry entry : entries)
+			{
+				entry.writeTo(buffer);
+			}
+			
+			buffer.force();
+		}
+	}
+	
+	/**
+	 * Restores the sessions from a file written with {@link #snapshot(java.nio.file.Path)}. 
+	 * The sessions that have expired since are skipped.
+	 * @param file The file the sessions are read from
+	 * @return How many sessions were restored
+	 * @throws IOException If the file couldn't be read or if it wasn't a session snapshot
+	 */
+	public int restore(java.nio.file.Path file) throws IOException
+	{
+		long now = System.currentTimeMillis();
+		int restored = 0;
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION)
+				throw new IOException(file + " is not a session snapshot");
+			
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++)
+			{
+				String id = getString(buffer);
+				long created = buffer.getLong();
+				long lastAccess = buffer.getLong();
+				Session session = new Session(id, created, lastAccess);
+				
+				int attributeCount = buffer.getInt();
+				for (int a = 0; a < attributeCount; a++)
+				{
+					String name = getString(buffer);
+					session.setAttribute(name, getString(buffer));
+				}
+				
+				if (!isExpired(session, now) && stripeFor(id).putIfAbsent(session))
+				{
+					schedule(session);
+					restored ++;
+				}
+			}
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException(file + " is truncated", e);
+		}
+		
+		return restored;
+	}
+	
+	private String generateId()
+	{
+		byte[] bytes = new byte[ID_BYTES];
+		this.random.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+	
+	private Stripe stripeFor(String id)
+	{
+		return this.stripes[(id.hashCode() & Integer.MAX_VALUE) % this.stripes.length];
+	}
+	
+	private boolean isExpired(Session session, long now)
+	{
+		return !session.isValid() || now - session.getLastAccessMillis() >= this.timeoutMillis;
+	}
+	
+	private static void expire(Stripe stripe, Session session)
+	{
+		session.invalidate();
+		stripe.remove(session);
+	}
+	
+	private List<Session> slotFor(long tick)
+	{
+		return this.wheel.get((int) (tick % WHEEL_SIZE));
+	}
+	
+	private void schedule(Session session)
+	{
+		long tick = (session.getLastAccessMillis() + this.timeoutMillis) / this.tickMillis;
+		synchronized (this.wheel)
+		{
+			slotFor(tick).add(session);
+		}
+	}
+	
+	// Checks the sessions in a single slot. Must be called while holding the wheel lock.
+	private void advance(long tick, long now)
+	{
+		List<Session> slot = slotFor(tick);
+		if (slot.isEmpty())
+			return;
+		
+		List<Session> due = new ArrayList<>(slot);
+		slot.clear();
+		for (Session session : due)
+		{
+			if (!session.isValid())
+				continue;
+			if (isExpired(session, now))
+				expire(stripeFor(session.getId()), session);
+			// Sessions that were used meanwhile are moved to their new expiration slot
+			else
+			{
+				long expirationTick = (session.getLastAccessMillis() + this.timeoutMillis) / 
+						this.tickMillis;
+				slotFor(Math.max(expirationTick, tick + 1)).add(session);
+			}
+		}
+	}
+	
+	private static void putString(MappedByteBuffer buffer, byte[] string)
+	{
+		buffer.putInt(string.length);
+		buffer.put(string);
+	}
+	
+	private static String getString(MappedByteBuffer buffer)
+	{
+		byte[] string = new byte[buffer.getInt()];
+		buffer.get(string);
+		return new String(string, StandardCharsets.UTF_8);
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	// The binary form of a session in a snapshot
+	private static class SnapshotEntry
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final byte[] id;
+		private final long createdMillis, lastAccessMillis;
+		private final List<byte[]> attributes;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public SnapshotEntry(Session session)
+		{
+			this.id = session.getId().getBytes(StandardCharsets.UTF_8);
+			this.createdMillis = session.getCreatedMillis();
+			this.lastAccessMillis = session.getLastAccessMillis();
+			
+			// The names and values are stored in turns
+			this.attributes = new ArrayList<>();
+			for (Map.Entry<String, String> attribute : session.getAttributes().entrySet())
+			{
+				this.attributes.add(attribute.getKey().getBytes(StandardCharsets.UTF_8));
+				this.attributes.add(attribute.getValue().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public long size()
+		{
+			// The strings are prefixed with their length
+			long size = 4 + this.id.length + 8 + 8 + 4;
+			for (byte[] string : this.attributes)
+			{
+				size += 4 + string.length;
+			}
+			return size;
+		}
+		
+		public void writeTo(MappedByteBuffer buffer)
+		{
+			putString(buffer, this.id);
+			buffer.putLong(this.createdMillis);
+			buffer.putLong(this.lastAccessMillis);
+			buffer.putInt(this.attributes.size() / 2);
+			for (byte[] string : this.attributes)
+			{
+				putString(buffer, string);
+			}
+		}
+	}
+	
+	private static class Stripe
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final Map<String, Session> sessions = new HashMap<>();
+		
+		
+		// OTHER METHODS	-------------
+		
+		public synchronized Session get(String id)
+		{
+			return this.sessions.get(id);
+		}
+		
+		public synchronized boolean putIfAbsent(Session session)
+		{
+			return this.sessions.putIfAbsent(session.getId(), session) == null;
+		}
+		
+		public synchronized void remove(Session session)
+		{
+			this.sessions.remove(session.getId(), session);
+		}
+		
+		public synchronized int size()
+		{
+			return this.sessions.size();
+		}
+		
+		public synchronized List<Session> getSessions()
+		{
+			return new ArrayList<>(this.sessions.values());
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package nexus_http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket limits the rate at which an action may be performed, while still allowing 
+ * short bursts. The bucket is refilled at a constant rate, up to its capacity, and each 
+ * action consumes a single token. The bucket is lock-free: its whole state is a single 
+ * timestamp that is updated with compare-and-set, so it can be shared between any number 
+ * of threads.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class TokenBucket
+{
+	// ATTRIBUTES	---------------------
+	
+	private final long nanosPerToken, burstNanos;
+	// The time at which the bucket would be empty, if no more tokens were taken
+	private final AtomicLong emptyAt;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new full token bucket
+	 * @param tokensPerSecond How many tokens are added to the bucket each second
+	 * @param capacity How many tokens the bucket can hold. This is the size of the largest 
+	 * allowed burst.
+	 */
+	public TokenBucket(double tokensPerSecond, int capacity)
+	{
+		this.nanosPerToken = Math.max(1, (long) (1000000000 / tokensPerSecond));
+		this.burstNanos = this.nanosPerToken * Math.max(1, capacity);
+		this.emptyAt = new AtomicLong(System.nanoTime() - this.burstNanos);
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Tries to take a single token from the bucket
+	 * @return 0 if a token was taken. Otherwise the time in nanoseconds until a token 
+	 * becomes available.
+	 */
+	public long tryTake()
+	{
+		while (true)
+		{
+			long now = System.nanoTime();
+			long previous = this.emptyAt.get();
+			
+			// A bucket can't hold more than its capacity, however long it has been idle
+			long next = Math.max(previous, now - this.burstNanos) + this.nanosPerToken;
+			if (next > now)
+				return next - now;
+			
+			if (this.emptyAt.compareAndSet(previous, next))
+				return 0;
+		}
+	}
+	
+	/**
+	 * @return Is the bucket full at the moment. A full bucket behaves exactly like a newly 
+	 * created one.
+	 */
+	public boolean isFull()
+	{
+		return this.emptyAt.get() <= System.nanoTime() - this.burstNanos;
+	}
+}
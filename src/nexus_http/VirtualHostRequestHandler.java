@@ -0,0 +1,367 @@
+package nexus_http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import nexus_http.HttpStatus.StatusCategory;
+
+/**
+ * A virtual host request handler dispatches the requests to other handlers based on the 
+ * host header, so that multiple services can be served from a single server. The hosts 
+ * may be exact host names ("api.example.com") or wildcard subdomains ("*.example.com"), 
+ * which match any subdomain, but not the domain itself. "*" matches any host that isn't 
+ * matched otherwise. The hosts are kept in hash maps that are replaced whenever a host is 
+ * added, so dispatching a request to an exact host only takes a single lookup and never 
+ * locks.<br>
+ * Each host keeps track of its own request counts and may limit the amount of requests 
+ * handled at the same time, so that a single busy host can't take up all the worker 
+ * threads.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class VirtualHostRequestHandler implements RequestHandler
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The host name that matches any host that isn't matched otherwise
+	 */
+	public static final String ANY_HOST = "*";
+	
+	private static final String WILDCARD_PREFIX = "*.";
+	
+	private volatile Map<String, VirtualHost> hosts;
+	private volatile Map<String, VirtualHost> wildcardHosts;
+	private volatile VirtualHost defaultHost;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new handler with no hosts
+	 */
+	public VirtualHostRequestHandler()
+	{
+		this.hosts = new HashMap<>();
+		this.wildcardHosts = new HashMap<>();
+		this.defaultHost = null;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public Response handle(Request request)
+	{
+		String hostHeader = request.getHeaders().getHost();
+		VirtualHost host = findHost(hostHeader);
+		if (host == null)
+		{
+			// Requests without a host header are malformed (in http 1.1)
+			request.close();
+			return Response.forStatus(hostHeader == null ? HttpStatus.BAD_REQUEST : 
+					HttpStatus.NOT_FOUND);
+		}
+		
+		return host.handle(request);
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Adds a new host to the handler. The requests to the host are not limited.
+	 * @param hostName The name of the host (case-insensitive), without the port. 
+	 * "*.example.com" matches all the subdomains of example.com and "*" matches any host.
+	 * @param handler The handler that handles the requests sent to the host
+	 * @return The added host, which keeps track of the requests sent to it
+	 * @see #addHost(String, RequestHandler, int, int)
+	 */
+	public VirtualHost addHost(String hostName, RequestHandler handler)
+	{
+		return addHost(hostName, handler, 0, ConcurrencyLimiter.DEFAULT_RETRY_AFTER_SECONDS);
+	}
+	
+	/**
+	 * Adds a new host to the handler. If the host was already added, it is replaced.
+	 * @param hostName The name of the host (case-insensitive), without the port. 
+	 * "*.example.com" matches all the subdomains of example.com and "*" matches any host.
+	 * @param handler The handler that handles the requests sent to the host
+	 * @param maxConcurrent How many requests may be handled for the host at the same time. 
+	 * 0 if the requests shouldn't be limited.
+	 * @param retryAfterSeconds How many seconds the rejected clients are told to wait
+	 * @return The added host, which keeps track of the requests sent to it
+	 */
+	public synchronized VirtualHost addHost(String hostName, RequestHandler handler, 
+			int maxConcurrent, int retryAfterSeconds)
+	{
+		String name = hostName.toLowerCase();
+		VirtualHost host = new VirtualHost(name, handler, maxConcurrent, retryAfterSeconds);
+		
+		// The maps are copied so that the dispatching never needs to lock
+		if (name.equals(ANY_HOST))
+			this.defaultHost = host;
+		else if (name.startsWith(WILDCARD_PREFIX))
+		{
+			Map<String, VirtualHost> wildcardHosts = new HashMap<>(this.wildcardHosts);
+			wildcardHosts.put(name.substring(WILDCARD_PREFIX.length()), host);
+			this.wildcardHosts = wildcardHosts;
+		}
+		else
+		{
+			Map<String, VirtualHost> hosts = new HashMap<>(this.hosts);
+			hosts.put(name, host);
+			this.hosts = hosts;
+		}
+		
+		return host;
+	}
+	
+	/**
+	 * Removes a host from the handler
+	 * @param hostName The name of the host, as it was added
+	 */
+	public synchronized void removeHost(String hostName)
+	{
+		String name = hostName.toLowerCase();
+		if (name.equals(ANY_HOST))
+			this.defaultHost = null;
+		else if (name.startsWith(WILDCARD_PREFIX))
+		{
+			Map<String, VirtualHost> wildcardHosts = new HashMap<>(this.wildcardHosts);
+			wildcardHosts.remove(name.substring(WILDCARD_PREFIX.length()));
+			this.wildcardHosts = wildcardHosts;
+		}
+		else
+		{
+			Map<String, VirtualHost> hosts = new HashMap<>(this.hosts);
+			hosts.remove(name);
+			this.hosts = hosts;
+		}
+	}
+	
+	/**
+	 * @return All the hosts in this handler
+	 */
+	public Collection<VirtualHost> getHosts()
+	{
+		Collection<VirtualHost> hosts = new ArrayList<>();
+		hosts.addAll(this.hosts.values());
+		hosts.addAll(this.wildcardHosts.values());
+		VirtualHost defaultHost = this.defaultHost;
+		if (defaultHost != null)
+			hosts.add(defaultHost);
+		
+		return hosts;
+	}
+	
+	/**
+	 * Finds the host that handles the requests sent to a host
+	 * @param hostHeader The value of a host header. May include the port.
+	 * @return The host that handles the requests or null if no host matches
+	 */
+	public VirtualHost findHost(String hostHeader)
+	{
+		if (hostHeader == null)
+			return null;
+		
+		String name = parseHostName(hostHeader);
+		VirtualHost host = this.hosts.get(name);
+		if (host != null)
+			return host;
+		
+		// Wildcards are checked from the most specific domain to the least specific one
+		Map<String, VirtualHost> wildcardHosts = this.wildcardHosts;
+		if (!wildcardHosts.isEmpty())
+		{
+			int dot = name.indexOf('.');
+			while (dot >= 0)
+			{
+				host = wildcardHosts.get(name.substring(dot + 1));
+				if (host != null)
+					return host;
+				dot = name.indexOf('.', dot + 1);
+			}
+		}
+		
+		return this.defaultHost;
+	}
+	
+	private static String parseHostName(String hostHeader)
+	{
+		// Removes the port and the trailing dot. Ipv6 addresses are in brackets.
+		String name = hostHeader.trim();
+		int end = name.length();
+		if (name.startsWith("["))
+		{
+			int closing = name.indexOf(']');
+			if (closing > 0)
+				end = closing + 1;
+		}
+		else
+		{
+			int colon = name.lastIndexOf(':');
+			if (colon >= 0)
+				end = colon;
+		}
+		if (end > 0 && name.charAt(end - 1) == '.')
+			end --;
+		
+		if (end < name.length())
+			name = name.substring(0, end);
+		return name.toLowerCase();
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A virtual host handles the requests sent to a single host name and keeps track of 
+	 * them
+	 * @author Mikko Hilpinen
+	 * @since 18.10.2026
+	 */
+	public static class VirtualHost
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final String name;
+		private final RequestHandler handler;
+		private final int maxConcurrent, retryAfterSeconds;
+		private final AtomicInteger active;
+		private final LongAdder requests, rejected, serverFailures;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		private VirtualHost(String name, RequestHandler handler, int maxConcurrent, 
+				int retryAfterSeconds)
+		{
+			this.name = name;
+			this.handler = handler;
+			this.maxConcurrent = maxConcurrent;
+			this.retryAfterSeconds = retryAfterSeconds;
+			this.active = new AtomicInteger();
+			this.requests = new LongAdder();
+			this.rejected = new LongAdder();
+			this.serverFailures = new LongAdder();
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public String toString()
+		{
+			return this.name + ": " + getRequestCount() + " requests, " + 
+					getRejectedCount() + " rejected, " + getServerFailureCount() + 
+					" server failures, " + getActiveRequestCount() + " active";
+		}
+		
+		
+		// ACCESSORS	-----------------
+		
+		/**
+		 * @return The name of the host, as it was added
+		 */
+		public String getName()
+		{
+			return this.name;
+		}
+		
+		/**
+		 * @return The handler that handles the requests sent to this host
+		 */
+		public RequestHandler getHandler()
+		{
+			return this.handler;
+		}
+		
+		/**
+		 * @return How many requests have been sent to this host, including the rejected 
+		 * requests
+		 */
+		public long getRequestCount()
+		{
+			return this.requests.sum();
+		}
+		
+		/**
+		 * @return How many requests were rejected because there were too many requests 
+		 * being handled for this host already
+		 */
+		public long getRejectedCount()
+		{
+			return this.rejected.sum();
+		}
+		
+		/**
+		 * @return How many requests ended in a server failure (5xx) status
+		 */
+		public long getServerFailureCount()
+		{
+			return this.serverFailures.sum();
+		}
+		
+		/**
+		 * @return How many requests are being handled for this host at the moment
+		 */
+		public int getActiveRequestCount()
+		{
+			return this.active.get();
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		private Response handle(Request request)
+		{
+			this.requests.increment();
+			
+			// Rejects the request if the host already has too many requests
+			if (!acquire())
+			{
+				this.rejected.increment();
+				request.close();
+				return new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, 
+						"Too many concurrent requests to " + this.name, 
+						this.retryAfterSeconds).toResponse();
+			}
+			
+			try
+			{
+				Response response = this.handler.handle(request);
+				if (response.getStatus() != null && 
+						response.getStatus().getCategory() == StatusCategory.SERVER_FAILURE)
+					this.serverFailures.increment();
+				return response;
+			}
+			finally
+			{
+				this.active.decrementAndGet();
+			}
+		}
+		
+		private boolean acquire()
+		{
+			if (this.maxConcurrent <= 0)
+			{
+				this.active.incrementAndGet();
+				return true;
+			}
+			
+			while (true)
+			{
+				int current = this.active.get();
+				if (current >= this.maxConcurrent)
+					return false;
+				if (this.active.compareAndSet(current, current + 1))
+					return true;
+			}
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package nexus_rest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An asynchronous request log places the entries in a bounded lock-free queue, from which 
+ * a background thread writes them to a channel in batches. Logging an entry never blocks the 
+ * request thread. When the queue is over half full, only a sample of the access entries is 
+ * kept and the last quarter of the queue is reserved for the errors. When the queue is full, 
+ * the new entries are dropped. The amount of dropped entries is written to the log once 
+ * there is room again.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class AsyncRequestLog implements RequestLog, AutoCloseable
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How many entries the queue holds by default
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	private static final int MAX_BATCH_SIZE = 256;
+	private static final int ACCESS_SAMPLE_RATE = 8;
+	private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+	
+	private static AsyncRequestLog standardError = null;
+	
+	private final WritableByteChannel channel;
+	private final boolean closesChannel, logsAccess;
+	private final EntryQueue queue;
+	private final LongAdder dropped;
+	private final AtomicLong sampleCounter;
+	private final AtomicBoolean writerSleeping;
+	private final Thread writer;
+	private volatile boolean running;
+	private long reportedDropped;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new log and starts its writer thread
+	 * @param channel The channel the entries are written to
+	 * @param capacity How many entries may wait to be written at once. Rounded up to the 
+	 * next power of two.
+	 * @param logsAccess Should the handled requests be logged in addition to the errors
+	 * @param closesChannel Should the channel be closed when the log is closed
+	 */
+	public AsyncRequestLog(WritableByteChannel channel, int capacity, boolean logsAccess, 
+			boolean closesChannel)
+	{
+		this.channel = channel;
+		this.closesChannel = closesChannel;
+		this.logsAccess = logsAccess;
+		this.queue = new EntryQueue(capacity);
+		this.dropped = new LongAdder();
+		this.sampleCounter = new AtomicLong();
+		this.writerSleeping = new AtomicBoolean(false);
+		this.reportedDropped = 0;
+		this.running = true;
+		
+		this.writer = new Thread(this::writeEntries, "request-log-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+	
+	/**
+	 * Creates a new log that appends the entries to a file
+	 * @param file The file the entries are written to. The file is created if it doesn't 
+	 * exist yet.
+	 * @param logsAccess Should the handled requests be logged in addition to the errors
+	 * @return A log that writes to the file. The file is closed when the log is closed.
+	 * @throws IOException If the file couldn't be opened
+	 */
+	public static AsyncRequestLog openFile(java.nio.file.Path file, boolean logsAccess) 
+			throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		return new AsyncRequestLog(channel, DEFAULT_CAPACITY, logsAccess, true);
+	}
+	
+	/**
+	 * @return A shared log that writes the errors to the standard error stream. The log is 
+	 * created when this method is first called.
+	 */
+	public static synchronized AsyncRequestLog standardError()
+	{
+		if (standardError == null)
+			standardError = new AsyncRequestLog(Channels.newChannel(System.err), 
+					DEFAULT_CAPACITY, false, false);
+		return standardError;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public void log(LogEntry entry)
+	{
+		if (!this.running)
+		{
+			this.dropped.increment();
+			return;
+		}
+		
+		// Under load, only some of the access entries are kept so that there's still room
+		// for the errors
+		if (entry.getType() == LogEntry.Type.ACCESS)
+		{
+			int size = this.queue.size();
+			int capacity = this.queue.capacity();
+			if (size >= capacity / 4 * 3 || (size > capacity / 2 && 
+					this.sampleCounter.incrementAndGet() % ACCESS_SAMPLE_RATE != 0))
+			{
+				this.dropped.increment();
+				return;
+			}
+		}
+		
+		if (!this.queue.offer(entry))
+		{
+			this.dropped.increment();
+			return;
+		}
+		
+		// Wakes the writer if it went to sleep. Only one thread needs to do that.
+		if (this.writerSleeping.get() && this.writerSleeping.compareAndSet(true, false))
+			LockSupport.unpark(this.writer);
+	}
+	
+	@Override
+	public boolean logsAccess()
+	{
+		return this.logsAccess;
+	}
+	
+	/**
+	 * Stops accepting new entries, writes the remaining entries and closes the channel, if 
+	 * the log owns it
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		this.running = false;
+		LockSupport.unpark(this.writer);
+		try
+		{
+			this.writer.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		
+		if (this.closesChannel)
+			this.channel.close();
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many entries have been dropped in total because the log couldn't keep up
+	 */
+	public long getDroppedCount()
+	{
+		return this.dropped.sum();
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	private void writeEntries()
+	{
+		StringBuilder batch = new StringBuilder();
+		while (true)
+		{
+			// Collects the waiting entries into a single write
+			int count = 0;
+			LogEntry entry;
+			while (count < MAX_BATCH_SIZE && (entry = this.queue.poll()) != null)
+			{
+				entry.appendTo(batch);
+				count ++;
+			}
+			appendDropReport(batch);
+			
+			if (batch.length() > 0)
+			{
+				write(batch, count);
+				batch.setLength(0);
+			}
+			else if (!this.running)
+				return;
+			else
+			{
+				// Sleeps until new entries are added. The queue is checked once more after
+				// announcing the sleep, so that no wake-up is missed.
+				this.writerSleeping.set(true);
+				if (this.queue.isEmpty() && this.running)
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				this.writerSleeping.set(false);
+			}
+		}
+	}
+	
+	private void appendDropReport(StringBuilder batch)
+	{
+		long totalDropped = this.dropped.sum();
+		if (totalDropped > this.reportedDropped)
+		{
+			batch.append(totalDropped - this.reportedDropped).append(
+					" log entries were dropped\n");
+			this.reportedDropped = totalDropped;
+		}
+	}
+	
+	private void write(StringBuilder batch, int entryCount)
+	{
+		ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+		try
+		{
+			while (buffer.hasRemaining())
+			{
+				this.channel.write(buffer);
+			}
+		}
+		catch (IOException e)
+		{
+			// The entries can't be written anywhere else, so they're counted as dropped
+			this.dropped.add(entryCount);
+		}
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A bounded lock-free queue for multiple producers and a single consumer. Each slot has 
+	 * a sequence number that tells whether the slot is ready to be written or read for the 
+	 * current lap around the buffer.
+	 */
+	private static class EntryQueue
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final LogEntry[] slots;
+		private final AtomicLongArray sequences;
+		private final int mask;
+		private final AtomicLong tail;
+		private volatile long head;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public EntryQueue(int capacity)
+		{
+			int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+			this.slots = new LogEntry[size];
+			this.sequences = new AtomicLongArray(size);
+			for (int i = 0; i < size; i++)
+			{
+				this.sequences.set(i, i);
+			}
+			this.mask = size - 1;
+			this.tail = new AtomicLong(0);
+			this.head = 0;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public boolean offer(LogEntry entry)
+		{
+			while (true)
+			{
+				long position = this.tail.get();
+				int index = (int) (position & this.mask);
+				long difference = this.sequences.get(index) - position;
+				
+				// The slot is still waiting to be read, so the queue is full
+				if (difference < 0)
+					return false;
+				if (difference == 0 && this.tail.compareAndSet(position, position + 1))
+				{
+					this.slots[index] = entry;
+					this.sequences.set(index, position + 1);
+					return true;
+				}
+			}
+		}
+		
+		public LogEntry poll()
+		{
+			long position = this.head;
+			int index = (int) (position & this.mask);
+			if (this.sequences.get(index) != position + 1)
+				return null;
+			
+			LogEntry entry = this.slots[index];
+			this.slots[index] = null;
+			// The slot may be written again on the next lap
+			this.sequences.set(index, position + this.slots.length);
+			this.head = position + 1;
+			return entry;
+		}
+		
+		public boolean isEmpty()
+		{
+			long position = this.head;
+			return this.sequences.get((int) (position & this.mask)) != position + 1;
+		}
+		
+		public int size()
+		{
+			return (int) (this.tail.get() - this.head);
+		}
+		
+		public int capacity()
+		{
+			return this.slots.length;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package nexus_rest;
+
+import java.io.OutputStream;
+
+/**
+ * A counting output stream discards everything written into it, but keeps track of how 
+ * many bytes were written. This is used for finding out the length of a response body 
+ * without keeping the body.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+class CountingOutputStream extends OutputStream
+{
+	// ATTRIBUTES	---------------------
+	
+	private long count;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new stream
+	 */
+	public CountingOutputStream()
+	{
+		this.count = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public void write(int b)
+	{
+		this.count ++;
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len)
+	{
+		this.count += len;
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many bytes have been written into this stream
+	 */
+	public long getCount()
+	{
+		return this.count;
+	}
+}
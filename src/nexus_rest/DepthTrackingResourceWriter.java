@@ -0,0 +1,179 @@
+package nexus_rest;
+
+import java.io.OutputStream;
+import java.util.BitSet;
+
+import nexus_http.ContentType;
+import nexus_http.Link;
+import nexus_http.Path;
+import nexus_http.ServerConfig;
+import utopia.flow.generics.Value;
+
+/**
+ * A depth tracking resource writer passes everything to another writer, but keeps track of 
+ * the resources and arrays that are currently open. This allows the writing of a batch 
+ * operation to be interrupted at any point without breaking the rest of the document.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+class DepthTrackingResourceWriter implements ResourceWriter
+{
+	// ATTRIBUTES	---------------------
+	
+	private final ResourceWriter writer;
+	// The open elements that are arrays
+	private final BitSet arrays;
+	private int depth;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new writer
+	 * @param writer The writer that does the actual writing
+	 */
+	public DepthTrackingResourceWriter(ResourceWriter writer)
+	{
+		this.writer = writer;
+		this.arrays = new BitSet();
+		this.depth = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public void writeResourceStart(String resourceName, Path resourceLinkPath) 
+			throws ResourceWriterException
+	{
+		this.writer.writeResourceStart(resourceName, resourceLinkPath);
+		opened(false);
+	}
+	
+	@Override
+	public void writeResourceEnd() throws ResourceWriterException
+	{
+		this.writer.writeResourceEnd();
+		closed();
+	}
+	
+	@Override
+	public void writeArrayStart(String arrayName) throws ResourceWriterException
+	{
+		this.writer.writeArrayStart(arrayName);
+		opened(true);
+	}
+	
+	@Override
+	public void writeArrayEnd() throws ResourceWriterException
+	{
+		this.writer.writeArrayEnd();
+		closed();
+	}
+	
+	@Override
+	public void writeProperty(String propertyName, Value propertyValue) 
+			throws ResourceWriterException
+	{
+		this.writer.writeProperty(propertyName, propertyValue);
+	}
+	
+	@Override
+	public void writeLink(Link link) throws ResourceWriterException
+	{
+		this.writer.writeLink(link);
+	}
+	
+	@Override
+	public void writeDocumentStart(String rootName) throws ResourceWriterException
+	{
+		this.writer.writeDocumentStart(rootName);
+		opened(false);
+	}
+	
+	@Override
+	public void writeDocumentEnd() throws ResourceWriterException
+	{
+		this.writer.writeDocumentEnd();
+		this.depth = 0;
+	}
+	
+	@Override
+	public OutputStream getStream()
+	{
+		return this.writer.getStream();
+	}
+	
+	@Override
+	public void close()
+	{
+		this.writer.close();
+	}
+	
+	@Override
+	public LinkWriteStyle getLinkWriteStyle()
+	{
+		return this.writer.getLinkWriteStyle();
+	}
+	
+	@Override
+	public String getCharset()
+	{
+		return this.writer.getCharset();
+	}
+	
+	@Override
+	public ContentType getContentType()
+	{
+		return this.writer.getContentType();
+	}
+	
+	@Override
+	public ServerConfig getServerConfig()
+	{
+		return this.writer.getServerConfig();
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many resources and arrays are currently open, including the document 
+	 * root
+	 */
+	public int getDepth()
+	{
+		return this.depth;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Closes the open resources and arrays until the writer is back at the specified depth
+	 * @param depth The depth the writer returns to
+	 * @throws ResourceWriterException If the writing fails
+	 */
+	public void closeTo(int depth) throws ResourceWriterException
+	{
+		while (this.depth > depth)
+		{
+			if (this.arrays.get(this.depth - 1))
+				writeArrayEnd();
+			else
+				writeResourceEnd();
+		}
+	}
+	
+	private void opened(boolean array)
+	{
+		this.arrays.set(this.depth, array);
+		this.depth ++;
+	}
+	
+	private void closed()
+	{
+		if (this.depth > 0)
+			this.depth --;
+	}
+}
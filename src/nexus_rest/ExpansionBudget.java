@@ -0,0 +1,210 @@
+package nexus_rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+
+/**
+ * An expansion budget limits how much work a single request may cause by following links 
+ * between resources. The budget limits the depth of the followed links, as well as the total 
+ * amount of resources that are resolved. The budget also keeps track of the resources 
+ * currently being expanded, so that a resource can't be expanded under itself. A budget 
+ * is used by a single request at a time and is not thread safe.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ExpansionBudget
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How deep the resource expansions can go by default
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 16;
+	/**
+	 * How many resources can be resolved in a single request by default
+	 */
+	public static final int DEFAULT_MAX_RESOURCES = 10000;
+	
+	/**
+	 * A budget that doesn't limit expansions in any way
+	 */
+	public static final ExpansionBudget UNLIMITED = new ExpansionBudget(false);
+	
+	private final boolean limited;
+	private final int maxDepth, maxResources;
+	private int resourceCount;
+	private List<Resource> chain;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new budget with the default limits
+	 */
+	public ExpansionBudget()
+	{
+		this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_RESOURCES);
+	}
+	
+	/**
+	 * Creates a new budget
+	 * @param maxDepth How deep the resource expansions can go
+	 * @param maxResources How many resources can be resolved in total
+	 */
+	public ExpansionBudget(int maxDepth, int maxResources)
+	{
+		this.limited = true;
+		this.maxDepth = maxDepth;
+		this.maxResources = maxResources;
+		this.resourceCount = 0;
+		this.chain = new ArrayList<>();
+	}
+	
+	private ExpansionBudget(boolean limited)
+	{
+		this.limited = limited;
+		this.maxDepth = Integer.MAX_VALUE;
+		this.maxResources = Integer.MAX_VALUE;
+		this.resourceCount = 0;
+		this.chain = null;
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many resources have been resolved within this budget so far
+	 */
+	public int getResourceCount()
+	{
+		return this.resourceCount;
+	}
+	
+	/**
+	 * @return How deep the resource expansions can go
+	 */
+	public int getMaxDepth()
+	{
+		return this.maxDepth;
+	}
+	
+	/**
+	 * @return How many resources can be resolved in total
+	 */
+	public int getMaxResources()
+	{
+		return this.maxResources;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Marks the start of a resource's expansion. Each call should be followed by a call to 
+	 * {@link #exit()} once the resources under the resource have been resolved.
+	 * @param resource The resource that is being expanded
+	 * @throws ExpansionLimitException If the expansion went over the budget or if the 
+	 * resource was already being expanded
+	 */
+	public void enter(Resource resource) throws ExpansionLimitException
+	{
+		if (!this.limited)
+			return;
+		
+		if (this.resourceCount >= this.maxResources)
+			throw new ExpansionLimitException("The request expands to more than " + 
+					this.maxResources + " resources");
+		if (this.chain.size() >= this.maxDepth)
+			throw new ExpansionLimitException("The request expands deeper than " + 
+					this.maxDepth + " levels");
+		if (isExpanding(resource))
+			throw new ExpansionLimitException("The request expands " + resource.getPath() + 
+					" under itself");
+		
+		this.resourceCount ++;
+		this.chain.add(resource);
+	}
+	
+	/**
+	 * Checks whether a resource is currently being expanded, in which case it can't be 
+	 * expanded again under itself
+	 * @param resource A resource
+	 * @return Is the resource being expanded at the moment
+	 */
+	public boolean isExpanding(Resource resource)
+	{
+		if (!this.limited)
+			return false;
+		
+		for (Resource ancestor : this.chain)
+		{
+			if (ancestor == resource)
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Marks the end of the latest resource expansion
+	 */
+	public void exit()
+	{
+		if (this.limited && !this.chain.isEmpty())
+			this.chain.remove(this.chain.size() - 1);
+	}
+	
+	/**
+	 * @return The resources currently being expanded, starting from the highest one. Used 
+	 * for continuing the expansion later.
+	 * @see #resume(List)
+	 */
+	public List<Resource> captureChain()
+	{
+		if (!this.limited)
+			return null;
+		return new ArrayList<>(this.chain);
+	}
+	
+	/**
+	 * Continues an expansion that was started earlier
+	 * @param chain The resources being expanded at the time, as returned by 
+	 * {@link #captureChain()}
+	 * @return The resources that were being expanded before this call. These should be 
+	 * resumed once the continued expansion has finished.
+	 */
+	public List<Resource> resume(List<Resource> chain)
+	{
+		if (!this.limited)
+			return null;
+		
+		List<Resource> previous = this.chain;
+		this.chain = chain == null ? new ArrayList<>() : new ArrayList<>(chain);
+		return previous;
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * These exceptions are thrown when a request tries to expand resources beyond its 
+	 * expansion budget
+	 * @author Mikko Hilpinen
+	 * @since 18.10.2026
+	 */
+	public static class ExpansionLimitException extends HttpException
+	{
+		private static final long serialVersionUID = -2301774946582385526L;
+		
+		/**
+		 * Creates a new exception
+		 * @param message The message sent to the client
+		 */
+		public ExpansionLimitException(String message)
+		{
+			super(HttpStatus.BAD_REQUEST, message);
+		}
+	}
+}
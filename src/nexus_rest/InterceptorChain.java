@@ -0,0 +1,199 @@
+package nexus_rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nexus_http.HttpException;
+import nexus_http.Request;
+import nexus_http.Response;
+
+/**
+ * An interceptor chain calls a set of interceptors in order. The chain is compiled once 
+ * when it is created: each hook gets an array of only those interceptors that actually 
+ * implement it, so calling a hook doesn't allocate anything and hooks nobody implements 
+ * cost next to nothing. The chain is immutable and can be shared between threads.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class InterceptorChain
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * A chain without any interceptors
+	 */
+	public static final InterceptorChain EMPTY = new InterceptorChain();
+	
+	private final RequestInterceptor[] interceptors, beforeResolve, afterResolve, 
+			beforeRender, afterResponse;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new interceptor chain
+	 * @param interceptors The interceptors in the order they should be called. The 
+	 * {@link RequestInterceptor#afterResponse(Request, Response)} hooks are called in 
+	 * reverse order.
+	 */
+	public InterceptorChain(RequestInterceptor... interceptors)
+	{
+		this.interceptors = interceptors.clone();
+		this.beforeResolve = compile(this.interceptors, "beforeResolve", false, 
+				Request.class);
+		this.afterResolve = compile(this.interceptors, "afterResolve", false, Request.class, 
+				List.class);
+		this.beforeRender = compile(this.interceptors, "beforeRender", false, Request.class, 
+				Response.class);
+		this.afterResponse = compile(this.interceptors, "afterResponse", true, Request.class, 
+				Response.class);
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The interceptors in this chain, in order
+	 */
+	public List<RequestInterceptor> getInterceptors()
+	{
+		return Arrays.asList(this.interceptors.clone());
+	}
+	
+	/**
+	 * @return Does any interceptor in this chain handle the responses once they're ready. 
+	 * Since those interceptors may modify the responses, shared immutable responses can't 
+	 * be used in that case.
+	 */
+	public boolean handlesResponses()
+	{
+		return this.afterResponse.length > 0;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Creates a new chain that contains the interceptors of this chain, followed by the 
+	 * provided interceptor
+	 * @param interceptor The interceptor that is added to the end of the chain
+	 * @return A new chain
+	 */
+	public InterceptorChain plus(RequestInterceptor interceptor)
+	{
+		RequestInterceptor[] interceptors = Arrays.copyOf(this.interceptors, 
+				this.interceptors.length + 1);
+		interceptors[this.interceptors.length] = interceptor;
+		return new InterceptorChain(interceptors);
+	}
+	
+	/**
+	 * Calls the before resolve hooks until one of them provides a response
+	 * @param request The request being handled
+	 * @return The response provided by an interceptor. Null if the request should be 
+	 * handled normally.
+	 * @throws HttpException If an interceptor rejected the request
+	 * @see RequestInterceptor#beforeResolve(Request)
+	 */
+	public Response beforeResolve(Request request) throws HttpException
+	{
+		for (int i = 0; i < this.beforeResolve.length; i++)
+		{
+			Response response = this.beforeResolve[i].beforeResolve(request);
+			if (response != null)
+				return response;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Calls the after resolve hooks until one of them provides a response
+	 * @param request The request being handled
+	 * @param targetResources The resources targeted by the request
+	 * @return The response provided by an interceptor. Null if the operation should be 
+	 * performed normally.
+	 * @throws HttpException If an interceptor rejected the request
+	 * @see RequestInterceptor#afterResolve(Request, List)
+	 */
+	public Response afterResolve(Request request, List<Resource> targetResources) throws 
+			HttpException
+	{
+		for (int i = 0; i < this.afterResolve.length; i++)
+		{
+			Response response = this.afterResolve[i].afterResolve(request, targetResources);
+			if (response != null)
+				return response;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Calls the before render hooks
+	 * @param request The request being handled
+	 * @param response The response that will be written
+	 * @throws HttpException If an interceptor rejected the request
+	 * @see RequestInterceptor#beforeRender(Request, Response)
+	 */
+	public void beforeRender(Request request, Response response) throws HttpException
+	{
+		for (int i = 0; i < this.beforeRender.length; i++)
+		{
+			this.beforeRender[i].beforeRender(request, response);
+		}
+	}
+	
+	/**
+	 * Calls the after response hooks, starting from the last interceptor
+	 * @param request The handled request
+	 * @param response The response that will be sent
+	 * @see RequestInterceptor#afterResponse(Request, Response)
+	 */
+	public void afterResponse(Request request, Response response)
+	{
+		for (int i = 0; i < this.afterResponse.length; i++)
+		{
+			this.afterResponse[i].afterResponse(request, response);
+		}
+	}
+	
+	private static RequestInterceptor[] compile(RequestInterceptor[] interceptors, 
+			String hookName, boolean reverse, Class<?>... parameterTypes)
+	{
+		List<RequestInterceptor> implementing = new ArrayList<>();
+		for (RequestInterceptor interceptor : interceptors)
+		{
+			if (implementsHook(interceptor, hookName, parameterTypes))
+				implementing.add(interceptor);
+		}
+		
+		if (reverse)
+		{
+			List<RequestInterceptor> reversed = new ArrayList<>(implementing.size());
+			for (int i = implementing.size() - 1; i >= 0; i--)
+			{
+				reversed.add(implementing.get(i));
+			}
+			implementing = reversed;
+		}
+		
+		return implementing.toArray(new RequestInterceptor[implementing.size()]);
+	}
+	
+	private static boolean implementsHook(RequestInterceptor interceptor, String hookName, 
+			Class<?>... parameterTypes)
+	{
+		// Interceptors that only inherit the default (no-op) implementation are skipped
+		try
+		{
+			return interceptor.getClass().getMethod(hookName, 
+					parameterTypes).getDeclaringClass() != RequestInterceptor.class;
+		}
+		catch (NoSuchMethodException e)
+		{
+			return true;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package nexus_rest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram records durations into buckets whose sizes grow in powers of two. 
+ * Recording is lock-free and doesn't allocate, so the histogram can be updated from any 
+ * number of threads at once. The percentiles are estimated from the bucket bounds.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class LatencyHistogram
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The amount of buckets in each histogram. Bucket 0 contains zero durations and bucket 
+	 * i the durations between 2^(i - 1) and 2^i - 1 nanoseconds.
+	 */
+	public static final int BUCKET_COUNT = 64;
+	
+	private final LongAdder count, totalNanos;
+	private final AtomicLong maxNanos;
+	private final AtomicLongArray buckets;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new empty histogram
+	 */
+	public LatencyHistogram()
+	{
+		this.count = new LongAdder();
+		this.totalNanos = new LongAdder();
+		this.maxNanos = new AtomicLong();
+		this.buckets = new AtomicLongArray(BUCKET_COUNT);
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many durations have been recorded
+	 */
+	public long getCount()
+	{
+		return this.count.sum();
+	}
+	
+	/**
+	 * @return The sum of all recorded durations in nanoseconds
+	 */
+	public long getTotalNanos()
+	{
+		return this.totalNanos.sum();
+	}
+	
+	/**
+	 * @return The longest recorded duration in nanoseconds
+	 */
+	public long getMaxNanos()
+	{
+		return this.maxNanos.get();
+	}
+	
+	/**
+	 * @param bucketIndex The index of a bucket [0, {@value #BUCKET_COUNT})
+	 * @return How many durations have been recorded to the bucket
+	 */
+	public long getBucketCount(int bucketIndex)
+	{
+		return this.buckets.get(bucketIndex);
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Records a new duration
+	 * @param nanos The duration in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		long duration = Math.max(0, nanos);
+		
+		this.count.increment();
+		this.totalNanos.add(duration);
+		this.buckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(duration));
+		
+		long max = this.maxNanos.get();
+		while (duration > max && !this.maxNanos.compareAndSet(max, duration))
+		{
+			max = this.maxNanos.get();
+		}
+	}
+	
+	/**
+	 * @return The average recorded duration in nanoseconds. 0 if nothing has been recorded.
+	 */
+	public long getMeanNanos()
+	{
+		long count = getCount();
+		return count == 0 ? 0 : getTotalNanos() / count;
+	}
+	
+	/**
+	 * Estimates a percentile of the recorded durations
+	 * @param percentile The percentile [0, 1], 0.99 for example
+	 * @return The upper bound of the bucket that contains the percentile, in nanoseconds. 
+	 * 0 if nothing has been recorded.
+	 */
+	public long getPercentileNanos(double percentile)
+	{
+		long count = getCount();
+		if (count == 0)
+			return 0;
+		
+		long target = (long) Math.ceil(count * Math.min(1, Math.max(0, percentile)));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++)
+		{
+			seen += this.buckets.get(i);
+			if (seen >= target)
+				return Math.min(getMaxNanos(), (1L << i) - 1);
+		}
+		
+		return getMaxNanos();
+	}
+}
@@ -0,0 +1,119 @@
+package nexus_rest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import nexus_http.HttpStatus.StatusCategory;
+import nexus_http.Method;
+
+/**
+ * Latency metrics keep a separate latency histogram for each combination of request phase, 
+ * method, status category and root resource. The histograms are created when they are 
+ * first needed, after which recording doesn't allocate or lock. The amount of request 
+ * counts in the {@link RequestPhase#TOTAL} histograms can be used for measuring throughput.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class LatencyMetrics implements MetricsRecorder
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final RequestPhase[] PHASES = RequestPhase.values();
+	private static final Method[] METHODS = Method.values();
+	private static final StatusCategory[] STATUSES = StatusCategory.values();
+	private static final int HISTOGRAMS_PER_ROOT = PHASES.length * METHODS.length * 
+			STATUSES.length;
+	// Requests without a known root resource are recorded under this key
+	private static final String NO_ROOT = "";
+	
+	private final Map<String, AtomicReferenceArray<LatencyHistogram>> histograms;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new empty set of metrics
+	 */
+	public LatencyMetrics()
+	{
+		this.histograms = new ConcurrentHashMap<>();
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public void record(RequestPhase phase, Method method, StatusCategory status, String root, 
+			long nanos)
+	{
+		getHistogram(phase, method, status, root).record(nanos);
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Finds the histogram for a combination of tags
+	 * @param phase The measured phase
+	 * @param method The method of the requests
+	 * @param status The status category of the responses
+	 * @param root The name of the targeted root resource in lower case. Null for requests 
+	 * whose root resource couldn't be determined.
+	 * @return The histogram for the tags. Created if it didn't exist yet.
+	 */
+	public LatencyHistogram getHistogram(RequestPhase phase, Method method, 
+			StatusCategory status, String root)
+	{
+		String key = root == null ? NO_ROOT : root;
+		AtomicReferenceArray<LatencyHistogram> rootHistograms = this.histograms.get(key);
+		if (rootHistograms == null)
+			rootHistograms = this.histograms.computeIfAbsent(key, 
+					k -> new AtomicReferenceArray<>(HISTOGRAMS_PER_ROOT));
+		
+		int index = (phase.ordinal() * METHODS.length + method.ordinal()) * STATUSES.length + 
+				status.ordinal();
+		LatencyHistogram histogram = rootHistograms.get(index);
+		if (histogram == null)
+		{
+			// If another thread created the histogram first, that one is used
+			rootHistograms.compareAndSet(index, null, new LatencyHistogram());
+			histogram = rootHistograms.get(index);
+		}
+		
+		return histogram;
+	}
+	
+	/**
+	 * Sends each recorded histogram to the provided sink. The metrics are not reset.
+	 * @param sink The sink that receives the metrics
+	 */
+	public void export(MetricsSink sink)
+	{
+		for (Map.Entry<String, AtomicReferenceArray<LatencyHistogram>> entry : 
+				this.histograms.entrySet())
+		{
+			String root = entry.getKey().equals(NO_ROOT) ? null : entry.getKey();
+			AtomicReferenceArray<LatencyHistogram> rootHistograms = entry.getValue();
+			for (int i = 0; i < HISTOGRAMS_PER_ROOT; i++)
+			{
+				LatencyHistogram histogram = rootHistograms.get(i);
+				if (histogram != null && histogram.getCount() > 0)
+				{
+					int methodAndPhase = i / STATUSES.length;
+					sink.accept(PHASES[methodAndPhase / METHODS.length], 
+							METHODS[methodAndPhase % METHODS.length], 
+							STATUSES[i % STATUSES.length], root, histogram);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes all the recorded metrics
+	 */
+	public void clear()
+	{
+		this.histograms.clear();
+	}
+}
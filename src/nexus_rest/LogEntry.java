@@ -0,0 +1,204 @@
+package nexus_rest;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+
+/**
+ * A log entry describes a single handled request or an error that occurred while handling 
+ * one. The entries only hold the information needed for writing them, so that they are cheap 
+ * to create while handling a request. The entries are formatted into text only when they are 
+ * written.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class LogEntry
+{
+	// ATTRIBUTES	---------------------
+	
+	private final Type type;
+	private final long timeMillis;
+	private final Method method;
+	private final String target;
+	private final HttpStatus status;
+	private final long durationNanos;
+	private final String message;
+	private final Throwable error;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private LogEntry(Type type, Method method, String target, HttpStatus status, 
+			long durationNanos, String message, Throwable error)
+	{
+		this.type = type;
+		this.timeMillis = System.currentTimeMillis();
+		this.method = method;
+		this.target = target;
+		this.status = status;
+		this.durationNanos = durationNanos;
+		this.message = message;
+		this.error = error;
+	}
+	
+	/**
+	 * Creates a new entry for a handled request
+	 * @param method The method of the request
+	 * @param target The path targeted by the request
+	 * @param status The status of the response
+	 * @param durationNanos How long it took to handle the request, in nanoseconds
+	 * @return An access log entry
+	 */
+	public static LogEntry access(Method method, String target, HttpStatus status, 
+			long durationNanos)
+	{
+		return new LogEntry(Type.ACCESS, method, target, status, durationNanos, null, null);
+	}
+	
+	/**
+	 * Creates a new entry for an error
+	 * @param method The method of the request that was being handled
+	 * @param target The path or operation that was targeted
+	 * @param message A message describing the error
+	 * @param error The error that occurred. Null if not available.
+	 * @return An error log entry
+	 */
+	public static LogEntry error(Method method, String target, String message, Throwable error)
+	{
+		return new LogEntry(Type.ERROR, method, target, null, 0, message, error);
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder();
+		appendTo(s);
+		return s.toString();
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The type of this entry
+	 */
+	public Type getType()
+	{
+		return this.type;
+	}
+	
+	/**
+	 * @return The time this entry was created, in milliseconds since the epoch
+	 */
+	public long getTimeMillis()
+	{
+		return this.timeMillis;
+	}
+	
+	/**
+	 * @return The method of the request. May be null.
+	 */
+	public Method getMethod()
+	{
+		return this.method;
+	}
+	
+	/**
+	 * @return The path or operation that was targeted. May be null.
+	 */
+	public String getTarget()
+	{
+		return this.target;
+	}
+	
+	/**
+	 * @return The status of the response. Null for errors.
+	 */
+	public HttpStatus getStatus()
+	{
+		return this.status;
+	}
+	
+	/**
+	 * @return How long it took to handle the request, in nanoseconds. 0 for errors.
+	 */
+	public long getDurationNanos()
+	{
+		return this.durationNanos;
+	}
+	
+	/**
+	 * @return The message describing the error. Null for access entries.
+	 */
+	public String getMessage()
+	{
+		return this.message;
+	}
+	
+	/**
+	 * @return The error that occurred. May be null.
+	 */
+	public Throwable getError()
+	{
+		return this.error;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Writes this entry as text. Each entry starts on a new line and ends with a line break.
+	 * @param s The builder the entry is written to
+	 */
+	public void appendTo(StringBuilder s)
+	{
+		s.append(Instant.ofEpochMilli(this.timeMillis)).append(' ').append(this.type);
+		if (this.method != null)
+			s.append(' ').append(this.method);
+		if (this.target != null)
+			s.append(' ').append(this.target);
+		
+		if (this.type == Type.ACCESS)
+		{
+			if (this.status != null)
+				s.append(' ').append(this.status.getStatusCode());
+			s.append(' ').append(this.durationNanos / 1000).append("us");
+		}
+		if (this.message != null)
+			s.append(": ").append(this.message);
+		s.append('\n');
+		
+		if (this.error != null)
+		{
+			StringWriter trace = new StringWriter();
+			this.error.printStackTrace(new PrintWriter(trace));
+			s.append(trace);
+		}
+	}
+	
+	
+	// ENUMERATIONS	---------------------
+	
+	/**
+	 * The different types of log entries
+	 * @author Mikko Hilpinen
+	 * @since 18.10.2026
+	 */
+	public static enum Type
+	{
+		/**
+		 * The entry describes a handled request
+		 */
+		ACCESS,
+		/**
+		 * The entry describes an error
+		 */
+		ERROR;
+	}
+}
@@ -0,0 +1,62 @@
+package nexus_rest;
+
+import nexus_http.HttpStatus.StatusCategory;
+import nexus_http.Method;
+
+/**
+ * Metrics recorders receive the time spent in each phase of the handled requests. The 
+ * recorders are called from the request handling threads and should therefore be fast and 
+ * thread safe.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public interface MetricsRecorder
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * A recorder that doesn't record anything. Requests are not timed at all when this 
+	 * recorder is used.
+	 */
+	public static final MetricsRecorder NONE = new MetricsRecorder()
+	{
+		@Override
+		public void record(RequestPhase phase, Method method, StatusCategory status, 
+				String root, long nanos)
+		{
+			// Nothing is recorded
+		}
+		
+		@Override
+		public boolean isEnabled()
+		{
+			return false;
+		}
+	};
+	
+	
+	// ABSTRACT METHODS	-----------------
+	
+	/**
+	 * Records the duration of a single request phase
+	 * @param phase The measured phase
+	 * @param method The method of the request
+	 * @param status The status category of the response
+	 * @param root The name of the targeted root resource in lower case. Null if the root 
+	 * resource couldn't be determined.
+	 * @param nanos The duration of the phase in nanoseconds
+	 */
+	public void record(RequestPhase phase, Method method, StatusCategory status, String root, 
+			long nanos);
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * @return Should the requests be timed for this recorder
+	 */
+	public default boolean isEnabled()
+	{
+		return true;
+	}
+}
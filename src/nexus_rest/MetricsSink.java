@@ -0,0 +1,27 @@
+package nexus_rest;
+
+import nexus_http.HttpStatus.StatusCategory;
+import nexus_http.Method;
+
+/**
+ * Metrics sinks receive the recorded metrics when they are exported, for example to a 
+ * monitoring system or a log
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see LatencyMetrics#export(MetricsSink)
+ */
+public interface MetricsSink
+{
+	/**
+	 * Receives the latencies recorded for a single combination of tags
+	 * @param phase The measured phase
+	 * @param method The method of the requests
+	 * @param status The status category of the responses
+	 * @param root The name of the targeted root resource in lower case. Null for requests 
+	 * whose root resource couldn't be determined.
+	 * @param histogram The recorded latencies. The histogram may still be updated while 
+	 * it is being read.
+	 */
+	public void accept(RequestPhase phase, Method method, StatusCategory status, String root, 
+			LatencyHistogram histogram);
+}
@@ -0,0 +1,748 @@
+package nexus_rest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import nexus_http.Parameters;
+import nexus_http.Path;
+import utopia.flow.generics.Variable;
+
+/**
+ * A mutation log persists the changes made to a tree of simple resources. Each post and put 
+ * is appended to a log file as a checksummed record. Records appended by concurrent requests 
+ * are written together, so that a single write (and sync) commits a whole group of them. 
+ * Once the log grows large enough, the whole tree is written into a snapshot and the log 
+ * is started over. When the log is opened, the tree is rebuilt from the snapshot and the 
+ * records written after it. A record that was only partially written before a crash is 
+ * discarded.<br>
+ * Only the resources created through post are persisted. Links added with 
+ * {@link SimpleResource#putLink(String, Resource)} are not.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class MutationLog implements AutoCloseable
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How large the log may grow before it is compacted into a snapshot by default
+	 */
+	public static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024 * 1024;
+	/**
+	 * How often the log is synced to the disk with the periodic sync policy by default
+	 */
+	public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+	
+	private static final String LOG_FILE_NAME = "mutations.log";
+	private static final String SNAPSHOT_FILE_NAME = "snapshot.log";
+	private static final String TEMPORARY_FILE_NAME = "snapshot.tmp";
+	
+	private static final int MAGIC = 0x4E584D4C;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int RECORD_HEADER_SIZE = 8;
+	private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+	
+	private static final byte POST = 1;
+	private static final byte PUT = 2;
+	
+	private final java.nio.file.Path directory;
+	private final SimpleResource root;
+	private final FileChannel channel;
+	private final SyncPolicy syncPolicy;
+	private final long syncIntervalMillis, compactionThreshold;
+	
+	private final Object lock = new Object();
+	private final ReadWriteLock treeLock = new ReentrantReadWriteLock();
+	private List<ByteBuffer> pending = new ArrayList<>();
+	private long appendedCount = 0, committedCount = 0, logSize;
+	private long lastSyncMillis;
+	private boolean committing = false, closed = false;
+	private IOException failure = null;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private MutationLog(java.nio.file.Path directory, SimpleResource root, FileChannel channel, 
+			long logSize, SyncPolicy syncPolicy, long syncIntervalMillis, 
+			long compactionThreshold)
+	{
+		this.directory = directory;
+		this.root = root;
+		this.channel = channel;
+		this.logSize = logSize;
+		this.syncPolicy = syncPolicy;
+		this.syncIntervalMillis = syncIntervalMillis;
+		this.compactionThreshold = compactionThreshold;
+		this.lastSyncMillis = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Opens the log in a directory. The resource tree is rebuilt from the snapshot and the 
+	 * log found in the directory, after which the changes made to the tree are logged.
+	 * @param directory The directory that contains the log files. Created if it doesn't 
+	 * exist yet.
+	 * @param root The root of the persisted resource tree
+	 * @param syncPolicy When the log is synced to the disk
+	 * @return The opened log
+	 * @throws IOException If the files couldn't be opened or read
+	 */
+	public static MutationLog open(java.nio.file.Path directory, SimpleResource root, 
+			SyncPolicy syncPolicy) throws IOException
+	{
+		return open(directory, root, syncPolicy, DEFAULT_SYNC_INTERVAL_MILLIS, 
+				DEFAULT_COMPACTION_THRESHOLD);
+	}
+	
+	/**
+	 * Opens the log in a directory. The resource tree is rebuilt from the snapshot and the 
+	 * log found in the directory, after which the changes made to the tree are logged.
+	 * @param directory The directory that contains the log files. Created if it doesn't 
+	 * exist yet.
+	 * @param root The root of the persisted resource tree
+	 * @param syncPolicy When the log is synced to the disk
+	 * @param syncIntervalMillis How often the log is synced with the periodic sync policy
+	 * @param compactionThreshold How large the log may grow (in bytes) before it is 
+	 * compacted into a snapshot
+	 * @return The opened log
+	 * @throws IOException If the files couldn't be opened or read
+	 */
+	public static MutationLog open(java.nio.file.Path directory, SimpleResource root, 
+			SyncPolicy syncPolicy, long syncIntervalMillis, long compactionThreshold) 
+			throws IOException
+	{
+		Files.createDirectories(directory);
+		
+		// Starts from the snapshot, which was written as a whole
+		java.nio.file.Path snapshotFile = directory.resolve(SNAPSHOT_FILE_NAME);
+		if (Files.exists(snapshotFile))
+		{
+			try (FileChannel snapshot = FileChannel.open(snapshotFile, StandardOpenOption.READ))
+			{
+				if (replay(snapshot, root) != snapshot.size())
+					throw new IOException("The snapshot at " + snapshotFile + " is corrupted");
+			}
+		}
+		
+		// Continues with the log tail. A partially written record at the end is cut off.
+		FileChannel channel = FileChannel.open(directory.resolve(LOG_FILE_NAME), 
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			long logSize;
+			if (channel.size() == 0)
+			{
+				writeHeader(channel);
+				logSize = HEADER_SIZE;
+			}
+			else
+			{
+				logSize = replay(channel, root);
+				if (logSize < channel.size())
+				{
+					channel.truncate(logSize);
+					channel.force(false);
+				}
+			}
+			channel.position(logSize);
+			
+			MutationLog log = new MutationLog(directory, root, channel, logSize, syncPolicy, 
+					syncIntervalMillis, compactionThreshold);
+			root.setMutationLog(log);
+			return log;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	/**
+	 * Commits the waiting records, syncs the log and closes the file. The changes made to 
+	 * the tree after this can't be logged anymore.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		synchronized (this.lock)
+		{
+			if (this.closed)
+				return;
+			this.closed = true;
+		}
+		
+		try
+		{
+			commit(Long.MAX_VALUE);
+			this.channel.force(false);
+		}
+		finally
+		{
+			this.channel.close();
+		}
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The current size of the log file in bytes, not including the snapshot
+	 */
+	public long getLogSize()
+	{
+		synchronized (this.lock)
+		{
+			return this.logSize;
+		}
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Logs a resource created through post. Returns once the record has been committed.
+	 * @param parent The resource the new resource was created under
+	 * @param name The name of the new resource
+	 * @param properties The properties of the new resource
+	 * @throws IOException If the record couldn't be written
+	 */
+	void logPost(SimpleResource parent, String name, Parameters properties) throws IOException
+	{
+		append(encode(POST, parent.getPath(), name, properties));
+	}
+	
+	/**
+	 * Logs properties modified through put. Returns once the record has been committed.
+	 * @param target The resource that was modified
+	 * @param properties The new properties
+	 * @throws IOException If the record couldn't be written
+	 */
+	void logPut(SimpleResource target, Parameters properties) throws IOException
+	{
+		append(encode(PUT, target.getPath(), null, properties));
+	}
+	
+	/**
+	 * Writes the whole resource tree into a new snapshot and starts the log over. The tree 
+	 * is copied while no changes are being made to it, after which the changes may 
+	 * continue. Logging is blocked until the compaction completes.
+	 * @throws IOException If the snapshot couldn't be written
+	 */
+	public void compact() throws IOException
+	{
+		compact(0);
+	}
+	
+	/**
+	 * Marks the start of a change to the logged tree. The change must be logged and applied 
+	 * before calling {@link #endMutation()}. The tree isn't compacted in between.
+	 */
+	void beginMutation()
+	{
+		this.treeLock.readLock().lock();
+	}
+	
+	/**
+	 * Marks the end of a change started with {@link #beginMutation()}
+	 */
+	void endMutation()
+	{
+		this.treeLock.readLock().unlock();
+	}
+	
+	/**
+	 * Compacts the log if it has grown too large. Must not be called during a change.
+	 */
+	void compactIfNecessary()
+	{
+		if (getLogSize() < this.compactionThreshold)
+			return;
+		
+		// The mutation was already committed, so a failed compaction is only reported
+		try
+		{
+			compact(this.compactionThreshold);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			AsyncRequestLog.standardError().log(LogEntry.error(null, 
+					this.directory.toString(), "Failed to compact the mutation log", e));
+		}
+	}
+	
+	private void compact(long minimumLogSize) throws IOException
+	{
+		long committedCount = 0;
+		boolean started = false;
+		List<ByteBuffer> records = new ArrayList<>();
+		
+		// The tree is copied while no changes are being made. Every change that has been
+		// logged has also been applied, so the copy contains all the logged records.
+		this.treeLock.writeLock().lock();
+		try
+		{
+			synchronized (this.lock)
+			{
+				waitForTurn(Long.MAX_VALUE);
+				checkUsable();
+				// Another thread may have compacted the log already
+				if (this.logSize < minimumLogSize)
+					return;
+				this.committing = true;
+				started = true;
+				committedCount = this.appendedCount;
+				this.pending = new ArrayList<>();
+			}
+			
+			records.add(ByteBuffer.wrap(encodeProperties(PUT, this.root, null)));
+			collectChildRecords(this.root, records);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			// The log can't be used after a failed compaction
+			if (started)
+				finishCompaction(-1, e);
+			throw e;
+		}
+		finally
+		{
+			this.treeLock.writeLock().unlock();
+		}
+		
+		// The copy is written while the changes continue. Their records are written into the
+		// log once the compaction has completed.
+		try
+		{
+			java.nio.file.Path temporaryFile = this.directory.resolve(TEMPORARY_FILE_NAME);
+			try (FileChannel snapshot = FileChannel.open(temporaryFile, 
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+					StandardOpenOption.TRUNCATE_EXISTING))
+			{
+				writeHeader(snapshot);
+				writeFully(snapshot, records);
+				snapshot.force(false);
+			}
+			Files.move(temporaryFile, this.directory.resolve(SNAPSHOT_FILE_NAME), 
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			
+			this.channel.truncate(HEADER_SIZE);
+			this.channel.position(HEADER_SIZE);
+			this.channel.force(false);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			finishCompaction(-1, e);
+			throw e;
+		}
+		
+		finishCompaction(committedCount, null);
+	}
+	
+	private void finishCompaction(long committedCount, Exception error)
+	{
+		synchronized (this.lock)
+		{
+			// The waiting threads are always released, even when the compaction fails
+			if (error == null)
+			{
+				this.committedCount = committedCount;
+				this.logSize = HEADER_SIZE;
+				this.lastSyncMillis = System.currentTimeMillis();
+			}
+			else if (this.failure == null)
+			{
+				if (error instanceof IOException)
+					this.failure = (IOException) error;
+				else
+					this.failure = new IOException("The compaction failed", error);
+			}
+			this.committing = false;
+			this.lock.notifyAll();
+		}
+	}
+	
+	private void append(byte[] record) throws IOException
+	{
+		long sequence;
+		synchronized (this.lock)
+		{
+			checkUsable();
+			if (this.closed)
+				throw new IOException("The mutation log has been closed");
+			
+			this.pending.add(ByteBuffer.wrap(record));
+			this.appendedCount ++;
+			sequence = this.appendedCount;
+		}
+		
+		commit(sequence);
+	}
+	
+	/**
+	 * Makes sure the record with the provided sequence number has been written. If another 
+	 * thread is already writing, waits for it, since its group may contain the record. 
+	 * Otherwise writes all of the waiting records as a single group.
+	 * @return Did this thread write the group
+	 */
+	private boolean commit(long sequence) throws IOException
+	{
+		List<ByteBuffer> group;
+		long groupEnd;
+		synchronized (this.lock)
+		{
+			waitForTurn(sequence);
+			checkUsable();
+			if (this.committedCount >= sequence || this.pending.isEmpty())
+				return false;
+			
+			this.committing = true;
+			group = this.pending;
+			groupEnd = this.appendedCount;
+			this.pending = new ArrayList<>();
+		}
+		
+		long writtenBytes = 0;
+		IOException error = null;
+		try
+		{
+			writtenBytes = writeFully(this.channel, group);
+			if (shouldSync())
+			{
+				this.channel.force(false);
+				this.lastSyncMillis = System.currentTimeMillis();
+			}
+		}
+		catch (IOException e)
+		{
+			error = e;
+		}
+		
+		synchronized (this.lock)
+		{
+			// After a failed write, the end of the file is in an unknown state, so the log
+			// can't be used anymore
+			if (error != null)
+				this.failure = error;
+			else
+			{
+				this.committedCount = groupEnd;
+				this.logSize += writtenBytes;
+			}
+			this.committing = false;
+			this.lock.notifyAll();
+		}
+		
+		if (error != null)
+			throw error;
+		return true;
+	}
+	
+	private void waitForTurn(long sequence) throws IOException
+	{
+		boolean interrupted = false;
+		while (this.committing && this.committedCount < sequence && this.failure == null)
+		{
+			try
+			{
+				this.lock.wait();
+			}
+			catch (InterruptedException e)
+			{
+				interrupted = true;
+			}
+		}
+		
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+	
+	private void checkUsable() throws IOException
+	{
+		if (this.failure != null)
+			throw new IOException("The mutation log failed earlier", this.failure);
+	}
+	
+	private boolean shouldSync()
+	{
+		switch (this.syncPolicy)
+		{
+			case ALWAYS: return true;
+			case PERIODIC: return System.currentTimeMillis() - this.lastSyncMillis >=
+					this.syncIntervalMillis;
+			default: return false;
+		}
+	}
+	
+	private void collectChildRecords(SimpleResource parent, List<ByteBuffer> records) 
+			throws IOException
+	{
+		for (SimpleResource child : parent.getChildren())
+		{
+			records.add(ByteBuffer.wrap(encodeProperties(POST, child, 
+					child.getPath().getContent())));
+			collectChildRecords(child, records);
+		}
+	}
+	
+	private byte[] encode(byte type, Path target, String name, Parameters properties) 
+			throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		for (String propertyName : properties.getParameterNames())
+		{
+			names.add(propertyName);
+			values.add(properties.getParameterValue(propertyName));
+		}
+		return encode(type, target, name, names, values);
+	}
+	
+	private byte[] encodeProperties(byte type, SimpleResource resource, String name) 
+			throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		for (Variable property : resource.getProperties())
+		{
+			names.add(property.getName());
+			values.add(property.getValue().toString());
+		}
+		
+		// A post record targets the parent of the created resource
+		Path target = resource.getPath();
+		if (type == POST)
+			target = target.getParent();
+		return encode(type, target, name, names, values);
+	}
+	
+	private byte[] encode(byte type, Path target, String name, List<String> propertyNames, 
+			List<String> propertyValues) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream payload = new DataOutputStream(bytes);
+		
+		// Leaves room for the record header
+		payload.writeLong(0);
+		payload.writeByte(type);
+		
+		// The target is identified by the names leading to it from the root
+		List<String> targetNames = namesFromRoot(target);
+		payload.writeInt(targetNames.size());
+		for (String targetName : targetNames)
+		{
+			writeString(payload, targetName);
+		}
+		if (type == POST)
+			writeString(payload, name);
+		
+		payload.writeInt(propertyNames.size());
+		for (int i = 0; i < propertyNames.size(); i++)
+		{
+			writeString(payload, propertyNames.get(i));
+			writeString(payload, propertyValues.get(i));
+		}
+		payload.flush();
+		
+		// Writes the length and the checksum of the payload in front of it
+		byte[] record = bytes.toByteArray();
+		int length = record.length - RECORD_HEADER_SIZE;
+		if (length > MAX_RECORD_SIZE)
+			throw new IOException("The mutation is too large to be logged");
+		CRC32 checksum = new CRC32();
+		checksum.update(record, RECORD_HEADER_SIZE, length);
+		ByteBuffer.wrap(record).putInt(length).putInt((int) checksum.getValue());
+		return record;
+	}
+	
+	private List<String> namesFromRoot(Path target) throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		Path rootPath = this.root.getPath();
+		Path node = target;
+		while (node != rootPath)
+		{
+			if (node == null)
+				throw new IOException(target + " is not under the logged root " + rootPath);
+			names.add(0, node.getContent());
+			node = node.getParent();
+		}
+		return names;
+	}
+	
+	private static void writeString(DataOutputStream out, String s) throws IOException
+	{
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(DataInputStream in, int maxLength) throws IOException
+	{
+		int length = in.readInt();
+		if (length < 0 || length > maxLength)
+			throw new IOException("Invalid string length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void writeHeader(FileChannel channel) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).flip();
+		List<ByteBuffer> buffers = new ArrayList<>();
+		buffers.add(header);
+		writeFully(channel, buffers);
+	}
+	
+	private static long writeFully(FileChannel channel, List<ByteBuffer> buffers) 
+			throws IOException
+	{
+		ByteBuffer[] array = buffers.toArray(new ByteBuffer[buffers.size()]);
+		long written = 0;
+		int first = 0;
+		while (first < array.length)
+		{
+			written += channel.write(array, first, array.length - first);
+			while (first < array.length && !array[first].hasRemaining())
+			{
+				first ++;
+			}
+		}
+		return written;
+	}
+	
+	/**
+	 * Applies the records in a file to the tree
+	 * @return The position after the last intact record
+	 */
+	private static long replay(FileChannel channel, SimpleResource root) throws IOException
+	{
+		channel.position(0);
+		InputStream stream = new BufferedInputStream(Channels.newInputStream(channel));
+		DataInputStream in = new DataInputStream(stream);
+		
+		if (channel.size() < HEADER_SIZE || in.readInt() != MAGIC)
+			throw new IOException("Not a mutation log file");
+		int version = in.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported mutation log version " + version);
+		
+		long position = HEADER_SIZE;
+		long size = channel.size();
+		CRC32 checksum = new CRC32();
+		while (size - position >= RECORD_HEADER_SIZE)
+		{
+			int length = in.readInt();
+			int expectedChecksum = in.readInt();
+			if (length <= 0 || length > MAX_RECORD_SIZE || 
+					length > size - position - RECORD_HEADER_SIZE)
+				break;
+			
+			byte[] payload = new byte[length];
+			try
+			{
+				in.readFully(payload);
+			}
+			catch (EOFException e)
+			{
+				break;
+			}
+			checksum.reset();
+			checksum.update(payload, 0, length);
+			if ((int) checksum.getValue() != expectedChecksum)
+				break;
+			
+			apply(payload, root);
+			position += RECORD_HEADER_SIZE + length;
+		}
+		
+		return position;
+	}
+	
+	private static void apply(byte[] payload, SimpleResource root) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		byte type = in.readByte();
+		
+		// Finds the target resource
+		SimpleResource target = root;
+		int depth = in.readInt();
+		for (int i = 0; i < depth; i++)
+		{
+			String name = readString(in, payload.length);
+			if (target != null)
+				target = target.getChild(name);
+		}
+		String childName = null;
+		if (type == POST)
+			childName = readString(in, payload.length);
+		else if (type != PUT)
+			throw new IOException("Unknown mutation type " + type);
+		
+		Parameters properties = new Parameters();
+		int propertyCount = in.readInt();
+		for (int i = 0; i < propertyCount; i++)
+		{
+			String name = readString(in, payload.length);
+			properties.addParameter(name, readString(in, payload.length));
+		}
+		
+		// The parent may be missing if it was created through another route. A resource
+		// that already exists was already included in the snapshot.
+		if (target == null)
+			return;
+		if (type == POST)
+			target = target.restoreChild(childName);
+		target.restoreProperties(properties);
+	}
+	
+	
+	// ENUMERATIONS	---------------------
+	
+	/**
+	 * The sync policy determines when the logged records are forced to the disk
+	 * @author Mikko Hilpinen
+	 * @since 18.10.2026
+	 */
+	public static enum SyncPolicy
+	{
+		/**
+		 * Each group of records is synced before the requests return. No committed 
+		 * mutation is lost in a crash.
+		 */
+		ALWAYS,
+		/**
+		 * The log is synced at most once per sync interval. A crash may lose the mutations 
+		 * of the last interval.
+		 */
+		PERIODIC,
+		/**
+		 * The log is never synced explicitly. The operating system decides when the 
+		 * records reach the disk.
+		 */
+		NEVER;
+	}
+}
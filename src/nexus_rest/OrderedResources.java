@@ -0,0 +1,23 @@
+package nexus_rest;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Ordered resources can be iterated in the order of their lower case names, starting from 
+ * any name. This allows wildcards and pages to start directly from a cursor, even when the 
+ * resources are not stored in a map.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see WildcardExpansion#WildcardExpansion(nexus_http.Path, OrderedResources, ResourceQuery)
+ */
+public interface OrderedResources
+{
+	/**
+	 * Iterates through the resources in the order of their lower case names
+	 * @param cursor The lower case name the iteration starts after. Null if the iteration 
+	 * should start from the first resource.
+	 * @return An iterator that returns the resources paired with their lower case names
+	 */
+	public Iterator<Map.Entry<String, Resource>> iterateAfter(String cursor);
+}
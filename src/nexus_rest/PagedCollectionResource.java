@@ -0,0 +1,757 @@
+package nexus_rest;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import flow_structure.TreeNode;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.InternalServerException;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.MethodNotAllowedException;
+import nexus_http.Parameters;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import nexus_rest.SortedRun.ChildRecord;
+import nexus_rest.SortedRun.PageCache;
+import utopia.flow.generics.Value;
+
+/**
+ * A paged collection resource holds more children than would fit in memory. The children 
+ * are stored in sorted run files on disk, ordered by their lower case names. New children 
+ * are first collected in memory and written into a new run once there are enough of them. 
+ * Once there are enough runs of a similar size, they are merged together in a background 
+ * thread, so each child is only rewritten a few times as the collection grows and the 
+ * posts don't wait for the merges. A child is found by reading a single page from each run 
+ * that may contain it, and the children are written in pages, in the order of their names. 
+ * Only a limited amount of pages is cached in memory.<br>
+ * The children are created through post, like with {@link SimpleResource}, but they can 
+ * only be read afterwards. The children that haven't been written into a run yet are 
+ * written when the collection is flushed or closed.<br>
+ * The children collected in memory are not durable: up to the memory limit of the most 
+ * recently posted children are lost if the process stops without closing the collection. 
+ * Call {@link #flush()} when the children must survive a crash. The runs themselves are 
+ * always complete, since each run is moved in place only after it has been fully written.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class PagedCollectionResource implements Resource, OrderedResources, AutoCloseable
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How many children are collected in memory before they are written into a run by 
+	 * default
+	 */
+	public static final int DEFAULT_MEMORY_LIMIT = 10000;
+	/**
+	 * How many pages are cached in memory by default
+	 */
+	public static final int DEFAULT_CACHED_PAGES = 256;
+	
+	private static final String NAME_PROPERTY = "name";
+	private static final String RUN_PREFIX = "run-";
+	private static final String RUN_SUFFIX = ".dat";
+	private static final long MAX_RUN_SIZE = 1L << 30;
+	// How many runs of a similar size are merged at once, at least and at most. The runs
+	// in a merge are at most this many times larger than the smallest one.
+	private static final int MERGE_FACTOR = 4;
+	private static final int MAX_MERGED_RUNS = 8;
+	// The runs smaller than this are considered to be of the same size
+	private static final long MIN_TIER_SIZE = 1L << 20;
+	
+	private static final Method[] ALLOWED_METHODS = {Method.GET, Method.HEAD, Method.POST};
+	private static final Method[] CHILD_METHODS = {Method.GET, Method.HEAD};
+	
+	private final Path path;
+	private final java.nio.file.Path directory;
+	private final int memoryLimit;
+	private final PageCache cache;
+	private final ConcurrentNavigableMap<String, ChildRecord> memory;
+	private volatile List<SortedRun> runs;
+	private int nextRunNumber;
+	
+	private final Thread merger;
+	// Only one merge is written at a time, so that the same runs aren't merged twice
+	private final Object mergeLock = new Object();
+	private final Object mergeSignal = new Object();
+	private boolean mergeRequested = false;
+	private volatile boolean closed = false;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Opens a collection from a directory
+	 * @param path The path of the collection resource
+	 * @param directory The directory the children are stored in. Created if it doesn't 
+	 * exist yet.
+	 * @throws IOException If the directory couldn't be read
+	 */
+	public PagedCollectionResource(Path path, java.nio.file.Path directory) throws IOException
+	{
+		this(path, directory, DEFAULT_MEMORY_LIMIT, DEFAULT_CACHED_PAGES);
+	}
+	
+	/**
+	 * Opens a collection from a directory
+	 * @param path The path of the collection resource
+	 * @param directory The directory the children are stored in. Created if it doesn't 
+	 * exist yet.
+	 * @param memoryLimit How many new children are kept in memory before they are written 
+	 * to the disk
+	 * @param cachedPages How many pages are kept in memory at most
+	 * @throws IOException If the directory couldn't be read
+	 */
+	public PagedCollectionResource(Path path, java.nio.file.Path directory, int memoryLimit, 
+			int cachedPages) throws IOException
+	{
+		this.path = path;
+		this.directory = directory;
+		this.memoryLimit = memoryLimit;
+		this.cache = new PageCache(cachedPages);
+		this.memory = new ConcurrentSkipListMap<>();
+		
+		// Opens the existing runs, the newest first
+		Files.createDirectories(directory);
+		List<SortedRun> runs = new ArrayList<>();
+		int maxNumber = 0;
+		try (DirectoryStream<java.nio.file.Path> files = Files.newDirectoryStream(directory, 
+				RUN_PREFIX + "*" + RUN_SUFFIX))
+		{
+			for (java.nio.file.Path file : files)
+			{
+				int number = parseRunNumber(file);
+				if (number < 0)
+					continue;
+				runs.add(SortedRun.open(number, file, this.cache));
+				maxNumber = Math.max(maxNumber, number);
+			}
+		}
+		// Runs that were being written when the process stopped are incomplete. Their
+		// records are still in the older runs (merge) or were lost with the memory (flush).
+		try (DirectoryStream<java.nio.file.Path> files = Files.newDirectoryStream(directory, 
+				RUN_PREFIX + "*" + RUN_SUFFIX + "?*"))
+		{
+			for (java.nio.file.Path file : files)
+			{
+				Files.deleteIfExists(file);
+			}
+		}
+		runs.sort((first, second) -> second.getNumber() - first.getNumber());
+		this.runs = Collections.unmodifiableList(runs);
+		this.nextRunNumber = maxNumber + 1;
+		
+		this.merger = new Thread(this::mergeInBackground, "paged-collection-merger");
+		this.merger.setDaemon(true);
+		this.merger.start();
+		if (!selectMergedRuns(runs).isEmpty())
+			requestMerge();
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public String toString()
+	{
+		return getPath().toString();
+	}
+	
+	@Override
+	public Path getPath()
+	{
+		return this.path;
+	}
+	
+	@Override
+	public Method[] getAllowedMethods()
+	{
+		return ALLOWED_METHODS;
+	}
+	
+	/**
+	 * Creates a new child under this collection. Requires parameter 'name'. The other 
+	 * parameters will be added as properties to the child.
+	 */
+	@Override
+	public Link post(Request request, Response response) throws HttpException
+	{
+		Parameters parameters = request.getParameters();
+		String name = parameters.getParameterValue(NAME_PROPERTY);
+		if (name == null)
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + NAME_PROPERTY + 
+					"' required");
+		
+		List<String> propertyNames = new ArrayList<>(parameters.getParameterNames());
+		String[] propertyValues = new String[propertyNames.size()];
+		for (int i = 0; i < propertyValues.length; i++)
+		{
+			propertyValues[i] = parameters.getParameterValue(propertyNames.get(i));
+		}
+		ChildRecord record = new ChildRecord(name, propertyNames.toArray(
+				new String[propertyNames.size()]), propertyValues);
+		
+		synchronized (this)
+		{
+			if (findRecord(record.getKey()) != null)
+				throw new HttpException(HttpStatus.FORBIDDEN, "Can't overwrite resource " + 
+						name);
+			this.memory.put(record.getKey(), record);
+			
+			// Only the children in memory are written here, the runs are merged in the
+			// background, so the other posts wait for a single run at most
+			if (this.memory.size() >= this.memoryLimit)
+			{
+				try
+				{
+					flush();
+				}
+				catch (IOException e)
+				{
+					throw new InternalServerException("Failed to store the children", e, 
+							request, getPath());
+				}
+			}
+		}
+		
+		response.setStatus(HttpStatus.CREATED);
+		return new Link(name, childPath(name));
+	}
+	
+	@Override
+	public void put(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	@Override
+	public void delete(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths) throws HttpException
+	{
+		return findConnectedResources(targetPaths, ResourceQuery.DEFAULT);
+	}
+	
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths, ResourceQuery query) throws HttpException
+	{
+		return resolveConnectedResources(targetPaths, query).getOrThrow();
+	}
+	
+	/**
+	 * The children are looked up by their names, without going through the others
+	 */
+	@Override
+	public ResolutionResult resolveConnectedResources(Collection<? extends Path> targetPaths, 
+			ResourceQuery query)
+	{
+		List<TreeNode<Resource>> includedTrees = new ArrayList<>();
+		for (Path targetPath : targetPaths)
+		{
+			if (targetPath.isWildcard())
+				includedTrees.add(new TreeNode<>(new WildcardExpansion(targetPath, this, 
+						query), null));
+			else
+			{
+				ResolutionResult result = Resource.resolveResource(findChild(
+						targetPath.getContent()), targetPath, query);
+				if (!result.isFound())
+					return result;
+				includedTrees.addAll(result.getResources());
+			}
+		}
+		
+		return ResolutionResult.found(includedTrees);
+	}
+	
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources) 
+			throws HttpException, ResourceWriterException
+	{
+		write(writer, subResources, ResourceQuery.DEFAULT);
+	}
+	
+	/**
+	 * Writes the included children and a page of links to the children. The page is 
+	 * always written, since the collection may be too large to be written at once.
+	 */
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources, 
+			ResourceQuery query) throws HttpException, ResourceWriterException
+	{
+		writer.writeResourceStart(Resource.getResourceName(this), getPath());
+		Resource.writeResourcesUnder(writer, subResources, query);
+		
+		writer.writeArrayStart("links");
+		Iterator<ChildRecord> records = iterateRecordsAfter(query.getCursor());
+		String lastKey = null;
+		for (int i = 0; i < query.getLimit() && records.hasNext(); i++)
+		{
+			ChildRecord record = records.next();
+			Resource.writePageLink(writer, new Link(record.getName(), 
+					childPath(record.getName())));
+			lastKey = record.getKey();
+		}
+		
+		// If there are more children left, adds a link to the next page
+		if (records.hasNext())
+			Resource.writePageLink(writer, new Link("next", getPath(), 
+					query.createNextPageParameters(lastKey)));
+		writer.writeArrayEnd();
+		
+		writer.writeResourceEnd();
+	}
+	
+	@Override
+	public Iterator<Map.Entry<String, Resource>> iterateAfter(String cursor)
+	{
+		final Iterator<ChildRecord> records = iterateRecordsAfter(cursor);
+		return new Iterator<Map.Entry<String, Resource>>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return records.hasNext();
+			}
+			
+			@Override
+			public Map.Entry<String, Resource> next()
+			{
+				ChildRecord record = records.next();
+				return new AbstractMap.SimpleImmutableEntry<>(record.getKey(), 
+						toResource(record));
+			}
+		};
+	}
+	
+	/**
+	 * Writes the children still in memory to the disk and stops the background merges. 
+	 * A merge that is in progress is completed first.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		flush();
+		
+		synchronized (this.mergeSignal)
+		{
+			this.closed = true;
+			this.mergeSignal.notifyAll();
+		}
+		try
+		{
+			this.merger.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many children there are in this collection
+	 */
+	public long getChildCount()
+	{
+		long count = this.memory.size();
+		for (SortedRun run : this.runs)
+		{
+			count += run.getRecordCount();
+		}
+		return count;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Finds a child from this collection
+	 * @param name The name of the child (case-insensitive)
+	 * @return The child with the name or null if there is no such child
+	 */
+	public Resource findChild(String name)
+	{
+		ChildRecord record = findRecord(name.toLowerCase());
+		if (record == null)
+			return null;
+		return toResource(record);
+	}
+	
+	/**
+	 * Writes the children still in memory into a new run. If there are enough runs of a 
+	 * similar size afterwards, they are merged in the background.
+	 * @throws IOException If the children couldn't be written
+	 */
+	public synchronized void flush() throws IOException
+	{
+		if (this.memory.isEmpty())
+			return;
+		
+		// The children stay in memory until the new run can be read
+		List<ChildRecord> flushed = new ArrayList<>(this.memory.values());
+		List<SortedRun> newRuns = writeRuns(flushed.iterator());
+		newRuns.addAll(this.runs);
+		this.runs = Collections.unmodifiableList(newRuns);
+		for (ChildRecord record : flushed)
+		{
+			this.memory.remove(record.getKey());
+		}
+		
+		if (!selectMergedRuns(this.runs).isEmpty())
+			requestMerge();
+	}
+	
+	/**
+	 * Merges the runs until there are no more runs of a similar size to merge. The runs are 
+	 * normally merged in the background, so this only needs to be called when the 
+	 * collection should be in its most compact form right away, for example before it is 
+	 * copied.
+	 * @throws IOException If the runs couldn't be merged
+	 */
+	public void merge() throws IOException
+	{
+		while (mergeOnce())
+		{
+			// Continues with the next tier
+		}
+	}
+	
+	private void requestMerge()
+	{
+		synchronized (this.mergeSignal)
+		{
+			this.mergeRequested = true;
+			this.mergeSignal.notifyAll();
+		}
+	}
+	
+	private void mergeInBackground()
+	{
+		while (true)
+		{
+			synchronized (this.mergeSignal)
+			{
+				while (!this.mergeRequested && !this.closed)
+				{
+					try
+					{
+						this.mergeSignal.wait();
+					}
+					catch (InterruptedException e)
+					{
+						return;
+					}
+				}
+				if (this.closed)
+					return;
+				this.mergeRequested = false;
+			}
+			
+			try
+			{
+				while (!this.closed && mergeOnce())
+				{
+					// Continues with the next tier
+				}
+			}
+			catch (IOException | RuntimeException e)
+			{
+				AsyncRequestLog.standardError().log(LogEntry.error(null, 
+						this.directory.toString(), "Failed to merge the runs", e));
+			}
+		}
+	}
+	
+	private boolean mergeOnce() throws IOException
+	{
+		synchronized (this.mergeLock)
+		{
+			List<SortedRun> mergedRuns = selectMergedRuns(this.runs);
+			if (mergedRuns.isEmpty())
+				return false;
+			
+			// The merged runs are written without holding the collection's lock, so the
+			// posts and flushes can continue while the merge is written
+			List<Iterator<ChildRecord>> sources = new ArrayList<>();
+			for (SortedRun run : mergedRuns)
+			{
+				sources.add(run.iterateAfter(null));
+			}
+			List<SortedRun> newRuns = writeRuns(new MergeIterator(sources));
+			
+			synchronized (this)
+			{
+				List<SortedRun> runs = new ArrayList<>(this.runs);
+				runs.removeAll(mergedRuns);
+				runs.addAll(newRuns);
+				runs.sort((first, second) -> second.getNumber() - first.getNumber());
+				this.runs = Collections.unmodifiableList(runs);
+			}
+			
+			// The files of the old runs may still be read by the ongoing iterations, but the
+			// mappings stay valid after the files are deleted. If the process stops before
+			// they are deleted, their records are simply found twice and the newer run wins.
+			for (SortedRun run : mergedRuns)
+			{
+				this.cache.removeRun(run.getNumber());
+				try
+				{
+					Files.deleteIfExists(run.getFile());
+				}
+				catch (IOException e)
+				{
+					AsyncRequestLog.standardError().log(LogEntry.error(null, 
+							run.getFile().toString(), "Failed to delete a merged run", e));
+				}
+			}
+			return true;
+		}
+	}
+	
+	private List<SortedRun> writeRuns(Iterator<ChildRecord> records) throws IOException
+	{
+		// Large amounts of records are split into multiple runs, since a run is mapped as
+		// a single buffer
+		List<SortedRun> newRuns = new ArrayList<>();
+		while (records.hasNext())
+		{
+			int number = nextRunNumber();
+			java.nio.file.Path file = this.directory.resolve(RUN_PREFIX + number + 
+					RUN_SUFFIX);
+			SortedRun.write(file, records, MAX_RUN_SIZE);
+			newRuns.add(0, SortedRun.open(number, file, this.cache));
+		}
+		return newRuns;
+	}
+	
+	private synchronized int nextRunNumber()
+	{
+		int number = this.nextRunNumber;
+		this.nextRunNumber ++;
+		return number;
+	}
+	
+	private ChildRecord findRecord(String key)
+	{
+		ChildRecord record = this.memory.get(key);
+		if (record != null)
+			return record;
+		
+		for (SortedRun run : this.runs)
+		{
+			record = run.find(key);
+			if (record != null)
+				return record;
+		}
+		return null;
+	}
+	
+	private Iterator<ChildRecord> iterateRecordsAfter(String cursor)
+	{
+		List<Iterator<ChildRecord>> sources = new ArrayList<>();
+		if (cursor == null)
+			sources.add(this.memory.values().iterator());
+		else
+			sources.add(this.memory.tailMap(cursor, false).values().iterator());
+		for (SortedRun run : this.runs)
+		{
+			sources.add(run.iterateAfter(cursor));
+		}
+		return new MergeIterator(sources);
+	}
+	
+	private Resource toResource(ChildRecord record)
+	{
+		// The children are only views of the stored records, so they can't be modified
+		SimpleResource child = new SimpleResource(childPath(record.getName()), 
+				CHILD_METHODS);
+		String[] names = record.getPropertyNames();
+		String[] values = record.getPropertyValues();
+		for (int i = 0; i < names.length; i++)
+		{
+			child.setAttributeValue(names[i], Value.String(values[i]));
+		}
+		return child;
+	}
+	
+	private Path childPath(String name)
+	{
+		return new Path(name, getPath(), false);
+	}
+	
+	private static List<SortedRun> selectMergedRuns(List<SortedRun> runs)
+	{
+		// Merging runs of a similar size means that each record is rewritten about once
+		// for every time the collection grows by the merge factor. The runs that are
+		// already close to the maximum size would only be written again as they are.
+		List<SortedRun> candidates = new ArrayList<>();
+		for (SortedRun run : runs)
+		{
+			if (run.getSize() < MAX_RUN_SIZE / MERGE_FACTOR)
+				candidates.add(run);
+		}
+		candidates.sort((first, second) -> Long.compare(first.getSize(), second.getSize()));
+		
+		for (int start = 0; start + MERGE_FACTOR <= candidates.size(); start++)
+		{
+			long maxSize = Math.max(candidates.get(start).getSize(), MIN_TIER_SIZE) * 
+					MERGE_FACTOR;
+			int end = start + 1;
+			while (end < candidates.size() && end - start < MAX_MERGED_RUNS && 
+					candidates.get(end).getSize() <= maxSize)
+			{
+				end ++;
+			}
+			
+			// The newest runs are read first, since they win when the same record is found
+			// in multiple runs
+			if (end - start >= MERGE_FACTOR)
+			{
+				List<SortedRun> merged = new ArrayList<>(candidates.subList(start, end));
+				merged.sort((first, second) -> second.getNumber() - first.getNumber());
+				return merged;
+			}
+		}
+		return Collections.emptyList();
+	}
+	
+	private static int parseRunNumber(java.nio.file.Path file)
+	{
+		String fileName = file.getFileName().toString();
+		try
+		{
+			return Integer.parseInt(fileName.substring(RUN_PREFIX.length(), 
+					fileName.length() - RUN_SUFFIX.length()));
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * Merges sorted record iterators into a single sorted iteration. A record that appears 
+	 * in multiple sources is only returned once, from the first source.
+	 */
+	private static class MergeIterator implements Iterator<ChildRecord>
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final PriorityQueue<Source> queue;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public MergeIterator(List<Iterator<ChildRecord>> iterators)
+		{
+			this.queue = new PriorityQueue<>(Math.max(1, iterators.size()));
+			for (int i = 0; i < iterators.size(); i++)
+			{
+				Iterator<ChildRecord> iterator = iterators.get(i);
+				if (iterator.hasNext())
+					this.queue.add(new Source(i, iterator));
+			}
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public boolean hasNext()
+		{
+			return !this.queue.isEmpty();
+		}
+		
+		@Override
+		public ChildRecord next()
+		{
+			Source source = this.queue.poll();
+			if (source == null)
+				throw new NoSuchElementException();
+			ChildRecord record = source.current;
+			advance(source);
+			
+			// Skips the same record in the other sources. This happens while a flush is
+			// in progress or when a merge was interrupted before the old runs were deleted.
+			while (!this.queue.isEmpty() && 
+					this.queue.peek().current.getKey().equals(record.getKey()))
+			{
+				advance(this.queue.poll());
+			}
+			return record;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		private void advance(Source source)
+		{
+			if (source.iterator.hasNext())
+			{
+				source.current = source.iterator.next();
+				this.queue.add(source);
+			}
+		}
+	}
+	
+	private static class Source implements Comparable<Source>
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final int priority;
+		private final Iterator<ChildRecord> iterator;
+		private ChildRecord current;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public Source(int priority, Iterator<ChildRecord> iterator)
+		{
+			this.priority = priority;
+			this.iterator = iterator;
+			this.current = iterator.next();
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public int compareTo(Source other)
+		{
+			int comparison = this.current.getKey().compareTo(other.current.getKey());
+			if (comparison != 0)
+				return comparison;
+			return this.priority - other.priority;
+		}
+	}
+}
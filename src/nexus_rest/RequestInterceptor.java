@@ -0,0 +1,71 @@
+package nexus_rest;
+
+import java.util.List;
+
+import nexus_http.HttpException;
+import nexus_http.Request;
+import nexus_http.Response;
+
+/**
+ * Request interceptors are called at certain points while a request is being handled. 
+ * They can be used for cross-cutting concerns like authentication, logging and caching, 
+ * without having to wrap the request handler. An interceptor can end the handling early by 
+ * providing its own response or by throwing an exception. Only the hooks an interceptor 
+ * overrides are called.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see InterceptorChain
+ */
+public interface RequestInterceptor
+{
+	/**
+	 * This method is called once the request has been parsed, before the targeted resources 
+	 * are searched for
+	 * @param request The request being handled
+	 * @return A response that should be sent instead of handling the request. Null if the 
+	 * request should be handled normally.
+	 * @throws HttpException If the request should be rejected
+	 */
+	public default Response beforeResolve(Request request) throws HttpException
+	{
+		return null;
+	}
+	
+	/**
+	 * This method is called once the targeted resources have been found, before the 
+	 * operation is performed on them. In batch requests this is called for each operation.
+	 * @param request The request being handled
+	 * @param targetResources The resources targeted by the request
+	 * @return A response that should be sent instead of performing the operation. Null if 
+	 * the operation should be performed normally.
+	 * @throws HttpException If the request should be rejected
+	 */
+	public default Response afterResolve(Request request, List<Resource> targetResources) 
+			throws HttpException
+	{
+		return null;
+	}
+	
+	/**
+	 * This method is called before the response body is written. This is not called for 
+	 * requests that don't have a response body.
+	 * @param request The request being handled
+	 * @param response The response that will be written. The headers may still be modified.
+	 * @throws HttpException If the request should be rejected
+	 */
+	public default void beforeRender(Request request, Response response) throws HttpException
+	{
+		// No modifications by default
+	}
+	
+	/**
+	 * This method is called once the response is ready to be sent. This is called for 
+	 * every request, including the failed and intercepted ones.
+	 * @param request The handled request
+	 * @param response The response that will be sent. May still be modified.
+	 */
+	public default void afterResponse(Request request, Response response)
+	{
+		// No modifications by default
+	}
+}
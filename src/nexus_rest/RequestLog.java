@@ -0,0 +1,47 @@
+package nexus_rest;
+
+/**
+ * A request log receives the errors that occur while handling requests, as well as the 
+ * handled requests themselves, if access logging is enabled. The log is called on the 
+ * request threads, so it should never block.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see AsyncRequestLog
+ */
+public interface RequestLog
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * A log that discards all entries
+	 */
+	public static final RequestLog NONE = new RequestLog()
+	{
+		@Override
+		public void log(LogEntry entry)
+		{
+			// Nothing is logged
+		}
+	};
+	
+	
+	// ABSTRACT METHODS	-----------------
+	
+	/**
+	 * Logs an entry. This method shouldn't block or throw.
+	 * @param entry The entry that is logged
+	 */
+	public void log(LogEntry entry);
+	
+	
+	// DEFAULT METHODS	-----------------
+	
+	/**
+	 * @return Should the handled requests be logged. If false, only errors are logged and 
+	 * the requests are not timed for the log. False by default.
+	 */
+	public default boolean logsAccess()
+	{
+		return false;
+	}
+}
@@ -0,0 +1,34 @@
+package nexus_rest;
+
+/**
+ * Request phases are the separately measured steps of handling a single request
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public enum RequestPhase
+{
+	/**
+	 * Admission and parsing of the request path, body and query
+	 */
+	PARSE,
+	/**
+	 * Finding the targeted resources
+	 */
+	RESOLVE,
+	/**
+	 * Checking that the targeted resources allow the request method
+	 */
+	METHOD_CHECK,
+	/**
+	 * Performing a modifying operation (POST, PUT, DELETE) on the targeted resources
+	 */
+	OPERATION,
+	/**
+	 * Writing the response body. Includes the expansion of any wildcards.
+	 */
+	RENDER,
+	/**
+	 * The whole time the request was being handled
+	 */
+	TOTAL;
+}
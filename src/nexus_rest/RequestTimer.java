@@ -0,0 +1,123 @@
+package nexus_rest;
+
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+
+/**
+ * A request timer measures the phases of a single request and sends them to a metrics 
+ * recorder once the request has been handled. A disabled timer doesn't read the clock at 
+ * all.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+class RequestTimer
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * A timer that doesn't measure anything
+	 */
+	static final RequestTimer DISABLED = new RequestTimer(null, null);
+	
+	private static final RequestPhase[] PHASES = RequestPhase.values();
+	
+	private final MetricsRecorder recorder;
+	private final Method method;
+	private final long startTime;
+	private final long[] durations;
+	private long lastLap;
+	private String root;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private RequestTimer(MetricsRecorder recorder, Method method)
+	{
+		this.recorder = recorder;
+		this.method = method;
+		this.root = null;
+		
+		if (recorder == null)
+		{
+			this.startTime = 0;
+			this.durations = null;
+		}
+		else
+		{
+			this.startTime = System.nanoTime();
+			this.durations = new long[PHASES.length];
+		}
+		this.lastLap = this.startTime;
+	}
+	
+	/**
+	 * Starts timing a request
+	 * @param recorder The recorder that will receive the measurements
+	 * @param method The method of the timed request
+	 * @return A timer for the request. A disabled timer if the recorder isn't enabled.
+	 */
+	static RequestTimer start(MetricsRecorder recorder, Method method)
+	{
+		if (recorder == null || !recorder.isEnabled())
+			return DISABLED;
+		return new RequestTimer(recorder, method);
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return Is this timer measuring the request
+	 */
+	boolean isEnabled()
+	{
+		return this.recorder != null;
+	}
+	
+	/**
+	 * Changes the root resource the measurements are tagged with
+	 * @param root The name of the targeted root resource (case-insensitive)
+	 */
+	void setRoot(String root)
+	{
+		// The name is converted once here instead of for each recorded phase
+		this.root = root == null ? null : root.toLowerCase();
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Ends a phase. The time since the previous phase ended is added to the phase.
+	 * @param phase The phase that ended
+	 */
+	void lap(RequestPhase phase)
+	{
+		if (this.recorder == null)
+			return;
+		
+		long now = System.nanoTime();
+		this.durations[phase.ordinal()] += now - this.lastLap;
+		this.lastLap = now;
+	}
+	
+	/**
+	 * Ends the request and records the measured phases
+	 * @param status The status of the response
+	 */
+	void finish(HttpStatus status)
+	{
+		if (this.recorder == null)
+			return;
+		
+		this.durations[RequestPhase.TOTAL.ordinal()] = System.nanoTime() - this.startTime;
+		for (RequestPhase phase : PHASES)
+		{
+			// Phases the request didn't reach are not recorded
+			long duration = this.durations[phase.ordinal()];
+			if (duration > 0 || phase == RequestPhase.TOTAL)
+				this.recorder.record(phase, this.method, status.getCategory(), this.root, 
+						duration);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package nexus_rest;
+
+import java.util.Collections;
+import java.util.List;
+
+import flow_structure.TreeNode;
+import nexus_http.HttpException;
+import nexus_http.NotFoundException;
+import nexus_http.Path;
+
+/**
+ * A resolution result is the outcome of finding the resources targeted by a set of paths. 
+ * The resources were either found, one of the targeted resources was missing, or the 
+ * resolution failed. Since a missing resource is not an exceptional situation, it is 
+ * reported as a result instead of an exception, which makes negative lookups as cheap as 
+ * positive ones. An exception is only created once the result is converted into one.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see Resource#resolveConnectedResources(java.util.Collection, ResourceQuery)
+ */
+public class ResolutionResult
+{
+	// ATTRIBUTES	---------------------
+	
+	private final List<TreeNode<Resource>> resources;
+	private final Path missingPath;
+	private final String missingMessage;
+	private final HttpException error;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private ResolutionResult(List<TreeNode<Resource>> resources, Path missingPath, 
+			String missingMessage, HttpException error)
+	{
+		this.resources = resources;
+		this.missingPath = missingPath;
+		this.missingMessage = missingMessage;
+		this.error = error;
+	}
+	
+	/**
+	 * Creates a result for found resources
+	 * @param resources The found resources in a hierarchical form
+	 * @return A successful result
+	 */
+	public static ResolutionResult found(List<TreeNode<Resource>> resources)
+	{
+		return new ResolutionResult(resources, null, null, null);
+	}
+	
+	/**
+	 * Creates a result for a missing resource
+	 * @param missingPath The path of the resource that couldn't be found
+	 * @return A not found result
+	 */
+	public static ResolutionResult notFound(Path missingPath)
+	{
+		return new ResolutionResult(null, missingPath, null, null);
+	}
+	
+	/**
+	 * Creates a result for a missing resource
+	 * @param missingPath The path of the resource that couldn't be found
+	 * @param message The message describing the missing resource
+	 * @return A not found result
+	 */
+	public static ResolutionResult notFound(Path missingPath, String message)
+	{
+		return new ResolutionResult(null, missingPath, message, null);
+	}
+	
+	/**
+	 * Creates a result for a failed resolution
+	 * @param error The error that stopped the resolution
+	 * @return A failed result
+	 */
+	public static ResolutionResult failed(HttpException error)
+	{
+		return new ResolutionResult(null, null, null, error);
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public String toString()
+	{
+		if (isFound())
+			return "Found " + this.resources.size() + " resource tree(s)";
+		else
+			return getMessage();
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return Were all of the targeted resources found
+	 */
+	public boolean isFound()
+	{
+		return this.resources != null;
+	}
+	
+	/**
+	 * @return Was one of the targeted resources missing
+	 */
+	public boolean isNotFound()
+	{
+		return this.missingPath != null;
+	}
+	
+	/**
+	 * @return The found resources in a hierarchical form. An empty list if the resources 
+	 * weren't found.
+	 */
+	public List<TreeNode<Resource>> getResources()
+	{
+		if (this.resources == null)
+			return Collections.emptyList();
+		return this.resources;
+	}
+	
+	/**
+	 * @return The path of the resource that couldn't be found. Null if no resource was 
+	 * missing.
+	 */
+	public Path getMissingPath()
+	{
+		return this.missingPath;
+	}
+	
+	/**
+	 * @return The error that stopped the resolution. Null if the resolution didn't fail.
+	 */
+	public HttpException getError()
+	{
+		return this.error;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * @return A message describing why the resources weren't found. Null if they were.
+	 */
+	public String getMessage()
+	{
+		if (this.missingMessage != null)
+			return this.missingMessage;
+		else if (this.missingPath != null)
+			return "Can't find the resource at " + this.missingPath;
+		else if (this.error != null)
+			return this.error.getMessage();
+		else
+			return null;
+	}
+	
+	/**
+	 * Returns the found resources or throws an exception if they weren't found. Used for 
+	 * converting the result back to the throwing resolution.
+	 * @return The found resources in a hierarchical form
+	 * @throws HttpException If the resources weren't found
+	 */
+	public List<TreeNode<Resource>> getOrThrow() throws HttpException
+	{
+		if (this.resources != null)
+			return this.resources;
+		else if (this.missingPath != null)
+			throw new NotFoundException(getMessage());
+		else
+			throw this.error;
+	}
+}
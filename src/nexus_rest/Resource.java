@@ -1,294 +1,614 @@
-package nexus_rest;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
-import flow_structure.TreeNode;
-import nexus_http.HttpException;
-import nexus_http.HttpStatus;
-import nexus_http.Link;
-import nexus_http.Method;
-import nexus_http.Path;
-import nexus_http.Request;
-import nexus_http.Response;
-import nexus_rest.ResourceWriter.ResourceWriterException;
-
-/**
- * Resources are elements that can be connected to each other with links. The resources can 
- * also be manipulated with requests and oftentimes sent via responses. Resources reside on 
- * a (virtual) path.
- * @author Mikko Hilpinen
- * @since 10.10.2015
- */
-public interface Resource
-{	
-	// TODO: Make an abstract class version?
-	
-	/**
-	 * @return The path leading to the resource. The resource should be accessible through 
-	 * the provided path.
-	 */
-	public Path getPath();
-	
-	/**
-	 * @return All the methods this resource allows on itself
-	 */
-	public Method[] getAllowedMethods();
-	
-	/**
-	 * Creates a new resource, element, attribute, etc. Under the resource. In case a new 
-	 * resource was created, it should be returned as well. The resource shouldn't expect this 
-	 * method call, if it doesn't allow POST.
-	 * @param request The request for the operation
-	 * @param response The response that will be sent to the client on success. The resource 
-	 * may modify the response status and headers, etc. if it needs to.
-	 * @return A link to the newly created resource
-	 * @throws HttpException If the operation wasn't completed successfully
-	 */
-	public Link post(Request request, Response response) throws HttpException;
-	
-	/**
-	 * Modifies the resource somehow.  The resource shouldn't expect this 
-	 * method call, if it doesn't allow PUT.
-	 * @param request The request for the operation
-	 * @param response The response that will be sent to the client on success. The resource 
-	 * may modify the response status and headers, etc. if it needs to.
-	 * @throws HttpException If the operation wasn't carried out
-	 */
-	public void put(Request request, Response response) throws HttpException;
-	
-	/**
-	 * Deletes the resource.  The resource shouldn't expect this 
-	 * method call, if it doesn't allow DELETE.
-	 * @param request The request for the operation
-	 * @param response The response that will be sent to the client on success. The resource 
-	 * may modify the response status and headers, etc. if it needs to.
-	 * @throws HttpException If the operation wasn't carried out
-	 */
-	public void delete(Request request, Response response) throws HttpException;
-	
-	/**
-	 * This method is used for finding targeted resources under / connected to a certain 
-	 * resource. If one or more of the targeted resources can't be found, the operation fails. 
-	 * The resources should should be ordered hierarchically, so that resource found under 
-	 * other returned resources are returned below them.
-	 * @param targetPaths The target resource paths. The resources that should be returned by 
-	 * this method are the "included" nodes of the path.
-	 * @return The resources in the target path(s) that are marked as included. The returned 
-	 * collection(s) need to be hierarchically structured.
-	 * @throws HttpException If the resource can't find a requested resource or another 
-	 * error occurs
-	 */
-	public Collection<TreeNode<Resource>> findConnectedResources(Collection<? extends Path> 
-			targetPaths) throws HttpException;
-	
-	/**
-	 * In this method the resource should write itself with the provided writer. The resource 
-	 * should also write the provided resources that should reside under it. The resource 
-	 * shouldn't expect this method call, if it doesn't allow GET.
-	 * @param writer The writer that is used in the process.
-	 * @param subResources The resources under this one that should be written inside this 
-	 * resource.
-	 * @throws HttpException If the operation wasn't carried out
-	 * @throws ResourceWriterException If the writing failed
-	 * @see #getPathBetween(Resource, Resource)
-	 */
-	public void write(ResourceWriter writer, 
-			Collection<? extends TreeNode<? extends Resource>> subResources) 
-			throws HttpException, ResourceWriterException;
-	
-	/**
-	 * This method writes each of the subresources, presumably residing under the parent 
-	 * resource, consecutively, using the provided writer.
-	 * @param writer The writer that writes the resources.
-	 * @param subResources The resources that should be written
-	 * @throws HttpException If the operation failed
-	 * @throws ResourceWriterException If the writing failed
-	 */
-	public static void writeResourcesUnder(ResourceWriter writer, 
-			Collection<? extends TreeNode<? extends Resource>> subResources) throws 
-			HttpException, ResourceWriterException
-	{
-		// Writes the included resources as children
-		for (TreeNode<? extends Resource> childNode : subResources)
-		{
-			childNode.getContent().write(writer, childNode.getChildren());
-		}
-	}
-	
-	/**
-	 * Finds the path separating the two resources
-	 * @param upper The presumably upper resource
-	 * @param lower The presumably lower resource
-	 * @return The path between the two resources. Null if there is no path between or 
-	 * connecting the resources
-	 */
-	public static Path getPathBetween(Resource upper, Resource lower)
-	{
-		return Path.getPathBetween(upper.getPath(), lower.getPath(), false);
-	}
-	
-	/**
-	 * Parses the name of the resource that contains the leading path information, if present
-	 * @param resource The resource who's name is parsed
-	 * @param leadingPath The path leading to the resource. May be null.
-	 * @return The name of the resource, including the leading path (where applicable).
-	 */
-	public static String parseResourceElementName(Resource resource, Path leadingPath)
-	{
-		String resourceName = getResourceName(resource);
-		
-		if (leadingPath == null)
-			return resourceName;
-		else
-			return leadingPath.toString() + Path.DS + resourceName;
-	}
-	
-	/**
-	 * Finds the name of the resource from its path.
-	 * @param resource The resource
-	 * @return The name of the resource
-	 */
-	public static String getResourceName(Resource resource)
-	{
-		return resource.getPath().getContent();
-	}
-	
-	/**
-	 * Checks whether the provided resource allows use of the given method
-	 * @param resource The resource that is targeted with the method
-	 * @param method The method that would be used on the resource
-	 * @return Would the resource allow the use of the method
-	 */
-	public static boolean resourceAllowsMethod(Resource resource, Method method)
-	{
-		for (Method allowed : resource.getAllowedMethods())
-		{
-			if (allowed == method)
-				return true;
-		}
-		
-		return false;
-	}
-	
-	/**
-	 * Finds all the resources directly below the provided resource node in a hierarchical 
-	 * tree structure.
-	 * @param node The node who's children are collected
-	 * @return All the direct children of the provided node
-	 */
-	public static List<Resource> getDirectNodeChildren(TreeNode<? extends Resource> node)
-	{
-		List<Resource> resources = new ArrayList<>();
-		
-		for (TreeNode<? extends Resource> child : node.getChildren())
-		{
-			resources.add(child.getContent());
-		}
-		
-		return resources;
-	}
-	
-	/**
-	 * Finds all the resources stored in a hierarchical tree structure
-	 * @param resourceTree A resource tree
-	 * @return The root node resource and each resource under it.
-	 */
-	public static List<Resource> getResourcesFromTree(TreeNode<? extends Resource> resourceTree)
-	{
-		List<Resource> resources = new ArrayList<>();
-		
-		resources.add(resourceTree.getContent());
-		for (TreeNode<? extends Resource> child : resourceTree.getChildren())
-		{
-			resources.addAll(getResourcesFromTree(child));
-		}
-		
-		return resources;
-	}
-	
-	/**
-	 * Finds all the resources stored in a set of hierarchical tree structures
-	 * @param resourceTrees A collection of resource trees
-	 * @return All resources included in the provided nodes and those under them
-	 */
-	public static List<Resource> getResourcesFromTreeCollection(
-			Collection<? extends TreeNode<? extends Resource>> resourceTrees)
-	{
-		List<Resource> resources = new ArrayList<>();
-		for (TreeNode<? extends Resource> resourceTree : resourceTrees)
-		{
-			resources.addAll(getResourcesFromTree(resourceTree));
-		}
-		
-		return resources;
-	}
-	
-	/**
-	 * Searches through a collection for a resource with a specific name
-	 * @param resources The resources that are searched through
-	 * @param targetName The name of the target resource
-	 * @return A resource with the given name or null if the collection didn't contain a 
-	 * resource with the given name
-	 */
-	public static Resource findResourceWithName(Collection<? extends Resource> resources, 
-			String targetName)
-	{
-		for (Resource resource : resources)
-		{
-			if (getResourceName(resource).equalsIgnoreCase(targetName))
-				return resource;
-		}
-		
-		return null;
-	}
-	
-	/**
-	 * Creates a hierarchical resource collection from a set of resources and their children. 
-	 * Only the resources who's path is marked as included are included in this collection.
-	 * @param resources The resources included in the search. The resources should be parents 
-	 * or children for each other. Usually this would be a set of siblings under a resource.
-	 * @param targetPaths A collection of paths that should be represented in the returned 
-	 * collection. Each path node should represent a resource in the provided collection
-	 * @return A hierarchical resource collection that contains the resources (and their 
-	 * children) that are marked as included in the target paths.
-	 * @throws HttpException If all of the target paths weren't represented in the provided 
-	 * resource collection or if one of the resources couldn't find the correct resources 
-	 * under it
-	 */
-	public static List<TreeNode<Resource>> findIncludedResources(
-			Collection<? extends Resource> resources, Collection<? extends Path> targetPaths) 
-			throws HttpException
-	{
-		// TODO: Add support for *, somewhere
-		List<TreeNode<Resource>> includedTrees = new ArrayList<>();
-		
-		for (Path targetPath : targetPaths)
-		{
-			Resource rootResource = findResourceWithName(resources, targetPath.getContent());
-			
-			if (rootResource == null)
-				throw new HttpException(HttpStatus.NOT_FOUND, "Can't find the resource at " + 
-						targetPath);
-			
-			Collection<TreeNode<Resource>> includedChildren = rootResource.findConnectedResources(
-					targetPath.getChildPaths());
-			
-			if (targetPath.isIncluded())
-			{
-				TreeNode<Resource> root = new TreeNode<>(rootResource, null);
-				for (TreeNode<Resource> child : includedChildren)
-				{
-					root.addChild(child);
-				}
-				
-				includedTrees.add(root);
-			}
-			else
-				includedTrees.addAll(includedChildren);
-		}
-		
-		return includedTrees;
-	}
-}
+package nexus_rest;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import flow_structure.TreeNode;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import utopia.flow.generics.Value;
+
+/**
+ * Resources are elements that can be connected to each other with links. The resources can 
+ * also be manipulated with requests and oftentimes sent via responses. Resources reside on 
+ * a (virtual) path.
+ * @author Mikko Hilpinen
+ * @since 10.10.2015
+ */
+public interface Resource
+{	
+	// TODO: Make an abstract class version?
+	
+	/**
+	 * @return The path leading to the resource. The resource should be accessible through 
+	 * the provided path.
+	 */
+	public Path getPath();
+	
+	/**
+	 * @return All the methods this resource allows on itself
+	 */
+	public Method[] getAllowedMethods();
+	
+	/**
+	 * Creates a new resource, element, attribute, etc. Under the resource. In case a new 
+	 * resource was created, it should be returned as well. The resource shouldn't expect this 
+	 * method call, if it doesn't allow POST.
+	 * @param request The request for the operation
+	 * @param response The response that will be sent to the client on success. The resource 
+	 * may modify the response status and headers, etc. if it needs to.
+	 * @return A link to the newly created resource
+	 * @throws HttpException If the operation wasn't completed successfully
+	 */
+	public Link post(Request request, Response response) throws HttpException;
+	
+	/**
+	 * Modifies the resource somehow.  The resource shouldn't expect this 
+	 * method call, if it doesn't allow PUT.
+	 * @param request The request for the operation
+	 * @param response The response that will be sent to the client on success. The resource 
+	 * may modify the response status and headers, etc. if it needs to.
+	 * @throws HttpException If the operation wasn't carried out
+	 */
+	public void put(Request request, Response response) throws HttpException;
+	
+	/**
+	 * Deletes the resource.  The resource shouldn't expect this 
+	 * method call, if it doesn't allow DELETE.
+	 * @param request The request for the operation
+	 * @param response The response that will be sent to the client on success. The resource 
+	 * may modify the response status and headers, etc. if it needs to.
+	 * @throws HttpException If the operation wasn't carried out
+	 */
+	public void delete(Request request, Response response) throws HttpException;
+	
+	/**
+	 * This method is used for finding targeted resources under / connected to a certain 
+	 * resource. If one or more of the targeted resources can't be found, the operation fails. 
+	 * The resources should should be ordered hierarchically, so that resource found under 
+	 * other returned resources are returned below them.
+	 * @param targetPaths The target resource paths. The resources that should be returned by 
+	 * this method are the "included" nodes of the path.
+	 * @return The resources in the target path(s) that are marked as included. The returned 
+	 * collection(s) need to be hierarchically structured.
+	 * @throws HttpException If the resource can't find a requested resource or another 
+	 * error occurs
+	 */
+	public Collection<TreeNode<Resource>> findConnectedResources(Collection<? extends Path> 
+			targetPaths) throws HttpException;
+	
+	/**
+	 * This method is used for finding targeted resources under / connected to a certain 
+	 * resource, following the query. Resources with large amounts of connections should 
+	 * expand wildcards ({@value Path#WILDCARD}) lazily. By default the query is ignored.
+	 * @param targetPaths The target resource paths. The resources that should be returned by 
+	 * this method are the "included" nodes of the path.
+	 * @param query The query that applies to the resources directly connected to this one
+	 * @return The resources in the target path(s) that are marked as included. The returned 
+	 * collection(s) need to be hierarchically structured.
+	 * @throws HttpException If the resource can't find a requested resource or another 
+	 * error occurs
+	 * @see #findIncludedResources(Collection, Collection, ResourceQuery)
+	 */
+	public default Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths, ResourceQuery query) throws HttpException
+	{
+		return findConnectedResources(targetPaths);
+	}
+	
+	/**
+	 * This method is used for finding targeted resources under / connected to a certain 
+	 * resource, following the query. Unlike 
+	 * {@link #findConnectedResources(Collection, ResourceQuery)}, this method reports 
+	 * missing resources as a result instead of throwing an exception, which makes probing 
+	 * for resources cheap. By default the resources are found using 
+	 * {@link #findConnectedResources(Collection, ResourceQuery)}, and the not found 
+	 * exceptions it throws are converted into not found results, but the resources should 
+	 * override this method when they can find the resources without exceptions.
+	 * @param targetPaths The target resource paths. The resources that should be returned by 
+	 * this method are the "included" nodes of the path.
+	 * @param query The query that applies to the resources directly connected to this one
+	 * @return The result of the resolution, containing the resources in the target path(s) 
+	 * that are marked as included, in a hierarchical form
+	 * @see #resolveIncludedResources(Collection, Collection, ResourceQuery)
+	 */
+	public default ResolutionResult resolveConnectedResources(
+			Collection<? extends Path> targetPaths, ResourceQuery query)
+	{
+		try
+		{
+			Collection<TreeNode<Resource>> resources = findConnectedResources(targetPaths, 
+					query);
+			if (resources instanceof List)
+				return ResolutionResult.found((List<TreeNode<Resource>>) resources);
+			else
+				return ResolutionResult.found(new ArrayList<>(resources));
+		}
+		catch (HttpException e)
+		{
+			// Missing resources are reported as such, whether they were thrown as not found
+			// exceptions or plain http exceptions. The missing path isn't known here, so
+			// the first targeted path is used.
+			if (e.getStatus() == HttpStatus.NOT_FOUND)
+				return ResolutionResult.notFound(targetPaths.isEmpty() ? getPath() : 
+						targetPaths.iterator().next(), e.getMessage());
+			return ResolutionResult.failed(e);
+		}
+	}
+	
+	/**
+	 * In this method the resource should write itself with the provided writer. The resource 
+	 * should also write the provided resources that should reside under it. The resource 
+	 * shouldn't expect this method call, if it doesn't allow GET.
+	 * @param writer The writer that is used in the process.
+	 * @param subResources The resources under this one that should be written inside this 
+	 * resource.
+	 * @throws HttpException If the operation wasn't carried out
+	 * @throws ResourceWriterException If the writing failed
+	 * @see #getPathBetween(Resource, Resource)
+	 */
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources) 
+			throws HttpException, ResourceWriterException;
+	
+	/**
+	 * In this method the resource should write itself with the provided writer, following 
+	 * the query. Resources that have large child collections should write them in pages 
+	 * when the query requests so. By default the query is ignored.
+	 * @param writer The writer that is used in the process.
+	 * @param subResources The resources under this one that should be written inside this 
+	 * resource.
+	 * @param query The query that describes how the resource should be written. The 
+	 * subresources should be written using {@link ResourceQuery#below()}.
+	 * @throws HttpException If the operation wasn't carried out
+	 * @throws ResourceWriterException If the writing failed
+	 * @see #writeResourcesUnder(ResourceWriter, Collection, ResourceQuery)
+	 */
+	public default void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources, 
+			ResourceQuery query) throws HttpException, ResourceWriterException
+	{
+		write(writer, subResources);
+	}
+	
+	/**
+	 * This method writes each of the subresources, presumably residing under the parent 
+	 * resource, consecutively, using the provided writer.
+	 * @param writer The writer that writes the resources.
+	 * @param subResources The resources that should be written
+	 * @throws HttpException If the operation failed
+	 * @throws ResourceWriterException If the writing failed
+	 */
+	public static void writeResourcesUnder(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources) throws 
+			HttpException, ResourceWriterException
+	{
+		// Writes the included resources as children
+		for (TreeNode<? extends Resource> childNode : subResources)
+		{
+			childNode.getContent().write(writer, childNode.getChildren());
+		}
+	}
+	
+	/**
+	 * This method writes each of the subresources, presumably residing under the parent 
+	 * resource, consecutively, using the provided writer.
+	 * @param writer The writer that writes the resources.
+	 * @param subResources The resources that should be written
+	 * @param query The query used for writing the parent resource
+	 * @throws HttpException If the operation failed
+	 * @throws ResourceWriterException If the writing failed
+	 */
+	public static void writeResourcesUnder(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources, 
+			ResourceQuery query) throws HttpException, ResourceWriterException
+	{
+		// Writes the included resources as children
+		ResourceQuery childQuery = query.below();
+		for (TreeNode<? extends Resource> childNode : subResources)
+		{
+			childNode.getContent().write(writer, childNode.getChildren(), childQuery);
+		}
+	}
+	
+	/**
+	 * Writes a link on a page of a collection. The links are written in the writer's link 
+	 * style, but unlike with {@link ResourceWriter#writeLink(Link)}, the page is written 
+	 * even when links aren't, so the client can still read the page and request the next 
+	 * one. Then the resources are written as empty elements with the link names and the 
+	 * links with parameters, like the link to the next page, as properties that contain 
+	 * the target path and the parameters.
+	 * @param writer The writer that writes the page
+	 * @param link The link to a resource on the page or to another page
+	 * @throws ResourceWriterException If the writing failed
+	 */
+	public static void writePageLink(ResourceWriter writer, Link link) throws 
+			ResourceWriterException
+	{
+		if (writer.getLinkWriteStyle() != LinkWriteStyle.NONE)
+			writer.writeLink(link);
+		else if (link.hasParameters())
+		{
+			try
+			{
+				writer.writeProperty(link.getName(), Value.String(link.getTargetPath() + 
+						"?" + link.getParameters().getParameterString(
+						StandardCharsets.UTF_8.name())));
+			}
+			catch (UnsupportedEncodingException e)
+			{
+				throw new ResourceWriterException("Failed to encode link parameters", e);
+			}
+		}
+		else
+		{
+			writer.writeResourceStart(link.getName(), null);
+			writer.writeResourceEnd();
+		}
+	}
+	
+	/**
+	 * Finds the path separating the two resources
+	 * @param upper The presumably upper resource
+	 * @param lower The presumably lower resource
+	 * @return The path between the two resources. Null if there is no path between or 
+	 * connecting the resources
+	 */
+	public static Path getPathBetween(Resource upper, Resource lower)
+	{
+		return Path.getPathBetween(upper.getPath(), lower.getPath(), false);
+	}
+	
+	/**
+	 * Parses the name of the resource that contains the leading path information, if present
+	 * @param resource The resource who's name is parsed
+	 * @param leadingPath The path leading to the resource. May be null.
+	 * @return The name of the resource, including the leading path (where applicable).
+	 */
+	public static String parseResourceElementName(Resource resource, Path leadingPath)
+	{
+		String resourceName = getResourceName(resource);
+		
+		if (leadingPath == null)
+			return resourceName;
+		else
+			return leadingPath.toString() + Path.DS + resourceName;
+	}
+	
+	/**
+	 * Finds the name of the resource from its path.
+	 * @param resource The resource
+	 * @return The name of the resource
+	 */
+	public static String getResourceName(Resource resource)
+	{
+		return resource.getPath().getContent();
+	}
+	
+	/**
+	 * Checks whether the provided resource allows use of the given method. HEAD is allowed 
+	 * wherever GET is.
+	 * @param resource The resource that is targeted with the method
+	 * @param method The method that would be used on the resource
+	 * @return Would the resource allow the use of the method
+	 */
+	public static boolean resourceAllowsMethod(Resource resource, Method method)
+	{
+		for (Method allowed : resource.getAllowedMethods())
+		{
+			if (allowed == method || (method == Method.HEAD && allowed == Method.GET))
+				return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Finds all the resources directly below the provided resource node in a hierarchical 
+	 * tree structure.
+	 * @param node The node who's children are collected
+	 * @return All the direct children of the provided node
+	 */
+	public static List<Resource> getDirectNodeChildren(TreeNode<? extends Resource> node)
+	{
+		List<Resource> resources = new ArrayList<>();
+		
+		for (TreeNode<? extends Resource> child : node.getChildren())
+		{
+			resources.add(child.getContent());
+		}
+		
+		return resources;
+	}
+	
+	/**
+	 * Finds all the resources stored in a hierarchical tree structure
+	 * @param resourceTree A resource tree
+	 * @return The root node resource and each resource under it.
+	 */
+	public static List<Resource> getResourcesFromTree(TreeNode<? extends Resource> resourceTree)
+	{
+		List<Resource> resources = new ArrayList<>();
+		
+		resources.add(resourceTree.getContent());
+		for (TreeNode<? extends Resource> child : resourceTree.getChildren())
+		{
+			resources.addAll(getResourcesFromTree(child));
+		}
+		
+		return resources;
+	}
+	
+	/**
+	 * Finds all the resources stored in a set of hierarchical tree structures
+	 * @param resourceTrees A collection of resource trees
+	 * @return All resources included in the provided nodes and those under them
+	 */
+	public static List<Resource> getResourcesFromTreeCollection(
+			Collection<? extends TreeNode<? extends Resource>> resourceTrees)
+	{
+		List<Resource> resources = new ArrayList<>();
+		for (TreeNode<? extends Resource> resourceTree : resourceTrees)
+		{
+			resources.addAll(getResourcesFromTree(resourceTree));
+		}
+		
+		return resources;
+	}
+	
+	/**
+	 * Searches through a collection for a resource with a specific name
+	 * @param resources The resources that are searched through
+	 * @param targetName The name of the target resource
+	 * @return A resource with the given name or null if the collection didn't contain a 
+	 * resource with the given name
+	 */
+	public static Resource findResourceWithName(Collection<? extends Resource> resources, 
+			String targetName)
+	{
+		for (Resource resource : resources)
+		{
+			if (getResourceName(resource).equalsIgnoreCase(targetName))
+				return resource;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Searches through a map for a resource with a specific name. The map keys are expected 
+	 * to be the lower case resource names, in which case the resource is found without 
+	 * iterating through the map. Resources stored under other keys are still found, but 
+	 * only after the direct lookup fails.
+	 * @param resources The resources that are searched through
+	 * @param targetName The name of the target resource
+	 * @return A resource with the given name or null if the map didn't contain a 
+	 * resource with the given name
+	 */
+	public static Resource findResourceWithName(Map<String, ? extends Resource> resources, 
+			String targetName)
+	{
+		Resource resource = resources.get(targetName.toLowerCase());
+		if (resource != null && getResourceName(resource).equalsIgnoreCase(targetName))
+			return resource;
+		
+		return findResourceWithName(resources.values(), targetName);
+	}
+	
+	/**
+	 * Creates a hierarchical resource collection from a set of resources and their children. 
+	 * Only the resources who's path is marked as included are included in this collection.
+	 * @param resources The resources included in the search. The resources should be parents 
+	 * or children for each other. Usually this would be a set of siblings under a resource.
+	 * @param targetPaths A collection of paths that should be represented in the returned 
+	 * collection. Each path node should represent a resource in the provided collection
+	 * @return A hierarchical resource collection that contains the resources (and their 
+	 * children) that are marked as included in the target paths.
+	 * @throws HttpException If all of the target paths weren't represented in the provided 
+	 * resource collection or if one of the resources couldn't find the correct resources 
+	 * under it
+	 */
+	public static List<TreeNode<Resource>> findIncludedResources(
+			Collection<? extends Resource> resources, Collection<? extends Path> targetPaths) 
+			throws HttpException
+	{
+		return findIncludedResources(resources, targetPaths, ResourceQuery.DEFAULT);
+	}
+	
+	/**
+	 * Creates a hierarchical resource collection from a set of resources and their children. 
+	 * Only the resources who's path is marked as included are included in this collection. 
+	 * Wildcard paths are expanded lazily, while the resources are being written.
+	 * @param resources The resources included in the search. The resources should be parents 
+	 * or children for each other. Usually this would be a set of siblings under a resource.
+	 * @param targetPaths A collection of paths that should be represented in the returned 
+	 * collection. Each path node should represent a resource in the provided collection
+	 * @param query The query that applies to the provided resources
+	 * @return A hierarchical resource collection that contains the resources (and their 
+	 * children) that are marked as included in the target paths.
+	 * @throws HttpException If all of the target paths weren't represented in the provided 
+	 * resource collection or if one of the resources couldn't find the correct resources 
+	 * under it
+	 */
+	public static List<TreeNode<Resource>> findIncludedResources(
+			Collection<? extends Resource> resources, Collection<? extends Path> targetPaths,
+			ResourceQuery query) throws HttpException
+	{
+		return resolveIncludedResources(resources, targetPaths, query).getOrThrow();
+	}
+	
+	/**
+	 * Creates a hierarchical resource collection from a set of resources and their children. 
+	 * Only the resources who's path is marked as included are included in this collection. 
+	 * Wildcard paths are expanded lazily, while the resources are being written.
+	 * @param resources The resources included in the search, mapped to their lower case 
+	 * names. The map order is used when the resources are expanded from a wildcard.
+	 * @param targetPaths A collection of paths that should be represented in the returned 
+	 * collection. Each path node should represent a resource in the provided map
+	 * @param query The query that applies to the provided resources
+	 * @return A hierarchical resource collection that contains the resources (and their 
+	 * children) that are marked as included in the target paths.
+	 * @throws HttpException If all of the target paths weren't represented in the provided 
+	 * resource map or if one of the resources couldn't find the correct resources 
+	 * under it
+	 */
+	public static List<TreeNode<Resource>> findIncludedResources(
+			NavigableMap<String, ? extends Resource> resources,
+			Collection<? extends Path> targetPaths, ResourceQuery query) throws HttpException
+	{
+		return resolveIncludedResources(resources, targetPaths, query).getOrThrow();
+	}
+	
+	/**
+	 * Creates a hierarchical resource collection from a set of resources and their children. 
+	 * This method works like {@link #findIncludedResources(Collection, Collection, 
+	 * ResourceQuery)}, except that missing resources are reported in the result instead of 
+	 * throwing an exception.
+	 * @param resources The resources included in the search
+	 * @param targetPaths A collection of paths that should be represented in the returned 
+	 * collection
+	 * @param query The query that applies to the provided resources
+	 * @return The result of the resolution. Contains the resources (and their children) 
+	 * that are marked as included in the target paths, if all of them were found.
+	 */
+	public static ResolutionResult resolveIncludedResources(
+			Collection<? extends Resource> resources, Collection<? extends Path> targetPaths,
+			ResourceQuery query)
+	{
+		List<TreeNode<Resource>> includedTrees = new ArrayList<>();
+		
+		for (Path targetPath : targetPaths)
+		{
+			if (targetPath.isWildcard())
+				includedTrees.add(new TreeNode<>(new WildcardExpansion(targetPath, resources, 
+						query), null));
+			else
+			{
+				ResolutionResult result = resolveResource(findResourceWithName(resources, 
+						targetPath.getContent()), targetPath, query);
+				if (!result.isFound())
+					return result;
+				includedTrees.addAll(result.getResources());
+			}
+		}
+		
+		return ResolutionResult.found(includedTrees);
+	}
+	
+	/**
+	 * Creates a hierarchical resource collection from a set of resources and their children. 
+	 * This method works like {@link #findIncludedResources(NavigableMap, Collection, 
+	 * ResourceQuery)}, except that missing resources are reported in the result instead of 
+	 * throwing an exception.
+	 * @param resources The resources included in the search, mapped to their lower case 
+	 * names
+	 * @param targetPaths A collection of paths that should be represented in the returned 
+	 * collection
+	 * @param query The query that applies to the provided resources
+	 * @return The result of the resolution. Contains the resources (and their children) 
+	 * that are marked as included in the target paths, if all of them were found.
+	 */
+	public static ResolutionResult resolveIncludedResources(
+			NavigableMap<String, ? extends Resource> resources,
+			Collection<? extends Path> targetPaths, ResourceQuery query)
+	{
+		List<TreeNode<Resource>> includedTrees = new ArrayList<>();
+		
+		for (Path targetPath : targetPaths)
+		{
+			if (targetPath.isWildcard())
+				includedTrees.add(new TreeNode<>(new WildcardExpansion(targetPath, resources, 
+						query), null));
+			else
+			{
+				ResolutionResult result = resolveResource(findResourceWithName(resources, 
+						targetPath.getContent()), targetPath, query);
+				if (!result.isFound())
+					return result;
+				includedTrees.addAll(result.getResources());
+			}
+		}
+		
+		return ResolutionResult.found(includedTrees);
+	}
+	
+	/**
+	 * Adds a resource, or the resources under it, to a hierarchical resource collection, 
+	 * based on the target path
+	 * @param includedTrees The resource collection the resource(s) are added to
+	 * @param rootResource The resource at the start of the target path. Null if no such 
+	 * resource exists.
+	 * @param targetPath The target path that starts from the resource
+	 * @param query The query that applies to the resource
+	 * @throws HttpException If the resource didn't exist, if it couldn't find the 
+	 * resources under it or if the expansion went over the query's budget
+	 */
+	public static void includeResource(List<TreeNode<Resource>> includedTrees, 
+			Resource rootResource, Path targetPath, ResourceQuery query) throws HttpException
+	{
+		includedTrees.addAll(resolveResource(rootResource, targetPath, query).getOrThrow());
+	}
+	
+	/**
+	 * Finds a resource, or the resources under it, based on the target path
+	 * @param rootResource The resource at the start of the target path. Null if no such 
+	 * resource exists.
+	 * @param targetPath The target path that starts from the resource
+	 * @param query The query that applies to the resource
+	 * @return The result of the resolution. Not found if the resource didn't exist or if 
+	 * it couldn't find the resources under it. Failed if the expansion went over the 
+	 * query's budget.
+	 */
+	public static ResolutionResult resolveResource(Resource rootResource, Path targetPath, 
+			ResourceQuery query)
+	{
+		if (rootResource == null)
+			return ResolutionResult.notFound(targetPath);
+		
+		// If the resource is not included, the resources under it take its place
+		ResourceQuery childQuery = targetPath.isIncluded() ? query.below() : query;
+		ResolutionResult childResult;
+		try
+		{
+			query.getBudget().enter(rootResource);
+		}
+		catch (HttpException e)
+		{
+			return ResolutionResult.failed(e);
+		}
+		try
+		{
+			childResult = rootResource.resolveConnectedResources(targetPath.getChildPaths(), 
+					childQuery);
+		}
+		finally
+		{
+			query.getBudget().exit();
+		}
+		
+		if (!childResult.isFound() || !targetPath.isIncluded())
+			return childResult;
+		
+		TreeNode<Resource> root = new TreeNode<>(rootResource, null);
+		for (TreeNode<Resource> child : childResult.getResources())
+		{
+			root.addChild(child);
+		}
+		
+		List<TreeNode<Resource>> included = new ArrayList<>(1);
+		included.add(root);
+		return ResolutionResult.found(included);
+	}
+}
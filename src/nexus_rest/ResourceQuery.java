@@ -0,0 +1,412 @@
+package nexus_rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Parameters;
+import nexus_http.Path;
+
+/**
+ * Resource queries describe how the targeted resources should be found and written. A query 
+ * contains the page of the child collection that should be written, as well as the maximum 
+ * amount of resources a wildcard ({@value Path#WILDCARD}) may expand to. A query may also 
+ * limit the written properties to a set of fields at each level. The query is relative to 
+ * a certain depth in the written resource hierarchy. The targeted resources are at depth 0.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ResourceQuery
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The name of the parameter that limits the amount of children written for a resource
+	 */
+	public static final String LIMIT_PARAMETER = "limit";
+	/**
+	 * The name of the parameter that contains the continuation token of a paged child 
+	 * collection
+	 */
+	public static final String CURSOR_PARAMETER = "cursor";
+	/**
+	 * The name of the parameter that lists the properties written for the targeted 
+	 * resources (comma separated). The properties written for the resources below them are 
+	 * listed in parameters "fields.1", "fields.2" and so on.
+	 */
+	public static final String FIELDS_PARAMETER = "fields";
+	/**
+	 * The deepest level a field projection can be specified for
+	 */
+	public static final int MAX_FIELDS_DEPTH = 32;
+	/**
+	 * The amount of children written on a single page when no limit has been specified
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	/**
+	 * The maximum amount of children that can be written on a single page
+	 */
+	public static final int MAX_PAGE_SIZE = 1000;
+	/**
+	 * The maximum amount of resources a single wildcard may expand to by default
+	 */
+	public static final int DEFAULT_MAX_FAN_OUT = 1000;
+	
+	/**
+	 * A query that doesn't page the written resources
+	 */
+	public static final ResourceQuery DEFAULT = new ResourceQuery(false, DEFAULT_PAGE_SIZE, 
+			null, 0, DEFAULT_MAX_FAN_OUT, Collections.<Set<String>>emptyList(), 
+			ExpansionBudget.UNLIMITED);
+	
+	private final boolean paged;
+	private final int limit, depth, maxFanOut;
+	private final String cursor;
+	private final List<Set<String>> fields;
+	private final ExpansionBudget budget;
+	private ResourceQuery below, unpaged;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private ResourceQuery(boolean paged, int limit, String cursor, int depth, int maxFanOut, 
+			List<Set<String>> fields, ExpansionBudget budget)
+	{
+		this.paged = paged;
+		this.limit = limit;
+		this.cursor = cursor;
+		this.depth = depth;
+		this.maxFanOut = maxFanOut;
+		this.fields = fields;
+		this.budget = budget;
+	}
+	
+	/**
+	 * Parses a resource query from request parameters
+	 * @param parameters The parameters provided by the client
+	 * @return A query based on the parameters
+	 * @throws HttpException If the parameters contained invalid values
+	 */
+	public static ResourceQuery parseFrom(Parameters parameters) throws HttpException
+	{
+		return parseFrom(parameters, DEFAULT_MAX_FAN_OUT);
+	}
+	
+	/**
+	 * Parses a resource query from request parameters
+	 * @param parameters The parameters provided by the client
+	 * @param maxFanOut The maximum amount of resources a single wildcard may expand to
+	 * @return A query based on the parameters
+	 * @throws HttpException If the parameters contained invalid values
+	 */
+	public static ResourceQuery parseFrom(Parameters parameters, int maxFanOut) throws 
+			HttpException
+	{
+		List<Set<String>> fields = parseFields(parameters);
+		String limitString = parameters.getParameterValue(LIMIT_PARAMETER);
+		String cursorString = parameters.getParameterValue(CURSOR_PARAMETER);
+		if (limitString == null && cursorString == null)
+		{
+			if (fields.isEmpty())
+				return withMaxFanOut(maxFanOut);
+			else
+				return new ResourceQuery(false, DEFAULT_PAGE_SIZE, null, 0, maxFanOut, fields, 
+						ExpansionBudget.UNLIMITED);
+		}
+		
+		int limit = DEFAULT_PAGE_SIZE;
+		if (limitString != null)
+		{
+			try
+			{
+				limit = Integer.parseInt(limitString.trim());
+			}
+			catch (NumberFormatException e)
+			{
+				throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + 
+						LIMIT_PARAMETER + "' must be a number");
+			}
+			
+			if (limit <= 0)
+				throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + 
+						LIMIT_PARAMETER + "' must be positive");
+			limit = Math.min(limit, MAX_PAGE_SIZE);
+		}
+		
+		String cursor = null;
+		if (cursorString != null && !cursorString.isEmpty())
+			cursor = decodeCursor(cursorString);
+		
+		return new ResourceQuery(true, limit, cursor, 0, maxFanOut, fields, 
+				ExpansionBudget.UNLIMITED);
+	}
+	
+	/**
+	 * Creates an unpaged query
+	 * @param maxFanOut The maximum amount of resources a single wildcard may expand to
+	 * @return A query that doesn't page the written resources
+	 */
+	public static ResourceQuery withMaxFanOut(int maxFanOut)
+	{
+		if (maxFanOut == DEFAULT_MAX_FAN_OUT)
+			return DEFAULT;
+		else
+			return new ResourceQuery(false, DEFAULT_PAGE_SIZE, null, 0, maxFanOut, 
+					Collections.<Set<String>>emptyList(), ExpansionBudget.UNLIMITED);
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return Should the child collections of the targeted resources be written in pages
+	 */
+	public boolean isPaged()
+	{
+		return this.paged;
+	}
+	
+	/**
+	 * @return The maximum amount of children that should be written on a single page
+	 */
+	public int getLimit()
+	{
+		return this.limit;
+	}
+	
+	/**
+	 * @return The (case-insensitive) key of the last child on the previous page. The 
+	 * children should be written starting after this key. Null if the first page should be 
+	 * written.
+	 */
+	public String getCursor()
+	{
+		return this.cursor;
+	}
+	
+	/**
+	 * @return How far below the targeted resources this query is used. The targeted 
+	 * resources are at depth 0.
+	 */
+	public int getDepth()
+	{
+		return this.depth;
+	}
+	
+	/**
+	 * @return The maximum amount of resources a single wildcard may expand to
+	 */
+	public int getMaxFanOut()
+	{
+		return this.maxFanOut;
+	}
+	
+	
+	/**
+	 * @return Are the written properties limited at this depth
+	 */
+	public boolean hasProjection()
+	{
+		return getFields() != null;
+	}
+	
+	/**
+	 * @return The (lower case) names of the properties that should be written at this 
+	 * depth. Null if all of the properties should be written.
+	 */
+	public Set<String> getFields()
+	{
+		if (this.depth < this.fields.size())
+			return this.fields.get(this.depth);
+		else
+			return null;
+	}
+	
+	
+	/**
+	 * @return The budget that limits how far the resources may be expanded. Shared between 
+	 * all the queries of a single request.
+	 */
+	public ExpansionBudget getBudget()
+	{
+		return this.budget;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Creates a copy of this query that uses the provided expansion budget
+	 * @param budget The budget that limits the expansion of the resources
+	 * @return A query with the provided budget
+	 */
+	public ResourceQuery withBudget(ExpansionBudget budget)
+	{
+		return new ResourceQuery(this.paged, this.limit, this.cursor, this.depth, 
+				this.maxFanOut, this.fields, budget);
+	}
+	
+	/**
+	 * Checks whether a property should be written for a resource at this depth
+	 * @param propertyName The name of the property
+	 * @return Should the property be written
+	 */
+	public boolean includesProperty(String propertyName)
+	{
+		Set<String> fields = getFields();
+		return fields == null || fields.contains(propertyName.toLowerCase());
+	}
+	
+	/**
+	 * @return The query that should be used for the resources directly under the resources 
+	 * using this query. Paging only affects the targeted resources.
+	 */
+	public ResourceQuery below()
+	{
+		if (this.below == null)
+			this.below = new ResourceQuery(false, this.limit, null, this.depth + 1, 
+					this.maxFanOut, this.fields, this.budget);
+		return this.below;
+	}
+	
+	/**
+	 * @return A version of this query that doesn't page the written resources. Used when the 
+	 * page has already been applied elsewhere, like in a wildcard expansion.
+	 */
+	public ResourceQuery withoutPaging()
+	{
+		if (!this.paged)
+			return this;
+		
+		if (this.unpaged == null)
+			this.unpaged = new ResourceQuery(false, this.limit, null, this.depth, 
+					this.maxFanOut, this.fields, this.budget);
+		return this.unpaged;
+	}
+	
+	/**
+	 * Checks whether the child collection of a resource at this depth should be paged
+	 * @return Should the resources using this query write their children in pages
+	 */
+	public boolean pagesChildren()
+	{
+		return this.paged && this.depth == 0;
+	}
+	
+	/**
+	 * Creates the parameters that can be used for requesting the next page of children
+	 * @param lastKey The (case-insensitive) key of the last child written on the current page
+	 * @return The parameters for the next page request
+	 */
+	public Parameters createNextPageParameters(String lastKey)
+	{
+		return createNextPageParameters(lastKey, this.limit);
+	}
+	
+	/**
+	 * Creates the parameters that can be used for requesting the next page of children. 
+	 * The written fields are the same as on the current page.
+	 * @param lastKey The (case-insensitive) key of the last child written on the current page
+	 * @param limit The size of the next page
+	 * @return The parameters for the next page request
+	 */
+	public Parameters createNextPageParameters(String lastKey, int limit)
+	{
+		Parameters parameters = new Parameters();
+		parameters.addParameter(LIMIT_PARAMETER, Integer.toString(limit));
+		parameters.addParameter(CURSOR_PARAMETER, encodeCursor(lastKey));
+		
+		// The fields are relative to the targeted resources, like the pages
+		for (int depth = 0; depth < this.fields.size(); depth++)
+		{
+			Set<String> fieldNames = this.fields.get(depth);
+			if (fieldNames != null)
+				parameters.addParameter(depth == 0 ? FIELDS_PARAMETER : 
+						FIELDS_PARAMETER + "." + depth, 
+						String.join(",", new TreeSet<>(fieldNames)));
+		}
+		
+		return parameters;
+	}
+	
+	/**
+	 * Encodes a child key into an opaque continuation token
+	 * @param key The key of the last child on a page
+	 * @return A cursor that can be sent to the client
+	 */
+	public static String encodeCursor(String key)
+	{
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(
+				key.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static List<Set<String>> parseFields(Parameters parameters) throws HttpException
+	{
+		List<Set<String>> fields = new ArrayList<>();
+		for (String parameterName : parameters.getParameterNames())
+		{
+			// The level is given after the parameter name, 'fields' is the same as 'fields.0'
+			int depth;
+			if (parameterName.equalsIgnoreCase(FIELDS_PARAMETER))
+				depth = 0;
+			else if (parameterName.length() > FIELDS_PARAMETER.length() + 1 && 
+					parameterName.regionMatches(true, 0, FIELDS_PARAMETER + ".", 0, 
+					FIELDS_PARAMETER.length() + 1))
+			{
+				try
+				{
+					depth = Integer.parseInt(parameterName.substring(
+							FIELDS_PARAMETER.length() + 1));
+				}
+				catch (NumberFormatException e)
+				{
+					throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid parameter '" + 
+							parameterName + "'");
+				}
+				
+				if (depth < 0 || depth > MAX_FIELDS_DEPTH)
+					throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + 
+							parameterName + "' is out of range");
+			}
+			else
+				continue;
+			
+			Set<String> fieldNames = new HashSet<>();
+			for (String fieldName : parameters.getParameterValue(parameterName).split(","))
+			{
+				String trimmed = fieldName.trim();
+				if (!trimmed.isEmpty())
+					fieldNames.add(trimmed.toLowerCase());
+			}
+			
+			while (fields.size() <= depth)
+			{
+				fields.add(null);
+			}
+			fields.set(depth, Collections.unmodifiableSet(fieldNames));
+		}
+		
+		return fields;
+	}
+	
+	private static String decodeCursor(String cursor) throws HttpException
+	{
+		try
+		{
+			return new String(Base64.getUrlDecoder().decode(cursor.trim()), 
+					StandardCharsets.UTF_8);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid '" + CURSOR_PARAMETER + 
+					"' parameter");
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package nexus_rest;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+
+import nexus_http.Method;
+import nexus_http.Path;
+import utopia.flow.generics.Variable;
+
+/**
+ * A resource snapshot is a binary image of a simple resource tree. The snapshot is read 
+ * through memory mapped buffers, and the resources are only created when they are first 
+ * accessed. Opening a snapshot is therefore fast regardless of its size, and only the 
+ * touched parts of the tree take up heap space.<br>
+ * Each resource is stored as its name, its properties and the file positions of the 
+ * resources created under it. The resources are written children first, so that the 
+ * position of each child is known when its parent is written. Links added with 
+ * {@link SimpleResource#putLink(String, Resource)} are not stored.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ResourceSnapshot
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final int MAGIC = 0x4E585253;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+	
+	private final MappedByteBuffer[] segments;
+	private final long size;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private ResourceSnapshot(MappedByteBuffer[] segments, long size)
+	{
+		this.segments = segments;
+		this.size = size;
+	}
+	
+	/**
+	 * Opens a snapshot file and creates the root resource of the stored tree. The rest of 
+	 * the tree is read when it is accessed.
+	 * @param file The snapshot file
+	 * @param rootParent The path above the root resource. Null if the root is at the top.
+	 * @param allowedMethods The methods allowed by the restored resources
+	 * @return The root resource of the stored tree
+	 * @throws IOException If the file couldn't be read or isn't a snapshot
+	 */
+	public static SimpleResource load(java.nio.file.Path file, Path rootParent, 
+			Method... allowedMethods) throws IOException
+	{
+		MappedByteBuffer[] segments;
+		long size;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			// A single buffer can't be larger than 2 GB, so large files are mapped in parts
+			size = channel.size();
+			segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+			for (int i = 0; i < segments.length; i++)
+			{
+				long start = (long) i << SEGMENT_BITS;
+				segments[i] = channel.map(MapMode.READ_ONLY, start, 
+						Math.min(SEGMENT_MASK + 1, size - start));
+			}
+		}
+		
+		ResourceSnapshot snapshot = new ResourceSnapshot(segments, size);
+		if (size < HEADER_SIZE || snapshot.getInt(0) != MAGIC)
+			throw new IOException(file + " is not a resource snapshot");
+		int version = snapshot.getInt(4);
+		if (version != VERSION)
+			throw new IOException("Unsupported resource snapshot version " + version);
+		
+		long rootPosition = snapshot.getLong(8);
+		snapshot.checkPosition(rootPosition);
+		SimpleResource root = new SimpleResource(new Path(snapshot.getString(rootPosition), 
+				rootParent, false), allowedMethods);
+		root.setSnapshotSource(snapshot, rootPosition);
+		return root;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Writes a resource tree into a snapshot file. The tree shouldn't be modified while 
+	 * it is being written.
+	 * @param root The root of the written tree
+	 * @param file The file the snapshot is written to. Overwritten if it exists already.
+	 * @throws IOException If the file couldn't be written
+	 */
+	public static void write(SimpleResource root, java.nio.file.Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			// The header is completed once the position of the root is known
+			OutputStream stream = Channels.newOutputStream(channel);
+			SnapshotOutput out = new SnapshotOutput(new DataOutputStream(
+					new BufferedOutputStream(stream, 64 * 1024)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(0);
+			
+			long rootPosition = writeResource(root, out);
+			out.flush();
+			
+			ByteBuffer rootBuffer = ByteBuffer.allocate(8);
+			rootBuffer.putLong(rootPosition).flip();
+			while (rootBuffer.hasRemaining())
+			{
+				channel.write(rootBuffer, 8 + rootBuffer.position());
+			}
+			channel.force(false);
+		}
+	}
+	
+	/**
+	 * Reads the properties and the children of a resource from the snapshot. The children 
+	 * are left to be read when they are accessed.
+	 * @param resource The resource that is read
+	 * @param position The position of the resource in the snapshot
+	 */
+	void materialize(SimpleResource resource, long position)
+	{
+		// Skips the name, which is already known
+		long cursor = skipString(position);
+		
+		int propertyCount = getInt(cursor);
+		cursor += 4;
+		for (int i = 0; i < propertyCount; i++)
+		{
+			String name = getString(cursor);
+			cursor = skipString(cursor);
+			resource.restoreProperty(name, getString(cursor));
+			cursor = skipString(cursor);
+		}
+		
+		int childCount = getInt(cursor);
+		cursor += 4;
+		for (int i = 0; i < childCount; i++)
+		{
+			long childPosition = getLong(cursor);
+			checkPosition(childPosition);
+			resource.addSnapshotChild(getString(childPosition), this, childPosition);
+			cursor += 8;
+		}
+	}
+	
+	private static long writeResource(SimpleResource resource, SnapshotOutput out) 
+			throws IOException
+	{
+		// Writes the children first, so that their positions are known
+		List<SimpleResource> children = resource.getChildren();
+		long[] childPositions = new long[children.size()];
+		for (int i = 0; i < childPositions.length; i++)
+		{
+			childPositions[i] = writeResource(children.get(i), out);
+		}
+		
+		long position = out.getPosition();
+		out.writeString(resource.getPath().getContent());
+		
+		Collection<Variable> properties = resource.getProperties();
+		out.writeInt(properties.size());
+		for (Variable property : properties)
+		{
+			out.writeString(property.getName());
+			out.writeString(property.getValue().toString());
+		}
+		
+		out.writeInt(childPositions.length);
+		for (long childPosition : childPositions)
+		{
+			out.writeLong(childPosition);
+		}
+		
+		return position;
+	}
+	
+	private void checkPosition(long position)
+	{
+		if (position < HEADER_SIZE || position >= this.size)
+			throw new IllegalStateException("Invalid resource position " + position + 
+					" in the snapshot");
+	}
+	
+	private byte getByte(long position)
+	{
+		return this.segments[(int) (position >>> SEGMENT_BITS)].get(
+				(int) (position & SEGMENT_MASK));
+	}
+	
+	private int getInt(long position)
+	{
+		// Values that cross a segment boundary are put together from bytes
+		int offset = (int) (position & SEGMENT_MASK);
+		if (offset <= SEGMENT_MASK - 3)
+			return this.segments[(int) (position >>> SEGMENT_BITS)].getInt(offset);
+		
+		int value = 0;
+		for (int i = 0; i < 4; i++)
+		{
+			value = (value << 8) | (getByte(position + i) & 0xFF);
+		}
+		return value;
+	}
+	
+	private long getLong(long position)
+	{
+		int offset = (int) (position & SEGMENT_MASK);
+		if (offset <= SEGMENT_MASK - 7)
+			return this.segments[(int) (position >>> SEGMENT_BITS)].getLong(offset);
+		
+		return ((long) getInt(position) << 32) | (getInt(position + 4) & 0xFFFFFFFFL);
+	}
+	
+	private String getString(long position)
+	{
+		int length = getInt(position);
+		if (length < 0 || position + 4 + length > this.size)
+			throw new IllegalStateException("Invalid string at position " + position + 
+					" in the snapshot");
+		
+		byte[] bytes = new byte[length];
+		long start = position + 4;
+		int read = 0;
+		while (read < length)
+		{
+			// Copies as much as possible from a single segment at a time. The buffer is
+			// duplicated so that concurrent reads don't affect each other.
+			long current = start + read;
+			ByteBuffer segment = this.segments[(int) (current >>> SEGMENT_BITS)].duplicate();
+			segment.position((int) (current & SEGMENT_MASK));
+			int amount = Math.min(length - read, segment.remaining());
+			segment.get(bytes, read, amount);
+			read += amount;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private long skipString(long position)
+	{
+		return position + 4 + getInt(position);
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * The output keeps track of the written position, since the snapshot may be larger 
+	 * than the int range
+	 */
+	private static class SnapshotOutput
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final DataOutputStream out;
+		private long position = 0;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public SnapshotOutput(DataOutputStream out)
+		{
+			this.out = out;
+		}
+		
+		
+		// ACCESSORS	-----------------
+		
+		public long getPosition()
+		{
+			return this.position;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public void writeInt(int value) throws IOException
+		{
+			this.out.writeInt(value);
+			this.position += 4;
+		}
+		
+		public void writeLong(long value) throws IOException
+		{
+			this.out.writeLong(value);
+			this.position += 8;
+		}
+		
+		public void writeString(String s) throws IOException
+		{
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length);
+			this.out.write(bytes);
+			this.position += bytes.length;
+		}
+		
+		public void flush() throws IOException
+		{
+			this.out.flush();
+		}
+	}
+}
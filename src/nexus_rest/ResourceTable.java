@@ -0,0 +1,961 @@
+package nexus_rest;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import flow_structure.TreeNode;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.MethodNotAllowedException;
+import nexus_http.Parameters;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import utopia.flow.generics.Value;
+
+/**
+ * A resource table is a collection of children that share the same properties. Instead of 
+ * storing each child as its own object, the property values are stored in columns of 
+ * primitive or dictionary encoded arrays. A child resource is only created as a lightweight 
+ * view of its row when it is accessed. This makes the table much smaller than a tree of 
+ * simple resources with the same content.<br>
+ * The children are created through post, like with {@link SimpleResource}, and their 
+ * properties can be modified with put. The properties must be declared in the table's 
+ * schema.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ResourceTable implements Resource, OrderedResources
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String NAME_PROPERTY = "name";
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private static final Method[] ALLOWED_METHODS = {Method.GET, Method.HEAD, Method.POST};
+	private static final Method[] ROW_METHODS = {Method.GET, Method.HEAD, Method.PUT};
+	
+	private final Path path;
+	private final Map<String, Column> columns;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private String[] names = new String[INITIAL_CAPACITY];
+	private int rowCount = 0;
+	// Open addressing index from the names to the rows. Holds row + 1, 0 marks a free slot.
+	private int[] nameIndex = new int[INITIAL_CAPACITY * 2];
+	// The rows in name order. The new rows are merged in when the rows are next read in
+	// order.
+	private volatile int[] sortedRows = new int[0];
+	private final Object sortLock = new Object();
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new empty table
+	 * @param path The path of the table resource
+	 * @param schema The properties of the children and their types, in the order they are 
+	 * written
+	 */
+	public ResourceTable(Path path, Map<String, ColumnType> schema)
+	{
+		this.path = path;
+		this.columns = new LinkedHashMap<>();
+		for (Map.Entry<String, ColumnType> column : schema.entrySet())
+		{
+			if (column.getKey().equalsIgnoreCase(NAME_PROPERTY))
+				throw new IllegalArgumentException("The name column is included by default");
+			this.columns.put(column.getKey().toLowerCase(), column.getValue().createColumn(
+					column.getKey(), INITIAL_CAPACITY));
+		}
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public String toString()
+	{
+		return getPath().toString();
+	}
+	
+	@Override
+	public Path getPath()
+	{
+		return this.path;
+	}
+	
+	@Override
+	public Method[] getAllowedMethods()
+	{
+		return ALLOWED_METHODS;
+	}
+	
+	/**
+	 * Creates a new row in the table. Requires parameter 'name'. The other parameters are 
+	 * set as the properties of the row.
+	 */
+	@Override
+	public Link post(Request request, Response response) throws HttpException
+	{
+		Parameters parameters = request.getParameters();
+		String name = parameters.getParameterValue(NAME_PROPERTY);
+		if (name == null)
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + NAME_PROPERTY + 
+					"' required");
+		
+		this.lock.writeLock().lock();
+		try
+		{
+			if (findRow(name) >= 0)
+				throw new HttpException(HttpStatus.FORBIDDEN, "Can't overwrite resource " + 
+						name);
+			
+			// The values are checked before the row is added
+			List<Column> targetColumns = new ArrayList<>();
+			List<Object> values = new ArrayList<>();
+			parseValues(parameters, targetColumns, values);
+			
+			int row = addRow(name);
+			for (int i = 0; i < targetColumns.size(); i++)
+			{
+				targetColumns.get(i).set(row, values.get(i));
+			}
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+		
+		response.setStatus(HttpStatus.CREATED);
+		return new Link(name, new Path(name, getPath(), false));
+	}
+	
+	@Override
+	public void put(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	@Override
+	public void delete(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths) throws HttpException
+	{
+		return findConnectedResources(targetPaths, ResourceQuery.DEFAULT);
+	}
+	
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths, ResourceQuery query) throws HttpException
+	{
+		return resolveConnectedResources(targetPaths, query).getOrThrow();
+	}
+	
+	/**
+	 * The rows are looked up by their names, without going through the others
+	 */
+	@Override
+	public ResolutionResult resolveConnectedResources(Collection<? extends Path> targetPaths, 
+			ResourceQuery query)
+	{
+		List<TreeNode<Resource>> includedTrees = new ArrayList<>();
+		for (Path targetPath : targetPaths)
+		{
+			if (targetPath.isWildcard())
+				includedTrees.add(new TreeNode<>(new WildcardExpansion(targetPath, this, 
+						query), null));
+			else
+			{
+				ResolutionResult result = Resource.resolveResource(findChild(
+						targetPath.getContent()), targetPath, query);
+				if (!result.isFound())
+					return result;
+				includedTrees.addAll(result.getResources());
+			}
+		}
+		
+		return ResolutionResult.found(includedTrees);
+	}
+	
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources) 
+			throws HttpException, ResourceWriterException
+	{
+		write(writer, subResources, ResourceQuery.DEFAULT);
+	}
+	
+	/**
+	 * Writes the included rows. If the query is paged, links to a single page of the rows 
+	 * are written as well.
+	 */
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources, 
+			ResourceQuery query) throws HttpException, ResourceWriterException
+	{
+		writer.writeResourceStart(Resource.getResourceName(this), getPath());
+		Resource.writeResourcesUnder(writer, subResources, query);
+		
+		if (query.pagesChildren())
+		{
+			writer.writeArrayStart("links");
+			RowIterator rows = new RowIterator(query.getCursor());
+			String lastKey = null;
+			for (int i = 0; i < query.getLimit() && rows.hasNext(); i++)
+			{
+				String name = getName(rows.nextRow());
+				Resource.writePageLink(writer, new Link(name, new Path(name, getPath(), 
+						false)));
+				lastKey = name.toLowerCase();
+			}
+			
+			// If there are more rows left, adds a link to the next page
+			if (rows.hasNext())
+				Resource.writePageLink(writer, new Link("next", getPath(), 
+						query.createNextPageParameters(lastKey)));
+			writer.writeArrayEnd();
+		}
+		
+		writer.writeResourceEnd();
+	}
+	
+	@Override
+	public Iterator<Map.Entry<String, Resource>> iterateAfter(String cursor)
+	{
+		final RowIterator rows = new RowIterator(cursor);
+		return new Iterator<Map.Entry<String, Resource>>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return rows.hasNext();
+			}
+			
+			@Override
+			public Map.Entry<String, Resource> next()
+			{
+				Row row = new Row(rows.nextRow());
+				return new AbstractMap.SimpleImmutableEntry<>(row.getName().toLowerCase(), 
+						row);
+			}
+		};
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return How many rows there are in the table
+	 */
+	public int getRowCount()
+	{
+		this.lock.readLock().lock();
+		try
+		{
+			return this.rowCount;
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Finds a row from the table
+	 * @param name The name of the row (case-insensitive)
+	 * @return A view of the row or null if there is no such row
+	 */
+	public Resource findChild(String name)
+	{
+		this.lock.readLock().lock();
+		try
+		{
+			int row = findRow(name);
+			if (row < 0)
+				return null;
+			return new Row(row);
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	private String getName(int row)
+	{
+		this.lock.readLock().lock();
+		try
+		{
+			return this.names[row];
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	private void parseValues(Parameters parameters, List<Column> targetColumns, 
+			List<Object> values) throws HttpException
+	{
+		for (String parameterName : parameters.getParameterNames())
+		{
+			if (parameterName.equalsIgnoreCase(NAME_PROPERTY))
+				continue;
+			
+			Column column = this.columns.get(parameterName.toLowerCase());
+			if (column == null)
+				throw new HttpException(HttpStatus.BAD_REQUEST, "Property '" + parameterName + 
+						"' is not part of " + getPath());
+			targetColumns.add(column);
+			values.add(column.parse(parameters.getParameterValue(parameterName)));
+		}
+	}
+	
+	private int addRow(String name)
+	{
+		// Grows the arrays as needed
+		if (this.rowCount == this.names.length)
+		{
+			int capacity = this.names.length * 2;
+			this.names = Arrays.copyOf(this.names, capacity);
+			for (Column column : this.columns.values())
+			{
+				column.grow(capacity);
+			}
+			rebuildNameIndex(capacity * 2);
+		}
+		
+		int row = this.rowCount;
+		this.names[row] = name;
+		insertToIndex(this.nameIndex, name, row);
+		this.rowCount ++;
+		return row;
+	}
+	
+	private int findRow(String name)
+	{
+		int mask = this.nameIndex.length - 1;
+		int slot = hashOf(name) & mask;
+		while (this.nameIndex[slot] != 0)
+		{
+			int row = this.nameIndex[slot] - 1;
+			if (this.names[row].equalsIgnoreCase(name))
+				return row;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+	
+	private void rebuildNameIndex(int capacity)
+	{
+		int[] index = new int[capacity];
+		for (int row = 0; row < this.rowCount; row++)
+		{
+			insertToIndex(index, this.names[row], row);
+		}
+		this.nameIndex = index;
+	}
+	
+	private int[] getSortedRows()
+	{
+		// The sorted order is only updated once the rows are read in order
+		int[] sorted = this.sortedRows;
+		if (sorted.length == getRowCount())
+			return sorted;
+		
+		// Only one thread updates the order at a time, but the table isn't locked meanwhile
+		synchronized (this.sortLock)
+		{
+			sorted = this.sortedRows;
+			
+			// The rows are never removed and their names never change, so the rows that
+			// existed at this point can be read from the array afterwards
+			String[] names;
+			int rowCount;
+			this.lock.readLock().lock();
+			try
+			{
+				names = this.names;
+				rowCount = this.rowCount;
+			}
+			finally
+			{
+				this.lock.readLock().unlock();
+			}
+			if (sorted.length == rowCount)
+				return sorted;
+			
+			// Only the new rows are sorted. They are then merged with the sorted rows.
+			int[] added = new int[rowCount - sorted.length];
+			for (int i = 0; i < added.length; i++)
+			{
+				added[i] = sorted.length + i;
+			}
+			sortRows(names, added, new int[added.length], 0, added.length);
+			
+			int[] rows = new int[rowCount];
+			int old = 0;
+			int next = 0;
+			for (int i = 0; i < rows.length; i++)
+			{
+				if (next >= added.length || (old < sorted.length && 
+						compareRows(names, sorted[old], added[next]) <= 0))
+					rows[i] = sorted[old++];
+				else
+					rows[i] = added[next++];
+			}
+			
+			this.sortedRows = rows;
+			return rows;
+		}
+	}
+	
+	private static void sortRows(String[] names, int[] rows, int[] buffer, int start, 
+			int end)
+	{
+		// Merge sort, since the rows are primitive indices sorted by their names
+		if (end - start < 2)
+			return;
+		int middle = (start + end) >>> 1;
+		sortRows(names, rows, buffer, start, middle);
+		sortRows(names, rows, buffer, middle, end);
+		if (compareRows(names, rows[middle - 1], rows[middle]) <= 0)
+			return;
+		
+		System.arraycopy(rows, start, buffer, start, end - start);
+		int left = start;
+		int right = middle;
+		for (int i = start; i < end; i++)
+		{
+			if (right >= end || (left < middle && 
+					compareRows(names, buffer[left], buffer[right]) <= 0))
+				rows[i] = buffer[left++];
+			else
+				rows[i] = buffer[right++];
+		}
+	}
+	
+	private static int compareRows(String[] names, int first, int second)
+	{
+		return String.CASE_INSENSITIVE_ORDER.compare(names[first], names[second]);
+	}
+	
+	private static void insertToIndex(int[] index, String name, int row)
+	{
+		int mask = index.length - 1;
+		int slot = hashOf(name) & mask;
+		while (index[slot] != 0)
+		{
+			slot = (slot + 1) & mask;
+		}
+		index[slot] = row + 1;
+	}
+	
+	private static int hashOf(String name)
+	{
+		// A case-insensitive hash that doesn't need a lower case copy of the name
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++)
+		{
+			hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+		}
+		return hash ^ (hash >>> 16);
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A row is a lightweight view of a single child in the table. It only holds the row 
+	 * index, and the values are read from the table's columns when they are needed.
+	 */
+	private class Row implements Resource
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final int row;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public Row(int row)
+		{
+			this.row = row;
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public String toString()
+		{
+			return getPath().toString();
+		}
+		
+		@Override
+		public Path getPath()
+		{
+			return new Path(getName(), ResourceTable.this.path, false);
+		}
+		
+		@Override
+		public Method[] getAllowedMethods()
+		{
+			return ROW_METHODS;
+		}
+		
+		@Override
+		public Link post(Request request, Response response) throws HttpException
+		{
+			throw new MethodNotAllowedException(ROW_METHODS);
+		}
+		
+		/**
+		 * Modifies the properties of the row
+		 */
+		@Override
+		public void put(Request request, Response response) throws HttpException
+		{
+			if (request.getParameters().containsParameter(NAME_PROPERTY))
+				throw new HttpException(HttpStatus.FORBIDDEN, NAME_PROPERTY + 
+						" can't be modified");
+			
+			ResourceTable.this.lock.writeLock().lock();
+			try
+			{
+				List<Column> targetColumns = new ArrayList<>();
+				List<Object> values = new ArrayList<>();
+				parseValues(request.getParameters(), targetColumns, values);
+				for (int i = 0; i < targetColumns.size(); i++)
+				{
+					targetColumns.get(i).set(this.row, values.get(i));
+				}
+			}
+			finally
+			{
+				ResourceTable.this.lock.writeLock().unlock();
+			}
+		}
+		
+		@Override
+		public void delete(Request request, Response response) throws HttpException
+		{
+			throw new MethodNotAllowedException(ROW_METHODS);
+		}
+		
+		@Override
+		public Collection<TreeNode<Resource>> findConnectedResources(
+				Collection<? extends Path> targetPaths) throws HttpException
+		{
+			return findConnectedResources(targetPaths, ResourceQuery.DEFAULT);
+		}
+		
+		@Override
+		public Collection<TreeNode<Resource>> findConnectedResources(
+				Collection<? extends Path> targetPaths, ResourceQuery query)
+				throws HttpException
+		{
+			return resolveConnectedResources(targetPaths, query).getOrThrow();
+		}
+		
+		/**
+		 * The rows don't have any resources under them
+		 */
+		@Override
+		public ResolutionResult resolveConnectedResources(
+				Collection<? extends Path> targetPaths, ResourceQuery query)
+		{
+			return Resource.resolveIncludedResources(Collections.<Resource>emptyList(), 
+					targetPaths, query);
+		}
+		
+		@Override
+		public void write(ResourceWriter writer, 
+				Collection<? extends TreeNode<? extends Resource>> subResources) 
+				throws HttpException, ResourceWriterException
+		{
+			write(writer, subResources, ResourceQuery.DEFAULT);
+		}
+		
+		@Override
+		public void write(ResourceWriter writer, 
+				Collection<? extends TreeNode<? extends Resource>> subResources, 
+				ResourceQuery query) throws HttpException, ResourceWriterException
+		{
+			String name = getName();
+			writer.writeResourceStart(name, getPath());
+			
+			// Writes the name and the set values, or only the requested ones
+			if (query.includesProperty(NAME_PROPERTY))
+				writer.writeProperty(NAME_PROPERTY, Value.String(name));
+			for (Column column : ResourceTable.this.columns.values())
+			{
+				if (!query.includesProperty(column.getName()))
+					continue;
+				Value value = readValue(column);
+				if (value != null)
+					writer.writeProperty(column.getName(), value);
+			}
+			
+			Resource.writeResourcesUnder(writer, subResources, query);
+			writer.writeResourceEnd();
+		}
+		
+		
+		// ACCESSORS	-----------------
+		
+		public String getName()
+		{
+			return ResourceTable.this.getName(this.row);
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		private Value readValue(Column column)
+		{
+			ResourceTable.this.lock.readLock().lock();
+			try
+			{
+				return column.get(this.row);
+			}
+			finally
+			{
+				ResourceTable.this.lock.readLock().unlock();
+			}
+		}
+	}
+	
+	/**
+	 * Iterates through the rows in name order, starting after a cursor
+	 */
+	private class RowIterator
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final int[] rows;
+		private int index;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public RowIterator(String cursor)
+		{
+			this.rows = getSortedRows();
+			this.index = 0;
+			
+			// Finds the first row after the cursor
+			if (cursor != null)
+			{
+				int low = 0;
+				int high = this.rows.length;
+				while (low < high)
+				{
+					int middle = (low + high) >>> 1;
+					if (String.CASE_INSENSITIVE_ORDER.compare(getName(this.rows[middle]), 
+							cursor) <= 0)
+						low = middle + 1;
+					else
+						high = middle;
+				}
+				this.index = low;
+			}
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public boolean hasNext()
+		{
+			return this.index < this.rows.length;
+		}
+		
+		public int nextRow()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return this.rows[this.index++];
+		}
+	}
+	
+	/**
+	 * A column stores the values of a single property for each row
+	 */
+	private static abstract class Column
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final String name;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public Column(String name)
+		{
+			this.name = name;
+		}
+		
+		
+		// ABSTRACT METHODS	-------------
+		
+		/**
+		 * Parses a value to the form stored in this column
+		 */
+		public abstract Object parse(String value) throws HttpException;
+		
+		/**
+		 * Sets a value parsed by this column
+		 */
+		public abstract void set(int row, Object value);
+		
+		/**
+		 * @return The value on the row. Null if the row doesn't have a value.
+		 */
+		public abstract Value get(int row);
+		
+		/**
+		 * Makes room for more rows
+		 */
+		public abstract void grow(int capacity);
+		
+		
+		// ACCESSORS	-----------------
+		
+		public String getName()
+		{
+			return this.name;
+		}
+	}
+	
+	private static class TextColumn extends Column
+	{
+		// ATTRIBUTES	-----------------
+		
+		// Each distinct value is stored only once. The rows refer to the values by their
+		// codes. -1 marks a missing value.
+		private final List<String> dictionary = new ArrayList<>();
+		private final Map<String, Integer> codes = new HashMap<>();
+		private int[] rowCodes;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public TextColumn(String name, int capacity)
+		{
+			super(name);
+			this.rowCodes = new int[capacity];
+			Arrays.fill(this.rowCodes, -1);
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public Object parse(String value)
+		{
+			return value;
+		}
+		
+		@Override
+		public void set(int row, Object value)
+		{
+			Integer code = this.codes.get(value);
+			if (code == null)
+			{
+				code = this.dictionary.size();
+				this.dictionary.add((String) value);
+				this.codes.put((String) value, code);
+			}
+			this.rowCodes[row] = code;
+		}
+		
+		@Override
+		public Value get(int row)
+		{
+			int code = this.rowCodes[row];
+			if (code < 0)
+				return null;
+			return Value.String(this.dictionary.get(code));
+		}
+		
+		@Override
+		public void grow(int capacity)
+		{
+			int oldCapacity = this.rowCodes.length;
+			this.rowCodes = Arrays.copyOf(this.rowCodes, capacity);
+			Arrays.fill(this.rowCodes, oldCapacity, capacity, -1);
+		}
+	}
+	
+	private static class IntegerColumn extends Column
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final BitSet present = new BitSet();
+		private long[] values;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public IntegerColumn(String name, int capacity)
+		{
+			super(name);
+			this.values = new long[capacity];
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public Object parse(String value) throws HttpException
+		{
+			try
+			{
+				return Long.parseLong(value.trim());
+			}
+			catch (NumberFormatException e)
+			{
+				throw new HttpException(HttpStatus.BAD_REQUEST, "Property '" + getName() + 
+						"' must be an integer");
+			}
+		}
+		
+		@Override
+		public void set(int row, Object value)
+		{
+			this.values[row] = (Long) value;
+			this.present.set(row);
+		}
+		
+		@Override
+		public Value get(int row)
+		{
+			if (!this.present.get(row))
+				return null;
+			return Value.Long(this.values[row]);
+		}
+		
+		@Override
+		public void grow(int capacity)
+		{
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+	}
+	
+	private static class NumberColumn extends Column
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final BitSet present = new BitSet();
+		private double[] values;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public NumberColumn(String name, int capacity)
+		{
+			super(name);
+			this.values = new double[capacity];
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public Object parse(String value) throws HttpException
+		{
+			try
+			{
+				return Double.parseDouble(value.trim());
+			}
+			catch (NumberFormatException e)
+			{
+				throw new HttpException(HttpStatus.BAD_REQUEST, "Property '" + getName() + 
+						"' must be a number");
+			}
+		}
+		
+		@Override
+		public void set(int row, Object value)
+		{
+			this.values[row] = (Double) value;
+			this.present.set(row);
+		}
+		
+		@Override
+		public Value get(int row)
+		{
+			if (!this.present.get(row))
+				return null;
+			return Value.Double(this.values[row]);
+		}
+		
+		@Override
+		public void grow(int capacity)
+		{
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+	}
+	
+	
+	// ENUMERATIONS	---------------------
+	
+	/**
+	 * The types of values a column can hold
+	 * @author Mikko Hilpinen
+	 * @since 18.10.2026
+	 */
+	public static enum ColumnType
+	{
+		/**
+		 * Text values. Each distinct value is stored only once.
+		 */
+		TEXT,
+		/**
+		 * Whole numbers, stored as longs
+		 */
+		INTEGER,
+		/**
+		 * Decimal numbers, stored as doubles
+		 */
+		NUMBER;
+		
+		
+		// OTHER METHODS	-------------
+		
+		private Column createColumn(String name, int capacity)
+		{
+			switch (this)
+			{
+				case INTEGER: return new IntegerColumn(name, capacity);
+				case NUMBER: return new NumberColumn(name, capacity);
+				default: return new TextColumn(name, capacity);
+			}
+		}
+	}
+}
@@ -8,6 +8,7 @@ import java.util.List;
 
 import nexus_http.ContentType;
 import nexus_http.Headers;
+import nexus_http.ServerConfig;
 import nexus_rest.ResourceWriter.ResourceWriterException;
 
 /**
@@ -27,6 +28,22 @@ public interface ResourceWriterProvider
 	public ResourceWriter createWriter(OutputStream stream, Headers headers) throws 
 			ResourceWriterException;
 	
+	/**
+	 * In this method the provider creates a new writer for the target stream. The links 
+	 * written by the writer should point to the provided server. By default the server 
+	 * configuration is ignored and {@link #createWriter(OutputStream, Headers)} is used.
+	 * @param stream The target stream of the writer
+	 * @param headers The headers that may affect the writer properties
+	 * @param config The configuration of the server the written links point to
+	 * @return A resource writer that produces the requested content type
+	 * @throws ResourceWriterException If the writer couldn't be created
+	 */
+	public default ResourceWriter createWriter(OutputStream stream, Headers headers, 
+			ServerConfig config) throws ResourceWriterException
+	{
+		return createWriter(stream, headers);
+	}
+	
 	/**
 	 * @return The content types supported by this writer
 	 */
@@ -1,215 +1,966 @@
-package nexus_rest;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
-import flow_structure.TreeNode;
-import nexus_http.HttpException;
-import nexus_http.HttpStatus;
-import nexus_http.InternalServerException;
-import nexus_http.Link;
-import nexus_http.Method;
-import nexus_http.MethodNotAllowedException;
-import nexus_http.Path;
-import nexus_http.Request;
-import nexus_http.RequestHandler;
-import nexus_http.Response;
-import nexus_rest.ResourceWriter.ResourceWriterException;
-
-/**
- * The rest request handler operates on a hierarchical resource system, and performs the 
- * requested operations on it.
- * @author Mikko Hilpinen
- * @since 11.10.2015
- */
-public class RestRequestHandler implements RequestHandler
-{
-	// ATTRIBUTES	---------------------
-	
-	private Collection<Resource> resources;
-	private ResourceWriterProvider writerProvider;
-	
-	
-	// CONSTRUCTOR	---------------------
-	
-	/**
-	 * Creates a new rest handler.
-	 * @param writerProvider The object that is able to provide resourceWriters for the handler
-	 */
-	public RestRequestHandler(ResourceWriterProvider writerProvider)
-	{
-		this.writerProvider = writerProvider;
-		this.resources = new ArrayList<>();
-	}
-	
-	
-	// IMPLEMENTED METHODS	------------
-
-	@Override
-	public Response handle(Request request)
-	{
-		// Creates the response, which may be modified by the target operations
-		Response response = new Response();
-		try
-		{
-			// Finds the targeted resource(s)
-			Collection<Path> targetPaths = request.getPaths();
-			List<TreeNode<Resource>> targetResourceTrees = Resource.findIncludedResources(
-					this.resources, targetPaths);
-			
-			// Lists all the targeted resources in a list form as well
-			List<Resource> targetResources = 
-					Resource.getResourcesFromTreeCollection(targetResourceTrees);
-			
-			// Checks that the request method is applicable for all the resources
-			for (Resource resource : targetResources)
-			{
-				if (!Resource.resourceAllowsMethod(resource, request.getMethod()))
-					throw new MethodNotAllowedException(resource.getPath().getContent() + 
-							" doesn't allow " + request.getMethod(), resource.getAllowedMethods());
-			}
-			
-			try
-			{
-				// Performs the operation on said resources
-				// GET and POST are the only methods that return a body. Head works like GET but 
-				// doesn't write anything
-				if (request.getMethod() == Method.GET || request.getMethod() == Method.POST || 
-						request.getMethod() == Method.HEAD)
-				{
-					ResourceWriter writer = null;
-					Path lastLocation = null;
-					try
-					{
-						writer = this.writerProvider.createWriter(response.getBody(true), 
-								request.getHeaders());
-						
-						// Modifies the headers
-						response.getHeaders().setContentType(writer.getContentType(), 
-								writer.getCharset());
-						response.getHeaders().setLinkWriteStyle(writer.getLinkWriteStyle());
-						
-						// Writing is only done for GET and POST
-						if (request.getMethod() != Method.HEAD)
-						{
-							writer.writeDocumentStart("body");
-							
-							// With GET, writes all targeted resources
-							if (request.getMethod() == Method.GET)
-							{
-								for (TreeNode<Resource> resourceTree : targetResourceTrees)
-								{
-									lastLocation = resourceTree.getContent().getPath();
-									resourceTree.getContent().write(writer, 
-											resourceTree.getChildren());
-								}
-							}
-							// With POST, writes the link(s)
-							else
-							{
-								for (Resource resource : targetResources)
-								{
-									lastLocation = resource.getPath();
-									Link link = resource.post(request, response);
-									if (link != null)
-									{
-										writer.writeLink(link);
-										// Also adds a location header
-										response.getHeaders().setLocation(link.getTargetPath());
-									}
-								}
-							}
-							
-							writer.writeResourceEnd();
-							writer.writeDocumentEnd();
-						}
-					}
-					catch (ResourceWriterException e)
-					{
-						throw new InternalServerException("Resource writing failed", e, request, 
-								lastLocation);
-					}
-					finally
-					{
-						if (writer != null)
-							writer.close();
-					}
-				}
-				// Other method types don't return a body (by default)
-				else
-				{
-					// Put modifies all the resources
-					if (request.getMethod() == Method.PUT)
-					{
-						for (Resource resource : targetResources)
-						{
-							resource.put(request, response);
-						}
-					}
-					// Delete deletes the resources
-					else
-					{
-						for (Resource resource : targetResources)
-						{
-							resource.delete(request, response);
-						}
-					}
-				}
-			}
-			finally
-			{
-				/* TODO: Readd
-				try
-				{
-					// Always closes the response body before sending it
-					//OutputStream body = response.getBody(false);
-					//if (body != null)
-					//	body.close();
-				}
-				catch (IOException e1)
-				{
-					System.err.println("Failed to close the response body");
-				}
-				*/
-			}
-		}
-		catch (InternalServerException e)
-		{
-			// TODO: Use events instead?
-			System.err.println("Internal server error at: " + 
-					(e.getSourceLocation() != null ? e.getSourceLocation() : "?"));
-			e.printStackTrace();
-			if (e.getRequest() != null)
-				System.err.println(e.getRequest().toString());
-			
-			// Returns an error response
-			return new Response(e);
-		}
-		catch (HttpException e)
-		{
-			// Returns an error response
-			return new Response(e);
-		}
-		
-		// Updates response http status, if it hasn't been set yet
-		if (response.getStatus() == null)
-			response.setStatus(HttpStatus.OK);
-		
-		// Sends the successful response
-		return response;
-	}
-	
-	
-	// OTHER METHODS	----------------------
-	
-	/**
-	 * Adds a new root resource to the handler
-	 * @param root the new resource
-	 */
-	public void addRootResource(Resource root)
-	{
-		if (!this.resources.contains(root))
-			this.resources.add(root);
-	}
-}
+package nexus_rest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import flow_structure.TreeNode;
+import nexus_http.Authenticator;
+import nexus_http.ConcurrencyLimiter;
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.HttpSettings;
+import nexus_http.HttpStatus;
+import nexus_http.HttpStatus.StatusCategory;
+import nexus_http.InternalServerException;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.MethodNotAllowedException;
+import nexus_http.Path;
+import nexus_http.PathLimits;
+import nexus_http.RateLimiter;
+import nexus_http.Request;
+import nexus_http.RequestBodyParser;
+import nexus_http.RequestHandler;
+import nexus_http.Response;
+import nexus_http.ServerConfig;
+import nexus_http.SessionStore;
+import nexus_http.UnauthorizedException;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import utopia.flow.generics.Value;
+
+/**
+ * The rest request handler operates on a hierarchical resource system, and performs the 
+ * requested operations on it. Multiple operations may be performed in a single round trip by 
+ * posting them to the batch path. Each line of the batch body (or the 'operations' 
+ * parameter) contains a single operation in the format "METHOD path?parameters". The 
+ * operations are not transactional: with the parameter 'stopOnError=true' the batch 
+ * stops at the first failed operation, but the preceding operations stay in effect.
+ * @author Mikko Hilpinen
+ * @since 11.10.2015
+ */
+public class RestRequestHandler implements RequestHandler
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * The path batch requests are posted to by default
+	 */
+	public static final String DEFAULT_BATCH_PATH = "_batch";
+	/**
+	 * The maximum amount of operations in a single batch request by default
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+	
+	private static final String BATCH_OPERATIONS_PARAMETER = "operations";
+	private static final String BATCH_STOP_ON_ERROR_PARAMETER = "stopOnError";
+	
+	private Collection<Resource> resources;
+	private ResourceWriterProvider writerProvider;
+	private RequestBodyParser bodyParser;
+	private String batchPath;
+	private int maxBatchSize;
+	private int maxWildcardFanOut;
+	private int maxExpansionDepth, maxExpandedResources;
+	private PathLimits pathLimits;
+	private RateLimiter rateLimiter;
+	private Authenticator authenticator;
+	private SessionStore sessionStore;
+	private boolean secureSessionCookies;
+	private ConcurrencyLimiter concurrencyLimiter;
+	private MetricsRecorder metrics;
+	private InterceptorChain interceptors;
+	private RequestLog log;
+	private ServerConfig serverConfig;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new rest handler.
+	 * @param writerProvider The object that is able to provide resourceWriters for the handler
+	 */
+	public RestRequestHandler(ResourceWriterProvider writerProvider)
+	{
+		this.writerProvider = writerProvider;
+		this.resources = new ArrayList<>();
+		this.bodyParser = new RequestBodyParser();
+		this.batchPath = DEFAULT_BATCH_PATH;
+		this.maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+		this.maxWildcardFanOut = ResourceQuery.DEFAULT_MAX_FAN_OUT;
+		this.maxExpansionDepth = ExpansionBudget.DEFAULT_MAX_DEPTH;
+		this.maxExpandedResources = ExpansionBudget.DEFAULT_MAX_RESOURCES;
+		this.pathLimits = PathLimits.DEFAULT;
+		this.rateLimiter = null;
+		this.authenticator = null;
+		this.sessionStore = null;
+		this.secureSessionCookies = false;
+		this.concurrencyLimiter = null;
+		this.metrics = MetricsRecorder.NONE;
+		this.interceptors = InterceptorChain.EMPTY;
+		this.log = null;
+		this.serverConfig = null;
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+
+	@Override
+	public Response handle(Request request)
+	{
+		// Creates the response, which may be modified by the target operations
+		Response response = new Response();
+		RequestTimer timer = RequestTimer.start(this.metrics, request.getMethod());
+		RequestLog log = getLog();
+		long startTime = log.logsAccess() ? System.nanoTime() : 0;
+		List<String> limitedKeys = null;
+		request.setSessionStore(this.sessionStore);
+		try
+		{
+			// Only authenticated clients are served, if so configured. The clients are
+			// throttled based on who they were verified to be.
+			String userName = null;
+			if (this.authenticator != null)
+				userName = authenticate(request);
+			if (this.rateLimiter != null)
+				this.rateLimiter.acquire(request, userName);
+			
+			// Rejects overly complex paths before anything else is done
+			boolean batch = isBatchRequest(request);
+			if (!batch)
+				request.getPaths(this.pathLimits);
+			
+			// Limits the amount of concurrent requests for the targeted root resources
+			if (this.concurrencyLimiter != null)
+				limitedKeys = acquireConcurrency(request, batch);
+			if (timer.isEnabled())
+				timer.setRoot(batch ? this.batchPath : findRootName(request));
+			
+			// Reads the form data from the request body, if present
+			if (this.bodyParser != null)
+				this.bodyParser.parseBody(request);
+			timer.lap(RequestPhase.PARSE);
+			
+			// Interceptors may respond to the request before it is handled
+			Response intercepted = this.interceptors.beforeResolve(request);
+			if (intercepted != null)
+				response = intercepted;
+			else if (batch)
+				handleBatch(request, userName, response, timer);
+			else
+				response = handleOperation(request, response, timer);
+			
+			/* TODO: Readd
+			try
+			{
+				// Always closes the response body before sending it
+				//OutputStream body = response.getBody(false);
+				//if (body != null)
+				//	body.close();
+			}
+			catch (IOException e1)
+			{
+				System.err.println("Failed to close the response body");
+			}
+			*/
+		}
+		catch (InternalServerException e)
+		{
+			// The error is written in the background, so that the response isn't delayed
+			log.log(LogEntry.error(request.getMethod(), request.getPath(), 
+					"Internal server error at: " + 
+					(e.getSourceLocation() != null ? e.getSourceLocation() : "?"), e));
+			
+			// Returns an error response
+			response = new Response(e);
+		}
+		catch (HttpException e)
+		{
+			// Returns an error response. Common errors may use shared responses, unless the
+			// interceptors need to modify them.
+			if (this.interceptors.handlesResponses())
+				response = new Response(e);
+			else
+				response = e.toResponse();
+		}
+		finally
+		{
+			if (limitedKeys != null)
+				releaseConcurrency(limitedKeys);
+			
+			// Releases the request body and any uploaded files
+			request.close();
+		}
+		
+		// Updates response http status, if it hasn't been set yet
+		if (response.getStatus() == null)
+			response.setStatus(HttpStatus.OK);
+		response = updateSessionCookie(request, response);
+		this.interceptors.afterResponse(request, response);
+		updateContentLength(request, response);
+		timer.finish(response.getStatus());
+		if (log.logsAccess())
+			log.log(LogEntry.access(request.getMethod(), request.getPath(), 
+					response.getStatus(), System.nanoTime() - startTime));
+		
+		// Sends the response
+		return response;
+	}
+	
+	
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * Adds a new root resource to the handler
+	 * @param root the new resource
+	 */
+	public void addRootResource(Resource root)
+	{
+		if (!this.resources.contains(root))
+			this.resources.add(root);
+	}
+	
+	/**
+	 * Changes the way request bodies are parsed. By default form data bodies are parsed 
+	 * into request parameters with the default body parser settings.
+	 * @param parser The parser that reads the request bodies. Null if request bodies 
+	 * shouldn't be parsed.
+	 */
+	public void setBodyParser(RequestBodyParser parser)
+	{
+		this.bodyParser = parser;
+	}
+	
+	/**
+	 * Changes the path batch requests are posted to. By default batch requests are posted 
+	 * to '" + DEFAULT_BATCH_PATH + "'.
+	 * @param batchPath The path of the batch operation. Null if batch requests shouldn't 
+	 * be supported.
+	 * @param maxBatchSize The maximum amount of operations in a single batch request
+	 */
+	public void setBatchPath(String batchPath, int maxBatchSize)
+	{
+		this.batchPath = batchPath;
+		this.maxBatchSize = maxBatchSize;
+	}
+	
+	/**
+	 * Changes the maximum amount of resources a single wildcard (*) may expand to. If a 
+	 * wildcard targets more resources, only the first ones are written, along with a 
+	 * link to the rest.
+	 * @param maxFanOut The maximum amount of resources a wildcard may expand to
+	 */
+	public void setMaxWildcardFanOut(int maxFanOut)
+	{
+		this.maxWildcardFanOut = maxFanOut;
+	}
+	
+	/**
+	 * Changes how far a single request may expand the linked resources. Requests that go 
+	 * over these limits, or that would expand a resource under itself, are rejected.
+	 * @param maxDepth How deep the expansion may go
+	 * @param maxResources How many resources a single request may resolve. The operations 
+	 * of a batch request share this limit.
+	 */
+	public void setExpansionLimits(int maxDepth, int maxResources)
+	{
+		this.maxExpansionDepth = maxDepth;
+		this.maxExpandedResources = maxResources;
+	}
+	
+	/**
+	 * Changes how complex the request paths may be. Requests with more complex paths are 
+	 * rejected before their bodies are read or any resources are accessed. By default 
+	 * {@link PathLimits#DEFAULT} is used.
+	 * @param limits The limits for request paths
+	 */
+	public void setPathLimits(PathLimits limits)
+	{
+		this.pathLimits = limits;
+	}
+	
+	/**
+	 * Changes the configuration of the server this handler is on. The links written by the 
+	 * handler point to the base url of the configuration. By default the configuration in 
+	 * {@link HttpSettings} is used.
+	 * @param config The configuration of the server. Null if the default configuration 
+	 * should be used.
+	 */
+	public void setServerConfig(ServerConfig config)
+	{
+		this.serverConfig = config;
+	}
+	
+	/**
+	 * @return The configuration of the server this handler is on
+	 */
+	public ServerConfig getServerConfig()
+	{
+		if (this.serverConfig == null)
+			return HttpSettings.getServerConfig();
+		return this.serverConfig;
+	}
+	
+	/**
+	 * Changes the way the clients' request rates are limited. The authenticated clients are 
+	 * limited by their user names, while the other clients share the limiter's anonymous 
+	 * bucket. A batch request takes a token for itself and another for each of its 
+	 * operations. By default the rates are not limited.
+	 * @param limiter The limiter that is used for each request before it is handled. Null 
+	 * if the request rates shouldn't be limited.
+	 */
+	public void setRateLimiter(RateLimiter limiter)
+	{
+		this.rateLimiter = limiter;
+	}
+	
+	/**
+	 * Changes the way the requests are authenticated. The requests are authenticated before 
+	 * the rate limit is applied, so that the clients are limited by their verified user 
+	 * names. The failed attempts are limited like unauthenticated requests, so that 
+	 * credentials can't be guessed faster than the rate limit allows. The operations of a 
+	 * batch request are authenticated together. By default the requests are not 
+	 * authenticated.
+	 * @param authenticator The authenticator that checks the basic authorization of each 
+	 * request. Null if the requests shouldn't be authenticated.
+	 */
+	public void setAuthenticator(Authenticator authenticator)
+	{
+		this.authenticator = authenticator;
+	}
+	
+	/**
+	 * Changes where the client sessions are stored. The resources can access the sessions 
+	 * through {@link Request#getSession(boolean)}. When a session is started or ended, the 
+	 * client is told about it with a cookie. By default sessions are not used.
+	 * @param store The store that contains the sessions. Null if sessions shouldn't be used.
+	 * @param secureCookies Should the session cookies only be sent over https
+	 */
+	public void setSessionStore(SessionStore store, boolean secureCookies)
+	{
+		this.sessionStore = store;
+		this.secureSessionCookies = secureCookies;
+	}
+	
+	/**
+	 * Changes the way concurrent requests are limited. The requests are limited separately 
+	 * for each root resource. Batch requests are limited together and each batch operation 
+	 * is also limited by the root resources it targets. By default the concurrent requests 
+	 * are not limited.
+	 * @param limiter The limiter that is used for each root resource. Null if concurrent 
+	 * requests shouldn't be limited.
+	 */
+	public void setConcurrencyLimiter(ConcurrencyLimiter limiter)
+	{
+		this.concurrencyLimiter = limiter;
+	}
+	
+	/**
+	 * Changes where the time spent in each phase of the handled requests is recorded. The 
+	 * measurements are tagged with the request method, the response status category and 
+	 * the targeted root resource. By default nothing is recorded and the requests are not 
+	 * timed.
+	 * @param recorder The recorder that receives the measurements. 
+	 * {@link MetricsRecorder#NONE} if the requests shouldn't be timed.
+	 * @see LatencyMetrics
+	 */
+	public void setMetricsRecorder(MetricsRecorder recorder)
+	{
+		this.metrics = recorder == null ? MetricsRecorder.NONE : recorder;
+	}
+	
+	/**
+	 * Changes the interceptors that are called while the requests are handled. The 
+	 * interceptors are called in the same order for each request. By default there are no 
+	 * interceptors.
+	 * @param interceptors The interceptor chain used by this handler
+	 */
+	public void setInterceptors(InterceptorChain interceptors)
+	{
+		this.interceptors = interceptors == null ? InterceptorChain.EMPTY : interceptors;
+	}
+	
+	/**
+	 * Adds a new interceptor to the end of the handler's interceptor chain. The chain is 
+	 * recompiled, so the interceptors should be added before the handler starts handling 
+	 * requests.
+	 * @param interceptor The interceptor that is added
+	 */
+	public void addInterceptor(RequestInterceptor interceptor)
+	{
+		this.interceptors = this.interceptors.plus(interceptor);
+	}
+	
+	/**
+	 * Changes where the internal server errors and, optionally, the handled requests are 
+	 * logged. By default the errors are written to the standard error stream in the 
+	 * background, using {@link AsyncRequestLog#standardError()}.
+	 * @param log The log that receives the entries. {@link RequestLog#NONE} if nothing 
+	 * should be logged.
+	 */
+	public void setLog(RequestLog log)
+	{
+		this.log = log == null ? RequestLog.NONE : log;
+	}
+	
+	private String authenticate(Request request) throws HttpException
+	{
+		try
+		{
+			return this.authenticator.authenticate(request);
+		}
+		catch (UnauthorizedException e)
+		{
+			// The failed attempts use up the rate limit of unauthenticated clients
+			if (this.rateLimiter != null)
+				this.rateLimiter.acquire(request);
+			throw e;
+		}
+	}
+	
+	private RequestLog getLog()
+	{
+		// The shared log is only started once it's needed
+		if (this.log == null)
+			this.log = AsyncRequestLog.standardError();
+		return this.log;
+	}
+	
+	private Response handleOperation(Request request, Response response, RequestTimer timer) 
+			throws HttpException
+	{
+		// Finds the targeted resource(s)
+		// The query limits how far wildcards expand, so it's parsed before the resolution
+		Collection<Path> targetPaths = request.getPaths(this.pathLimits);
+		ResourceQuery query = parseQuery(request, createBudget());
+		timer.lap(RequestPhase.PARSE);
+		ResolutionResult resolution = Resource.resolveIncludedResources(this.resources, 
+				targetPaths, query);
+		if (!resolution.isFound())
+			return createFailureResponse(resolution);
+		List<TreeNode<Resource>> targetResourceTrees = resolution.getResources();
+		
+		// Lists all the targeted resources in a list form as well
+		List<Resource> targetResources = 
+				Resource.getResourcesFromTreeCollection(targetResourceTrees);
+		timer.lap(RequestPhase.RESOLVE);
+		
+		// Checks that the request method is applicable for all the resources
+		checkMethodAllowed(request.getMethod(), targetResources);
+		timer.lap(RequestPhase.METHOD_CHECK);
+		
+		// Interceptors may respond instead of the targeted resources
+		Response intercepted = this.interceptors.afterResolve(request, targetResources);
+		if (intercepted != null)
+			return intercepted;
+		
+		// Performs the operation on said resources
+		// GET and POST are the only methods that return a body. Head is written like GET,
+		// but only the length of the body is kept.
+		if (returnsBody(request.getMethod()))
+		{
+			CountingOutputStream counter = null;
+			if (request.getMethod() == Method.HEAD)
+				counter = new CountingOutputStream();
+			
+			ResourceWriter writer = null;
+			try
+			{
+				this.interceptors.beforeRender(request, response);
+				writer = createWriter(request, response, counter);
+				writer.writeDocumentStart("body");
+				timer.lap(RequestPhase.RENDER);
+				performOperation(request, response, writer, targetResourceTrees, 
+						targetResources, query, timer);
+				writer.writeResourceEnd();
+				writer.writeDocumentEnd();
+			}
+			catch (ResourceWriterException e)
+			{
+				throw new InternalServerException("Resource writing failed", e, request, null);
+			}
+			finally
+			{
+				if (writer != null)
+					writer.close();
+				timer.lap(RequestPhase.RENDER);
+			}
+			
+			if (counter != null)
+				response.getHeaders().setContentLength(counter.getCount());
+		}
+		// Other method types don't return a body (by default)
+		else
+			performOperation(request, response, null, targetResourceTrees, targetResources, 
+					query, timer);
+		
+		return response;
+	}
+	
+	private Response updateSessionCookie(Request request, Response response)
+	{
+		if (this.sessionStore == null || 
+				!(request.hasNewSession() || request.isSessionInvalidated()))
+			return response;
+		
+		// The cookie must reach the client even when the request failed, so a shared
+		// response is copied before the cookie is added
+		Response updated = response.isImmutable() ? new Response(response) : response;
+		if (request.hasNewSession())
+			this.sessionStore.writeCookie(request.getSession(), updated.getHeaders(), 
+					this.secureSessionCookies);
+		else
+			this.sessionStore.clearCookie(updated.getHeaders());
+		return updated;
+	}
+	
+	private static void updateContentLength(Request request, Response response)
+	{
+		// The length of a completely written body is always known, so that the body doesn't
+		// need to be sent in chunks
+		if (response.isImmutable() || !response.hasContent())
+			return;
+		
+		if (request.getMethod() == Method.HEAD)
+		{
+			// Head responses never contain a body, only its length
+			if (response.getHeaders().getContentLength() < 0)
+				response.getHeaders().setContentLength(response.getBody(false).size());
+			response.setBody(null);
+		}
+		else
+			response.getHeaders().setContentLength(response.getBody(false).size());
+	}
+	
+	private Response createFailureResponse(ResolutionResult resolution) throws HttpException
+	{
+		// Only missing resources are converted here. Other failures are handled like any
+		// other exception.
+		if (!resolution.isNotFound())
+			throw resolution.getError();
+		
+		if (this.interceptors.handlesResponses())
+		{
+			Response response = new Response();
+			response.setStatus(HttpStatus.NOT_FOUND);
+			return response;
+		}
+		else
+			return Response.forStatus(HttpStatus.NOT_FOUND);
+	}
+	
+	private void performOperation(Request request, Response response, ResourceWriter writer, 
+			List<TreeNode<Resource>> targetResourceTrees, List<Resource> targetResources, 
+			ResourceQuery query, RequestTimer timer) throws HttpException
+	{
+		Path lastLocation = null;
+		try
+		{
+			switch (request.getMethod())
+			{
+				// With GET (and HEAD), writes all targeted resources
+				case GET:
+				case HEAD:
+					for (TreeNode<Resource> resourceTree : targetResourceTrees)
+					{
+						lastLocation = resourceTree.getContent().getPath();
+						resourceTree.getContent().write(writer, resourceTree.getChildren(), 
+								query);
+					}
+					break;
+				// With POST, writes the link(s)
+				case POST:
+					for (Resource resource : targetResources)
+					{
+						lastLocation = resource.getPath();
+						Link link = resource.post(request, response);
+						if (link != null)
+						{
+							writer.writeLink(link);
+							// Also adds a location header
+							response.getHeaders().setLocation(link.getTargetPath());
+						}
+					}
+					break;
+				// Put modifies all the resources
+				case PUT:
+					for (Resource resource : targetResources)
+					{
+						resource.put(request, response);
+					}
+					break;
+				// Delete deletes the resources
+				case DELETE:
+					for (Resource resource : targetResources)
+					{
+						resource.delete(request, response);
+					}
+					break;
+				default: break;
+			}
+		}
+		catch (ResourceWriterException e)
+		{
+			throw new InternalServerException("Resource writing failed", e, request, 
+					lastLocation);
+		}
+		finally
+		{
+			// With GET, the whole operation consists of writing the resources
+			timer.lap(request.getMethod() == Method.GET || 
+					request.getMethod() == Method.HEAD ? RequestPhase.RENDER : 
+					RequestPhase.OPERATION);
+		}
+	}
+	
+	private ResourceWriter createWriter(Request request, Response response) throws 
+			ResourceWriterException
+	{
+		return createWriter(request, response, null);
+	}
+	
+	private ResourceWriter createWriter(Request request, Response response, 
+			OutputStream stream) throws ResourceWriterException
+	{
+		// By default the writer writes to the response body
+		ResourceWriter writer = this.writerProvider.createWriter(
+				stream == null ? response.getBody(true) : stream, request.getHeaders(),
+				getServerConfig());
+		
+		// Modifies the headers
+		response.getHeaders().setContentType(writer.getContentType(), writer.getCharset());
+		response.getHeaders().setLinkWriteStyle(writer.getLinkWriteStyle());
+		
+		return writer;
+	}
+	
+	private List<String> acquireConcurrency(Request request, boolean batch) throws 
+			HttpException
+	{
+		// Finds the names of the targeted root resources. Unknown roots can't be targeted.
+		List<String> keys = new ArrayList<>();
+		if (batch)
+			keys.add(this.batchPath);
+		else
+		{
+			for (Path path : request.getPaths(this.pathLimits))
+			{
+				Resource root = Resource.findResourceWithName(this.resources, 
+						path.getContent());
+				if (root != null && !keys.contains(Resource.getResourceName(root)))
+					keys.add(Resource.getResourceName(root));
+			}
+		}
+		
+		// If any of the roots is full, the request is rejected
+		List<String> acquired = new ArrayList<>(keys.size());
+		try
+		{
+			for (String key : keys)
+			{
+				this.concurrencyLimiter.acquire(key);
+				acquired.add(key);
+			}
+		}
+		catch (HttpException e)
+		{
+			releaseConcurrency(acquired);
+			throw e;
+		}
+		
+		return acquired;
+	}
+	
+	private String findRootName(Request request) throws HttpException
+	{
+		// Only the first targeted root is used, unknown roots are not tracked
+		for (Path path : request.getPaths(this.pathLimits))
+		{
+			Resource root = Resource.findResourceWithName(this.resources, path.getContent());
+			if (root != null)
+				return Resource.getResourceName(root);
+		}
+		
+		return null;
+	}
+	
+	private void releaseConcurrency(List<String> keys)
+	{
+		for (String key : keys)
+		{
+			this.concurrencyLimiter.release(key);
+		}
+	}
+	
+	private boolean isBatchRequest(Request request)
+	{
+		return this.batchPath != null && request.getPath() != null && 
+				request.getPath().equalsIgnoreCase(this.batchPath);
+	}
+	
+	private void handleBatch(Request request, String userName, Response response, 
+			RequestTimer timer) throws HttpException
+	{
+		if (request.getMethod() != Method.POST)
+			throw new MethodNotAllowedException("Batch requests must be posted", Method.POST);
+		
+		// The operations are not rolled back, but the batch may stop at the first failure
+		boolean stopOnError = Boolean.parseBoolean(request.getParameters().getParameterValue(
+				BATCH_STOP_ON_ERROR_PARAMETER));
+		String encoding = request.getHeaders().getParameterEncoding();
+		if (encoding == null)
+			encoding = StandardCharsets.UTF_8.name();
+		
+		DepthTrackingResourceWriter writer = null;
+		BufferedReader operations = null;
+		try
+		{
+			operations = openBatchOperations(request);
+			writer = new DepthTrackingResourceWriter(createWriter(request, response));
+			writer.writeDocumentStart("batch");
+			writer.writeArrayStart("results");
+			
+			// The operations are read and executed one at a time, sharing a single budget
+			ExpansionBudget budget = createBudget();
+			int operationCount = 0;
+			String line;
+			while ((line = operations.readLine()) != null)
+			{
+				line = line.trim();
+				if (line.isEmpty())
+					continue;
+				
+				operationCount ++;
+				if (operationCount > this.maxBatchSize)
+				{
+					writeBatchResult(writer, line, HttpStatus.REQUEST_ENTITY_TOO_LARGE, 
+							"The batch may contain at most " + this.maxBatchSize + 
+							" operations");
+					break;
+				}
+				
+				HttpStatus status = executeBatchOperation(request, userName, line, encoding, 
+						writer, budget, timer);
+				
+				// The operations that were already performed stay in effect
+				if (stopOnError && status.getCategory() != StatusCategory.OK)
+					break;
+			}
+			
+			writer.writeArrayEnd();
+			writer.writeResourceEnd();
+			writer.writeDocumentEnd();
+		}
+		catch (ResourceWriterException e)
+		{
+			throw new InternalServerException("Batch result writing failed", e, request, null);
+		}
+		catch (IOException e)
+		{
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Couldn't read the batch operations", 
+					e);
+		}
+		finally
+		{
+			if (writer != null)
+				writer.close();
+			if (operations != null)
+			{
+				try
+				{
+					operations.close();
+				}
+				catch (IOException e)
+				{
+					// Ignored, the operations have already been read
+				}
+			}
+		}
+	}
+	
+	private static BufferedReader openBatchOperations(Request request) throws HttpException
+	{
+		// The operations may be sent in the request body or as a parameter
+		InputStream stream = request.getBody();
+		if (stream == null)
+			stream = request.getParameters().getParameterStream(BATCH_OPERATIONS_PARAMETER);
+		if (stream != null)
+			return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		
+		String operations = request.getParameters().getParameterValue(
+				BATCH_OPERATIONS_PARAMETER);
+		if (operations == null)
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Batch request requires parameter '" + 
+					BATCH_OPERATIONS_PARAMETER + "' or a request body");
+		return new BufferedReader(new StringReader(operations));
+	}
+	
+	private HttpStatus executeBatchOperation(Request batchRequest, String userName, 
+			String operationLine, String encoding, DepthTrackingResourceWriter writer, 
+			ExpansionBudget budget, RequestTimer timer) 
+			throws ResourceWriterException
+	{
+		// Each operation is written in the format "METHOD path?parameters"
+		int methodEndsAt = operationLine.indexOf(' ');
+		Method method = methodEndsAt < 0 ? null : Method.parseFromString(
+				operationLine.substring(0, methodEndsAt));
+		if (method == null)
+		{
+			writeBatchResult(writer, operationLine, HttpStatus.BAD_REQUEST, 
+					"Operations must be written as 'METHOD path?parameters'");
+			return HttpStatus.BAD_REQUEST;
+		}
+		
+		Request request;
+		try
+		{
+			request = new Request(method, operationLine.substring(methodEndsAt + 1).trim(), 
+					new Headers(batchRequest.getHeaders()), encoding);
+			request.shareSessionWith(batchRequest);
+			request.setClientAddress(batchRequest.getClientAddress());
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			writeBatchResult(writer, operationLine, HttpStatus.BAD_REQUEST, 
+					"Unsupported parameter encoding " + encoding);
+			return HttpStatus.BAD_REQUEST;
+		}
+		
+		Response response = new Response();
+		writer.writeResourceStart("result", null);
+		int resultDepth = writer.getDepth();
+		writer.writeProperty("method", Value.String(method.toString()));
+		writer.writeProperty("path", Value.String(request.getPath()));
+		List<String> limitedKeys = null;
+		try
+		{
+			if (isBatchRequest(request))
+				throw new HttpException(HttpStatus.FORBIDDEN, "Batch requests can't be nested");
+			
+			// Each operation is limited like a separate request
+			if (this.rateLimiter != null)
+				this.rateLimiter.acquire(batchRequest, userName);
+			Collection<Path> targetPaths = request.getPaths(this.pathLimits);
+			if (this.concurrencyLimiter != null)
+				limitedKeys = acquireConcurrency(request, false);
+			ResourceQuery query = parseQuery(request, budget);
+			timer.lap(RequestPhase.PARSE);
+			ResolutionResult resolution = Resource.resolveIncludedResources(this.resources, 
+					targetPaths, query);
+			
+			// Missing resources are reported without throwing
+			if (resolution.isNotFound())
+			{
+				response.setStatus(HttpStatus.NOT_FOUND);
+				writer.writeProperty("message", Value.String(resolution.getMessage()));
+			}
+			else
+			{
+				List<TreeNode<Resource>> targetResourceTrees = resolution.getOrThrow();
+				List<Resource> targetResources = 
+						Resource.getResourcesFromTreeCollection(targetResourceTrees);
+				timer.lap(RequestPhase.RESOLVE);
+				checkMethodAllowed(method, targetResources);
+				timer.lap(RequestPhase.METHOD_CHECK);
+				
+				// Interceptors may respond instead of the targeted resources, in which case
+				// only the status of their response is written
+				Response intercepted = this.interceptors.afterResolve(request, 
+						targetResources);
+				if (intercepted != null)
+					response = intercepted;
+				// Head operations only report the status, like head requests have no body
+				else if (method != Method.HEAD)
+				{
+					// The content of the operation is written inside the result
+					writer.writeResourceStart("content", null);
+					performOperation(request, response, writer, targetResourceTrees, 
+							targetResources, query, timer);
+					writer.writeResourceEnd();
+				}
+				
+				if (response.getStatus() == null)
+					response.setStatus(HttpStatus.OK);
+			}
+		}
+		catch (HttpException e)
+		{
+			// The operation may have failed at any depth of its content. The partial
+			// content is closed so that the rest of the results stay well-formed.
+			writer.closeTo(resultDepth);
+			if (e instanceof InternalServerException)
+				getLog().log(LogEntry.error(method, operationLine, 
+						"Internal server error in batch operation", e));
+			response.setStatus(e.getStatus());
+			if (e.getMessage() != null)
+				writer.writeProperty("message", Value.String(e.getMessage()));
+		}
+		finally
+		{
+			if (limitedKeys != null)
+				releaseConcurrency(limitedKeys);
+		}
+		
+		writer.writeProperty("status", Value.String(
+				Integer.toString(response.getStatus().getStatusCode())));
+		String location = response.getHeaders().getHeaderValue(Headers.LOCATION);
+		if (location != null)
+			writer.writeProperty("location", Value.String(location));
+		writer.writeResourceEnd();
+		
+		return response.getStatus();
+	}
+	
+	private static void writeBatchResult(ResourceWriter writer, String operationLine, 
+			HttpStatus status, String message) throws ResourceWriterException
+	{
+		writer.writeResourceStart("result", null);
+		writer.writeProperty("operation", Value.String(operationLine));
+		writer.writeProperty("status", Value.String(Integer.toString(status.getStatusCode())));
+		writer.writeProperty("message", Value.String(message));
+		writer.writeResourceEnd();
+	}
+	
+	private static void checkMethodAllowed(Method method, Collection<? extends Resource> 
+			targetResources) throws MethodNotAllowedException
+	{
+		for (Resource resource : targetResources)
+		{
+			if (!Resource.resourceAllowsMethod(resource, method))
+				throw new MethodNotAllowedException(resource.getPath().getContent() + 
+						" doesn't allow " + method, resource.getAllowedMethods());
+		}
+	}
+	
+	private ExpansionBudget createBudget()
+	{
+		return new ExpansionBudget(this.maxExpansionDepth, this.maxExpandedResources);
+	}
+	
+	private ResourceQuery parseQuery(Request request, ExpansionBudget budget) throws 
+			HttpException
+	{
+		// Only GET uses the query parameters, the other methods use them as resource
+		// properties
+		ResourceQuery query;
+		if (request.getMethod() == Method.GET || request.getMethod() == Method.HEAD)
+			query = ResourceQuery.parseFrom(request.getParameters(), this.maxWildcardFanOut);
+		else
+			query = ResourceQuery.withMaxFanOut(this.maxWildcardFanOut);
+		
+		return query.withBudget(budget);
+	}
+	
+	private static boolean returnsBody(Method method)
+	{
+		return method == Method.GET || method == Method.POST || method == Method.HEAD;
+	}
+}
@@ -1,206 +1,508 @@
-package nexus_rest;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import nexus_http.HttpException;
-import nexus_http.HttpStatus;
-import nexus_http.Link;
-import nexus_http.Method;
-import nexus_http.Path;
-import nexus_http.Request;
-import nexus_http.Response;
-import nexus_rest.ResourceWriter.ResourceWriterException;
-import utopia.flow.generics.BasicVariableParser;
-import utopia.flow.generics.Model;
-import utopia.flow.generics.Value;
-import utopia.flow.generics.Variable;
-import flow_structure.TreeNode;
-
-/**
- * This is a simple implementation of the Resource interface. The resource stores string 
- * properties as well as links to other resources.
- * @author Mikko Hilpinen
- * @since 24.10.2015
- */
-public class SimpleResource extends Model<Variable> implements Resource
-{
-	// ATTRIBUTES	---------------------
-	
-	private static final String NAME_PROPERTY = "name";
-	
-	private Method[] allowedMethods;
-	private Path path;
-	private Map<String, Resource> links = new HashMap<>();
-	
-	
-	// CONSTRUCTOR	---------------------
-	
-	/**
-	 * Creates a new simple resource
-	 * @param path The path of the resource
-	 * @param allowedMethods The methods the resource allows
-	 */
-	public SimpleResource(Path path, Method... allowedMethods)
-	{
-		super(new BasicVariableParser());
-		
-		// TODO: The allowed methods should probably be stored inside a set instead
-		this.allowedMethods = noDelete(allowedMethods);
-		this.path = path;
-	}
-	
-	
-	// IMPLEMENTED METHODS	-------------
-
-	@Override
-	public String toString()
-	{
-		return getPath().toString();
-	}
-	
-	@Override
-	public Path getPath()
-	{
-		return this.path;
-	}
-
-	@Override
-	public Method[] getAllowedMethods()
-	{
-		return this.allowedMethods;
-	}
-
-	/**
-	 * Creates a new simple resource (with similar restrictions) under this one. Requires 
-	 * parameter 'name'. The other parameters will be added as properties to the lower element.
-	 */
-	@Override
-	public Link post(Request request, Response response) throws HttpException
-	{
-		// TODO: Could use a model declaration here (create own extension?)
-		// Checks the parameters
-		String name = request.getParameters().getParameterValue(NAME_PROPERTY);
-		if (name == null)
-			throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + NAME_PROPERTY + 
-					"' required");
-		if (this.links.containsKey(name.toLowerCase()))
-			throw new HttpException(HttpStatus.FORBIDDEN, "Can't overwrite resource " + name);
-		
-		// Creates the new resource
-		SimpleResource child = new SimpleResource(new Path(name, getPath(), false), 
-				this.allowedMethods);
-		for (String parameterName : request.getParameters().getParameterNames())
-		{
-			// TODO: Use type value instead of string
-			child.putPoperty(parameterName, 
-					Value.String(request.getParameters().getParameterValue(parameterName)));
-		}
-		this.links.put(name.toLowerCase(), child);
-		
-		// Returns a link to the resource
-		response.setStatus(HttpStatus.CREATED);
-		return new Link(name, child.getPath());
-	}
-
-	/**
-	 * Modifies an existing property of a resource, or adds new ones
-	 */
-	@Override
-	public void put(Request request, Response response) throws HttpException
-	{
-		for(String parameterName : request.getParameters().getParameterNames())
-		{
-			// TODO: Change request parameters from string to variable
-			putPoperty(parameterName, 
-					Value.String(request.getParameters().getParameterValue(parameterName)));
-		}
-	}
-
-	/**
-	 * Doesn't support DELETE
-	 */
-	@Override
-	public void delete(Request request, Response response) throws HttpException
-	{
-		// Ignored
-	}
-
-	@Override
-	public Collection<TreeNode<Resource>> findConnectedResources(
-			Collection<? extends Path> targetPaths) throws HttpException
-	{
-		return Resource.findIncludedResources(this.links.values(), targetPaths);
-	}
-
-	@Override
-	public void write(ResourceWriter writer,
-			Collection<? extends TreeNode<? extends Resource>> subResources)
-			throws HttpException, ResourceWriterException
-	{
-		writer.writeResourceStart(Resource.getResourceName(this), getPath());
-		
-		// Writes all the properties
-		for (Variable property : getAttributes())
-		{
-			writer.writeProperty(property.getName(), property.getValue());
-		}
-		
-		// Writes the included resources as children
-		Resource.writeResourcesUnder(writer, subResources);
-		
-		writer.writeResourceEnd();
-	}
-
-	
-	// OTHER METHODS	------------------
-	
-	/**
-	 * Adds a new property to the resource
-	 * @param propertyName The name of the property
-	 * @param value The new value of the property
-	 * @throws HttpException If the name property was being modified
-	 */
-	public void putPoperty(String propertyName, Value value) throws HttpException
-	{
-		// Name can't be overwritten
-		if (propertyName.equalsIgnoreCase(NAME_PROPERTY) && containsAttribute(NAME_PROPERTY))
-			throw new HttpException(HttpStatus.FORBIDDEN, NAME_PROPERTY + " can't be modified");
-		
-		setAttributeValue(propertyName, value);
-	}
-	
-	/**
-	 * Links a new resource to this one
-	 * @param linkName The name of the link
-	 * @param resource The resource at the end of the link
-	 */
-	public void putLink(String linkName, Resource resource)
-	{
-		this.links.put(linkName, resource);
-	}
-	
-	private static Method[] noDelete(Method[] methods)
-	{
-		boolean containedDelete = false;
-		List<Method> methodsWithoutDelete = new ArrayList<>();
-		for (Method method : methods)
-		{
-			if (method == Method.DELETE)
-				containedDelete = true;
-			else
-				methodsWithoutDelete.add(method);
-		}
-		
-		if (!containedDelete)
-		{
-			methodsWithoutDelete.clear();
-			return methods;
-		}
-		else
-			return methodsWithoutDelete.toArray(new Method[methodsWithoutDelete.size()]);
-	}
-}
+package nexus_rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.InternalServerException;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.Parameters;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import utopia.flow.generics.BasicVariableParser;
+import utopia.flow.generics.Model;
+import utopia.flow.generics.Value;
+import utopia.flow.generics.Variable;
+import flow_structure.TreeNode;
+
+/**
+ * This is a simple implementation of the Resource interface. The resource stores string 
+ * properties as well as links to other resources. The links are ordered by their 
+ * (case-insensitive) name, so that they can be written in stable pages.
+ * @author Mikko Hilpinen
+ * @since 24.10.2015
+ */
+public class SimpleResource extends Model<Variable> implements Resource
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String NAME_PROPERTY = "name";
+	
+	private Method[] allowedMethods;
+	private Path path;
+	private NavigableMap<String, Resource> links = new TreeMap<>();
+	private MutationLog mutationLog = null;
+	private ValueInterner valueInterner = null;
+	private volatile ResourceSnapshot snapshot = null;
+	private long snapshotPosition = 0;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new simple resource
+	 * @param path The path of the resource
+	 * @param allowedMethods The methods the resource allows
+	 */
+	public SimpleResource(Path path, Method... allowedMethods)
+	{
+		super(new BasicVariableParser());
+		
+		// TODO: The allowed methods should probably be stored inside a set instead
+		this.allowedMethods = noDelete(allowedMethods);
+		this.path = path;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+
+	@Override
+	public String toString()
+	{
+		return getPath().toString();
+	}
+	
+	@Override
+	public Path getPath()
+	{
+		return this.path;
+	}
+
+	@Override
+	public Method[] getAllowedMethods()
+	{
+		return this.allowedMethods;
+	}
+
+	/**
+	 * Creates a new simple resource (with similar restrictions) under this one. Requires 
+	 * parameter 'name'. The other parameters will be added as properties to the lower element.
+	 */
+	@Override
+	public Link post(Request request, Response response) throws HttpException
+	{
+		// TODO: Could use a model declaration here (create own extension?)
+		load();
+		
+		// Checks the parameters
+		String name = request.getParameters().getParameterValue(NAME_PROPERTY);
+		if (name == null)
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Parameter '" + NAME_PROPERTY + 
+					"' required");
+		if (this.links.containsKey(name.toLowerCase()))
+			throw new HttpException(HttpStatus.FORBIDDEN, "Can't overwrite resource " + name);
+		
+		// Creates the new resource
+		SimpleResource child = new SimpleResource(new Path(name, getPath(), false), 
+				this.allowedMethods);
+		child.valueInterner = this.valueInterner;
+		for (String parameterName : request.getParameters().getParameterNames())
+		{
+			child.putPoperty(parameterName, 
+					toValue(request.getParameters().getParameterValue(parameterName)));
+		}
+		child.mutationLog = this.mutationLog;
+		persist(log -> log.logPost(this, name, request.getParameters()), 
+				() -> this.links.put(name.toLowerCase(), child), request);
+		
+		// Returns a link to the resource
+		response.setStatus(HttpStatus.CREATED);
+		return new Link(name, child.getPath());
+	}
+
+	/**
+	 * Modifies an existing property of a resource, or adds new ones
+	 */
+	@Override
+	public void put(Request request, Response response) throws HttpException
+	{
+		load();
+		
+		// All the properties are checked before anything is modified
+		Parameters properties = request.getParameters();
+		for (String parameterName : properties.getParameterNames())
+		{
+			checkModifiable(parameterName);
+		}
+		
+		persist(log -> log.logPut(this, properties), () -> restoreProperties(properties), 
+				request);
+	}
+
+	/**
+	 * Doesn't support DELETE
+	 */
+	@Override
+	public void delete(Request request, Response response) throws HttpException
+	{
+		// Ignored
+	}
+
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths) throws HttpException
+	{
+		return findConnectedResources(targetPaths, ResourceQuery.DEFAULT);
+	}
+	
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths, ResourceQuery query) throws HttpException
+	{
+		load();
+		return Resource.findIncludedResources(this.links, targetPaths, query);
+	}
+	
+	/**
+	 * The linked resources are found without exceptions
+	 */
+	@Override
+	public ResolutionResult resolveConnectedResources(Collection<? extends Path> targetPaths, 
+			ResourceQuery query)
+	{
+		load();
+		return Resource.resolveIncludedResources(this.links, targetPaths, query);
+	}
+
+	@Override
+	public void write(ResourceWriter writer,
+			Collection<? extends TreeNode<? extends Resource>> subResources)
+			throws HttpException, ResourceWriterException
+	{
+		write(writer, subResources, ResourceQuery.DEFAULT);
+	}
+	
+	/**
+	 * Writes the resource properties and the included resources. If the query limits the 
+	 * written fields, only those properties are written. If the query is paged, links to a 
+	 * single page of the linked resources are written as well.
+	 */
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources, 
+			ResourceQuery query) throws HttpException, ResourceWriterException
+	{
+		writer.writeResourceStart(Resource.getResourceName(this), getPath());
+		
+		// Writes the properties, or only the requested ones
+		for (Variable property : getProperties())
+		{
+			if (query.includesProperty(property.getName()))
+				writer.writeProperty(property.getName(), property.getValue());
+		}
+		
+		// Writes the included resources as children
+		Resource.writeResourcesUnder(writer, subResources, query);
+		
+		// Writes a page of links, if requested
+		if (query.pagesChildren())
+			writeLinkPage(writer, query);
+		
+		writer.writeResourceEnd();
+	}
+
+	
+	// OTHER METHODS	------------------
+	
+	/**
+	 * Adds a new property to the resource
+	 * @param propertyName The name of the property
+	 * @param value The new value of the property
+	 * @throws HttpException If the name property was being modified
+	 */
+	public void putPoperty(String propertyName, Value value) throws HttpException
+	{
+		// The name may only be in the unloaded properties, so they're loaded first
+		load();
+		checkModifiable(propertyName);
+		setAttributeValue(internName(propertyName), value);
+	}
+	
+	/**
+	 * Links a new resource to this one
+	 * @param linkName The name of the link
+	 * @param resource The resource at the end of the link
+	 */
+	public void putLink(String linkName, Resource resource)
+	{
+		load();
+		this.links.put(linkName.toLowerCase(), resource);
+	}
+	
+	/**
+	 * Makes this resource and the resources created under it afterwards convert their 
+	 * property strings through an interner. The interner shares the repeated values and 
+	 * names and may store numbers and booleans as typed values.
+	 * @param interner The interner to use. Null if the properties should be stored as 
+	 * separate strings.
+	 */
+	public void setValueInterner(ValueInterner interner)
+	{
+		this.valueInterner = interner;
+	}
+	
+	/**
+	 * @return The properties of this resource. The properties should be read through this 
+	 * method instead of {@link #getAttributes()}, since a resource restored from a snapshot 
+	 * reads its properties only when they are first needed.
+	 */
+	public Collection<Variable> getProperties()
+	{
+		load();
+		return getAttributes();
+	}
+	
+	/**
+	 * @return The resources that were created under this one through post
+	 */
+	List<SimpleResource> getChildren()
+	{
+		load();
+		List<SimpleResource> children = new ArrayList<>();
+		for (Resource link : this.links.values())
+		{
+			if (isChild(link))
+				children.add((SimpleResource) link);
+		}
+		return children;
+	}
+	
+	/**
+	 * Finds a resource that was created under this one through post
+	 * @param name The name of the resource
+	 * @return The resource with the name or null if there is no such resource
+	 */
+	SimpleResource getChild(String name)
+	{
+		load();
+		Resource link = this.links.get(name.toLowerCase());
+		if (isChild(link))
+			return (SimpleResource) link;
+		return null;
+	}
+	
+	/**
+	 * Recreates a resource that was created through post, unless it exists already. Used 
+	 * when rebuilding the tree from a log.
+	 * @param name The name of the resource
+	 * @return The new or existing resource
+	 */
+	SimpleResource restoreChild(String name)
+	{
+		SimpleResource child = getChild(name);
+		if (child == null)
+		{
+			child = new SimpleResource(new Path(name, getPath(), false), this.allowedMethods);
+			child.mutationLog = this.mutationLog;
+			child.valueInterner = this.valueInterner;
+			this.links.put(name.toLowerCase(), child);
+		}
+		return child;
+	}
+	
+	/**
+	 * Sets the property values without checking them. Used when rebuilding the tree from a 
+	 * log and when applying checked changes.
+	 * @param properties The restored properties
+	 */
+	void restoreProperties(Parameters properties)
+	{
+		load();
+		for (String propertyName : properties.getParameterNames())
+		{
+			restoreProperty(propertyName, properties.getParameterValue(propertyName));
+		}
+	}
+	
+	/**
+	 * Sets a property value without checking it. Used when rebuilding the tree.
+	 * @param propertyName The name of the property
+	 * @param value The property value as a string
+	 */
+	void restoreProperty(String propertyName, String value)
+	{
+		setAttributeValue(internName(propertyName), toValue(value));
+	}
+	
+	/**
+	 * Starts logging the changes made to this resource and the resources under it
+	 * @param log The log the changes are written to
+	 */
+	void setMutationLog(MutationLog log)
+	{
+		this.mutationLog = log;
+		
+		// The resources that haven't been read from a snapshot yet get the log once they are
+		if (this.snapshot != null)
+			return;
+		for (SimpleResource child : getChildren())
+		{
+			child.setMutationLog(log);
+		}
+	}
+	
+	/**
+	 * Marks this resource to be read from a snapshot when it is first accessed
+	 * @param snapshot The snapshot that contains this resource
+	 * @param position The position of this resource in the snapshot
+	 */
+	void setSnapshotSource(ResourceSnapshot snapshot, long position)
+	{
+		this.snapshotPosition = position;
+		this.snapshot = snapshot;
+	}
+	
+	/**
+	 * Adds a child resource that will be read from a snapshot once it is accessed
+	 * @param name The name of the child
+	 * @param snapshot The snapshot that contains the child
+	 * @param position The position of the child in the snapshot
+	 */
+	void addSnapshotChild(String name, ResourceSnapshot snapshot, long position)
+	{
+		SimpleResource child = new SimpleResource(new Path(name, getPath(), false), 
+				this.allowedMethods);
+		child.mutationLog = this.mutationLog;
+		child.valueInterner = this.valueInterner;
+		child.setSnapshotSource(snapshot, position);
+		this.links.put(name.toLowerCase(), child);
+	}
+	
+	private void load()
+	{
+		// Only the first access needs to lock
+		if (this.snapshot == null)
+			return;
+		synchronized (this)
+		{
+			ResourceSnapshot snapshot = this.snapshot;
+			if (snapshot != null)
+			{
+				snapshot.materialize(this, this.snapshotPosition);
+				this.snapshot = null;
+			}
+		}
+	}
+	
+	private Value toValue(String value)
+	{
+		if (this.valueInterner == null)
+			return Value.String(value);
+		return this.valueInterner.toValue(value);
+	}
+	
+	private String internName(String propertyName)
+	{
+		if (this.valueInterner == null)
+			return propertyName;
+		return this.valueInterner.intern(propertyName);
+	}
+	
+	private boolean isChild(Resource link)
+	{
+		return link instanceof SimpleResource && link.getPath().getParent() == getPath();
+	}
+	
+	private void checkModifiable(String propertyName) throws HttpException
+	{
+		// Name can't be overwritten
+		if (propertyName.equalsIgnoreCase(NAME_PROPERTY) && containsAttribute(NAME_PROPERTY))
+			throw new HttpException(HttpStatus.FORBIDDEN, NAME_PROPERTY + " can't be modified");
+	}
+	
+	private void persist(LogWrite write, Runnable change, Request request) 
+			throws HttpException
+	{
+		MutationLog log = this.mutationLog;
+		if (log == null)
+		{
+			change.run();
+			return;
+		}
+		
+		// The change is only made once it has been logged, so that a failed write doesn't
+		// leave changes that would be lost on restart. The log can't be compacted in
+		// between, so the snapshots always match the log.
+		log.beginMutation();
+		try
+		{
+			write.run(log);
+			change.run();
+		}
+		catch (IOException e)
+		{
+			throw new InternalServerException("Failed to persist the change", e, request, 
+					getPath());
+		}
+		finally
+		{
+			log.endMutation();
+		}
+		log.compactIfNecessary();
+	}
+	
+	private void writeLinkPage(ResourceWriter writer, ResourceQuery query) throws 
+			ResourceWriterException
+	{
+		// The page starts after the cursor
+		Map<String, Resource> page = this.links;
+		if (query.getCursor() != null)
+			page = this.links.tailMap(query.getCursor(), false);
+		
+		writer.writeArrayStart("links");
+		Iterator<Map.Entry<String, Resource>> iterator = page.entrySet().iterator();
+		String lastKey = null;
+		for (int i = 0; i < query.getLimit() && iterator.hasNext(); i++)
+		{
+			Map.Entry<String, Resource> link = iterator.next();
+			Resource.writePageLink(writer, new Link(Resource.getResourceName(
+					link.getValue()), link.getValue().getPath()));
+			lastKey = link.getKey();
+		}
+		
+		// If there are more links left, adds a link to the next page
+		if (iterator.hasNext())
+			Resource.writePageLink(writer, new Link("next", getPath(), 
+					query.createNextPageParameters(lastKey)));
+		writer.writeArrayEnd();
+	}
+	
+	private static Method[] noDelete(Method[] methods)
+	{
+		boolean containedDelete = false;
+		List<Method> methodsWithoutDelete = new ArrayList<>();
+		for (Method method : methods)
+		{
+			if (method == Method.DELETE)
+				containedDelete = true;
+			else
+				methodsWithoutDelete.add(method);
+		}
+		
+		if (!containedDelete)
+		{
+			methodsWithoutDelete.clear();
+			return methods;
+		}
+		else
+			return methodsWithoutDelete.toArray(new Method[methodsWithoutDelete.size()]);
+	}
+	
+	
+	// INTERFACES	---------------------
+	
+	private static interface LogWrite
+	{
+		public void run(MutationLog log) throws IOException;
+	}
+}
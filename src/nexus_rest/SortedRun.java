@@ -0,0 +1,605 @@
+package nexus_rest;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A sorted run is an immutable file of child records, ordered by their keys. The records are 
+ * grouped into pages, and the first key of each page is kept in memory, so that finding a 
+ * record only requires reading a single page. A bloom filter of the keys is stored as well, 
+ * so that looking up a missing record rarely reads a page at all. The file is memory 
+ * mapped, and the decoded pages are kept in a shared page cache.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see PagedCollectionResource
+ */
+class SortedRun
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final int MAGIC = 0x4E585352;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 24;
+	private static final int PAGE_SIZE = 4096;
+	private static final int FILTER_BITS_PER_KEY = 10;
+	private static final int FILTER_HASH_COUNT = 7;
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	
+	private final int number;
+	private final java.nio.file.Path file;
+	private final MappedByteBuffer buffer;
+	private final long recordCount;
+	private final long[] pageOffsets;
+	private final String[] firstKeys;
+	private final String lastKey;
+	private final int filterOffset;
+	private final long filterBits;
+	private final PageCache cache;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private SortedRun(int number, java.nio.file.Path file, MappedByteBuffer buffer, 
+			long recordCount, long[] pageOffsets, String[] firstKeys, String lastKey, 
+			int filterOffset, long filterBits, PageCache cache)
+	{
+		this.number = number;
+		this.file = file;
+		this.buffer = buffer;
+		this.recordCount = recordCount;
+		this.pageOffsets = pageOffsets;
+		this.firstKeys = firstKeys;
+		this.lastKey = lastKey;
+		this.filterOffset = filterOffset;
+		this.filterBits = filterBits;
+		this.cache = cache;
+	}
+	
+	/**
+	 * Opens an existing run file
+	 * @param number The number that identifies the run in the page cache
+	 * @param file The run file
+	 * @param cache The cache the pages of the run are stored in
+	 * @return The opened run
+	 * @throws IOException If the file couldn't be read or isn't a run file
+	 */
+	public static SortedRun open(int number, java.nio.file.Path file, PageCache cache) 
+			throws IOException
+	{
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException(file + " is too large to be a run file");
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException(file + " is not a run file");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported run file version " + buffer.getInt(4));
+		long recordCount = buffer.getLong(8);
+		long indexOffset = buffer.getLong(16);
+		if (indexOffset < HEADER_SIZE || indexOffset >= buffer.capacity())
+			throw new IOException(file + " is not complete");
+		
+		// Reads the page index into memory
+		ByteBuffer index = buffer.duplicate();
+		index.position((int) indexOffset);
+		int pageCount = index.getInt();
+		long[] pageOffsets = new long[pageCount + 1];
+		String[] firstKeys = new String[pageCount];
+		for (int i = 0; i < pageCount; i++)
+		{
+			pageOffsets[i] = index.getLong();
+			firstKeys[i] = readString(index);
+		}
+		pageOffsets[pageCount] = indexOffset;
+		String lastKey = pageCount == 0 ? null : readString(index);
+		
+		// The filter is read directly from the file
+		int filterWords = index.getInt();
+		if (filterWords <= 0 || index.remaining() < filterWords * 8L)
+			throw new IOException(file + " is not complete");
+		
+		return new SortedRun(number, file, buffer, recordCount, pageOffsets, firstKeys, 
+				lastKey, index.position(), filterWords * 64L, cache);
+	}
+	
+	
+	// ACCESSORS	---------------------
+	
+	/**
+	 * @return The number that identifies this run
+	 */
+	public int getNumber()
+	{
+		return this.number;
+	}
+	
+	/**
+	 * @return The file this run is stored in
+	 */
+	public java.nio.file.Path getFile()
+	{
+		return this.file;
+	}
+	
+	/**
+	 * @return How many records this run contains
+	 */
+	public long getRecordCount()
+	{
+		return this.recordCount;
+	}
+	
+	/**
+	 * @return The size of the run file in bytes
+	 */
+	public long getSize()
+	{
+		return this.buffer.capacity();
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Writes records into a new run file. The records are written until they run out or 
+	 * until the file reaches the maximum size, in which case the rest of the records are 
+	 * left in the iterator. The run is first written into a temporary file next to the 
+	 * target file and only moved in place once it is complete and on the disk, so the 
+	 * target file never contains a partial run.
+	 * @param file The file that is written
+	 * @param records The records to write, in key order
+	 * @param maxSize How large the file may grow approximately, in bytes
+	 * @throws IOException If the file couldn't be written
+	 * @see #temporaryFile(java.nio.file.Path)
+	 */
+	public static void write(java.nio.file.Path file, Iterator<ChildRecord> records, 
+			long maxSize) throws IOException
+	{
+		java.nio.file.Path temporaryFile = temporaryFile(file);
+		try
+		{
+			writeRun(temporaryFile, records, maxSize);
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, 
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			Files.deleteIfExists(temporaryFile);
+			throw e;
+		}
+	}
+	
+	/**
+	 * @param file A run file
+	 * @return The temporary file the run is written into before it is complete. Any such 
+	 * files found when a collection is opened were left by an interrupted write.
+	 */
+	public static java.nio.file.Path temporaryFile(java.nio.file.Path file)
+	{
+		return file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+	}
+	
+	private static void writeRun(java.nio.file.Path file, Iterator<ChildRecord> records, 
+			long maxSize) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					Channels.newOutputStream(channel), 64 * 1024));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(0);
+			out.writeLong(0);
+			
+			// Writes the records in pages of roughly equal size
+			long recordCount = 0;
+			long position = HEADER_SIZE;
+			ByteArrayOutputStream page = new ByteArrayOutputStream(PAGE_SIZE * 2);
+			DataOutputStream pageOut = new DataOutputStream(page);
+			ByteArrayOutputStream index = new ByteArrayOutputStream(PAGE_SIZE);
+			DataOutputStream indexOut = new DataOutputStream(index);
+			int pageCount = 0;
+			int pageRecords = 0;
+			String lastKey = null;
+			int[] keyHashes = new int[1024];
+			
+			while (records.hasNext() && position < maxSize)
+			{
+				ChildRecord record = records.next();
+				if (pageRecords == 0)
+				{
+					indexOut.writeLong(position);
+					writeString(indexOut, record.getKey());
+				}
+				record.writeTo(pageOut);
+				if (recordCount == keyHashes.length)
+					keyHashes = Arrays.copyOf(keyHashes, keyHashes.length * 2);
+				keyHashes[(int) recordCount] = record.getKey().hashCode();
+				pageRecords ++;
+				recordCount ++;
+				lastKey = record.getKey();
+				
+				if (page.size() >= PAGE_SIZE || !records.hasNext())
+				{
+					out.writeInt(pageRecords);
+					page.writeTo(out);
+					position += 4 + page.size();
+					page.reset();
+					pageRecords = 0;
+					pageCount ++;
+				}
+			}
+			// The last page may have been left open by the size limit
+			if (pageRecords > 0)
+			{
+				out.writeInt(pageRecords);
+				page.writeTo(out);
+				position += 4 + page.size();
+				pageCount ++;
+			}
+			
+			long indexOffset = position;
+			out.writeInt(pageCount);
+			index.writeTo(out);
+			if (lastKey != null)
+				writeString(out, lastKey);
+			
+			// Writes a bloom filter of the keys, so that most lookups of missing keys don't
+			// need to read a page
+			long[] filter = new long[(int) Math.max(1, 
+					(recordCount * FILTER_BITS_PER_KEY + 63) / 64)];
+			long filterBits = filter.length * 64L;
+			for (int i = 0; i < recordCount; i++)
+			{
+				int hash = keyHashes[i];
+				int step = secondHash(hash);
+				for (int j = 0; j < FILTER_HASH_COUNT; j++)
+				{
+					long bit = ((hash + (long) j * step) & Long.MAX_VALUE) % filterBits;
+					filter[(int) (bit >>> 6)] |= 1L << bit;
+				}
+			}
+			out.writeInt(filter.length);
+			for (long word : filter)
+			{
+				out.writeLong(word);
+			}
+			out.flush();
+			
+			// Completes the header, which also marks the file as complete
+			ByteBuffer header = ByteBuffer.allocate(16);
+			header.putLong(recordCount).putLong(indexOffset).flip();
+			while (header.hasRemaining())
+			{
+				channel.write(header, 8 + header.position());
+			}
+			channel.force(false);
+		}
+	}
+	
+	/**
+	 * Finds a record from this run
+	 * @param key The lower case name of the record
+	 * @return The record with the key or null if this run doesn't contain one
+	 */
+	public ChildRecord find(String key)
+	{
+		if (this.lastKey == null || key.compareTo(this.firstKeys[0]) < 0 || 
+				key.compareTo(this.lastKey) > 0 || !mightContain(key))
+			return null;
+		
+		ChildRecord[] page = readPage(pageFor(key));
+		int index = search(page, key);
+		if (index < 0)
+			return null;
+		return page[index];
+	}
+	
+	/**
+	 * Iterates through the records of this run in key order
+	 * @param cursor The key the iteration starts after. Null if the iteration should start 
+	 * from the first record.
+	 * @return An iterator over the records
+	 */
+	public Iterator<ChildRecord> iterateAfter(String cursor)
+	{
+		if (this.lastKey == null || (cursor != null && cursor.compareTo(this.lastKey) >= 0))
+			return new RunIterator(this.firstKeys.length, 0);
+		if (cursor == null)
+			return new RunIterator(0, 0);
+		
+		int pageIndex = pageFor(cursor);
+		int index = search(readPage(pageIndex), cursor);
+		if (index >= 0)
+			index ++;
+		else
+			index = -index - 1;
+		return new RunIterator(pageIndex, index);
+	}
+	
+	private boolean mightContain(String key)
+	{
+		int hash = key.hashCode();
+		int step = secondHash(hash);
+		for (int i = 0; i < FILTER_HASH_COUNT; i++)
+		{
+			long bit = ((hash + (long) i * step) & Long.MAX_VALUE) % this.filterBits;
+			long word = this.buffer.getLong(this.filterOffset + (int) (bit >>> 6) * 8);
+			if ((word & (1L << bit)) == 0)
+				return false;
+		}
+		return true;
+	}
+	
+	private static int secondHash(int hash)
+	{
+		// Mixes the bits so that the second hash is independent enough from the first one
+		int mixed = hash * 0x9E3779B9;
+		return (mixed ^ (mixed >>> 16)) | 1;
+	}
+	
+	private int pageFor(String key)
+	{
+		// The last page that starts at or before the key
+		int index = Arrays.binarySearch(this.firstKeys, key);
+		if (index < 0)
+			index = Math.max(0, -index - 2);
+		return index;
+	}
+	
+	private static int search(ChildRecord[] page, String key)
+	{
+		// Works like Arrays.binarySearch, comparing the keys of the records
+		int low = 0;
+		int high = page.length - 1;
+		while (low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int comparison = page[middle].getKey().compareTo(key);
+			if (comparison < 0)
+				low = middle + 1;
+			else if (comparison > 0)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -(low + 1);
+	}
+	
+	private ChildRecord[] readPage(int pageIndex)
+	{
+		ChildRecord[] page = this.cache.get(this.number, pageIndex);
+		if (page != null)
+			return page;
+		
+		ByteBuffer pageBuffer = this.buffer.duplicate();
+		pageBuffer.position((int) this.pageOffsets[pageIndex]);
+		page = new ChildRecord[pageBuffer.getInt()];
+		for (int i = 0; i < page.length; i++)
+		{
+			page[i] = ChildRecord.readFrom(pageBuffer);
+		}
+		
+		this.cache.put(this.number, pageIndex, page);
+		return page;
+	}
+	
+	private static void writeString(DataOutputStream out, String s) throws IOException
+	{
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A child record is the stored form of a child resource: its name and its properties
+	 */
+	static class ChildRecord
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final String key, name;
+		private final String[] propertyNames, propertyValues;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public ChildRecord(String name, String[] propertyNames, String[] propertyValues)
+		{
+			this.key = name.toLowerCase();
+			this.name = name;
+			this.propertyNames = propertyNames;
+			this.propertyValues = propertyValues;
+		}
+		
+		private static ChildRecord readFrom(ByteBuffer buffer)
+		{
+			// The key is stored so that it doesn't depend on the locale of the reader
+			String key = readString(buffer);
+			String name = readString(buffer);
+			String[] names = new String[buffer.getInt()];
+			String[] values = new String[names.length];
+			for (int i = 0; i < names.length; i++)
+			{
+				names[i] = readString(buffer);
+				values[i] = readString(buffer);
+			}
+			return new ChildRecord(key, name, names, values);
+		}
+		
+		private ChildRecord(String key, String name, String[] propertyNames, 
+				String[] propertyValues)
+		{
+			this.key = key;
+			this.name = name;
+			this.propertyNames = propertyNames;
+			this.propertyValues = propertyValues;
+		}
+		
+		
+		// ACCESSORS	-----------------
+		
+		public String getKey()
+		{
+			return this.key;
+		}
+		
+		public String getName()
+		{
+			return this.name;
+		}
+		
+		public String[] getPropertyNames()
+		{
+			return this.propertyNames;
+		}
+		
+		public String[] getPropertyValues()
+		{
+			return this.propertyValues;
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		private void writeTo(DataOutputStream out) throws IOException
+		{
+			writeString(out, this.key);
+			writeString(out, this.name);
+			out.writeInt(this.propertyNames.length);
+			for (int i = 0; i < this.propertyNames.length; i++)
+			{
+				writeString(out, this.propertyNames[i]);
+				writeString(out, this.propertyValues[i]);
+			}
+		}
+	}
+	
+	/**
+	 * A page cache keeps the most recently used pages of the runs in memory. The cache may 
+	 * be shared between the runs of a collection.
+	 */
+	static class PageCache
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final Map<Long, ChildRecord[]> pages;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public PageCache(final int capacity)
+		{
+			this.pages = new LinkedHashMap<Long, ChildRecord[]>(capacity, 0.75f, true)
+			{
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, ChildRecord[]> eldest)
+				{
+					return size() > capacity;
+				}
+			};
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		public synchronized ChildRecord[] get(int runNumber, int pageIndex)
+		{
+			return this.pages.get(keyOf(runNumber, pageIndex));
+		}
+		
+		public synchronized void put(int runNumber, int pageIndex, ChildRecord[] page)
+		{
+			this.pages.put(keyOf(runNumber, pageIndex), page);
+		}
+		
+		public synchronized void removeRun(int runNumber)
+		{
+			this.pages.keySet().removeIf(key -> (int) (key >>> 32) == runNumber);
+		}
+		
+		private static Long keyOf(int runNumber, int pageIndex)
+		{
+			return ((long) runNumber << 32) | pageIndex;
+		}
+	}
+	
+	private class RunIterator implements Iterator<ChildRecord>
+	{
+		// ATTRIBUTES	-----------------
+		
+		private int pageIndex, recordIndex;
+		private ChildRecord[] page = null;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public RunIterator(int pageIndex, int recordIndex)
+		{
+			this.pageIndex = pageIndex;
+			this.recordIndex = recordIndex;
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public boolean hasNext()
+		{
+			while (this.pageIndex < SortedRun.this.firstKeys.length)
+			{
+				if (this.page == null)
+					this.page = readPage(this.pageIndex);
+				if (this.recordIndex < this.page.length)
+					return true;
+				
+				// Moves to the next page
+				this.pageIndex ++;
+				this.recordIndex = 0;
+				this.page = null;
+			}
+			return false;
+		}
+		
+		@Override
+		public ChildRecord next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return this.page[this.recordIndex++];
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package nexus_rest;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import utopia.flow.generics.Value;
+
+/**
+ * A value interner converts property strings into values and shares the values between 
+ * the resources that use the same property strings. Large resource trees often repeat the 
+ * same statuses, names and other enumeration-like values, which would otherwise be stored 
+ * as separate objects. The interner can also store numbers and booleans as typed values 
+ * instead of strings, as long as the conversion doesn't change how the value is written.<br>
+ * The interner has a fixed size. Each string maps to a single slot, and a new string simply 
+ * replaces the previous string in the slot, so the interner never grows and never locks. 
+ * Missing a shared value only costs memory, never correctness.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ * @see SimpleResource#setValueInterner(ValueInterner)
+ */
+public class ValueInterner
+{
+	// ATTRIBUTES	---------------------
+	
+	/**
+	 * How many values and names the interner holds by default
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+	/**
+	 * The longest string that is interned. Longer strings are rarely repeated.
+	 */
+	public static final int MAX_INTERNED_LENGTH = 64;
+	
+	private final AtomicReferenceArray<Entry> values;
+	private final AtomicReferenceArray<String> names;
+	private final int mask;
+	private final boolean convertsTypes;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new interner with the default capacity. Numbers and booleans are stored 
+	 * as typed values.
+	 */
+	public ValueInterner()
+	{
+		this(DEFAULT_CAPACITY, true);
+	}
+	
+	/**
+	 * Creates a new interner
+	 * @param capacity How many values (and separately, names) the interner holds. Rounded 
+	 * up to the next power of two.
+	 * @param convertsTypes Should numbers and booleans be stored as typed values instead of 
+	 * strings
+	 */
+	public ValueInterner(int capacity, boolean convertsTypes)
+	{
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		this.values = new AtomicReferenceArray<>(size);
+		this.names = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+		this.convertsTypes = convertsTypes;
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Converts a string into a value, returning a shared value if the same string was 
+	 * converted recently
+	 * @param text The string that is converted
+	 * @return A value for the string
+	 */
+	public Value toValue(String text)
+	{
+		if (text == null || text.length() > MAX_INTERNED_LENGTH)
+			return convert(text);
+		
+		int slot = slotOf(text);
+		Entry entry = this.values.get(slot);
+		if (entry != null && entry.text.equals(text))
+			return entry.value;
+		
+		Value value = convert(text);
+		this.values.set(slot, new Entry(text, value));
+		return value;
+	}
+	
+	/**
+	 * Returns a shared instance of a name, if the same name was interned recently
+	 * @param name A property name
+	 * @return The shared instance of the name or the provided name
+	 */
+	public String intern(String name)
+	{
+		if (name == null || name.length() > MAX_INTERNED_LENGTH)
+			return name;
+		
+		int slot = slotOf(name);
+		String existing = this.names.get(slot);
+		if (existing != null && existing.equals(name))
+			return existing;
+		
+		this.names.set(slot, name);
+		return name;
+	}
+	
+	private int slotOf(String text)
+	{
+		int hash = text.hashCode();
+		return (hash ^ (hash >>> 16)) & this.mask;
+	}
+	
+	private Value convert(String text)
+	{
+		if (this.convertsTypes && text != null)
+		{
+			Value typed = parseTyped(text);
+			if (typed != null)
+				return typed;
+		}
+		return Value.String(text);
+	}
+	
+	/**
+	 * Converts a string into a typed value, if the value would be written exactly like the 
+	 * string. For example, "5" and "true" are converted, but "05" and "TRUE" are not.
+	 * @param text A string
+	 * @return A typed value or null if the string should be kept as a string
+	 */
+	private static Value parseTyped(String text)
+	{
+		if (text.equals("true"))
+			return Value.Boolean(true);
+		if (text.equals("false"))
+			return Value.Boolean(false);
+		if (text.isEmpty() || text.length() > 24)
+			return null;
+		
+		// Only strings that look like numbers are parsed, since failed parsing is expensive
+		char first = text.charAt(0);
+		if (first != '-' && (first < '0' || first > '9'))
+			return null;
+		
+		boolean decimal = false;
+		for (int i = 1; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if (c == '.')
+				decimal = true;
+			else if (c < '0' || c > '9')
+				return null;
+		}
+		
+		try
+		{
+			if (decimal)
+			{
+				double number = Double.parseDouble(text);
+				if (Double.toString(number).equals(text))
+					return Value.Double(number);
+			}
+			else
+			{
+				long number = Long.parseLong(text);
+				if (Long.toString(number).equals(text))
+					return Value.Long(number);
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			// The string is kept as it is
+		}
+		return null;
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	private static class Entry
+	{
+		// ATTRIBUTES	-----------------
+		
+		private final String text;
+		private final Value value;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public Entry(String text, Value value)
+		{
+			this.text = text;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package nexus_rest;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import flow_structure.TreeNode;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.MethodNotAllowedException;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+
+/**
+ * A wildcard expansion represents all the resources targeted by a wildcard 
+ * ({@value Path#WILDCARD}) path part. The resources are not collected beforehand. Instead, 
+ * they are resolved and written one by one when the expansion is written. The amount of 
+ * written resources is limited by the maximum fan-out of the query, as well as the page 
+ * size, if the expansion is paged. A link to the next page is written when resources are 
+ * left over.
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class WildcardExpansion implements Resource
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final Method[] ALLOWED_METHODS = {Method.GET, Method.HEAD};
+	
+	private Path path;
+	private Collection<? extends Resource> resources;
+	private NavigableMap<String, ? extends Resource> resourceMap;
+	private OrderedResources orderedResources;
+	private ResourceQuery query;
+	private List<Resource> expansionChain;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	/**
+	 * Creates a new expansion over a collection of resources. The resources are expanded 
+	 * in the collection's iteration order.
+	 * @param path The wildcard path part
+	 * @param resources The resources the wildcard targets
+	 * @param query The query that applies to the targeted resources
+	 */
+	public WildcardExpansion(Path path, Collection<? extends Resource> resources, 
+			ResourceQuery query)
+	{
+		this.path = path;
+		this.resources = resources;
+		this.resourceMap = null;
+		this.orderedResources = null;
+		this.query = query;
+		this.expansionChain = query.getBudget().captureChain();
+	}
+	
+	/**
+	 * Creates a new expansion over a map of resources. The resources are expanded in the 
+	 * map's key order, which allows pages to start directly from the cursor.
+	 * @param path The wildcard path part
+	 * @param resources The resources the wildcard targets, mapped to their lower case names
+	 * @param query The query that applies to the targeted resources
+	 */
+	public WildcardExpansion(Path path, NavigableMap<String, ? extends Resource> resources, 
+			ResourceQuery query)
+	{
+		this.path = path;
+		this.resources = null;
+		this.resourceMap = resources;
+		this.orderedResources = null;
+		this.query = query;
+		this.expansionChain = query.getBudget().captureChain();
+	}
+	
+	/**
+	 * Creates a new expansion over ordered resources. The resources are expanded in the 
+	 * order of their names, and pages start directly from the cursor.
+	 * @param path The wildcard path part
+	 * @param resources The resources the wildcard targets
+	 * @param query The query that applies to the targeted resources
+	 */
+	public WildcardExpansion(Path path, OrderedResources resources, ResourceQuery query)
+	{
+		this.path = path;
+		this.resources = null;
+		this.resourceMap = null;
+		this.orderedResources = resources;
+		this.query = query;
+		this.expansionChain = query.getBudget().captureChain();
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public String toString()
+	{
+		return getPath().toString();
+	}
+	
+	@Override
+	public Path getPath()
+	{
+		return this.path;
+	}
+	
+	/**
+	 * Wildcards can only be used for reading resources
+	 */
+	@Override
+	public Method[] getAllowedMethods()
+	{
+		return ALLOWED_METHODS;
+	}
+	
+	@Override
+	public Link post(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	@Override
+	public void put(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	@Override
+	public void delete(Request request, Response response) throws HttpException
+	{
+		throw new MethodNotAllowedException(ALLOWED_METHODS);
+	}
+	
+	/**
+	 * The paths under the wildcard are resolved separately for each expanded resource
+	 */
+	@Override
+	public Collection<TreeNode<Resource>> findConnectedResources(
+			Collection<? extends Path> targetPaths) throws HttpException
+	{
+		return Collections.emptyList();
+	}
+	
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources) 
+			throws HttpException, ResourceWriterException
+	{
+		write(writer, subResources, this.query);
+	}
+	
+	/**
+	 * Writes each of the expanded resources, up to the page size / maximum fan-out
+	 */
+	@Override
+	public void write(ResourceWriter writer, 
+			Collection<? extends TreeNode<? extends Resource>> subResources, 
+			ResourceQuery query) throws HttpException, ResourceWriterException
+	{
+		// The page is applied here, so the expanded resources are written without one
+		int limit = query.getMaxFanOut();
+		String cursor = null;
+		ResourceQuery elementQuery = query;
+		if (query.pagesChildren())
+		{
+			limit = Math.min(limit, query.getLimit());
+			cursor = query.getCursor();
+			elementQuery = query.withoutPaging();
+		}
+		
+		List<Path> childPaths = getPath().getChildPaths();
+		boolean included = getPath().isIncluded();
+		ResourceQuery childQuery = included ? elementQuery.below() : elementQuery;
+		
+		// The expanded resources are resolved as if they were under the resources that were
+		// being expanded when the wildcard was found
+		ExpansionBudget budget = query.getBudget();
+		List<Resource> previousChain = budget.resume(this.expansionChain);
+		
+		Iterator<? extends Map.Entry<String, ? extends Resource>> iterator = iterateFrom(cursor);
+		String lastKey = null;
+		int written = 0;
+		try
+		{
+			while (written < limit && iterator.hasNext())
+			{
+				Map.Entry<String, ? extends Resource> entry = iterator.next();
+				Resource resource = entry.getValue();
+				lastKey = entry.getKey();
+				
+				// Resources that can't be read are skipped, as are links back to the
+				// resources being expanded
+				if (!Resource.resourceAllowsMethod(resource, Method.GET) || 
+						budget.isExpanding(resource))
+					continue;
+				
+				// Resources that don't contain the paths under the wildcard are skipped
+				Collection<TreeNode<Resource>> children;
+				budget.enter(resource);
+				try
+				{
+					if (childPaths.isEmpty())
+						children = Collections.emptyList();
+					else
+					{
+						ResolutionResult result = resource.resolveConnectedResources(
+								childPaths, childQuery);
+						if (result.isNotFound() || (result.getError() != null && 
+								result.getError().getStatus() == HttpStatus.NOT_FOUND))
+							continue;
+						children = result.getOrThrow();
+					}
+				}
+				finally
+				{
+					budget.exit();
+				}
+				
+				if (included)
+					resource.write(writer, children, elementQuery);
+				else
+				{
+					for (TreeNode<Resource> child : children)
+					{
+						child.getContent().write(writer, child.getChildren(), elementQuery);
+					}
+				}
+				written ++;
+			}
+		}
+		finally
+		{
+			budget.resume(previousChain);
+		}
+		
+		// If there are resources left, writes a link to the next page. The link targets
+		// the same paths under the wildcard, which a single path part can't represent, so
+		// the whole target is written into a detached part.
+		if (iterator.hasNext() && lastKey != null)
+			Resource.writePageLink(writer, new Link("next", new Path(
+					getPath().toBranchingString(), null, false),
+					query.createNextPageParameters(lastKey, limit)));
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	private Iterator<? extends Map.Entry<String, ? extends Resource>> iterateFrom(
+			String cursor)
+	{
+		if (this.orderedResources != null)
+			return this.orderedResources.iterateAfter(cursor);
+		else if (this.resourceMap != null)
+		{
+			if (cursor == null)
+				return this.resourceMap.entrySet().iterator();
+			else
+				return this.resourceMap.tailMap(cursor, false).entrySet().iterator();
+		}
+		else
+			return new KeyedIterator(this.resources.iterator(), cursor);
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * Iterates through a resource collection, pairing each resource with its lower case 
+	 * name. The iteration may start after a certain key.
+	 */
+	private static class KeyedIterator implements Iterator<Map.Entry<String, Resource>>
+	{
+		// ATTRIBUTES	-----------------
+		
+		private Iterator<? extends Resource> source;
+		
+		
+		// CONSTRUCTOR	-----------------
+		
+		public KeyedIterator(Iterator<? extends Resource> source, String startAfterKey)
+		{
+			this.source = source;
+			
+			// Skips the resources up to and including the start key
+			if (startAfterKey != null)
+			{
+				while (this.source.hasNext())
+				{
+					if (keyOf(this.source.next()).equals(startAfterKey))
+						break;
+				}
+			}
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public boolean hasNext()
+		{
+			return this.source.hasNext();
+		}
+		
+		@Override
+		public Map.Entry<String, Resource> next()
+		{
+			Resource resource = this.source.next();
+			return new AbstractMap.SimpleImmutableEntry<>(keyOf(resource), resource);
+		}
+		
+		
+		// OTHER METHODS	-------------
+		
+		private static String keyOf(Resource resource)
+		{
+			return Resource.getResourceName(resource).toLowerCase();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package nexus_test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import nexus_http.Authenticator;
+import nexus_http.CredentialVerifier;
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Request;
+import nexus_http.UnauthorizedException;
+
+/**
+ * This class tests that the authenticator caches the successful verifications and that the 
+ * cached verifications expire and can be revoked
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class AuthenticatorTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private AuthenticatorTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the authenticator
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		CountingVerifier verifier = new CountingVerifier();
+		verifier.setPassword("alice", "secret");
+		verifier.setPassword("bob", "hunter2");
+		Authenticator authenticator = new Authenticator(verifier);
+		
+		System.out.println("Repeated requests");
+		authenticate(authenticator, verifier, "alice", "secret");
+		authenticate(authenticator, verifier, "alice", "secret");
+		authenticate(authenticator, verifier, "bob", "hunter2");
+		authenticate(authenticator, verifier, "alice", "wrong");
+		authenticate(authenticator, verifier, null, null);
+		System.out.println("Cached: " + authenticator.getCachedCount() + " (expected 2)");
+		
+		// Once the cached verification is revoked, the old password stops working
+		System.out.println("\nAfter changing alice's password");
+		verifier.setPassword("alice", "new secret");
+		authenticate(authenticator, verifier, "alice", "secret");
+		authenticator.revoke("alice");
+		authenticate(authenticator, verifier, "alice", "secret");
+		authenticate(authenticator, verifier, "alice", "new secret");
+		authenticate(authenticator, verifier, "bob", "hunter2");
+		
+		System.out.println("\nAfter revoking everything");
+		authenticator.revokeAll();
+		System.out.println("Cached: " + authenticator.getCachedCount());
+		authenticate(authenticator, verifier, "bob", "hunter2");
+		
+		// A verification that was revoked while it was running is not cached
+		System.out.println("\nRevoked during the verification");
+		verifier.revokeDuringVerification(authenticator);
+		authenticate(authenticator, verifier, "alice", "new secret");
+		verifier.revokeDuringVerification(null);
+		authenticate(authenticator, verifier, "alice", "new secret");
+		
+		System.out.println("\nShort lived cache");
+		Authenticator shortLived = new Authenticator(verifier, 50, 2);
+		authenticate(shortLived, verifier, "alice", "new secret");
+		authenticate(shortLived, verifier, "alice", "new secret");
+		try
+		{
+			Thread.sleep(100);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		authenticate(shortLived, verifier, "alice", "new secret");
+		
+		System.out.println("\nA full cache");
+		verifier.setPassword("carol", "pass");
+		verifier.setPassword("dave", "pass");
+		Authenticator small = new Authenticator(verifier, Authenticator.DEFAULT_TTL_MILLIS, 
+				2);
+		authenticate(small, verifier, "bob", "hunter2");
+		authenticate(small, verifier, "carol", "pass");
+		authenticate(small, verifier, "dave", "pass");
+		authenticate(small, verifier, "dave", "pass");
+		System.out.println("Cached: " + small.getCachedCount() + " (expected 2)");
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void authenticate(Authenticator authenticator, CountingVerifier verifier, 
+			String userName, String password)
+	{
+		Headers headers = new Headers();
+		if (userName != null)
+			headers.setBasicAuthorization(userName, password);
+		Request request = new Request(Method.GET, "root", null, headers);
+		
+		int verificationsBefore = verifier.getVerificationCount();
+		String result;
+		try
+		{
+			result = "authenticated as " + authenticator.authenticate(request);
+		}
+		catch (UnauthorizedException e)
+		{
+			result = e.getStatus().toString();
+		}
+		System.out.println(userName + ": " + result + (verifier.getVerificationCount() == 
+				verificationsBefore ? " (not verified)" : " (verified)"));
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A verifier that counts how many times the credentials have been verified
+	 */
+	private static class CountingVerifier implements CredentialVerifier
+	{
+		private final Map<String, String> passwords = new HashMap<>();
+		private int verifications = 0;
+		private Authenticator revoked = null;
+		
+		@Override
+		public synchronized boolean verify(String userName, String password)
+		{
+			this.verifications ++;
+			if (this.revoked != null)
+				this.revoked.revoke(userName);
+			return password.equals(this.passwords.get(userName));
+		}
+		
+		public synchronized void setPassword(String userName, String password)
+		{
+			this.passwords.put(userName, password);
+		}
+		
+		public synchronized int getVerificationCount()
+		{
+			return this.verifications;
+		}
+		
+		public synchronized void revokeDuringVerification(Authenticator authenticator)
+		{
+			this.revoked = authenticator;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package nexus_test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import flow_structure.TreeNode;
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.Resource;
+import nexus_rest.ResourceQuery;
+import nexus_rest.ResourceWriter;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests the output of batch requests, including operations that fail in the 
+ * middle of writing their content
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class BatchTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private BatchTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the batch requests
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(new SimpleResource(new Path("root", null, false), 
+				Method.GET, Method.POST, Method.PUT));
+		handler.addRootResource(new BrokenResource(new Path("broken", null, false)));
+		
+		try
+		{
+			System.out.println("Batch with a failing operation");
+			printBatch(handler, "_batch", "POST root?name=first&value=1\n" + 
+					"GET broken\n" + 
+					"HEAD root/first\n" + 
+					"GET root/first\n" + 
+					"GET root/missing\n" + 
+					"FOO bar");
+			
+			System.out.println("\nBatch that stops on error");
+			printBatch(handler, "_batch?stopOnError=true", "GET root/missing\n" + 
+					"POST root?name=second");
+			System.out.println("Second created: " + (handler.handle(new Request(Method.GET, 
+					"root/second", createHeaders(), null)).getStatus() == HttpStatus.OK));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void printBatch(RestRequestHandler handler, String uri, 
+			String operations) throws IOException
+	{
+		Request request = new Request(Method.POST, uri, createHeaders(), null, 
+				new ByteArrayInputStream(operations.getBytes(StandardCharsets.UTF_8)));
+		Response response = handler.handle(request);
+		byte[] body = response.getBody(false).toByteArray();
+		
+		System.out.println(response.getStatus() + ": " + new String(body, 
+				StandardCharsets.UTF_8));
+		System.out.println("Well-formed: " + isWellFormed(body));
+	}
+	
+	private static boolean isWellFormed(byte[] document)
+	{
+		try
+		{
+			DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+					new ByteArrayInputStream(document));
+			return true;
+		}
+		catch (SAXException | IOException | ParserConfigurationException e)
+		{
+			return false;
+		}
+	}
+	
+	private static Headers createHeaders()
+	{
+		Headers headers = new Headers();
+		headers.setLinkWriteStyle(LinkWriteStyle.SIMPLE);
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		return headers;
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A resource that fails in the middle of writing itself
+	 */
+	private static class BrokenResource extends SimpleResource
+	{
+		// CONSTRUCTOR	-----------------
+		
+		public BrokenResource(Path path)
+		{
+			super(path, Method.GET);
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------
+		
+		@Override
+		public void write(ResourceWriter writer, 
+				Collection<? extends TreeNode<? extends Resource>> subResources, 
+				ResourceQuery query) throws HttpException, ResourceWriterException
+		{
+			writer.writeResourceStart("broken", null);
+			writer.writeArrayStart("items");
+			writer.writeResourceStart("item", null);
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Failed in the middle");
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package nexus_test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.Headers;
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.RequestInterceptor;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the GET, POST and HEAD responses report the length of their body and 
+ * that the HEAD responses report the same length as GET without containing a body
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ContentLengthTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private ContentLengthTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the content lengths
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		// HEAD is allowed even though only GET is listed
+		SimpleResource root = new SimpleResource(new Path("root", null, false), Method.GET, 
+				Method.POST);
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		
+		try
+		{
+			System.out.println("POST");
+			print(handle(handler, Method.POST, "root?name=first&text=plain"));
+			print(handle(handler, Method.POST, "root?name=second&text=\u00e4\u00f6 \u263e"));
+			for (int i = 0; i < 500; i++)
+			{
+				handle(handler, Method.POST, "root?name=item" + i + "&value=" + i);
+			}
+			
+			System.out.println("\nGET and HEAD");
+			for (String uri : new String[] {"root", "root/second", "root/*"})
+			{
+				Response get = handle(handler, Method.GET, uri);
+				Response head = handle(handler, Method.HEAD, uri);
+				System.out.println(uri + ": GET " + describe(get) + ", HEAD " + 
+						describe(head) + ", same length: " + 
+						(get.getHeaders().getContentLength() == 
+						head.getHeaders().getContentLength()));
+			}
+			
+			// The length is in bytes, not in characters
+			Response second = handle(handler, Method.GET, "root/second");
+			System.out.println("Characters in root/second: " + new String(
+					second.getBody(false).toByteArray(), StandardCharsets.UTF_8).length());
+			
+			System.out.println("\nMissing resource");
+			print(handle(handler, Method.HEAD, "root/missing"));
+			
+			// A body written by an interceptor only leaves its length to a HEAD response
+			System.out.println("\nInterceptor response");
+			handler.addInterceptor(new CachedInterceptor());
+			print(handle(handler, Method.GET, "root/first"));
+			print(handle(handler, Method.HEAD, "root/first"));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static String describe(Response response)
+	{
+		ByteArrayOutputStream body = response.getBody(false);
+		return response.getStatus() + " length " + response.getHeaders().getContentLength() + 
+				(body == null ? " without a body" : " with a body of " + body.size());
+	}
+	
+	private static void print(Response response)
+	{
+		System.out.println(describe(response));
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * An interceptor that answers the requests with a prepared body
+	 */
+	private static class CachedInterceptor implements RequestInterceptor
+	{
+		@Override
+		public Response beforeResolve(Request request)
+		{
+			Response response = new Response();
+			response.setStatus(HttpStatus.OK);
+			byte[] body = "<cached/>".getBytes(StandardCharsets.UTF_8);
+			response.getBody(true).write(body, 0, body.length);
+			return response;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package nexus_test;
+
+import nexus_http.Headers;
+import nexus_http.Headers.Cookie;
+
+/**
+ * This class tests the parsing of the cookie header
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class CookieTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private CookieTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests cookie parsing
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.COOKIE, "session=abc=123; theme = dark;flag; " + 
+				"sessionid=x; expires=Wed, 21 Oct 2026 07:28:00 GMT");
+		
+		System.out.println("All cookies");
+		for (Cookie cookie : headers.getCookies())
+		{
+			System.out.println(cookie.getName() + " = '" + cookie.getValue() + "'");
+		}
+		
+		// A cookie name must match the whole name, not just its start
+		System.out.println("\nSingle cookies");
+		System.out.println("session = '" + headers.getCookieValue("session") + "'");
+		System.out.println("SessionId = '" + headers.getCookieValue("SessionId") + "'");
+		System.out.println("theme = '" + headers.getHeaderOrCookieValue("theme") + "'");
+		System.out.println("flag exists: " + (headers.getCookie("flag") != null));
+		System.out.println("missing exists: " + (headers.getCookie("missing") != null));
+	}
+}
@@ -0,0 +1,138 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.InternalServerException;
+import nexus_http.Method;
+import nexus_http.MethodNotAllowedException;
+import nexus_http.NotFoundException;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_http.SessionStore;
+import nexus_rest.InterceptorChain;
+import nexus_rest.RequestInterceptor;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests the stackless client errors and the shared error responses, including 
+ * the session cookies sent along with them
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ErrorResponseTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private ErrorResponseTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the error responses
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		System.out.println("Expected errors are stackless: " + 
+				(new NotFoundException("missing").getStackTrace().length == 0) + ", " + 
+				(new MethodNotAllowedException(Method.GET).getStackTrace().length == 0));
+		System.out.println("Server errors keep their stack trace: " + 
+				(new InternalServerException("failed", null, null).getStackTrace().length > 
+				0));
+		
+		Response notFound = new NotFoundException("missing").toResponse();
+		System.out.println("\nNot found responses are shared: " + 
+				(notFound == Response.forStatus(HttpStatus.NOT_FOUND)));
+		try
+		{
+			notFound.getHeaders().setHeader("X-Test", "test");
+			System.out.println("A shared response was modified");
+		}
+		catch (UnsupportedOperationException e)
+		{
+			System.out.println("Shared responses can't be modified");
+		}
+		Response copy = new Response(notFound);
+		copy.getHeaders().setHeader("X-Test", "test");
+		System.out.println("The copy can be modified: " + copy.getStatus() + ", " + 
+				copy.getHeaders().getHeaderValue("X-Test") + ", original: " + 
+				notFound.getHeaders().getHeaderValue("X-Test"));
+		
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(new SimpleResource(new Path("root", null, false), 
+				Method.GET));
+		handler.setSessionStore(new SessionStore(60000), false);
+		handler.setInterceptors(new InterceptorChain(new SessionInterceptor()));
+		
+		try
+		{
+			// The session cookie changes even though the targeted resource doesn't exist
+			System.out.println("\nLogging in to a missing resource");
+			Response login = handle(handler, "login/missing", null);
+			String cookie = login.getHeaders().getHeaderValue(Headers.SET_COOKIE);
+			System.out.println(login.getStatus() + ", cookie: " + cookie);
+			
+			System.out.println("\nLogging out from a missing resource");
+			Response logout = handle(handler, "logout/missing", 
+					cookie.substring(0, cookie.indexOf(';')));
+			System.out.println(logout.getStatus() + ", cookie: " + 
+					logout.getHeaders().getHeaderValue(Headers.SET_COOKIE));
+			System.out.println("Shared response unchanged: " + (Response.forStatus(
+					HttpStatus.NOT_FOUND).getHeaders().getHeaderValue(
+					Headers.SET_COOKIE) == null));
+			
+			System.out.println("\nA missing resource without session changes");
+			Response missing = handle(handler, "root/missing", null);
+			System.out.println(missing.getStatus() + ", shared: " + 
+					(missing == Response.forStatus(HttpStatus.NOT_FOUND)));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static Response handle(RestRequestHandler handler, String uri, String cookie) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		if (cookie != null)
+			headers.setHeader(Headers.COOKIE, cookie);
+		return handler.handle(new Request(Method.GET, uri, headers, null));
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * Starts a session for the requests under 'login' and ends it for the requests under 
+	 * 'logout'
+	 */
+	private static class SessionInterceptor implements RequestInterceptor
+	{
+		@Override
+		public Response beforeResolve(Request request) throws HttpException
+		{
+			if (request.getPath().startsWith("login"))
+				request.getSession(true);
+			else if (request.getPath().startsWith("logout"))
+				request.invalidateSession();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ExpansionBudget;
+import nexus_rest.ExpansionBudget.ExpansionLimitException;
+import nexus_rest.Resource;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the expansion budget limits the depth and the size of the 
+ * expanded resource graphs and that it stops the expansion cycles
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ExpansionBudgetTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private ExpansionBudgetTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the expansion budget
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		SimpleResource root = new SimpleResource(new Path("root", null, false), Method.GET, 
+				Method.POST);
+		SimpleResource a = new SimpleResource(new Path("a", root.getPath(), false), 
+				Method.GET);
+		SimpleResource b = new SimpleResource(new Path("b", a.getPath(), false), Method.GET);
+		root.putLink("a", a);
+		a.putLink("b", b);
+		// b links back to a, which makes the graph cyclic
+		b.putLink("a", a);
+		
+		System.out.println("A budget used directly");
+		ExpansionBudget budget = new ExpansionBudget(4, 10);
+		expand(budget, root, a);
+		System.out.println("Expanding a: " + budget.isExpanding(a) + ", b: " + 
+				budget.isExpanding(b));
+		expand(budget, b, a);
+		expand(new ExpansionBudget(2, 10), root, a, b);
+		expand(new ExpansionBudget(4, 2), root, a, b);
+		
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		handler.setExpansionLimits(4, 20);
+		
+		try
+		{
+			System.out.println("\nResolving a under itself through the links");
+			print(handle(handler, Method.GET, "root/a/b/a"));
+			
+			System.out.println("\nIncluding a resource under itself");
+			print(handle(handler, Method.GET, "root/a+/b+/a"));
+			
+			// Wildcards skip the links back to the resources that are being expanded
+			System.out.println("\nWildcards over the cycle");
+			print(handle(handler, Method.GET, "root/*+/*+/*"));
+			
+			System.out.println("\nToo deep");
+			print(handle(handler, Method.GET, "root/a/b/a/b/a"));
+			
+			for (int i = 0; i < 25; i++)
+			{
+				handle(handler, Method.POST, "root?name=item" + i);
+			}
+			System.out.println("\nToo many resources");
+			print(handle(handler, Method.GET, "root/*?limit=100"));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void expand(ExpansionBudget budget, Resource... resources)
+	{
+		try
+		{
+			for (Resource resource : resources)
+			{
+				budget.enter(resource);
+			}
+			System.out.println("Expanded " + budget.getResourceCount() + " resources");
+		}
+		catch (ExpansionLimitException e)
+		{
+			System.out.println(e.getStatus() + ": " + e.getMessage());
+		}
+	}
+	
+	private static void print(Response response)
+	{
+		if (response.getBody(false) == null)
+			System.out.println(response.getStatus());
+		else
+			System.out.println(response.getStatus() + ": " + new String(
+					response.getBody(false).toByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
@@ -0,0 +1,98 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the sparse fieldsets limit the properties written at each level 
+ * and that they are kept on the next page links
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class FieldsTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private FieldsTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the field projections
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(new SimpleResource(new Path("root", null, false), 
+				Method.GET, Method.POST));
+		
+		try
+		{
+			for (int i = 0; i < 3; i++)
+			{
+				handle(handler, Method.POST, "root?name=item" + i + "&status=active&size=" + 
+						i, null);
+				handle(handler, Method.POST, "root/item" + i + "?name=part&status=new", null);
+			}
+			
+			System.out.println("All fields");
+			print(handle(handler, Method.GET, "root/item0", null));
+			
+			System.out.println("\nOnly the status, in any case");
+			print(handle(handler, Method.GET, "root/item0?fields=STATUS", null));
+			
+			System.out.println("\nThe names of the targeted resources and the statuses of " + 
+					"the included ones");
+			print(handle(handler, Method.GET, "root/*+/*?fields=name&fields.1=status", 
+					null));
+			
+			System.out.println("\nThe fields are kept on the next page link");
+			print(handle(handler, Method.GET, "root?fields=name&limit=2", 
+					LinkWriteStyle.SIMPLE));
+			
+			System.out.println("\nInvalid levels");
+			System.out.println(handle(handler, Method.GET, "root?fields.x=name", 
+					null).getStatus());
+			System.out.println(handle(handler, Method.GET, "root?fields.33=name", 
+					null).getStatus());
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void print(Response response)
+	{
+		System.out.println(response.getStatus() + ": " + new String(
+				response.getBody(false).toByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri, 
+			LinkWriteStyle linkStyle) throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		if (linkStyle != null)
+			headers.setLinkWriteStyle(linkStyle);
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
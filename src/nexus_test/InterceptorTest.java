@@ -0,0 +1,182 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.InterceptorChain;
+import nexus_rest.RequestInterceptor;
+import nexus_rest.Resource;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the interceptor chain calls the hooks in order, that an interceptor 
+ * may respond to or reject a request and that the response hooks are only compiled in when 
+ * an interceptor implements them
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class InterceptorTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final List<String> EVENTS = new ArrayList<>();
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private InterceptorTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the interceptors
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		InterceptorChain renderOnly = new InterceptorChain(new HeaderInterceptor());
+		System.out.println("Handles responses: " + InterceptorChain.EMPTY.handlesResponses() + 
+				", " + renderOnly.handlesResponses() + ", " + renderOnly.plus(
+				new EventInterceptor("a")).handlesResponses() + " (expected false, false, " +
+				"true)");
+		
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(new SimpleResource(new Path("root", null, false), 
+				Method.GET));
+		handler.setInterceptors(new InterceptorChain(new EventInterceptor("a"), 
+				new GuardInterceptor(), new HeaderInterceptor(), new EventInterceptor("b")));
+		
+		try
+		{
+			System.out.println("\nA normal request");
+			handle(handler, "root");
+			
+			System.out.println("\nA request answered by an interceptor");
+			handle(handler, "root?cached=true");
+			
+			System.out.println("\nA request rejected by an interceptor");
+			handle(handler, "root?forbidden=true");
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void handle(RestRequestHandler handler, String uri) throws IOException
+	{
+		EVENTS.clear();
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		Response response = handler.handle(new Request(Method.GET, uri, headers, null));
+		System.out.println(response.getStatus() + ", rendered by: " + 
+				response.getHeaders().getHeaderValue(HeaderInterceptor.HEADER_NAME));
+		System.out.println("Hooks: " + EVENTS);
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * Records each of its hooks as they are called
+	 */
+	private static class EventInterceptor implements RequestInterceptor
+	{
+		private final String name;
+		
+		public EventInterceptor(String name)
+		{
+			this.name = name;
+		}
+		
+		@Override
+		public Response beforeResolve(Request request) throws HttpException
+		{
+			EVENTS.add(this.name + ".beforeResolve");
+			return null;
+		}
+		
+		@Override
+		public Response afterResolve(Request request, List<Resource> targetResources) 
+				throws HttpException
+		{
+			EVENTS.add(this.name + ".afterResolve(" + targetResources.size() + ")");
+			return null;
+		}
+		
+		@Override
+		public void beforeRender(Request request, Response response) throws HttpException
+		{
+			EVENTS.add(this.name + ".beforeRender");
+		}
+		
+		@Override
+		public void afterResponse(Request request, Response response)
+		{
+			EVENTS.add(this.name + ".afterResponse(" + response.getStatus() + ")");
+		}
+	}
+	
+	/**
+	 * Answers the cached requests itself and rejects the forbidden ones once the targets 
+	 * have been resolved
+	 */
+	private static class GuardInterceptor implements RequestInterceptor
+	{
+		@Override
+		public Response beforeResolve(Request request) throws HttpException
+		{
+			EVENTS.add("guard.beforeResolve");
+			if (request.getParameters().containsParameter("cached"))
+			{
+				Response response = new Response();
+				response.setStatus(HttpStatus.NO_CONTENT);
+				return response;
+			}
+			return null;
+		}
+		
+		@Override
+		public Response afterResolve(Request request, List<Resource> targetResources) 
+				throws HttpException
+		{
+			EVENTS.add("guard.afterResolve");
+			if (request.getParameters().containsParameter("forbidden"))
+				throw new HttpException(HttpStatus.FORBIDDEN, "Forbidden");
+			return null;
+		}
+	}
+	
+	/**
+	 * Marks the rendered responses with a header
+	 */
+	private static class HeaderInterceptor implements RequestInterceptor
+	{
+		public static final String HEADER_NAME = "X-Rendered-By";
+		
+		@Override
+		public void beforeRender(Request request, Response response) throws HttpException
+		{
+			EVENTS.add("header.beforeRender");
+			response.getHeaders().setHeader(HEADER_NAME, "header");
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.Headers;
+import nexus_http.HttpStatus.StatusCategory;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_rest.LatencyHistogram;
+import nexus_rest.LatencyMetrics;
+import nexus_rest.RequestPhase;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests the latency histograms, their percentiles and the metrics recorded by 
+ * the request handler
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class LatencyMetricsTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private LatencyMetricsTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the latency metrics
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		// 90 fast durations and 10 slow ones
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 90; i++)
+		{
+			histogram.record(1000);
+		}
+		for (int i = 0; i < 10; i++)
+		{
+			histogram.record(1000000);
+		}
+		System.out.println("Count: " + histogram.getCount() + ", mean: " + 
+				histogram.getMeanNanos() + " ns (expected 100900), max: " + 
+				histogram.getMaxNanos() + " ns");
+		System.out.println("p50: " + histogram.getPercentileNanos(0.5) + 
+				" ns (expected 1023), p90: " + histogram.getPercentileNanos(0.9) + 
+				" ns (expected 1023), p99: " + histogram.getPercentileNanos(0.99) + 
+				" ns (expected 1000000, the max)");
+		System.out.println("Empty p99: " + new LatencyHistogram().getPercentileNanos(0.99));
+		
+		// Concurrent recording doesn't lose any durations
+		LatencyHistogram shared = new LatencyHistogram();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++)
+		{
+			threads[i] = new Thread(() ->
+			{
+				for (int j = 0; j < 100000; j++)
+				{
+					shared.record(j);
+				}
+			});
+			threads[i].start();
+		}
+		try
+		{
+			for (Thread thread : threads)
+			{
+				thread.join();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		System.out.println("\nConcurrently recorded: " + shared.getCount() + " / 400000");
+		
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(new SimpleResource(new Path("Root", null, false), 
+				Method.GET));
+		LatencyMetrics metrics = new LatencyMetrics();
+		handler.setMetricsRecorder(metrics);
+		
+		try
+		{
+			for (int i = 0; i < 10; i++)
+			{
+				handle(handler, "root");
+			}
+			handle(handler, "ROOT/missing");
+			handle(handler, "other");
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+		
+		// The roots are recorded in lower case, whatever the case of the request
+		System.out.println("\nRecorded metrics:");
+		metrics.export((phase, method, status, root, recorded) ->
+		{
+			if (phase == RequestPhase.TOTAL)
+				System.out.println(method + " " + root + " " + status + ": " + 
+						recorded.getCount() + " requests, p99 " + 
+						recorded.getPercentileNanos(0.99) + " ns");
+		});
+		System.out.println("Successful requests: " + metrics.getHistogram(
+				RequestPhase.TOTAL, Method.GET, StatusCategory.OK, "root").getCount() + 
+				" / 10");
+		
+		metrics.clear();
+		int[] exported = new int[1];
+		metrics.export((phase, method, status, root, recorded) -> exported[0] ++);
+		System.out.println("Histograms after clearing: " + exported[0]);
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void handle(RestRequestHandler handler, String uri) throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		handler.handle(new Request(Method.GET, uri, headers, null));
+	}
+}
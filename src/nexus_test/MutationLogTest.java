@@ -0,0 +1,147 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.MutationLog;
+import nexus_rest.MutationLog.SyncPolicy;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the mutation log restores the resources after the process has 
+ * stopped, also when the end of the log was torn or truncated in a crash
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class MutationLogTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String LOG_FILE_NAME = "mutations.log";
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private MutationLogTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the log replay
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		try
+		{
+			java.nio.file.Path directory = Files.createTempDirectory("nexus-log-test");
+			
+			System.out.println("Writing the resources");
+			SimpleResource root = createRoot();
+			MutationLog log = MutationLog.open(directory, root, SyncPolicy.ALWAYS);
+			RestRequestHandler handler = createHandler(root);
+			handle(handler, Method.POST, "root?name=first&value=1");
+			handle(handler, Method.POST, "root/first?name=child");
+			handle(handler, Method.PUT, "root/first?value=2");
+			handle(handler, Method.POST, "root?name=second");
+			log.close();
+			
+			// A crash may leave a partially written record at the end of the log
+			System.out.println("\nReplaying a log with a torn record");
+			Files.write(directory.resolve(LOG_FILE_NAME), new byte[] {0, 0, 0, 40, 1, 2}, 
+					StandardOpenOption.APPEND);
+			root = createRoot();
+			log = MutationLog.open(directory, root, SyncPolicy.ALWAYS);
+			handler = createHandler(root);
+			System.out.println("Changes restored: " + 
+					contains(handler, "root/first", "<value>2</value>") + ", " + 
+					contains(handler, "root/first/child", "child") + ", " + 
+					contains(handler, "root/second", "second"));
+			
+			// The torn record is discarded, so new records can be appended after it
+			handle(handler, Method.POST, "root?name=third");
+			log.close();
+			
+			// The last record may also be cut short
+			System.out.println("\nReplaying a truncated log");
+			try (FileChannel channel = FileChannel.open(directory.resolve(LOG_FILE_NAME), 
+					StandardOpenOption.WRITE))
+			{
+				channel.truncate(channel.size() - 3);
+			}
+			root = createRoot();
+			log = MutationLog.open(directory, root, SyncPolicy.ALWAYS);
+			handler = createHandler(root);
+			System.out.println("Earlier changes restored: " + 
+					contains(handler, "root/second", "second"));
+			System.out.println("Truncated change discarded: " + 
+					!contains(handler, "root/third", "third"));
+			
+			// The snapshot written in compaction replaces the log
+			System.out.println("\nReplaying a compacted log");
+			handle(handler, Method.PUT, "root/second?value=3");
+			log.compact();
+			System.out.println("Log size after compaction: " + log.getLogSize());
+			log.close();
+			root = createRoot();
+			log = MutationLog.open(directory, root, SyncPolicy.ALWAYS);
+			handler = createHandler(root);
+			System.out.println("Changes restored: " + 
+					contains(handler, "root/first/child", "child") + ", " + 
+					contains(handler, "root/second", "<value>3</value>"));
+			log.close();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static SimpleResource createRoot()
+	{
+		return new SimpleResource(new Path("root", null, false), Method.GET, Method.POST, 
+				Method.PUT);
+	}
+	
+	private static RestRequestHandler createHandler(SimpleResource root)
+	{
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		return handler;
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		Response response = handler.handle(new Request(method, uri, headers, null));
+		System.out.println(method + " " + uri + ": " + response.getStatus());
+		return response;
+	}
+	
+	private static boolean contains(RestRequestHandler handler, String uri, String content) 
+			throws IOException
+	{
+		Response response = handle(handler, Method.GET, uri);
+		return response.hasContent() && new String(response.getBody(false).toByteArray(), 
+				StandardCharsets.UTF_8).contains(content);
+	}
+}
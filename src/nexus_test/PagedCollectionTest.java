@@ -0,0 +1,128 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Map;
+
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.PagedCollectionResource;
+import nexus_rest.Resource;
+
+/**
+ * This class tests that the paged collection keeps its children in order when they are 
+ * written into multiple runs and the runs are merged together
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class PagedCollectionTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private PagedCollectionTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the run merging
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		try
+		{
+			java.nio.file.Path directory = Files.createTempDirectory("nexus-paged-test");
+			Path path = new Path("items", null, false);
+			
+			// A small memory limit writes a new run every 100 children, which leads to
+			// multiple merges in the background while the children are posted
+			System.out.println("Posting 2000 children in random order");
+			PagedCollectionResource collection = new PagedCollectionResource(path, directory, 
+					100, 16);
+			for (int i = 0; i < 2000; i++)
+			{
+				post(collection, "item" + ((i * 7919) % 2000));
+				if (i % 500 == 0)
+					checkOrder(collection, i + 1);
+			}
+			collection.flush();
+			checkOrder(collection, 2000);
+			
+			// The remaining runs are merged until there are too few of them to merge
+			collection.merge();
+			int runCount = countFiles(directory, "run-*");
+			System.out.println("Fewer than 4 run files after merging: " + (runCount < 4) + 
+					" (" + runCount + ")");
+			checkOrder(collection, 2000);
+			collection.close();
+			
+			// An interrupted write leaves a temporary file, which is removed on open
+			Files.write(directory.resolve("run-999.dat.tmp"), new byte[] {1, 2, 3});
+			System.out.println("\nReopening the collection");
+			collection = new PagedCollectionResource(path, directory, 100, 16);
+			System.out.println("Temporary files left: " + countFiles(directory, "*.tmp"));
+			System.out.println("Found item1234: " + (collection.findChild("item1234") != null));
+			System.out.println("Found item2000: " + (collection.findChild("item2000") != null));
+			checkOrder(collection, 2000);
+			collection.close();
+		}
+		catch (IOException | HttpException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void post(PagedCollectionResource collection, String name) throws 
+			HttpException, IOException
+	{
+		Request request = new Request(Method.POST, "items?name=" + name, new Headers(), null);
+		collection.post(request, new Response());
+	}
+	
+	private static void checkOrder(PagedCollectionResource collection, int expectedCount)
+	{
+		Iterator<Map.Entry<String, Resource>> children = collection.iterateAfter(null);
+		String previous = null;
+		int count = 0;
+		boolean ordered = true;
+		while (children.hasNext())
+		{
+			String key = children.next().getKey();
+			if (previous != null && previous.compareTo(key) >= 0)
+				ordered = false;
+			previous = key;
+			count ++;
+		}
+		
+		System.out.println("Children in order: " + ordered + ", " + count + " / " + 
+				expectedCount);
+	}
+	
+	private static int countFiles(java.nio.file.Path directory, String pattern) throws 
+			IOException
+	{
+		int count = 0;
+		try (DirectoryStream<java.nio.file.Path> files = Files.newDirectoryStream(directory, 
+				pattern))
+		{
+			for (@SuppressWarnings("unused") java.nio.file.Path file : files)
+			{
+				count ++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,159 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.PagedCollectionResource;
+import nexus_rest.ResourceTable;
+import nexus_rest.ResourceTable.ColumnType;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that clients can page through large collections, also when they don't 
+ * request links to be written
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class PagingTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final Pattern NEXT_PATTERN = Pattern.compile("<next>([^<]*)</next>");
+	private static final Pattern ENTRY_PATTERN = Pattern.compile("<(item\\d+)>");
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private PagingTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the paging
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(new SimpleResource(new Path("root", null, false), 
+				Method.GET, Method.POST));
+		
+		try
+		{
+			for (int i = 0; i < 25; i++)
+			{
+				handle(handler, Method.POST, "root?name=item" + (i * 7 % 25), null);
+			}
+			
+			System.out.println("Paging without links");
+			System.out.println("Children read: " + readAllPages(handler, "root?limit=10") + 
+					" / 25");
+			
+			// The paged collection stores most of its children on the disk
+			PagedCollectionResource collection = new PagedCollectionResource(
+					new Path("collection", null, false),
+					Files.createTempDirectory("nexus-paging-test"), 10, 4);
+			handler.addRootResource(collection);
+			for (int i = 0; i < 25; i++)
+			{
+				handle(handler, Method.POST, "collection?name=item" + (i * 7 % 25), null);
+			}
+			System.out.println("\nPaging a collection without links");
+			System.out.println("Children read: " + readAllPages(handler, 
+					"collection?limit=10") + " / 25");
+			collection.close();
+			
+			// The table keeps its rows in columns and sorts them when they're read
+			Map<String, ColumnType> schema = new HashMap<>();
+			schema.put("value", ColumnType.INTEGER);
+			handler.addRootResource(new ResourceTable(new Path("table", null, false), 
+					schema));
+			for (int i = 0; i < 25; i++)
+			{
+				handle(handler, Method.POST, "table?name=item" + (i * 7 % 25) + "&value=" + 
+						i, null);
+			}
+			System.out.println("\nPaging a table without links");
+			System.out.println("Children read: " + readAllPages(handler, "table?limit=10") + 
+					" / 25");
+			
+			// The wildcard expands the resources under the root one page at a time
+			System.out.println("\nPaging a wildcard without links");
+			System.out.println("Children read: " + readAllPages(handler, "root/*?limit=10") + 
+					" / 25");
+			
+			System.out.println("\nPaging with simple links");
+			System.out.println(new String(handle(handler, Method.GET, "root?limit=10", 
+					LinkWriteStyle.SIMPLE).getBody(false).toByteArray(), 
+					StandardCharsets.UTF_8));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	// Follows the next page properties, like a client that doesn't request links would
+	private static int readAllPages(RestRequestHandler handler, String firstPageUri) throws 
+			IOException
+	{
+		String uri = firstPageUri;
+		String previous = null;
+		int count = 0;
+		boolean ordered = true;
+		while (uri != null)
+		{
+			String body = new String(handle(handler, Method.GET, uri, null).getBody(
+					false).toByteArray(), StandardCharsets.UTF_8);
+			
+			int pageSize = 0;
+			Matcher entries = ENTRY_PATTERN.matcher(body);
+			while (entries.find())
+			{
+				String name = entries.group(1);
+				if (previous != null && previous.compareTo(name) >= 0)
+					ordered = false;
+				previous = name;
+				pageSize ++;
+			}
+			count += pageSize;
+			
+			Matcher next = NEXT_PATTERN.matcher(body);
+			uri = next.find() ? next.group(1).replace("&amp;", "&") : null;
+			System.out.println(pageSize + " children, next: " + uri);
+		}
+		
+		System.out.println("Pages in order: " + ordered);
+		return count;
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri, 
+			LinkWriteStyle linkStyle) throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		if (linkStyle != null)
+			headers.setLinkWriteStyle(linkStyle);
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
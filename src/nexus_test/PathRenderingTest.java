@@ -0,0 +1,86 @@
+package nexus_test;
+
+import nexus_http.Path;
+import nexus_http.ServerConfig;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
+
+/**
+ * This class tests that the cached path renderings follow the changes in the path tree
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class PathRenderingTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private PathRenderingTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the rendering cache
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		Path a = new Path("a", null, false);
+		Path b = new Path("b", a, false);
+		Path c = new Path("c", b, false);
+		Path x = new Path("x", null, false);
+		
+		System.out.println("Before moving: " + c + " (expected a/b/c)");
+		
+		// The moved node isn't rendered before its child
+		x.addChild(b);
+		System.out.println("After moving b under x: " + c + " (expected x/b/c)");
+		System.out.println("Leading path: " + c.getLeadingPath() + " (expected x/b/)");
+		
+		Path d = new Path("d", c, false);
+		a.addChild(c);
+		System.out.println("After moving c under a: " + d + " (expected a/c/d)");
+		
+		ServerConfig first = new ServerConfig("localhost", 8080);
+		ServerConfig second = new ServerConfig("localhost", 8080, "https://api.example.com");
+		System.out.println("\nUrls: " + d.render(LinkWriteStyle.FULL, first) + ", " + 
+				d.render(LinkWriteStyle.FULL, second));
+		System.out.println("Simple: " + d.render(LinkWriteStyle.SIMPLE, first));
+		System.out.println("None: " + d.render(LinkWriteStyle.NONE, first));
+		
+		// A deep path is rendered only once, after which reading the cache doesn't depend
+		// on the depth
+		Path deep = new Path("0", null, false);
+		for (int i = 1; i < 5000; i++)
+		{
+			deep = new Path(Integer.toString(i), deep, false);
+		}
+		Path deepRoot = new Path("root", null, false);
+		deepRoot.addChild(firstOf(deep));
+		long started = System.nanoTime();
+		long length = 0;
+		for (int i = 0; i < 1000000; i++)
+		{
+			length += deep.toString().length();
+		}
+		System.out.println("\nRendered a path of depth 5000 a million times in " + 
+				(System.nanoTime() - started) / 1000000 + " ms (" + length + " characters)");
+		System.out.println("Moved under a new root: " + 
+				deep.toString().startsWith("root/0/"));
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static Path firstOf(Path path)
+	{
+		Path first = path;
+		while (first.getParent() != null)
+		{
+			first = first.getParent();
+		}
+		return first;
+	}
+}
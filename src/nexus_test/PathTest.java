@@ -1,6 +1,8 @@
 package nexus_test;
 
+import nexus_http.HttpException;
 import nexus_http.Path;
+import nexus_http.PathLimits;
 
 /**
  * This class tests the basic path parsing
@@ -26,7 +28,7 @@ public class PathTest
 	public static void main(String[] args)
 	{
 		String[] testPaths = {"1/2/3/4", "1/2+/(3+4)", "1/2+3/4+(5/6)+7/8", "1/(2+3)/4", 
-				"1+/2+/3+/4", "1+2+3+4", "(1/2)+(3/4)/5+(6/7)"};
+				"1+/2+/3+/4", "1+2+3+4", "(1/2)+(3/4)/5+(6/7)", "1/(2/(3+4))/5"};
 		
 		for (String testPath : testPaths)
 		{
@@ -41,5 +43,22 @@ public class PathTest
 				}
 			}
 		}
+		
+		// Each parenthesis doubles the amount of branches, which the limits should prevent
+		StringBuilder complexPath = new StringBuilder("1");
+		for (int i = 0; i < 20; i++)
+		{
+			complexPath.append("/(2+3)");
+		}
+		System.out.println("\nParsing a path with 2^20 branches");
+		try
+		{
+			Path.parseFromString(complexPath.toString(), PathLimits.DEFAULT);
+			System.err.println("The path was parsed");
+		}
+		catch (HttpException e)
+		{
+			System.out.println("Rejected: " + e.getStatus() + ", " + e.getMessage());
+		}
 	}
 }
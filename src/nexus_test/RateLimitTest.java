@@ -0,0 +1,143 @@
+package nexus_test;
+
+import nexus_http.ConcurrencyLimiter;
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.RateLimiter;
+import nexus_http.Request;
+import nexus_http.RetryLaterException;
+
+/**
+ * This class tests that the rate limiter gives each client a bucket of their own and that 
+ * the rejected clients are told when to retry
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class RateLimitTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String CLIENT_HEADER = "X-Client-Id";
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private RateLimitTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the rate limiting
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		RateLimiter limiter = new RateLimiter(10, 5, CLIENT_HEADER, 
+				RateLimiter.DEFAULT_MAX_CLIENTS);
+		
+		System.out.println("A burst over the limit");
+		System.out.println("Accepted: " + acquireMany(limiter, "10.0.0.1", null, null, 8) + 
+				" / 8 (expected 5)");
+		try
+		{
+			limiter.acquire(createRequest("10.0.0.1", null));
+			System.out.println("The request was accepted");
+		}
+		catch (RetryLaterException e)
+		{
+			Headers headers = new Headers();
+			e.modifyHeaders(headers);
+			System.out.println(e.getStatus() + ", retry after: " + 
+					headers.getHeaderValue(Headers.RETRY_AFTER) + " s");
+		}
+		
+		System.out.println("\nEach client has a bucket of their own");
+		System.out.println("Other address: " + acquireMany(limiter, "10.0.0.2", null, null, 
+				5) + " / 5");
+		System.out.println("Same address, other header: " + acquireMany(limiter, 
+				"10.0.0.1", "client-a", null, 5) + " / 5");
+		System.out.println("Same address, user: " + acquireMany(limiter, "10.0.0.1", 
+				"client-a", "user", 5) + " / 5");
+		Request identified = createRequest("10.0.0.1", "client-a");
+		System.out.println("Identifiers: " + limiter.identifyClient(identified, "user") + 
+				", " + limiter.identifyClient(identified, null) + ", " + 
+				limiter.identifyClient(createRequest("10.0.0.1", null), null) + ", " + 
+				limiter.identifyClient(createRequest(null, null), null));
+		
+		// Requests without any identifier share the same bucket
+		System.out.println("\nUnidentified clients");
+		System.out.println("First: " + acquireMany(limiter, null, null, null, 3) + " / 3");
+		System.out.println("Second: " + acquireMany(limiter, null, null, null, 3) + 
+				" / 3 (expected 2)");
+		
+		System.out.println("\nAfter waiting");
+		try
+		{
+			Thread.sleep(300);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		System.out.println("Accepted: " + acquireMany(limiter, "10.0.0.1", null, null, 5) + 
+				" / 5 (expected 3)");
+		
+		System.out.println("\nConcurrency limits");
+		ConcurrencyLimiter concurrency = new ConcurrencyLimiter(2);
+		int accepted = 0;
+		for (int i = 0; i < 3; i++)
+		{
+			try
+			{
+				concurrency.acquire("root");
+				accepted ++;
+			}
+			catch (RetryLaterException e)
+			{
+				System.out.println("Rejected: " + e.getStatus() + ", retry after " + 
+						e.getRetryAfterSeconds() + " s");
+			}
+		}
+		System.out.println("Accepted: " + accepted + ", active: " + 
+				concurrency.getActiveCount("root") + ", other key: " + 
+				concurrency.getActiveCount("other"));
+		concurrency.release("root");
+		System.out.println("Active after release: " + concurrency.getActiveCount("root"));
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static int acquireMany(RateLimiter limiter, String address, String clientId, 
+			String userName, int amount)
+	{
+		int accepted = 0;
+		for (int i = 0; i < amount; i++)
+		{
+			try
+			{
+				limiter.acquire(createRequest(address, clientId), userName);
+				accepted ++;
+			}
+			catch (RetryLaterException e)
+			{
+				// The request is rejected
+			}
+		}
+		return accepted;
+	}
+	
+	private static Request createRequest(String address, String clientId)
+	{
+		Headers headers = new Headers();
+		if (clientId != null)
+			headers.setHeader(CLIENT_HEADER, clientId);
+		Request request = new Request(Method.GET, "root", null, headers);
+		request.setClientAddress(address);
+		return request;
+	}
+}
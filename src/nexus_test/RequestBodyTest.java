@@ -0,0 +1,151 @@
+package nexus_test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.ContentType;
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.Method;
+import nexus_http.Parameters;
+import nexus_http.Request;
+import nexus_http.RequestBodyParser;
+
+/**
+ * This class tests the parsing of form data request bodies
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class RequestBodyTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private RequestBodyTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests body parsing
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		// A small spill threshold makes the file part go to the disk
+		RequestBodyParser parser = new RequestBodyParser(16, 1024, null);
+		
+		try
+		{
+			System.out.println("Url encoded body");
+			printParameters(parse(parser, ContentType.FORM_URLENCODED.toString(), 
+					"name=test+resource&status=%C3%A4ctive&empty="));
+			
+			StringBuilder file = new StringBuilder();
+			for (int i = 0; i < 100; i++)
+			{
+				file.append("line " + i + "\r\n");
+			}
+			
+			String boundary = "----boundary42";
+			String multipart = "preamble\r\n" + 
+					"--" + boundary + "\r\n" + 
+					"Content-Disposition: form-data; name=\"name\"\r\n\r\n" + 
+					"uploaded\r\n" + 
+					"--" + boundary + "\r\n" + 
+					"Content-Disposition: form-data; name=\"file\"; filename=\"a;b.txt\"\r\n" + 
+					"Content-Type: text/plain\r\n\r\n" + 
+					file + 
+					"\r\n--" + boundary + "--\r\n";
+			
+			System.out.println("\nMultipart body");
+			Parameters parameters = parse(parser, ContentType.MULTIPART_FORM_DATA + 
+					"; boundary=\"" + boundary + "\"", multipart);
+			printParameters(parameters);
+			
+			String fileContent = readStream(parameters.getParameterStream("file"));
+			System.out.println("File part read correctly: " + 
+					fileContent.equals(file.toString()));
+			
+			// Bodies over the limits are rejected
+			RequestBodyParser limitedParser = new RequestBodyParser(16, 4096, 1, 1500, null);
+			System.out.println("\nToo many parts: " + rejectionStatus(limitedParser, 
+					ContentType.MULTIPART_FORM_DATA + "; boundary=" + boundary, multipart));
+			System.out.println("Too long body: " + rejectionStatus(limitedParser, 
+					ContentType.FORM_URLENCODED.toString(), "name=" + file + file));
+		}
+		catch (HttpException | IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static Parameters parse(RequestBodyParser parser, String contentType, 
+			String body) throws HttpException, IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.CONTENT_TYPE, contentType);
+		Request request = new Request(Method.POST, "root", headers, null, 
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		
+		if (!parser.parseBody(request))
+			System.err.println("Body wasn't parsed");
+		
+		return request.getParameters();
+	}
+	
+	private static String rejectionStatus(RequestBodyParser parser, String contentType, 
+			String body) throws IOException
+	{
+		try
+		{
+			parse(parser, contentType, body);
+			return "not rejected";
+		}
+		catch (HttpException e)
+		{
+			return e.getStatus().toString();
+		}
+	}
+	
+	private static void printParameters(Parameters parameters)
+	{
+		for (String parameterName : parameters.getParameterNames())
+		{
+			System.out.println(parameterName + " = '" + 
+					parameters.getParameterValue(parameterName) + "'");
+		}
+		for (String parameterName : parameters.getStreamParameterNames())
+		{
+			System.out.println(parameterName + " (stream)");
+		}
+	}
+	
+	private static String readStream(InputStream stream) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[64];
+		int read;
+		try
+		{
+			while ((read = stream.read(buffer)) >= 0)
+			{
+				out.write(buffer, 0, read);
+			}
+		}
+		finally
+		{
+			stream.close();
+		}
+		
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
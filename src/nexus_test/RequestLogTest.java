@@ -0,0 +1,150 @@
+package nexus_test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+import nexus_rest.AsyncRequestLog;
+import nexus_rest.LogEntry;
+
+/**
+ * This class tests that the asynchronous request log samples the access entries under load, 
+ * keeps room for the errors and reports the dropped entries
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class RequestLogTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private RequestLogTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the request log
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		BlockingChannel channel = new BlockingChannel();
+		AsyncRequestLog log = new AsyncRequestLog(channel, 16, true, false);
+		
+		try
+		{
+			// The writer is kept busy with the first entry while the queue fills up
+			log.log(LogEntry.access(Method.GET, "first", HttpStatus.OK, 1000));
+			channel.awaitWrite();
+			
+			for (int i = 0; i < 100; i++)
+			{
+				log.log(LogEntry.access(Method.GET, "root/" + i, HttpStatus.OK, 1000));
+			}
+			for (int i = 0; i < 20; i++)
+			{
+				log.log(LogEntry.error(Method.POST, "root/" + i, "Failed", null));
+			}
+			System.out.println("Dropped while the writer was busy: " + log.getDroppedCount());
+			
+			channel.release();
+			log.close();
+		}
+		catch (InterruptedException | IOException e)
+		{
+			e.printStackTrace();
+			return;
+		}
+		
+		int access = 0;
+		int errors = 0;
+		String dropReport = null;
+		for (String line : channel.getText().split("\n"))
+		{
+			if (line.contains(" ACCESS "))
+				access ++;
+			else if (line.contains(" ERROR "))
+				errors ++;
+			else if (line.endsWith("dropped"))
+				dropReport = line;
+		}
+		// Half of the queue is filled before sampling, the access entries are then sampled
+		// until the last quarter, which is left for the errors
+		System.out.println("Written: " + access + " access entries, " + errors + 
+				" errors (expected 1 + 9 + 3 access entries and 4 errors)");
+		System.out.println("Report: " + dropReport);
+		System.out.println("Every entry accounted for: " + 
+				(access + errors + log.getDroppedCount() == 121));
+		
+		log.log(LogEntry.error(Method.GET, "root", "After closing", null));
+		System.out.println("Dropped after closing: " + log.getDroppedCount());
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A channel that blocks the first write until it is released
+	 */
+	private static class BlockingChannel implements WritableByteChannel
+	{
+		private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+		private final CountDownLatch writeStarted = new CountDownLatch(1);
+		private final CountDownLatch released = new CountDownLatch(1);
+		
+		@Override
+		public boolean isOpen()
+		{
+			return true;
+		}
+		
+		@Override
+		public void close()
+		{
+			// The written text is still read afterwards
+		}
+		
+		@Override
+		public synchronized int write(ByteBuffer src) throws IOException
+		{
+			this.writeStarted.countDown();
+			try
+			{
+				this.released.await();
+			}
+			catch (InterruptedException e)
+			{
+				throw new IOException(e);
+			}
+			
+			int length = src.remaining();
+			byte[] bytes = new byte[length];
+			src.get(bytes);
+			this.written.write(bytes, 0, length);
+			return length;
+		}
+		
+		public void awaitWrite() throws InterruptedException
+		{
+			this.writeStarted.await();
+		}
+		
+		public void release()
+		{
+			this.released.countDown();
+		}
+		
+		public synchronized String getText()
+		{
+			return new String(this.written.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import flow_structure.TreeNode;
+import nexus_http.Headers;
+import nexus_http.HttpException;
+import nexus_http.HttpStatus;
+import nexus_http.Link;
+import nexus_http.Method;
+import nexus_http.MethodNotAllowedException;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResolutionResult;
+import nexus_rest.Resource;
+import nexus_rest.ResourceQuery;
+import nexus_rest.ResourceWriter;
+import nexus_rest.ResourceWriter.ResourceWriterException;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the missing resources are reported as not found results, both by 
+ * the resources that resolve their links without exceptions and by those that only 
+ * implement the throwing lookup
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ResolutionTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private ResolutionTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the resource resolution
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		SimpleResource root = new SimpleResource(new Path("root", null, false), Method.GET);
+		SimpleResource a = new SimpleResource(new Path("a", root.getPath(), false), 
+				Method.GET);
+		root.putLink("a", a);
+		LegacyResource legacy = new LegacyResource(new Path("legacy", null, false));
+		
+		System.out.println("Resolving directly");
+		resolve(root, "root/a");
+		resolve(root, "root/missing");
+		resolve(root, "root/a/missing");
+		resolve(legacy, "legacy");
+		resolve(legacy, "legacy/missing");
+		resolve(legacy, "legacy/broken");
+		
+		try
+		{
+			Resource.resolveResource(root, Path.parseFromString("root/missing").get(0), 
+					ResourceQuery.DEFAULT).getOrThrow();
+			System.out.println("The missing resource was found");
+		}
+		catch (HttpException e)
+		{
+			System.out.println("Thrown: " + e.getStatus() + ", " + e.getMessage());
+		}
+		
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		handler.addRootResource(legacy);
+		
+		try
+		{
+			System.out.println("\nThrough the handler");
+			handle(handler, "root/a");
+			handle(handler, "root/missing");
+			handle(handler, "legacy/missing");
+			handle(handler, "legacy/broken");
+			handle(handler, "missing");
+			// The wildcard skips the resources that don't have the targeted child
+			handle(handler, "root/*/missing");
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void resolve(Resource resource, String path)
+	{
+		ResolutionResult result = Resource.resolveResource(resource, 
+				Path.parseFromString(path).get(0), ResourceQuery.DEFAULT);
+		if (result.isFound())
+			System.out.println(path + ": found " + result.getResources().size());
+		else if (result.isNotFound())
+			System.out.println(path + ": not found at " + result.getMissingPath() + ", " + 
+					result.getMessage());
+		else
+			System.out.println(path + ": failed with " + result.getError().getStatus());
+	}
+	
+	private static void handle(RestRequestHandler handler, String uri) throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		Response response = handler.handle(new Request(Method.GET, uri, headers, null));
+		System.out.println(uri + ": " + response.getStatus());
+	}
+	
+	
+	// SUBCLASSES	---------------------
+	
+	/**
+	 * A resource that only implements the throwing lookup. It doesn't have any children, 
+	 * but fails differently for the path 'broken'.
+	 */
+	private static class LegacyResource implements Resource
+	{
+		private final Path path;
+		
+		public LegacyResource(Path path)
+		{
+			this.path = path;
+		}
+		
+		@Override
+		public Path getPath()
+		{
+			return this.path;
+		}
+		
+		@Override
+		public Method[] getAllowedMethods()
+		{
+			return new Method[] {Method.GET};
+		}
+		
+		@Override
+		public Link post(Request request, Response response) throws HttpException
+		{
+			throw new MethodNotAllowedException(Method.GET);
+		}
+		
+		@Override
+		public void put(Request request, Response response) throws HttpException
+		{
+			throw new MethodNotAllowedException(Method.GET);
+		}
+		
+		@Override
+		public void delete(Request request, Response response) throws HttpException
+		{
+			throw new MethodNotAllowedException(Method.GET);
+		}
+		
+		@Override
+		public Collection<TreeNode<Resource>> findConnectedResources(
+				Collection<? extends Path> targetPaths) throws HttpException
+		{
+			for (Path target : targetPaths)
+			{
+				if (target.getContent().equals("broken"))
+					throw new HttpException(HttpStatus.INTERNAL_SERVER_ERROR, 
+							"The lookup failed");
+				throw new HttpException(HttpStatus.NOT_FOUND, "Legacy resources are empty");
+			}
+			return new ArrayList<>();
+		}
+		
+		@Override
+		public void write(ResourceWriter writer, 
+				Collection<? extends TreeNode<? extends Resource>> subResources) 
+				throws HttpException, ResourceWriterException
+		{
+			writer.writeResourceStart(Resource.getResourceName(this), getPath());
+			writer.writeResourceEnd();
+		}
+	}
+}
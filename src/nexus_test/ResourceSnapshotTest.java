@@ -0,0 +1,160 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.ResourceSnapshot;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that a resource tree restored from a snapshot matches the original and 
+ * that only the accessed resources are read from the snapshot
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ResourceSnapshotTest
+{
+	// CONSTRUCTOR	---------------------
+	
+	private ResourceSnapshotTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the resource snapshots
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		SimpleResource original = new SimpleResource(new Path("root", null, false), 
+				Method.GET, Method.POST, Method.PUT);
+		RestRequestHandler originalHandler = createHandler(original);
+		
+		try
+		{
+			handle(originalHandler, Method.PUT, "root?title=Snapshot test");
+			for (int i = 0; i < 3; i++)
+			{
+				handle(originalHandler, Method.POST, "root?name=item" + i + "&index=" + i);
+				for (int j = 0; j < 2; j++)
+				{
+					handle(originalHandler, Method.POST, "root/item" + i + "?name=part" + j + 
+							"&text=part " + j + " of item " + i);
+				}
+			}
+			
+			java.nio.file.Path file = Files.createTempFile("nexus-snapshot", ".bin");
+			ResourceSnapshot.write(original, file);
+			SimpleResource restored = ResourceSnapshot.load(file, null, Method.GET, 
+					Method.POST, Method.PUT);
+			RestRequestHandler restoredHandler = createHandler(restored);
+			
+			// The properties are read only when they're first needed
+			System.out.println("Root read before access: " + isRead(restored));
+			handle(restoredHandler, Method.GET, "root/item1");
+			System.out.println("Root read after a request: " + isRead(restored));
+			
+			String expected = body(handle(originalHandler, Method.GET, "root/*+/*"));
+			String actual = body(handle(restoredHandler, Method.GET, "root/*+/*"));
+			System.out.println("\nRestored tree matches the original: " + 
+					expected.equals(actual));
+			System.out.println(actual);
+			
+			// The name of a resource that hasn't been read yet still can't be changed
+			SimpleResource lazy = ResourceSnapshot.load(file, null, Method.GET, Method.PUT);
+			System.out.println("\nChanging the name of an unread resource: " + handle(
+					createHandler(lazy), Method.PUT, "root/item2?name=renamed").getStatus());
+			
+			// The restored tree can be modified like the original one
+			handle(restoredHandler, Method.POST, "root/item0?name=part2");
+			System.out.println("Added to the restored tree: " + handle(restoredHandler, 
+					Method.GET, "root/item0/part2").getStatus());
+			
+			// Reading a single resource from a large tree only reads the resources on its
+			// path
+			SimpleResource large = new SimpleResource(new Path("large", null, false), 
+					Method.GET, Method.POST);
+			RestRequestHandler largeHandler = createHandler(large);
+			for (int i = 0; i < 200; i++)
+			{
+				handle(largeHandler, Method.POST, "large?name=item" + i);
+				for (int j = 0; j < 250; j++)
+				{
+					handle(largeHandler, Method.POST, "large/item" + i + "?name=part" + j + 
+							"&value=" + j);
+				}
+			}
+			java.nio.file.Path largeFile = Files.createTempFile("nexus-large-snapshot", ".bin");
+			ResourceSnapshot.write(large, largeFile);
+			long started = System.nanoTime();
+			SimpleResource largeRestored = ResourceSnapshot.load(largeFile, null, Method.GET);
+			Response response = handle(createHandler(largeRestored), Method.GET, 
+					"large/item117/part42");
+			System.out.println("\nRead 1 of 50000 resources in " + (System.nanoTime() - 
+					started) / 1000000 + " ms: " + response.getStatus() + ", " + 
+					body(response).contains("<value>42</value>"));
+			
+			// The files are still mapped, so a new file is used for the invalid snapshot
+			java.nio.file.Path invalidFile = Files.createTempFile("nexus-invalid", ".bin");
+			Files.write(invalidFile, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+			try
+			{
+				ResourceSnapshot.load(invalidFile, null, Method.GET);
+				System.out.println("Loaded a file that wasn't a snapshot");
+			}
+			catch (IOException e)
+			{
+				System.out.println("Rejected: " + e.getMessage().replace(
+						invalidFile.toString(), "<file>"));
+			}
+			Files.delete(file);
+			Files.delete(largeFile);
+			Files.delete(invalidFile);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	// Reads the attributes directly, so that they're not read from the snapshot
+	private static boolean isRead(SimpleResource resource)
+	{
+		return !resource.getAttributes().isEmpty();
+	}
+	
+	private static RestRequestHandler createHandler(SimpleResource root)
+	{
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		return handler;
+	}
+	
+	private static String body(Response response)
+	{
+		return new String(response.getBody(false).toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
@@ -0,0 +1,184 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nexus_http.Headers;
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.Resource;
+import nexus_rest.ResourceTable;
+import nexus_rest.ResourceTable.ColumnType;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that the rows of a resource table stay in order while they are posted 
+ * from several threads at once, and that the row values are typed by the schema
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ResourceTableTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final int THREADS = 4;
+	private static final int ROWS_PER_THREAD = 5000;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private ResourceTableTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the resource table
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		Map<String, ColumnType> schema = new LinkedHashMap<>();
+		schema.put("count", ColumnType.INTEGER);
+		schema.put("weight", ColumnType.NUMBER);
+		schema.put("colour", ColumnType.TEXT);
+		ResourceTable table = new ResourceTable(new Path("table", null, false), schema);
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(table);
+		
+		// The rows are posted in a random order while other threads read them in order
+		AtomicInteger failures = new AtomicInteger();
+		AtomicInteger unorderedReads = new AtomicInteger();
+		Thread[] writers = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++)
+		{
+			final int thread = i;
+			writers[i] = new Thread(() ->
+			{
+				Random random = new Random(thread);
+				for (int row = 0; row < ROWS_PER_THREAD; row++)
+				{
+					String name = "Row" + random.nextInt(1000000) + "-" + thread + "-" + row;
+					String colour = row % 2 == 0 ? "red" : "blue";
+					try
+					{
+						Response response = handle(handler, Method.POST, "table?name=" + 
+								name + "&count=" + row + "&colour=" + colour);
+						if (response.getStatus() != HttpStatus.CREATED)
+							failures.incrementAndGet();
+					}
+					catch (IOException e)
+					{
+						failures.incrementAndGet();
+					}
+				}
+			});
+			writers[i].start();
+		}
+		Thread reader = new Thread(() ->
+		{
+			for (int i = 0; i < 50; i++)
+			{
+				if (countOrdered(table, null) < 0)
+					unorderedReads.incrementAndGet();
+			}
+		});
+		reader.start();
+		
+		try
+		{
+			for (Thread writer : writers)
+			{
+				writer.join();
+			}
+			reader.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		
+		System.out.println("Rows: " + table.getRowCount() + " / " + 
+				THREADS * ROWS_PER_THREAD + ", failed posts: " + failures.get() + 
+				", unordered reads while posting: " + unorderedReads.get());
+		System.out.println("Rows read in order: " + countOrdered(table, null));
+		Iterator<Map.Entry<String, Resource>> rows = table.iterateAfter(null);
+		for (int i = 0; i < 100; i++)
+		{
+			rows.next();
+		}
+		String cursor = rows.next().getKey();
+		System.out.println("Rows after the 101st: " + countOrdered(table, cursor) + 
+				" (expected " + (THREADS * ROWS_PER_THREAD - 101) + ")");
+		
+		try
+		{
+			System.out.println("\nTyped values");
+			handle(handler, Method.POST, "table?name=Apple&count=3&weight=0.25&colour=red");
+			print(handle(handler, Method.GET, "table/apple"));
+			handle(handler, Method.PUT, "table/APPLE?count=4");
+			print(handle(handler, Method.GET, "table/apple"));
+			System.out.println("Found in any case: " + (table.findChild("aPPLE") != null));
+			
+			System.out.println("\nInvalid values");
+			System.out.println(handle(handler, Method.POST, 
+					"table?name=Pear&count=many").getStatus());
+			System.out.println(handle(handler, Method.POST, 
+					"table?name=Pear&size=large").getStatus());
+			System.out.println(handle(handler, Method.POST, "table?name=apple").getStatus());
+			System.out.println(handle(handler, Method.PUT, 
+					"table/apple?name=pear").getStatus());
+			System.out.println("Pear added: " + (table.findChild("pear") != null));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	// Returns -1 if the rows were out of order
+	private static int countOrdered(ResourceTable table, String cursor)
+	{
+		Iterator<Map.Entry<String, Resource>> rows = table.iterateAfter(cursor);
+		String previous = cursor;
+		int count = 0;
+		while (rows.hasNext())
+		{
+			String name = rows.next().getKey();
+			if (previous != null && previous.compareTo(name) >= 0)
+				return -1;
+			previous = name;
+			count ++;
+		}
+		return count;
+	}
+	
+	private static void print(Response response)
+	{
+		System.out.println(response.getStatus() + ": " + new String(
+				response.getBody(false).toByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
@@ -0,0 +1,147 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nexus_http.Headers;
+import nexus_http.HttpSettings;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_http.ServerConfig;
+import nexus_rest.ResourceWriter.LinkWriteStyle;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.XmlJsonWriterProvider;
+
+/**
+ * This class tests that each request handler writes its links with its own server 
+ * configuration, even when the handlers share the same resources and are used at once
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ServerConfigTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String PUBLIC_URL = "https://api.example.com";
+	private static final String INTERNAL_URL = "http://10.0.0.5:9090";
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private ServerConfigTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the per-handler server configurations
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		// Both handlers serve the same resources, so the paths are rendered for both
+		// configurations
+		SimpleResource root = new SimpleResource(new Path("root", null, false), Method.GET, 
+				Method.POST);
+		RestRequestHandler publicHandler = createHandler(root, 
+				new ServerConfig("0.0.0.0", 443, PUBLIC_URL));
+		RestRequestHandler internalHandler = createHandler(root, 
+				new ServerConfig("10.0.0.5", 9090, INTERNAL_URL));
+		RestRequestHandler defaultHandler = createHandler(root, null);
+		
+		try
+		{
+			handle(publicHandler, Method.POST, "root?name=item&value=1");
+			
+			System.out.println("Public handler");
+			System.out.println(body(handle(publicHandler, Method.GET, "root/*")));
+			System.out.println("\nInternal handler");
+			System.out.println(body(handle(internalHandler, Method.GET, "root/*")));
+			
+			// The handler without a configuration follows the default one
+			System.out.println("\nDefault handler");
+			HttpSettings.setServerConfig(new ServerConfig("127.0.0.1", 8000));
+			System.out.println(body(handle(defaultHandler, Method.GET, "root/*")));
+			HttpSettings.setServerConfig(new ServerConfig("127.0.0.1", 8001));
+			System.out.println(body(handle(defaultHandler, Method.GET, "root/*")));
+			System.out.println("Configured handlers unaffected: " + body(handle(publicHandler, 
+					Method.GET, "root/*")).contains(PUBLIC_URL + "/root/item"));
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+		
+		// The handlers are used at once, so the links must never mix
+		AtomicInteger mixed = new AtomicInteger();
+		AtomicInteger failures = new AtomicInteger();
+		Thread publicThread = new Thread(() -> readLinks(publicHandler, PUBLIC_URL, 
+				INTERNAL_URL, mixed, failures));
+		Thread internalThread = new Thread(() -> readLinks(internalHandler, INTERNAL_URL, 
+				PUBLIC_URL, mixed, failures));
+		publicThread.start();
+		internalThread.start();
+		try
+		{
+			publicThread.join();
+			internalThread.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		System.out.println("\nConcurrent requests with mixed links: " + mixed.get() + 
+				", failed requests: " + failures.get());
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void readLinks(RestRequestHandler handler, String expectedUrl, 
+			String otherUrl, AtomicInteger mixed, AtomicInteger failures)
+	{
+		for (int i = 0; i < 2000; i++)
+		{
+			try
+			{
+				String body = body(handle(handler, Method.GET, "root/*"));
+				if (!body.contains(expectedUrl + "/root/item") || body.contains(otherUrl))
+					mixed.incrementAndGet();
+			}
+			catch (IOException e)
+			{
+				failures.incrementAndGet();
+			}
+		}
+	}
+	
+	private static RestRequestHandler createHandler(SimpleResource root, 
+			ServerConfig config)
+	{
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		handler.setServerConfig(config);
+		return handler;
+	}
+	
+	private static String body(Response response)
+	{
+		return new String(response.getBody(false).toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		headers.setLinkWriteStyle(LinkWriteStyle.FULL);
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
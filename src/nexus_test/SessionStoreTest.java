@@ -0,0 +1,139 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Request;
+import nexus_http.Session;
+import nexus_http.SessionStore;
+
+/**
+ * This class tests that the idle sessions expire through the timer wheel while the used 
+ * ones stay alive, and that the sessions survive a snapshot and a restore
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class SessionStoreTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final long TIMEOUT_MILLIS = 200;
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private SessionStoreTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the session store
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		SessionStore store = new SessionStore(TIMEOUT_MILLIS);
+		
+		System.out.println("Expiring idle sessions");
+		for (int i = 0; i < 10000; i++)
+		{
+			store.create();
+		}
+		Session used = store.create();
+		Session idle = store.create();
+		System.out.println("Created: " + store.size());
+		// The used session is found every now and then, the others are left idle
+		for (int i = 0; i < 8; i++)
+		{
+			sleep(TIMEOUT_MILLIS / 4);
+			store.find(used.getId());
+		}
+		store.expireSessions();
+		System.out.println("After idling: " + store.size() + " (expected 1)");
+		System.out.println("Used session found: " + (store.find(used.getId()) == used) + 
+				", idle session found: " + (store.find(idle.getId()) != null) + 
+				", idle session valid: " + idle.isValid());
+		
+		System.out.println("\nInvalidating a session");
+		Session invalidated = store.create();
+		store.invalidate(invalidated);
+		System.out.println("Found: " + (store.find(invalidated.getId()) != null) + 
+				", valid: " + invalidated.isValid());
+		
+		// The session is bound to the client with a cookie
+		Headers responseHeaders = new Headers();
+		store.writeCookie(used, responseHeaders, true);
+		String cookie = responseHeaders.getHeaderValue(Headers.SET_COOKIE);
+		System.out.println("\nCookie: " + cookie.replace(used.getId(), "<id>"));
+		Headers requestHeaders = new Headers();
+		requestHeaders.setHeader(Headers.COOKIE, cookie.substring(0, cookie.indexOf(';')));
+		System.out.println("Found by the cookie: " + (store.find(new Request(Method.GET, 
+				"root", null, requestHeaders)) == used));
+		
+		try
+		{
+			System.out.println("\nSnapshot and restore");
+			used.setAttribute("user", "alice");
+			used.setAttribute("theme", "dark \u263e");
+			java.nio.file.Path file = Files.createTempFile("nexus-sessions", ".bin");
+			store.snapshot(file);
+			
+			SessionStore restoredStore = new SessionStore(TIMEOUT_MILLIS);
+			System.out.println("Restored: " + restoredStore.restore(file) + " (expected 1)");
+			Session restored = restoredStore.find(used.getId());
+			System.out.println("Same session: " + (restored != null && 
+					restored.getCreatedMillis() == used.getCreatedMillis()) + ", user: " + 
+					restored.getAttribute("user") + ", theme kept: " + 
+					used.getAttribute("theme").equals(restored.getAttribute("theme")));
+			System.out.println("Restoring again: " + restoredStore.restore(file) + 
+					" (expected 0, already present)");
+			
+			// The sessions that expired while the server was down are not restored
+			sleep(TIMEOUT_MILLIS * 2);
+			System.out.println("Restored after the timeout: " + 
+					new SessionStore(TIMEOUT_MILLIS).restore(file) + " (expected 0)");
+			
+			java.nio.file.Path other = Files.createTempFile("nexus-not-sessions", ".bin");
+			Files.write(other, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+			try
+			{
+				restoredStore.restore(other);
+				System.out.println("Restored a file that wasn't a snapshot");
+			}
+			catch (IOException e)
+			{
+				System.out.println("Rejected: " + e.getMessage().replace(other.toString(), 
+						"<file>"));
+			}
+			
+			Files.delete(file);
+			Files.delete(other);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
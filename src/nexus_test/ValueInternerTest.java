@@ -0,0 +1,129 @@
+package nexus_test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import nexus_http.Headers;
+import nexus_http.Method;
+import nexus_http.Path;
+import nexus_http.Request;
+import nexus_http.Response;
+import nexus_rest.RestRequestHandler;
+import nexus_rest.SimpleResource;
+import nexus_rest.ValueInterner;
+import nexus_rest.XmlJsonWriterProvider;
+import utopia.flow.generics.Value;
+
+/**
+ * This class tests that the interned and typed property values are written exactly like 
+ * the original strings, and that the repeated values and names are shared
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class ValueInternerTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String[] VALUES = {"5", "-12", "0", "-0", "05", "1.5", "1.50", 
+			"0.1", "1.0", "1.", ".5", "1e5", "10000000.0", "9223372036854775807", 
+			"9223372036854775808", "true", "false", "TRUE", "", "-", "NaN", "active", 
+			"1234567890123456789012345"};
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private ValueInternerTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the value interner
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		// The values are converted twice, so that the second conversion uses the shared
+		// value
+		ValueInterner interner = new ValueInterner();
+		ValueInterner tiny = new ValueInterner(2, true);
+		int roundTrips = 0;
+		int shared = 0;
+		for (String text : VALUES)
+		{
+			Value first = interner.toValue(text);
+			Value second = interner.toValue(new String(text));
+			if (first == second)
+				shared ++;
+			if (first.toString().equals(text) && tiny.toValue(text).toString().equals(text))
+				roundTrips ++;
+			else
+				System.out.println("Written differently: '" + text + "' -> '" + first + "'");
+		}
+		System.out.println("Written like the original: " + roundTrips + " / " + 
+				VALUES.length);
+		System.out.println("Shared: " + shared + " / " + VALUES.length);
+		
+		// The long values are converted each time, since they're rarely repeated
+		StringBuilder longText = new StringBuilder();
+		while (longText.length() <= ValueInterner.MAX_INTERNED_LENGTH)
+		{
+			longText.append("long text ");
+		}
+		String longString = longText.toString();
+		Value longValue = interner.toValue(longString);
+		System.out.println("Long values shared: " + (interner.toValue(longString) == 
+				longValue) + ", written like the original: " + 
+				longValue.toString().equals(longString));
+		
+		String name = interner.intern("status");
+		System.out.println("Names shared: " + 
+				(interner.intern(new String("status")) == name));
+		
+		// A tree that uses an interner is written exactly like a tree that doesn't
+		try
+		{
+			String plain = writeTree(null);
+			String interned = writeTree(new ValueInterner());
+			String untyped = writeTree(new ValueInterner(16, false));
+			System.out.println("\nTrees written the same: " + (plain.equals(interned) && 
+					plain.equals(untyped)));
+			System.out.println(interned);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static String writeTree(ValueInterner interner) throws IOException
+	{
+		SimpleResource root = new SimpleResource(new Path("root", null, false), Method.GET, 
+				Method.POST);
+		root.setValueInterner(interner);
+		RestRequestHandler handler = new RestRequestHandler(new XmlJsonWriterProvider());
+		handler.addRootResource(root);
+		
+		for (int i = 0; i < VALUES.length; i++)
+		{
+			handle(handler, Method.POST, "root?name=item" + i + "&value=" + VALUES[i] + 
+					"&status=active");
+		}
+		Response response = handle(handler, Method.GET, "root/*");
+		return new String(response.getBody(false).toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	private static Response handle(RestRequestHandler handler, Method method, String uri) 
+			throws IOException
+	{
+		Headers headers = new Headers();
+		headers.setHeader(Headers.ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+		return handler.handle(new Request(method, uri, headers, null));
+	}
+}
@@ -0,0 +1,100 @@
+package nexus_test;
+
+import nexus_http.Headers;
+import nexus_http.HttpStatus;
+import nexus_http.Method;
+import nexus_http.Request;
+import nexus_http.RequestHandler;
+import nexus_http.Response;
+import nexus_http.VirtualHostRequestHandler;
+import nexus_http.VirtualHostRequestHandler.VirtualHost;
+
+/**
+ * This class tests that the virtual host handler dispatches the requests to the right 
+ * hosts, including the wildcard hosts and the default host
+ * @author Mikko Hilpinen
+ * @since 18.10.2026
+ */
+public class VirtualHostTest
+{
+	// ATTRIBUTES	---------------------
+	
+	private static final String HANDLER_HEADER = "X-Handler";
+	
+	
+	// CONSTRUCTOR	---------------------
+	
+	private VirtualHostTest()
+	{
+		// Static interface
+	}
+	
+	
+	// MAIN METHOD	----------------------
+	
+	/**
+	 * Tests the host dispatching
+	 * @param args not used
+	 */
+	public static void main(String[] args)
+	{
+		VirtualHostRequestHandler handler = new VirtualHostRequestHandler();
+		handler.addHost("api.example.com", createHandler("api"));
+		handler.addHost("*.example.com", createHandler("example wildcard"));
+		handler.addHost("*.eu.example.com", createHandler("eu wildcard"));
+		
+		System.out.println("Without a default host");
+		dispatch(handler, "api.example.com");
+		dispatch(handler, "API.Example.com:8080");
+		dispatch(handler, "api.example.com.");
+		dispatch(handler, "www.example.com");
+		dispatch(handler, "a.b.example.com");
+		dispatch(handler, "shop.eu.example.com");
+		dispatch(handler, "example.com");
+		dispatch(handler, "other.org");
+		dispatch(handler, null);
+		
+		System.out.println("\nWith a default host");
+		handler.addHost(VirtualHostRequestHandler.ANY_HOST, createHandler("default"));
+		dispatch(handler, "example.com");
+		dispatch(handler, "[::1]:8080");
+		dispatch(handler, null);
+		
+		System.out.println("\nAfter removing the example wildcard");
+		handler.removeHost("*.example.com");
+		dispatch(handler, "www.example.com");
+		dispatch(handler, "shop.eu.example.com");
+		
+		System.out.println("\nHosts:");
+		for (VirtualHost host : handler.getHosts())
+		{
+			System.out.println(host);
+		}
+	}
+	
+	
+	// OTHER METHODS	------------------
+	
+	private static RequestHandler createHandler(String name)
+	{
+		return request ->
+		{
+			Response response = new Response();
+			response.setStatus(HttpStatus.OK);
+			response.getHeaders().setHeader(HANDLER_HEADER, name);
+			return response;
+		};
+	}
+	
+	private static void dispatch(VirtualHostRequestHandler handler, String host)
+	{
+		Headers headers = new Headers();
+		if (host != null)
+			headers.setHeader(Headers.HOST, host);
+		Response response = handler.handle(new Request(Method.GET, "root", null, headers));
+		
+		String handledBy = response.getHeaders().getHeaderValue(HANDLER_HEADER);
+		System.out.println(host + " -> " + (handledBy == null ? response.getStatus() : 
+				handledBy));
+	}
+}